@@ -0,0 +1,84 @@
+package algo;
+
+import model.CompactGraph;
+import model.Graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tournée du postier chinois : circuit fermé, fait d'arcs du graphe, qui passe sur chaque arête
+ * au moins une fois, de longueur égale à la somme de ses tronçons.
+ */
+class ChinesePostmanTest {
+
+    @Test
+    void circuitCouvreToutesLesAretes() {
+        for (long seed = 1; seed <= 30; seed++) {
+            boolean directed = seed % 2 == 0;
+            CompactGraph g = GraphesAleatoires.relie(seed, 40, 40 + (int) seed * 4, directed).compact();
+            verifier(g, ChinesePostman.solve(g));
+        }
+    }
+
+    @Test
+    void grapheEulerienSansTronconRepris() {
+        CompactGraph g = GraphesAleatoires.relie(3, 25, 25, true).compact(); // un seul cycle orienté
+        ChinesePostman.Result r = ChinesePostman.solve(g);
+        verifier(g, r);
+        assertEquals(0, r.duplicatedEdges);
+        assertEquals(0.0, r.extraLength, 0.0);
+    }
+
+    @Test
+    void sensUniqueSansRetourRefuse() {
+        Graph g = new Graph(true);
+        g.addEdge("A", "B", 1);
+        g.addEdge("B", "C", 1);
+        assertThrows(IllegalArgumentException.class, () -> ChinesePostman.solve(g.compact()));
+    }
+
+    private static void verifier(CompactGraph g, ChinesePostman.Result r) {
+        int[] c = r.circuit;
+        assertTrue(c.length >= 2);
+        assertEquals(c[0], c[c.length - 1], "circuit non refermé");
+        // par paire d'extrémités : passages du circuit, arêtes du graphe, leur poids total et le plus léger
+        int n = g.vertexCount();
+        Map<Long, double[]> paires = new HashMap<>();
+        boolean[] seen = new boolean[g.edgeCount()];
+        for (int u = 0; u < n; u++) {
+            for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                if (seen[g.arcEdge(a)]) continue;
+                seen[g.arcEdge(a)] = true;
+                double[] p = paires.computeIfAbsent(cle(g, u, g.target(a)),
+                        k -> new double[]{0, 0, 0, Double.POSITIVE_INFINITY});
+                p[1]++;
+                p[2] += g.weight(a);
+                p[3] = Math.min(p[3], g.weight(a));
+            }
+        }
+        for (int i = 0; i + 1 < c.length; i++) {
+            double[] p = paires.get(cle(g, c[i], c[i + 1]));
+            assertTrue(p != null, "pas d'arête " + c[i] + " -> " + c[i + 1]);
+            p[0]++;
+        }
+        // chaque arête d'une paire parcourue une fois, les passages en trop par la plus légère
+        double length = 0.0;
+        for (Map.Entry<Long, double[]> e : paires.entrySet()) {
+            double[] p = e.getValue();
+            assertTrue(p[0] >= p[1], "arête(s) jamais parcourue(s) entre " + e.getKey() / n + " et " + e.getKey() % n);
+            length += p[2] + (p[0] - p[1]) * p[3];
+        }
+        assertEquals(length, r.length, 1e-6);
+    }
+
+    private static long cle(CompactGraph g, int u, int v) {
+        int n = g.vertexCount();
+        return g.isDirected() ? (long) u * n + v : (long) Math.min(u, v) * n + Math.max(u, v);
+    }
+}
@@ -0,0 +1,120 @@
+package algo;
+
+import model.CompactGraph;
+import model.Edge;
+import model.Graph;
+import model.Vertex;
+import org.junit.jupiter.api.Test;
+import service.CollectionPlanner;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Arbres réparés après des changements de poids et des fermetures de rues, comparés à un
+ * Dijkstra complet (ShortestPaths) sur le graphe modifié.
+ */
+class DynamicShortestPathsTest {
+
+    @Test
+    void arbresReparesCommeUnCalculComplet() {
+        for (long seed = 1; seed <= 20; seed++) {
+            verifier(GraphesAleatoires.relie(seed, 60, 240, seed % 2 == 0), seed);
+        }
+    }
+
+    private static void verifier(Graph g, long seed) {
+        Random r = new Random(seed);
+        CompactGraph cg = g.compact();
+        DynamicShortestPaths dyn = new DynamicShortestPaths(cg);
+        int[] sources = {0, 7, 31};
+        for (int s : sources) {
+            dyn.tree(s);
+        }
+        for (int step = 0; step < 150; step++) {
+            int e = r.nextInt(cg.edgeCount());
+            int tirage = r.nextInt(10);
+            double w = tirage < 2 ? Double.POSITIVE_INFINITY : tirage < 5 ? r.nextInt(3) : 1 + r.nextInt(30);
+            if (w == Double.POSITIVE_INFINITY) {
+                dyn.close(e);
+            } else {
+                dyn.setWeight(e, w);
+            }
+            cg = cg.withEdgeWeight(e, w);
+            for (int s : sources) {
+                ShortestPathTree attendu = ShortestPaths.tree(cg, s);
+                ShortestPathTree obtenu = dyn.snapshot(s);
+                for (int v = 0; v < cg.vertexCount(); v++) {
+                    assertEquals(attendu.dist(v), obtenu.dist(v), 1e-9,
+                            "graine " + seed + ", étape " + step + ", source " + s + ", sommet " + v);
+                    assertEquals(attendu.dist(v), longueur(cg, obtenu.pathTo(v)), 1e-9, "chemin vers " + v);
+                }
+            }
+        }
+    }
+
+    /** Longueur d'un chemin par ses arcs les plus légers, infini s'il est vide. */
+    private static double longueur(CompactGraph g, int[] path) {
+        if (path.length == 0) return Double.POSITIVE_INFINITY;
+        double total = 0.0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int a = g.firstArc(path[i]), end = g.endArc(path[i]); a < end; a++) {
+                if (g.target(a) == path[i + 1]) best = Math.min(best, g.weight(a));
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    @Test
+    void rueFermeeIgnoreeParLesParcours() {
+        Graph g = new Graph(false);
+        int cote = 6;
+        for (int i = 0; i < cote; i++) {
+            for (int j = 0; j < cote; j++) {
+                if (j + 1 < cote) g.addEdge(i + "_" + j, i + "_" + (j + 1), 1 + (i * 7 + j) % 5);
+                if (i + 1 < cote) g.addEdge(i + "_" + j, (i + 1) + "_" + j, 1 + (i * 3 + j) % 4);
+            }
+        }
+        Vertex a = g.getVertex("2_2");
+        Vertex b = g.getVertex("2_3");
+        assertEquals(4, g.getDegree(a));
+        CollectionPlanner.fermerRue(g, a, b);
+        assertEquals(3, g.getDegree(a));
+
+        CompactGraph cg = g.compact();
+        int ia = cg.indexOf(a);
+        int ib = cg.indexOf(b);
+        ChinesePostman.Result r = CollectionPlanner.tourneeToutesRues(g);
+        assertTrue(Double.isFinite(r.length));
+        for (int i = 0; i + 1 < r.circuit.length; i++) {
+            int u = r.circuit[i];
+            int v = r.circuit[i + 1];
+            assertFalse(u == ia && v == ib || u == ib && v == ia, "la tournée emprunte la rue fermée");
+        }
+        for (int arc : GraphAlgorithms.primMST(cg)) {
+            assertFalse(cg.isClosed(arc), "rue fermée dans l'arbre couvrant");
+        }
+        assertEquals(MinimumSpanningForest.kruskal(cg).weight, MinimumSpanningForest.boruvka(cg).weight, 1e-9);
+        assertEquals(cote * cote - 1, MinimumSpanningForest.kruskal(cg).arcs.length);
+
+        // sommet isolé par des fermetures : plus atteint par les parcours
+        Vertex coin = g.getVertex("0_0");
+        CollectionPlanner.fermerRue(g, coin, g.getVertex("0_1"));
+        CollectionPlanner.fermerRue(g, coin, g.getVertex("1_0"));
+        cg = g.compact();
+        int loin = cg.indexOf(g.getVertex("5_5"));
+        assertEquals(-1, GraphAlgorithms.bfsDistances(cg, loin)[cg.indexOf(coin)]);
+        assertEquals(-1, BreadthFirstSearch.levels(cg, loin)[cg.indexOf(coin)]);
+        assertTrue(Double.isFinite(CollectionPlanner.tourneeToutesRues(g).length));
+
+        // réouverture
+        Edge rue = g.getEdge("0_0", "0_1");
+        g.updateEdgeWeight(rue, 2.0);
+        assertEquals(1, g.getDegree(coin));
+    }
+}
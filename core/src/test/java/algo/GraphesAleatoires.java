@@ -0,0 +1,28 @@
+package algo;
+
+import model.Graph;
+
+import java.util.Random;
+
+/** Graphes de test. */
+final class GraphesAleatoires {
+
+    private GraphesAleatoires() {
+    }
+
+    /** Graphe aléatoire relié par une chaîne (un cycle s'il est orienté), poids de 1 à 20. */
+    static Graph relie(long seed, int n, int m, boolean directed) {
+        Random r = new Random(seed);
+        Graph g = new Graph(directed);
+        for (int i = 0; i < n; i++) {
+            g.addVertex("v" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            if (directed || i + 1 < n) g.addEdge("v" + i, "v" + (i + 1) % n, 1 + r.nextInt(20));
+        }
+        for (int i = n; i < m; i++) {
+            g.addEdge("v" + r.nextInt(n), "v" + r.nextInt(n), 1 + r.nextInt(20));
+        }
+        return g;
+    }
+}
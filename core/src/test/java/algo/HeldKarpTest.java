@@ -0,0 +1,85 @@
+package algo;
+
+import model.CompactGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Held-Karp comparé à l'énumération de toutes les tournées, jusqu'à 8 arrêts. */
+class HeldKarpTest {
+
+    @Test
+    void memeLongueurQueLaForceBrute() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long seed = 1; seed <= 40; seed++) {
+                Random r = new Random(seed);
+                boolean directed = seed % 2 == 1; // sens uniques : distances asymétriques
+                CompactGraph g = GraphesAleatoires.relie(seed, 50, 150, directed).compact();
+                int k = 2 + (int) (seed % 8); // départ + 1 à 8 arrêts
+                int[] points = r.ints(0, g.vertexCount()).distinct().limit(k).toArray();
+                DistanceMatrix m = DistanceMatrix.compute(g, points);
+                int start = r.nextInt(k);
+
+                int[] tour = HeldKarp.solve(m, start, seed % 4 == 0 ? pool : ForkJoinPool.commonPool());
+                assertEquals(start, tour[0]);
+                assertEquals(start, tour[tour.length - 1]);
+                assertEquals(k + 1, tour.length, "chaque arrêt une fois");
+                boolean[] vu = new boolean[k];
+                for (int i = 0; i + 1 < tour.length; i++) {
+                    assertTrue(!vu[tour[i]], "arrêt " + tour[i] + " visité deux fois");
+                    vu[tour[i]] = true;
+                }
+                assertEquals(forceBrute(m, start), m.tourLength(tour), 1e-9, "graine " + seed + ", " + (k - 1) + " arrêts");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void sansArret() {
+        CompactGraph g = GraphesAleatoires.relie(1, 10, 20, false).compact();
+        assertArrayEquals(new int[]{0}, HeldKarp.solve(DistanceMatrix.compute(g, new int[]{4}), 0));
+    }
+
+    /** Plus courte tournée par énumération des permutations des arrêts. */
+    private static double forceBrute(DistanceMatrix m, int start) {
+        int k = m.size();
+        int[] stops = new int[k - 1];
+        for (int i = 0, j = 0; i < k; i++) {
+            if (i != start) stops[j++] = i;
+        }
+        return permutations(m, start, stops, 0);
+    }
+
+    private static double permutations(DistanceMatrix m, int start, int[] stops, int from) {
+        if (from == stops.length) {
+            double total = 0.0;
+            int prev = start;
+            for (int s : stops) {
+                total += m.get(prev, s);
+                prev = s;
+            }
+            return total + m.get(prev, start);
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = from; i < stops.length; i++) {
+            swap(stops, from, i);
+            best = Math.min(best, permutations(m, start, stops, from + 1));
+            swap(stops, from, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
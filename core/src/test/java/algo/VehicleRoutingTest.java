@@ -0,0 +1,68 @@
+package algo;
+
+import model.CompactGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tournées multi-camions : capacité respectée, chaque point servi exactement une fois,
+ * charges et longueur cohérentes avec les tournées rendues.
+ */
+class VehicleRoutingTest {
+
+    @Test
+    void capaciteEtServiceUnique() {
+        for (long seed = 1; seed <= 12; seed++) {
+            boolean directed = seed % 3 == 0;
+            CompactGraph g = GraphesAleatoires.relie(seed, 300, 1200, directed).compact();
+            Random r = new Random(seed);
+            int k = 20 + r.nextInt(40);
+            int[] points = r.ints(0, g.vertexCount()).distinct().limit(k).toArray();
+            DistanceMatrix m = DistanceMatrix.compute(g, points);
+            double[] demand = new double[k];
+            for (int i = 0; i < k; i++) {
+                demand[i] = 1 + r.nextInt(10);
+            }
+            double capacity = 10 + r.nextInt(30);
+            int depot = r.nextInt(k);
+            verifier(m, depot, demand, capacity, VehicleRouting.solve(m, depot, demand, capacity, seed % 2 == 0 ? 0 : 50));
+        }
+    }
+
+    @Test
+    void quantiteSuperieureALaCapaciteRefusee() {
+        CompactGraph g = GraphesAleatoires.relie(1, 20, 60, false).compact();
+        DistanceMatrix m = DistanceMatrix.compute(g, new int[]{0, 1, 2});
+        assertThrows(IllegalArgumentException.class,
+                () -> VehicleRouting.solve(m, 0, new double[]{0, 5, 12}, 10, 0));
+    }
+
+    private static void verifier(DistanceMatrix m, int depot, double[] demand, double capacity, VehicleRouting.Result res) {
+        int[] served = new int[m.size()];
+        double length = 0.0;
+        for (int t = 0; t < res.routes.length; t++) {
+            int[] route = res.routes[t];
+            assertTrue(route.length >= 3, "tournée vide");
+            assertEquals(depot, route[0], "départ du dépôt");
+            assertEquals(depot, route[route.length - 1], "retour au dépôt");
+            double load = 0.0;
+            for (int i = 1; i + 1 < route.length; i++) {
+                assertTrue(route[i] != depot, "dépôt au milieu d'une tournée");
+                served[route[i]]++;
+                load += demand[route[i]];
+            }
+            assertTrue(load <= capacity + 1e-9, "capacité dépassée : " + load + " > " + capacity);
+            assertEquals(load, res.loads[t], 1e-9);
+            length += m.tourLength(route);
+        }
+        for (int i = 0; i < m.size(); i++) {
+            assertEquals(i == depot ? 0 : 1, served[i], "point " + i + " servi " + served[i] + " fois");
+        }
+        assertEquals(length, res.length, 1e-6);
+    }
+}
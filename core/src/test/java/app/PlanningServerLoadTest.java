@@ -0,0 +1,184 @@
+package app;
+
+import io.GraphLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Charge le service HTTP démarré dans le même processus : à mi-parcours, un vrai POST /recharger
+ * relit le territoire pendant que les clients continuent. Aucune requête ne doit échouer ;
+ * latences p50 / p99 et débit sont affichés.
+ * Mélange de requêtes : 70 % encombrants, 25 % tournées de 5 points, 5 % /sante.
+ */
+class PlanningServerLoadTest {
+    private static final int COTE = 30;
+    private static final int REQUETES = 2000;
+    private static final int CLIENTS = 16;
+
+    @TempDir
+    Path repertoire;
+
+    @Test
+    void rechargementSansErreur() throws Exception {
+        Path fichier = repertoire.resolve("grille");
+        ecrireGrille(fichier, COTE, 42);
+        PlanningServer server = PlanningServer.start(GraphLoader.loadFromFile(fichier.toString()),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), fichier);
+        try {
+            String base = "http://127.0.0.1:" + server.port();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            Random warm = new Random(1);
+            for (int i = 0; i < 100; i++) {
+                envoyer(client, base + requete(warm));
+            }
+
+            long[] latences = new long[REQUETES];
+            AtomicInteger suivante = new AtomicInteger();
+            AtomicInteger erreurs = new AtomicInteger();
+            AtomicInteger rechargement = new AtomicInteger(-1);
+            ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+            long t0 = System.nanoTime();
+            List<Future<?>> fins = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                long seed = c;
+                fins.add(pool.submit(() -> {
+                    Random r = new Random(seed);
+                    int i;
+                    while ((i = suivante.getAndIncrement()) < REQUETES) {
+                        if (i == REQUETES / 2) {
+                            HttpRequest post = HttpRequest.newBuilder(URI.create(base + "/recharger"))
+                                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+                            rechargement.set(client.send(post, HttpResponse.BodyHandlers.ofString()).statusCode());
+                        }
+                        long debut = System.nanoTime();
+                        int code = envoyer(client, base + requete(r));
+                        latences[i] = System.nanoTime() - debut;
+                        if (code != 200) erreurs.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : fins) {
+                f.get();
+            }
+            long duree = System.nanoTime() - t0;
+            pool.shutdown();
+
+            Arrays.sort(latences);
+            System.out.printf("%d requêtes, %d clients, %d erreurs, %.0f requêtes/s%n",
+                    REQUETES, CLIENTS, erreurs.get(), REQUETES / (duree / 1e9));
+            System.out.printf("latence p50 : %.2f ms, p99 : %.2f ms, max : %.2f ms%n",
+                    centile(latences, 0.50) / 1e6, centile(latences, 0.99) / 1e6, latences[REQUETES - 1] / 1e6);
+            assertEquals(200, rechargement.get(), "POST /recharger");
+            assertEquals(0, erreurs.get(), "requêtes en erreur");
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void rechargementHorsDuRepertoireRefuse() throws Exception {
+        Path fichier = repertoire.resolve("grille");
+        ecrireGrille(fichier, 3, 1);
+        PlanningServer server = PlanningServer.start(GraphLoader.loadFromFile(fichier.toString()),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), fichier);
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest post = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port()
+                    + "/recharger?fichier=..%2F..%2Fetc%2Fpasswd")).POST(HttpRequest.BodyPublishers.noBody()).build();
+            assertEquals(403, client.send(post, HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertTrue(server.adresse().getAddress().isLoopbackAddress());
+        } finally {
+            server.stop();
+        }
+    }
+
+    /** Quadrillage orienté cote x cote au format texte : une rue sur trois à sens unique. */
+    private static void ecrireGrille(Path fichier, int cote, long seed) throws IOException {
+        Random r = new Random(seed);
+        List<String> aretes = new ArrayList<>();
+        for (int i = 0; i < cote; i++) {
+            for (int j = 0; j < cote; j++) {
+                if (j + 1 < cote) rue(aretes, r, i + "_" + j, i + "_" + (j + 1), i % 3 == 0);
+                if (i + 1 < cote) rue(aretes, r, i + "_" + j, (i + 1) + "_" + j, j % 3 == 0);
+            }
+        }
+        try (Writer w = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            w.write("DIRECTED\n" + cote * cote + " " + aretes.size() + "\n");
+            for (int i = 0; i < cote; i++) {
+                for (int j = 0; j < cote; j++) {
+                    w.write(i + "_" + j + " " + i + "_" + j + " " + i + " " + j + "\n");
+                }
+            }
+            for (String a : aretes) {
+                w.write(a);
+                w.write('\n');
+            }
+        }
+    }
+
+    private static void rue(List<String> aretes, Random r, String a, String b, boolean sensUnique) {
+        int w = 1 + r.nextInt(9);
+        aretes.add(a + " " + b + " " + w);
+        if (!sensUnique) aretes.add(b + " " + a + " " + w);
+    }
+
+    private static String requete(Random r) {
+        int tirage = r.nextInt(100);
+        if (tirage < 70) {
+            return "/encombrants?centre=" + id(r) + "&foyer=" + id(r);
+        }
+        if (tirage < 95) {
+            StringBuilder sb = new StringBuilder("/tournee?depot=").append(id(r)).append("&points=");
+            for (int i = 0; i < 5; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(id(r));
+            }
+            return sb.toString();
+        }
+        return "/sante";
+    }
+
+    private static String id(Random r) {
+        return r.nextInt(COTE) + "_" + r.nextInt(COTE);
+    }
+
+    private static int envoyer(HttpClient client, String url) {
+        try {
+            HttpRequest req = HttpRequest.newBuilder(URI.create(url)).GET().build();
+            return client.send(req, HttpResponse.BodyHandlers.ofString()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static long centile(long[] trie, double p) {
+        return trie[Math.min(trie.length - 1, (int) Math.ceil(p * trie.length) - 1)];
+    }
+}
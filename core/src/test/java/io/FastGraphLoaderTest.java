@@ -0,0 +1,127 @@
+package io;
+
+import model.Edge;
+import model.Graph;
+import model.Vertex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Le chargeur rapide rend le même réseau que le lecteur d'origine (ligne par ligne, String.split),
+ * sur chaque territoire fourni dans src/ et sur un gros fichier généré (lecture parallèle).
+ */
+class FastGraphLoaderTest {
+    private static final Path TERRITOIRES = Path.of("..", "src"); // répertoire du module core
+
+    @TempDir
+    Path repertoire;
+
+    @Test
+    void memeReseauSurLesTerritoiresFournis() throws IOException {
+        List<Path> fichiers;
+        try (Stream<Path> s = Files.list(TERRITOIRES)) {
+            fichiers = s.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        assertFalse(fichiers.isEmpty(), "aucun territoire dans " + TERRITOIRES.toAbsolutePath());
+        for (Path f : fichiers) {
+            comparer(f);
+        }
+    }
+
+    @Test
+    void memeReseauSurUnGrosFichier() throws IOException {
+        Path f = repertoire.resolve("gros");
+        Random r = new Random(7);
+        int n = 20_000;
+        int m = 80_000;
+        try (Writer w = Files.newBufferedWriter(f, StandardCharsets.UTF_8)) {
+            w.write("# généré\nDIRECTED\n" + n + " " + m + "\n");
+            for (int v = 0; v < n; v++) {
+                w.write("v" + v + " Carrefour_" + v + (v % 2 == 0 ? " " + r.nextInt(1000) + " " + r.nextInt(1000) : "") + "\n");
+            }
+            for (int i = 0; i < m; i++) {
+                if (i % 1000 == 0) w.write("\n# bloc " + i + "\n");
+                w.write("v" + r.nextInt(n) + "\t v" + r.nextInt(n) + "  " + (r.nextInt(100000) / 100.0) + "\n");
+            }
+        }
+        assertTrue(Files.size(f) > (1 << 20), "fichier trop petit pour la lecture parallèle");
+        comparer(f);
+    }
+
+    private static void comparer(Path f) throws IOException {
+        Graph attendu = lectureDOrigine(f);
+        Graph obtenu = FastGraphLoader.load(f.toString());
+        String nom = f.getFileName().toString();
+        assertEquals(attendu.isDirected(), obtenu.isDirected(), nom);
+        assertEquals(attendu.getVertices().size(), obtenu.getVertices().size(), nom + " : sommets");
+        Iterator<Vertex> it = obtenu.getVertices().iterator();
+        for (Vertex a : attendu.getVertices()) {
+            Vertex o = it.next();
+            assertEquals(a.getId(), o.getId(), nom + " : ordre des sommets");
+            // le lecteur d'origine gardait les coordonnées dans le libellé
+            assertTrue(a.getLabel().equals(o.getLabel()) || a.getLabel().startsWith(o.getLabel() + " "),
+                    nom + " : libellé de " + a.getId());
+        }
+        List<Edge> ea = attendu.getEdges();
+        List<Edge> eo = obtenu.getEdges();
+        assertEquals(ea.size(), eo.size(), nom + " : arêtes");
+        for (int i = 0; i < ea.size(); i++) {
+            assertEquals(ea.get(i).getFrom().getId(), eo.get(i).getFrom().getId(), nom + " : arête " + i);
+            assertEquals(ea.get(i).getTo().getId(), eo.get(i).getTo().getId(), nom + " : arête " + i);
+            assertEquals(ea.get(i).getWeight(), eo.get(i).getWeight(), 0.0, nom + " : poids de l'arête " + i);
+        }
+        assertEquals(FastGraphLoader.loadCompact(f.toString(), true).arcCount(),
+                FastGraphLoader.loadCompact(f.toString(), false).arcCount(), nom + " : lecture parallèle");
+    }
+
+    /** Lecteur du format texte tel qu'il était avant le chargeur rapide (sections ignorées). */
+    private static Graph lectureDOrigine(Path path) throws IOException {
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            Graph g = new Graph(ligneUtile(br).equalsIgnoreCase("DIRECTED"));
+            String[] parts = ligneUtile(br).split("\\s+");
+            int n = Integer.parseInt(parts[0]);
+            int m = Integer.parseInt(parts[1]);
+            for (int i = 0; i < n; i++) {
+                String[] p = ligneUtile(br).split("\\s+", 2);
+                g.addVertex(p[0], p.length > 1 ? p[1] : p[0]);
+            }
+            List<String[]> aretes = new ArrayList<>();
+            for (int i = 0; i < m; i++) {
+                String[] p = ligneUtile(br).split("\\s+");
+                if (p.length < 3) throw new IOException("Ligne arête invalide : " + String.join(" ", p));
+                aretes.add(p);
+            }
+            for (String[] p : aretes) {
+                g.addEdge(p[0], p[1], Double.parseDouble(p[2]));
+            }
+            return g;
+        }
+    }
+
+    private static String ligneUtile(BufferedReader br) throws IOException {
+        String line;
+        do {
+            line = br.readLine();
+            if (line == null) throw new IOException("Fichier invalide");
+            line = line.trim();
+        } while (line.isEmpty() || line.startsWith("#"));
+        return line;
+    }
+}
@@ -0,0 +1,323 @@
+package bench;
+
+import model.CompactGraph;
+import model.Graph;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Territoires synthétiques pour les mesures de performance (de 1 000 à 1 000 000 sommets),
+ * tous non orientés, avec coordonnées, et reproductibles (même graine, même territoire) :
+ * - {@link #grid} : quadrillage refermé sur lui-même (tore), tous les carrefours de degré 4,
+ *   donc eulérien
+ * - {@link #geometric} : points tirés au hasard, chacun relié à ses k plus proches voisins
+ *   (rues de longueur euclidienne), composantes raccordées entre elles
+ * - {@link #sectors} : secteurs sur un quadrillage déformé, voisins à droite, en bas et sur
+ *   une diagonale (adjacence proche d'un découpage réel, degré moyen 6), avec une quantité
+ *   à collecter par secteur
+ *
+ * Les territoires sont construits directement en tableaux (forme compacte), sans passer par
+ * Graph.addEdge ; {@link City#write} produit le format texte de {@link io.GraphLoader}.
+ */
+public final class CityGenerator {
+
+    private CityGenerator() {
+    }
+
+    /** Territoire généré, sous forme de tableaux indexés. */
+    public static final class City {
+        public final String[] ids;
+        public final double[] xs;
+        public final double[] ys;
+        public final int[] from;
+        public final int[] to;
+        public final double[] w;
+        public final int m;
+        public final double[] quantity; // null si le territoire n'a pas de quantités
+
+        City(String[] ids, double[] xs, double[] ys, int[] from, int[] to, double[] w, int m, double[] quantity) {
+            this.ids = ids;
+            this.xs = xs;
+            this.ys = ys;
+            this.from = from;
+            this.to = to;
+            this.w = w;
+            this.m = m;
+            this.quantity = quantity;
+        }
+
+        public int vertexCount() {
+            return ids.length;
+        }
+
+        public CompactGraph compact() {
+            return CompactGraph.of(false, ids, ids, xs, ys, from, to, w, m);
+        }
+
+        /** Graphe objet (la forme compacte déjà construite est gardée). */
+        public Graph graph() {
+            Graph g = Graph.from(compact());
+            if (quantity != null) {
+                for (int v = 0; v < ids.length; v++) {
+                    g.getVertex(ids[v]).setQuantity(quantity[v]);
+                }
+            }
+            return g;
+        }
+
+        /** Écrit le territoire au format texte (section QUANTITES si besoin). */
+        public void write(Path path) throws IOException {
+            try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                out.write("UNDIRECTED\n");
+                out.write(ids.length + " " + m + "\n");
+                StringBuilder sb = new StringBuilder(64);
+                for (int v = 0; v < ids.length; v++) {
+                    sb.setLength(0);
+                    sb.append(ids[v]).append(' ').append(ids[v]).append(' ').append(xs[v]).append(' ').append(ys[v]).append('\n');
+                    out.append(sb);
+                }
+                for (int i = 0; i < m; i++) {
+                    sb.setLength(0);
+                    sb.append(ids[from[i]]).append(' ').append(ids[to[i]]).append(' ').append(w[i]).append('\n');
+                    out.append(sb);
+                }
+                if (quantity != null) {
+                    out.write("QUANTITES\n");
+                    for (int v = 0; v < ids.length; v++) {
+                        sb.setLength(0);
+                        sb.append(ids[v]).append(' ').append(quantity[v]).append('\n');
+                        out.append(sb);
+                    }
+                }
+            }
+        }
+    }
+
+    /* ====================== QUADRILLAGE ====================== */
+
+    /** Tore de cote x cote carrefours (cote = arrondi supérieur de √n), rues de 1 à 9. */
+    public static City grid(int n, long seed) {
+        int side = Math.max(3, (int) Math.ceil(Math.sqrt(n)));
+        int count = side * side;
+        Random r = new Random(seed);
+        String[] ids = new String[count];
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        int m = 2 * count;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] w = new double[m];
+        int e = 0;
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                int v = i * side + j;
+                ids[v] = i + "_" + j;
+                xs[v] = i;
+                ys[v] = j;
+                from[e] = v;
+                to[e] = i * side + (j + 1) % side;
+                w[e++] = 1 + r.nextInt(9);
+                from[e] = v;
+                to[e] = ((i + 1) % side) * side + j;
+                w[e++] = 1 + r.nextInt(9);
+            }
+        }
+        return new City(ids, xs, ys, from, to, w, m, null);
+    }
+
+    /* ====================== GRAPHE GEOMETRIQUE ====================== */
+
+    /**
+     * n points dans un carré de côté √n (densité 1), chacun relié à ses k plus proches voisins
+     * cherchés dans les cases voisines d'une grille de cases de côté 1.
+     */
+    public static City geometric(int n, int k, long seed) {
+        Random r = new Random(seed);
+        double side = Math.sqrt(n);
+        int cells = Math.max(1, (int) side);
+        String[] ids = new String[n];
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int v = 0; v < n; v++) {
+            ids[v] = "p" + v;
+            xs[v] = r.nextDouble() * side;
+            ys[v] = r.nextDouble() * side;
+        }
+        // points rangés par case (tri par dénombrement)
+        int[] start = new int[cells * cells + 1];
+        int[] cellOf = new int[n];
+        for (int v = 0; v < n; v++) {
+            cellOf[v] = cell(xs[v], side, cells) * cells + cell(ys[v], side, cells);
+            start[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) start[c + 1] += start[c];
+        int[] pos = Arrays.copyOf(start, cells * cells);
+        int[] byCell = new int[n];
+        for (int v = 0; v < n; v++) byCell[pos[cellOf[v]]++] = v;
+
+        long[] pairs = new long[n * k + n];
+        int count = 0;
+        int[] best = new int[k];
+        double[] bestD = new double[k];
+        for (int v = 0; v < n; v++) {
+            int found = 0;
+            int cx = cellOf[v] / cells;
+            int cy = cellOf[v] % cells;
+            for (int ring = 1; found < k && ring <= cells; ring++) {
+                found = 0;
+                for (int x = Math.max(0, cx - ring); x <= Math.min(cells - 1, cx + ring); x++) {
+                    for (int y = Math.max(0, cy - ring); y <= Math.min(cells - 1, cy + ring); y++) {
+                        for (int i = start[x * cells + y], end = start[x * cells + y + 1]; i < end; i++) {
+                            int u = byCell[i];
+                            if (u == v) continue;
+                            double d = dist(xs, ys, u, v);
+                            if (found < k) {
+                                insert(best, bestD, found++, u, d);
+                            } else if (d < bestD[k - 1]) {
+                                insert(best, bestD, k - 1, u, d);
+                            }
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < found; i++) {
+                pairs[count++] = (long) Math.min(v, best[i]) * n + Math.max(v, best[i]);
+            }
+        }
+
+        // une arête par paire, puis raccordement des composantes (une par une, à la précédente)
+        Arrays.sort(pairs, 0, count);
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) parent[v] = v;
+        int[] from = new int[count + n];
+        int[] to = new int[count + n];
+        double[] w = new double[count + n];
+        int m = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) continue;
+            int u = (int) (pairs[i] / n);
+            int v = (int) (pairs[i] % n);
+            m = street(from, to, w, m, xs, ys, u, v, r);
+            parent[find(parent, u)] = find(parent, v);
+        }
+        int previous = -1;
+        for (int v = 0; v < n; v++) {
+            if (find(parent, v) != v) continue;
+            if (previous >= 0) {
+                m = street(from, to, w, m, xs, ys, previous, v, r);
+            }
+            previous = v;
+        }
+        return new City(ids, xs, ys, from, to, w, m, null);
+    }
+
+    private static int cell(double x, double side, int cells) {
+        return Math.min(cells - 1, (int) (x * cells / side));
+    }
+
+    private static double dist(double[] xs, double[] ys, int u, int v) {
+        double dx = xs[u] - xs[v];
+        double dy = ys[u] - ys[v];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /** Insère (u, d) à sa place dans les count + 1 premières cases triées par distance. */
+    private static void insert(int[] best, double[] bestD, int count, int u, double d) {
+        int i = count;
+        while (i > 0 && bestD[i - 1] > d) {
+            best[i] = best[i - 1];
+            bestD[i] = bestD[i - 1];
+            i--;
+        }
+        best[i] = u;
+        bestD[i] = d;
+    }
+
+    /** Rue u - v de longueur euclidienne, allongée de 0 à 30 % (détours). */
+    private static int street(int[] from, int[] to, double[] w, int m, double[] xs, double[] ys, int u, int v, Random r) {
+        from[m] = u;
+        to[m] = v;
+        w[m] = Math.max(1e-3, dist(xs, ys, u, v) * (1.0 + 0.3 * r.nextDouble()));
+        return m + 1;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /* ====================== SECTEURS ====================== */
+
+    /**
+     * Secteurs (cote = arrondi supérieur de √n) sur un quadrillage déformé : chaque secteur est
+     * voisin de celui de droite, de celui du bas et d'un des deux en diagonale ; quantités de 5 à 25.
+     */
+    public static City sectors(int n, long seed) {
+        int side = Math.max(2, (int) Math.ceil(Math.sqrt(n)));
+        int count = side * side;
+        Random r = new Random(seed);
+        String[] ids = new String[count];
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        double[] quantity = new double[count];
+        int[] from = new int[3 * count];
+        int[] to = new int[3 * count];
+        double[] w = new double[3 * count];
+        for (int v = 0; v < count; v++) {
+            ids[v] = "S" + v;
+            xs[v] = v / side + 0.4 * (r.nextDouble() - 0.5);
+            ys[v] = v % side + 0.4 * (r.nextDouble() - 0.5);
+            quantity[v] = 5 + r.nextInt(21);
+        }
+        int m = 0;
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                int v = i * side + j;
+                if (j + 1 < side) m = street(from, to, w, m, xs, ys, v, v + 1, r);
+                if (i + 1 < side) m = street(from, to, w, m, xs, ys, v, v + side, r);
+                if (i + 1 < side && j + 1 < side) {
+                    if (r.nextBoolean()) {
+                        m = street(from, to, w, m, xs, ys, v, v + side + 1, r);
+                    } else {
+                        m = street(from, to, w, m, xs, ys, v + 1, v + side, r);
+                    }
+                }
+            }
+        }
+        return new City(ids, xs, ys, from, to, w, m, quantity);
+    }
+
+    /** Territoire par nom : "grille", "geometrique" (4 plus proches voisins) ou "secteurs". */
+    public static City of(String kind, int n, long seed) {
+        switch (kind) {
+            case "grille":
+                return grid(n, seed);
+            case "geometrique":
+                return geometric(n, 4, seed);
+            case "secteurs":
+                return sectors(n, seed);
+            default:
+                throw new IllegalArgumentException("Type de territoire inconnu : " + kind);
+        }
+    }
+
+    /** Usage : java bench.CityGenerator grille|geometrique|secteurs nbSommets graine fichier */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage : java bench.CityGenerator grille|geometrique|secteurs nbSommets graine fichier");
+            System.exit(2);
+        }
+        City c = of(args[0], Integer.parseInt(args[1]), Long.parseLong(args[2]));
+        c.write(Path.of(args[3]));
+        System.out.println(c.vertexCount() + " sommets, " + c.m + " arêtes -> " + args[3]);
+    }
+}
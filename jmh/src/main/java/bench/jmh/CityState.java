@@ -0,0 +1,58 @@
+package bench.jmh;
+
+import bench.CityGenerator;
+import model.Graph;
+import model.Vertex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Territoire synthétique partagé par les mesures d'un même couple (type, taille).
+ * Graine fixe : d'une exécution à l'autre, mêmes territoires, mêmes sources, mêmes points.
+ */
+@State(Scope.Benchmark)
+public class CityState {
+    static final long SEED = 42L;
+
+    @Param({"grille", "geometrique", "secteurs"})
+    public String kind;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    public Graph graph;
+    public Vertex depot;
+    public List<Vertex> tourPoints;      // 100 points pour le plus proche voisin
+    private Vertex[] sources;            // sources des plus courts chemins, utilisées à tour de rôle
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = CityGenerator.of(kind, size, SEED).graph();
+        graph.compact();
+        List<Vertex> vertices = new ArrayList<>(graph.getVertices());
+        Random r = new Random(SEED);
+        sources = new Vertex[64];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = vertices.get(r.nextInt(vertices.size()));
+        }
+        depot = vertices.get(r.nextInt(vertices.size()));
+        tourPoints = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tourPoints.add(vertices.get(r.nextInt(vertices.size())));
+        }
+    }
+
+    public Vertex nextSource() {
+        Vertex v = sources[next];
+        next = (next + 1) % sources.length;
+        return v;
+    }
+}
@@ -0,0 +1,109 @@
+package bench.jmh;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compare deux fichiers CSV de résultats ({@link Suite}) : pour chaque mesure présente dans
+ * les deux (même benchmark, mode et paramètres), écart relatif du score. Mesures comparées :
+ * scores principaux, centiles p0.50 / p0.99 et octets alloués par opération (gc.alloc.rate.norm).
+ * Un débit (ops/...) qui baisse ou un temps / une allocation qui monte au-delà du seuil
+ * est une régression.
+ *
+ * Usage : java -cp jmh/target/benchmarks.jar bench.jmh.Comparaison reference.csv nouveau.csv [seuil%]
+ * Code de sortie 1 s'il y a au moins une régression (seuil de 10 % par défaut).
+ */
+public final class Comparaison {
+
+    private Comparaison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : java -cp benchmarks.jar bench.jmh.Comparaison reference.csv nouveau.csv [seuil%]");
+            System.exit(2);
+        }
+        Map<String, double[]> reference = read(Path.of(args[0]));
+        Map<String, double[]> current = read(Path.of(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100.0 : 0.10;
+
+        int regressions = 0;
+        for (Map.Entry<String, double[]> e : current.entrySet()) {
+            double[] ref = reference.get(e.getKey());
+            if (ref == null) continue;
+            double before = ref[0];
+            double after = e.getValue()[0];
+            boolean higherIsBetter = e.getValue()[1] > 0;
+            double change = before == 0.0 ? 0.0 : (after - before) / before;
+            boolean regression = higherIsBetter ? change < -threshold : change > threshold;
+            if (regression) regressions++;
+            System.out.printf("%s %-90s %14.3f -> %14.3f  %+7.1f %%%n",
+                    regression ? "REGRESSION" : "          ", e.getKey(), before, after, change * 100);
+        }
+        System.out.println(regressions + " régression(s) au-delà de " + Math.round(threshold * 100) + " %");
+        if (regressions > 0) System.exit(1);
+    }
+
+    /** Clé -> {score, 1 si un score plus grand est meilleur sinon -1}. */
+    private static Map<String, double[]> read(Path path) throws IOException {
+        Map<String, double[]> res = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (lines.isEmpty()) return res;
+        List<String> header = split(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int mode = header.indexOf("Mode");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        if (benchmark < 0 || mode < 0 || score < 0 || unit < 0) {
+            throw new IOException("Fichier de résultats JMH (CSV) attendu : " + path);
+        }
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> cols = split(line);
+            if (cols.size() < header.size()) continue;
+            String name = cols.get(benchmark);
+            int colon = name.indexOf(':');
+            String metric = colon < 0 ? "" : name.substring(colon + 1);
+            if (!metric.isEmpty() && !metric.equals("gc.alloc.rate.norm") && !metric.equals("p0.50")
+                    && !metric.equals("p0.99")) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(name).append(" [").append(cols.get(mode));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ")) {
+                    key.append(' ').append(header.get(i).substring(7)).append('=').append(cols.get(i));
+                }
+            }
+            key.append(']');
+            double value = Double.parseDouble(cols.get(score));
+            double direction = cols.get(unit).startsWith("ops/") ? 1 : -1;
+            res.put(key.toString(), new double[]{value, direction});
+        }
+        return res;
+    }
+
+    /** Découpe une ligne CSV (champs éventuellement entre guillemets). */
+    private static List<String> split(String line) {
+        List<String> cols = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                cols.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        cols.add(sb.toString());
+        return cols;
+    }
+}
@@ -0,0 +1,121 @@
+package bench.jmh;
+
+import algo.ContractionHierarchy;
+import algo.PointToPoint;
+import model.CompactGraph;
+import model.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hiérarchie de contraction face au Dijkstra borné et au Dijkstra bidirectionnel, sur les mêmes
+ * requêtes point à point tirées au hasard, dans un quadrillage orienté (une rue sur trois à sens
+ * unique). {@link #build} mesure le prétraitement.
+ * Avant les mesures, les distances de la hiérarchie sont vérifiées contre Dijkstra.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class ContractionHierarchyBenchmark {
+    private static final int QUERIES = 1024;
+
+    @State(Scope.Benchmark)
+    public static class Grid {
+        @Param({"100", "300"})
+        public int side;
+
+        public CompactGraph graph;
+        public ContractionHierarchy hierarchy;
+        private int[] sources;
+        private int[] targets;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = orientedGrid(side, CityState.SEED).compact();
+            hierarchy = ContractionHierarchy.build(graph);
+            Random r = new Random(CityState.SEED);
+            sources = r.ints(QUERIES, 0, graph.vertexCount()).toArray();
+            targets = r.ints(QUERIES, 0, graph.vertexCount()).toArray();
+            for (int i = 0; i < 100; i++) {
+                double expected = PointToPoint.route(graph, sources[i], targets[i]).dist;
+                double found = hierarchy.distance(sources[i], targets[i]);
+                if (Math.abs(found - expected) > 1e-9) {
+                    throw new IllegalStateException("Hiérarchie : " + found + " au lieu de " + expected
+                            + " de " + sources[i] + " à " + targets[i]);
+                }
+            }
+        }
+
+        /** Requêtes utilisées à tour de rôle : sources[i] -> targets[i]. */
+        int nextQuery() {
+            int i = next;
+            next = (next + 1) % QUERIES;
+            return i;
+        }
+    }
+
+    @Benchmark
+    public PointToPoint.Route contractionHierarchy(Grid s) {
+        int i = s.nextQuery();
+        return s.hierarchy.route(s.sources[i], s.targets[i]);
+    }
+
+    @Benchmark
+    public PointToPoint.Route bidirectional(Grid s) {
+        int i = s.nextQuery();
+        return PointToPoint.bidirectional(s.graph, s.sources[i], s.targets[i]);
+    }
+
+    @Benchmark
+    public PointToPoint.Route dijkstra(Grid s) {
+        int i = s.nextQuery();
+        return PointToPoint.route(s.graph, s.sources[i], s.targets[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public ContractionHierarchy build(Grid s) {
+        return ContractionHierarchy.build(s.graph);
+    }
+
+    /** Quadrillage side x side : rues à double sens, une rue sur trois à sens unique. */
+    static Graph orientedGrid(int side, long seed) {
+        Random r = new Random(seed);
+        Graph g = new Graph(true);
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                String v = i + "_" + j;
+                g.addVertex(v, v, i, j);
+                if (j + 1 < side) street(g, r, v, i + "_" + (j + 1), i % 3 == 0);
+                if (i + 1 < side) street(g, r, v, (i + 1) + "_" + j, j % 3 == 0);
+            }
+        }
+        return g;
+    }
+
+    private static void street(Graph g, Random r, String a, String b, boolean oneWay) {
+        double w = 1.0 + r.nextInt(9);
+        g.addEdge(a, b, w);
+        if (!oneWay) {
+            g.addEdge(b, a, w);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package bench.jmh;
+
+import algo.GraphAlgorithms;
+import bench.CityGenerator;
+import model.Graph;
+import model.Vertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cycle eulérien sur le quadrillage torique (seul générateur eulérien : tous les degrés valent 4).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class EulerianBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Torus {
+        @Param({"1000", "10000", "100000", "1000000"})
+        public int size;
+
+        public Graph graph;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = CityGenerator.grid(size, CityState.SEED).graph();
+            graph.compact();
+        }
+    }
+
+    @Benchmark
+    public List<Vertex> findEulerianCycle(Torus t) {
+        return GraphAlgorithms.findEulerianCycle(t.graph);
+    }
+}
@@ -0,0 +1,61 @@
+package bench.jmh;
+
+import algo.DistanceMatrix;
+import algo.GraphAlgorithms;
+import algo.HeldKarp;
+import algo.TourImprover;
+import bench.CityGenerator;
+import model.CompactGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tournée exacte ({@link HeldKarp}) face aux heuristiques sur la même matrice de distances,
+ * pour choisir le seuil collecte.exact.points du planificateur.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class ExactTourBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Stops {
+        @Param({"12", "16", "20"})
+        public int stops;
+
+        public DistanceMatrix matrix;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            CompactGraph g = CityGenerator.of("geometrique", 10000, CityState.SEED).graph().compact();
+            Random r = new Random(CityState.SEED);
+            int[] points = r.ints(0, g.vertexCount()).distinct().limit(stops + 1).toArray();
+            matrix = DistanceMatrix.compute(g, points);
+        }
+    }
+
+    @Benchmark
+    public int[] heldKarp(Stops s) {
+        return HeldKarp.solve(s.matrix, 0);
+    }
+
+    @Benchmark
+    public int[] nearestNeighborImproved(Stops s) {
+        return TourImprover.improve(s.matrix, GraphAlgorithms.tspNearestNeighbor(s.matrix, 0), 200, 0).tour;
+    }
+}
@@ -0,0 +1,77 @@
+package bench.jmh;
+
+import algo.BreadthFirstSearch;
+import algo.GraphAlgorithms;
+import algo.MinimumSpanningForest;
+import model.Edge;
+import model.Vertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Algorithmes de {@link GraphAlgorithms} par leur API objet (celle de l'application), et moteurs
+ * parallèles sur la forme compacte ({@link BreadthFirstSearch}, {@link MinimumSpanningForest}) :
+ * débit (thrpt) et latence échantillonnée (sample, avec centiles).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class GraphAlgorithmsBenchmark {
+
+    @Benchmark
+    public GraphAlgorithms.PathResult dijkstra(CityState s) {
+        return GraphAlgorithms.dijkstra(s.graph, s.nextSource());
+    }
+
+    @Benchmark
+    public Map<Vertex, Integer> bfsDistances(CityState s) {
+        return GraphAlgorithms.bfsDistances(s.graph, s.nextSource());
+    }
+
+    @Benchmark
+    public int[] breadthFirstSearch(CityState s) {
+        return BreadthFirstSearch.levels(s.graph.compact(), s.graph.compact().indexOf(s.nextSource()));
+    }
+
+    @Benchmark
+    public Set<Edge> primMST(CityState s) {
+        return GraphAlgorithms.primMST(s.graph);
+    }
+
+    @Benchmark
+    public MinimumSpanningForest.Result boruvka(CityState s) {
+        return MinimumSpanningForest.boruvka(s.graph.compact());
+    }
+
+    @Benchmark
+    public MinimumSpanningForest.Result kruskal(CityState s) {
+        return MinimumSpanningForest.kruskal(s.graph.compact());
+    }
+
+    @Benchmark
+    public List<Vertex> tspNearestNeighbor(CityState s) {
+        return GraphAlgorithms.tspNearestNeighbor(s.graph, s.depot, s.tourPoints);
+    }
+
+    @Benchmark
+    public List<Vertex> tspDoubleTree(CityState s) {
+        return GraphAlgorithms.tspDoubleTree(s.graph, s.depot, s.tourPoints);
+    }
+
+    @Benchmark
+    public Map<Vertex, Integer> greedyColoring(CityState s) {
+        return GraphAlgorithms.greedyColoring(s.graph);
+    }
+}
@@ -0,0 +1,61 @@
+package bench.jmh;
+
+import bench.CityGenerator;
+import io.GraphLoader;
+import model.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecture d'un fichier territoire (GraphLoader.loadFromFile) écrit une fois par le générateur.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class LoaderBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class TerritoryFile {
+        @Param({"grille", "geometrique", "secteurs"})
+        public String kind;
+
+        @Param({"1000", "10000", "100000", "1000000"})
+        public int size;
+
+        public Path path;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            path = Files.createTempFile("territoire-" + kind + "-" + size, ".txt");
+            CityGenerator.of(kind, size, CityState.SEED).write(path);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    public Graph loadFromFile(TerritoryFile f) throws IOException {
+        return GraphLoader.loadFromFile(f.path.toString());
+    }
+}
@@ -0,0 +1,67 @@
+package bench.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+
+/**
+ * Lance les mesures JMH avec le profileur GC (débit d'allocation : gc.alloc.rate et
+ * gc.alloc.rate.norm, octets par opération) et enregistre les résultats en JSON et en CSV
+ * dans resultats-jmh/ (propriété jmh.resultats pour un autre dossier), pour comparaison
+ * avec {@link Comparaison}.
+ *
+ * Usage : java -jar jmh/target/benchmarks.jar [options JMH habituelles]
+ * Exemple, sous-ensemble rapide : java -jar jmh/target/benchmarks.jar dijkstra -p size=1000,10000
+ */
+public final class Suite {
+
+    private Suite() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        CommandLineOptions cmd;
+        try {
+            cmd = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Options invalides : " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers()
+                || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (cmd.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        Path dir = Path.of(System.getProperty("jmh.resultats", "resultats-jmh"));
+        Files.createDirectories(dir);
+        String name = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        for (ResultFormatType type : new ResultFormatType[]{ResultFormatType.JSON, ResultFormatType.CSV}) {
+            Path file = dir.resolve(name + "." + type.name().toLowerCase());
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, "UTF-8")) {
+                ResultFormatFactory.getInstance(type, out).writeOut(results);
+            }
+            System.out.println("Résultats : " + file);
+        }
+    }
+}
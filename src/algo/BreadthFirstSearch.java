@@ -0,0 +1,334 @@
+package algo;
+
+import metrics.Metrics;
+import metrics.Operation;
+import model.CompactGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Parcours en largeur par niveaux, à direction optimisée (Beamer, Asanović, Patterson 2012) :
+ * - de haut en bas : chaque sommet de la frontière marque ses voisins non visités
+ * - de bas en haut : chaque sommet non visité cherche un voisin entrant dans la frontière et
+ *   s'arrête au premier trouvé ; bien moins d'arcs examinés quand la frontière est énorme
+ * On passe de bas en haut quand les arcs sortant de la frontière dépassent 1/ALPHA des arcs
+ * encore inexplorés, et on revient quand la frontière compte moins de n/BETA sommets.
+ *
+ * Frontières en bitsets (long[] par mots de 64 sommets), niveaux dans un int[] ; de haut en bas,
+ * la frontière est aussi gardée en liste pour ne pas relire tout le bitset à chaque niveau
+ * (quadrillages : des centaines de petits niveaux). Chaque niveau est découpé en tranches
+ * traitées en parallèle sur un pool fork-join : de bas en haut, une tranche n'écrit que ses
+ * propres mots ; de haut en bas, un sommet est réservé par un compareAndSet sur le mot de la
+ * frontière suivante. Plusieurs sources possibles (tous les dépôts à la fois) : niveau = nombre
+ * d'arcs depuis la source la plus proche.
+ */
+public final class BreadthFirstSearch {
+    static final int PARALLEL_THRESHOLD = 1 << 15; // sommets ; en dessous : un seul thread
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int WORDS_PER_TASK = 256;    // de bas en haut : mots de 64 sommets par tâche
+    private static final int VERTICES_PER_TASK = 4096; // de haut en bas : sommets de la frontière par tâche
+
+    private BreadthFirstSearch() {
+    }
+
+    public static class Result {
+        public final int[] level;       // nombre d'arcs depuis la source la plus proche, -1 si inaccessible
+        public final int[] origin;      // rang dans sources de la plus proche (la première en cas d'égalité),
+                                        // -1 si inaccessible ; null pour une seule source
+        public final int reached;       // sommets atteints
+        public final int depth;         // plus grand niveau atteint
+        public final int bottomUpSteps; // niveaux traités de bas en haut
+
+        public Result(int[] level, int[] origin, int reached, int depth, int bottomUpSteps) {
+            this.level = level;
+            this.origin = origin;
+            this.reached = reached;
+            this.depth = depth;
+            this.bottomUpSteps = bottomUpSteps;
+        }
+    }
+
+    /** @return nombre d'arcs depuis la source pour chaque sommet, -1 si inaccessible */
+    public static int[] levels(CompactGraph g, int source) {
+        return run(g, new int[]{source}, ForkJoinPool.commonPool(), false).level;
+    }
+
+    public static Result fromSources(CompactGraph g, int[] sources) {
+        return fromSources(g, sources, ForkJoinPool.commonPool());
+    }
+
+    /** Parcours simultané depuis toutes les sources ; origin désigne la source la plus proche. */
+    public static Result fromSources(CompactGraph g, int[] sources, ForkJoinPool pool) {
+        return run(g, sources, pool, sources.length > 1);
+    }
+
+    private static Result run(CompactGraph g, int[] sources, ForkJoinPool pool, boolean withOrigin) {
+        Metrics.Span span = Metrics.begin(Operation.BFS);
+        try {
+            return new Search(g.open(), pool).run(sources, withOrigin); // sans les rues fermées
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /** État d'un parcours. */
+    private static final class Search {
+        private final CompactGraph g;
+        private final CompactGraph in; // arcs entrants (le graphe lui-même s'il est non orienté)
+        private final ForkJoinPool pool;
+        private final int n;
+        private final int words;
+        private final boolean parallel;
+        private final int[] level;
+        private AtomicLongArray front;  // frontière courante, toujours à jour
+        private AtomicLongArray next;   // frontière suivante (vide entre deux niveaux)
+        private int[] queue;            // frontière courante en liste, valide de haut en bas
+        private int[] nextQueue;
+        private int queueSize;
+        private final LongAdder found = new LongAdder();      // sommets découverts au niveau courant
+        private final LongAdder foundArcs = new LongAdder();  // leurs arcs sortants
+        private final LongAdder examined = new LongAdder();   // arcs examinés (instrumentation)
+
+        Search(CompactGraph g, ForkJoinPool pool) {
+            this.g = g;
+            this.in = g.reverse();
+            this.pool = pool;
+            this.n = g.vertexCount();
+            this.words = (n + 63) >>> 6;
+            this.parallel = n >= PARALLEL_THRESHOLD && pool.getParallelism() > 1;
+            this.level = new int[n];
+            Arrays.fill(level, -1);
+            this.front = new AtomicLongArray(words);
+            this.next = new AtomicLongArray(words);
+            this.queue = new int[n];
+            this.nextQueue = new int[n];
+        }
+
+        Result run(int[] sources, boolean withOrigin) {
+            long frontierArcs = 0;
+            for (int s : sources) {
+                if (s < 0 || s >= n) {
+                    throw new IllegalArgumentException("Source hors du graphe : " + s);
+                }
+                if (level[s] < 0) {
+                    level[s] = 0;
+                    front.set(s >>> 6, front.get(s >>> 6) | 1L << s);
+                    queue[queueSize++] = s;
+                    frontierArcs += g.outDegree(s);
+                }
+            }
+            long frontier = queueSize;
+            long unexplored = (n == 0 ? 0 : g.endArc(n - 1)) - frontierArcs;
+            int reached = queueSize;
+            int depth = 0;
+            int bottomUpSteps = 0;
+            boolean bottomUp = false;
+
+            while (frontier > 0) {
+                if (!bottomUp && frontierArcs > unexplored / ALPHA) {
+                    bottomUp = true;
+                } else if (bottomUp && frontier < n / BETA) {
+                    bottomUp = false;
+                    fillQueue();
+                }
+                int d = depth;
+                found.reset();
+                foundArcs.reset();
+                if (bottomUp) {
+                    bottomUpSteps++;
+                    forEach((words + WORDS_PER_TASK - 1) / WORDS_PER_TASK, c -> bottomUpStep(c, d));
+                    for (int w = 0; w < words; w++) {
+                        front.set(w, 0L);
+                    }
+                } else {
+                    topDown(d);
+                    for (int i = 0; i < queueSize; i++) {
+                        front.set(queue[i] >>> 6, 0L);
+                    }
+                    int[] t = queue;
+                    queue = nextQueue;
+                    nextQueue = t;
+                    queueSize = (int) found.sum();
+                }
+                AtomicLongArray t = front;
+                front = next;
+                next = t;
+                frontier = found.sum();
+                frontierArcs = foundArcs.sum();
+                unexplored -= frontierArcs;
+                reached += (int) frontier;
+                if (frontier > 0) depth++;
+            }
+            Metrics.work(reached, examined.sum(), 0);
+            int[] origin = withOrigin ? origins(sources, depth) : null;
+            return new Result(level, origin, reached, depth, bottomUpSteps);
+        }
+
+        private void forEach(int count, IntConsumer body) {
+            if (parallel && count > 1) {
+                pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).join();
+            } else {
+                for (int c = 0; c < count; c++) {
+                    body.accept(c);
+                }
+            }
+        }
+
+        /** Liste de la frontière relue dans le bitset (retour de bas en haut vers haut en bas). */
+        private void fillQueue() {
+            queueSize = 0;
+            for (int w = 0; w < words; w++) {
+                long bits = front.get(w);
+                while (bits != 0) {
+                    queue[queueSize++] = w << 6 | Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        /**
+         * De haut en bas : les sommets de la frontière marquent leurs voisins non visités. En
+         * parallèle, chaque tranche de la liste remplit sa propre liste, recopiées ensuite à la suite.
+         */
+        private void topDown(int d) {
+            int tasks = (queueSize + VERTICES_PER_TASK - 1) / VERTICES_PER_TASK;
+            if (!parallel || tasks <= 1) {
+                int size = topDownRange(0, queueSize, d, nextQueue, 0);
+                found.add(size);
+                return;
+            }
+            int[][] parts = new int[tasks][];
+            forEach(tasks, c -> {
+                int from = c * VERTICES_PER_TASK;
+                int to = Math.min(queueSize, from + VERTICES_PER_TASK);
+                int[] buf = new int[64];
+                int size = 0;
+                for (int i = from; i < to; i++) {
+                    int u = queue[i];
+                    if (size + g.outDegree(u) > buf.length) {
+                        buf = Arrays.copyOf(buf, Math.max(2 * buf.length, size + g.outDegree(u)));
+                    }
+                    size = topDownRange(i, i + 1, d, buf, size);
+                }
+                parts[c] = Arrays.copyOf(buf, size);
+            });
+            int size = 0;
+            for (int[] p : parts) {
+                System.arraycopy(p, 0, nextQueue, size, p.length);
+                size += p.length;
+            }
+            found.add(size);
+        }
+
+        /** Relâche les sommets queue[from..to) ; les découverts sont ajoutés à out à partir de size. */
+        private int topDownRange(int from, int to, int d, int[] out, int size) {
+            long arcs = 0;
+            long seen = 0;
+            for (int i = from; i < to; i++) {
+                int u = queue[i];
+                seen += g.outDegree(u);
+                for (int a = g.firstArc(u), e = g.endArc(u); a < e; a++) {
+                    int v = g.target(a);
+                    if (level[v] < 0 && claim(v)) {
+                        level[v] = d + 1;
+                        out[size++] = v;
+                        arcs += g.outDegree(v);
+                    }
+                }
+            }
+            foundArcs.add(arcs);
+            if (Metrics.ENABLED) examined.add(seen);
+            return size;
+        }
+
+        /** Marque v dans la frontière suivante ; false si un autre thread l'a déjà fait. */
+        private boolean claim(int v) {
+            int w = v >>> 6;
+            long mask = 1L << v;
+            while (true) {
+                long old = next.get(w);
+                if ((old & mask) != 0) return false;
+                if (next.compareAndSet(w, old, old | mask)) return true;
+            }
+        }
+
+        /** De bas en haut : chaque sommet non visité de la tranche c cherche un parent dans la frontière. */
+        private void bottomUpStep(int c, int d) {
+            long count = 0;
+            long arcs = 0;
+            long seen = 0;
+            for (int w = c * WORDS_PER_TASK, end = Math.min(words, w + WORDS_PER_TASK); w < end; w++) {
+                long bits = 0;
+                for (int v = w << 6, last = Math.min(n, v + 64); v < last; v++) {
+                    if (level[v] >= 0) continue;
+                    for (int a = in.firstArc(v), e = in.endArc(v); a < e; a++) {
+                        int u = in.target(a);
+                        seen++;
+                        if ((front.get(u >>> 6) & 1L << u) != 0) {
+                            level[v] = d + 1;
+                            bits |= 1L << v;
+                            count++;
+                            arcs += g.outDegree(v);
+                            break;
+                        }
+                    }
+                }
+                if (bits != 0) next.set(w, bits); // seule cette tranche écrit ce mot
+            }
+            found.add(count);
+            foundArcs.add(arcs);
+            if (Metrics.ENABLED) examined.add(seen);
+        }
+
+        /**
+         * Source la plus proche de chaque sommet, niveau par niveau : la plus petite origine parmi
+         * les voisins entrants du niveau précédent (résultat indépendant de l'ordre des threads).
+         */
+        private int[] origins(int[] sources, int depth) {
+            int[] origin = new int[n];
+            Arrays.fill(origin, -1);
+            for (int i = sources.length - 1; i >= 0; i--) {
+                origin[sources[i]] = i;
+            }
+            int[] start = new int[depth + 2];
+            for (int v = 0; v < n; v++) {
+                if (level[v] >= 0) start[level[v] + 1]++;
+            }
+            for (int l = 0; l <= depth; l++) {
+                start[l + 1] += start[l];
+            }
+            int[] byLevel = new int[start[depth + 1]];
+            int[] fill = Arrays.copyOf(start, depth + 1);
+            for (int v = 0; v < n; v++) {
+                if (level[v] >= 0) byLevel[fill[level[v]]++] = v;
+            }
+            for (int l = 1; l <= depth; l++) {
+                int from = start[l];
+                int count = start[l + 1] - from;
+                IntConsumer body = i -> {
+                    int v = byLevel[from + i];
+                    int best = Integer.MAX_VALUE;
+                    for (int a = in.firstArc(v), e = in.endArc(v); a < e; a++) {
+                        int u = in.target(a);
+                        if (level[u] == level[v] - 1 && origin[u] < best) best = origin[u];
+                    }
+                    origin[v] = best;
+                };
+                if (parallel && count >= PARALLEL_THRESHOLD) {
+                    pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).join();
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        body.accept(i);
+                    }
+                }
+            }
+            return origin;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package algo;
+
+import model.CompactGraph;
+import model.Graph;
+import model.Vertex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Problème du postier chinois : plus courte tournée fermée passant au moins une fois sur chaque
+ * arête. Graphe orienté : voir {@link #solveDirected(CompactGraph, int[])}. Les rues fermées
+ * (poids infini) sont ignorées.
+ *
+ * Graphe non orienté :
+ * 1. sommets de degré impair
+ * 2. distances entre ces sommets, calculées en parallèle
+ * 3. couplage parfait de poids minimal entre eux :
+ *    exact (programmation dynamique sur les sous-ensembles) jusqu'à EXACT_LIMIT sommets,
+ *    sinon glouton sur les K plus proches voisins puis échanges de paires améliorants
+ * 4. les plus courts chemins du couplage sont dupliqués, le graphe devient eulérien
+ * 5. Hierholzer sur le multigraphe obtenu
+ */
+public final class ChinesePostman {
+    private static final int EXACT_LIMIT = 20;
+    private static final int NEIGHBOURS = 8;
+    private static final int MAX_PASSES = 10;
+
+    private ChinesePostman() {
+    }
+
+    public static class Result {
+        public final int[] circuit;        // sommets de la tournée, premier = dernier
+        public final double length;        // longueur totale de la tournée
+        public final double extraLength;   // longueur des tronçons parcourus deux fois (ou plus)
+        public final int oddVertices;
+        public final int duplicatedEdges;
+
+        public Result(int[] circuit, double length, double extraLength, int oddVertices, int duplicatedEdges) {
+            this.circuit = circuit;
+            this.length = length;
+            this.extraLength = extraLength;
+            this.oddVertices = oddVertices;
+            this.duplicatedEdges = duplicatedEdges;
+        }
+    }
+
+    public static List<Vertex> tour(Graph g) {
+        CompactGraph cg = g.compact();
+        return GraphAlgorithms.toVertices(cg, solve(cg).circuit);
+    }
+
+    public static Result solve(CompactGraph g) {
+        if (g.open() != g) {
+            return solve(g.open()); // les rues fermées ne sont ni à parcourir, ni à emprunter
+        }
+        if (g.isDirected()) {
+            return solveDirected(g, IntStream.range(0, g.arcCount()).toArray());
+        }
+        if (!GraphAlgorithms.edgesConnected(g)) {
+            throw new IllegalArgumentException("Postier chinois : le réseau de rues n'est pas connexe");
+        }
+        int n = g.vertexCount();
+        int[] odd = IntStream.range(0, n).filter(v -> (g.outDegree(v) & 1) == 1).toArray();
+
+        int[] mate = odd.length == 0 ? new int[0]
+                : odd.length <= EXACT_LIMIT ? exactMatching(g, odd) : heuristicMatching(g, odd);
+
+        // chemins du couplage, calculés en parallèle
+        int[] firsts = IntStream.range(0, odd.length).filter(i -> i < mate[i]).toArray();
+        int[][] paths = new int[firsts.length][];
+        IntStream.range(0, firsts.length).parallel().forEach(p -> {
+            ShortestPaths.Workspace ws = ShortestPaths.workspace(g);
+            int i = firsts[p];
+            ws.run(odd[i], new int[]{odd[mate[i]]});
+            paths[p] = ws.pathTo(odd[mate[i]]);
+        });
+
+        int extra = 0;
+        for (int[] path : paths) {
+            extra += path.length - 1;
+        }
+        int[] from = new int[extra];
+        int[] to = new int[extra];
+        double[] w = new double[extra];
+        double extraLength = 0.0;
+        int e = 0;
+        for (int[] path : paths) {
+            for (int i = 0; i + 1 < path.length; i++) {
+                from[e] = path[i];
+                to[e] = path[i + 1];
+                w[e] = lightestArc(g, path[i], path[i + 1]);
+                extraLength += w[e];
+                e++;
+            }
+        }
+
+        CompactGraph augmented = g.withExtraEdges(from, to, w, extra);
+        int[] circuit = GraphAlgorithms.findEulerianCycle(augmented);
+        return new Result(circuit, totalWeight(g) + extraLength, extraLength, odd.length, extra);
+    }
+
+    /* ====================== GRAPHE ORIENTÉ ====================== */
+
+    /**
+     * Postier chinois orienté : plus court circuit passant au moins une fois sur chacun des arcs
+     * demandés, les trajets à vide pouvant emprunter tous les arcs de g (sens uniques respectés).
+     *
+     * 1. excédent de chaque sommet : arcs demandés entrants moins sortants
+     * 2. trajets à vide des excédents vers les déficits : flot de coût minimal, par plus courts
+     *    chemins successifs (Dijkstra multi-sources sur les coûts réduits par des potentiels) ;
+     *    chaque Dijkstra sert à augmenter le flot le long de tous les chemins de son arbre
+     * 3. Hierholzer sur les arcs demandés et les trajets à vide
+     *
+     * Le circuit est optimal : tout circuit équilibre les degrés, et les arcs demandés étant reliés,
+     * le multigraphe équilibré obtenu est connexe donc eulérien.
+     * Dans le résultat, oddVertices compte les sommets déséquilibrés.
+     *
+     * @param required arcs de g à parcourir, reliés entre eux (en ignorant le sens)
+     * @throws IllegalArgumentException si les arcs demandés ne sont pas reliés, ou si un excédent
+     *         ne peut rejoindre aucun déficit (sens uniques sans chemin de retour)
+     */
+    public static Result solveDirected(CompactGraph g, int[] required) {
+        if (!g.isDirected()) {
+            throw new IllegalArgumentException("Postier chinois orienté : le graphe n'est pas orienté");
+        }
+        int n = g.vertexCount();
+        boolean[] wanted = new boolean[g.arcCount()];
+        for (int a : required) {
+            wanted[a] = !g.isClosed(a); // rue fermée : ni à parcourir, ni à emprunter
+        }
+        int m = 0;
+        for (boolean b : wanted) {
+            if (b) m++;
+        }
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] w = new double[m];
+        int[] excess = new int[n];
+        double length = 0.0;
+        m = 0;
+        for (int u = 0; u < n; u++) {
+            for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                if (!wanted[a]) continue;
+                from[m] = u;
+                to[m] = g.target(a);
+                w[m++] = g.weight(a);
+                excess[g.target(a)]++;
+                excess[u]--;
+                length += g.weight(a);
+            }
+        }
+        if (!GraphAlgorithms.edgesConnected(g.withOnlyEdges(from, to, w, m))) {
+            throw new IllegalArgumentException("Postier chinois : le réseau de rues n'est pas connexe");
+        }
+        int unbalanced = 0;
+        for (int x : excess) {
+            if (x != 0) unbalanced++;
+        }
+
+        int[] flow = deadheadFlow(g, excess);
+        int extra = 0;
+        for (int f : flow) {
+            extra += f;
+        }
+        from = Arrays.copyOf(from, m + extra);
+        to = Arrays.copyOf(to, m + extra);
+        w = Arrays.copyOf(w, m + extra);
+        double extraLength = 0.0;
+        for (int u = 0; u < n; u++) {
+            for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                for (int k = flow[g.arcEdge(a)]; k > 0; k--) {
+                    from[m] = u;
+                    to[m] = g.target(a);
+                    w[m++] = g.weight(a);
+                    extraLength += g.weight(a);
+                }
+            }
+        }
+        int[] circuit = GraphAlgorithms.findEulerianCycle(g.withOnlyEdges(from, to, w, m));
+        return new Result(circuit, length + extraLength, extraLength, unbalanced, extra);
+    }
+
+    /**
+     * Flot de coût minimal (arcs sans capacité, coût = poids) qui écoule chaque excédent vers
+     * les déficits. Les arcs résiduels inverses ont la capacité du flot de leur arc.
+     *
+     * @return nombre de passages à vide sur chaque arête de g
+     */
+    private static int[] deadheadFlow(CompactGraph g, int[] excess) {
+        int n = g.vertexCount();
+        CompactGraph in = g.reverse(); // arcs entrants : arcs résiduels inverses
+        int[] flow = new int[g.edgeCount()];
+        int[] left = excess.clone();   // > 0 : passages à vide à faire partir de v, < 0 : à faire arriver
+        int remaining = 0;
+        for (int x : left) {
+            if (x > 0) remaining += x;
+        }
+        double[] potential = new double[n];
+        double[] dist = new double[n];
+        int[] pred = new int[n];
+        int[] via = new int[n];        // arc de g (>= 0), ou ~arc de in parcouru à rebours
+        int[] origin = new int[n];     // excédent à la racine du chemin
+        IndexedHeap heap = new IndexedHeap(n);
+        while (remaining > 0) {
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            for (int v = 0; v < n; v++) {
+                if (left[v] > 0) {
+                    dist[v] = 0.0;
+                    origin[v] = v;
+                    heap.insertOrDecrease(v, 0.0);
+                }
+            }
+            double reach = 0.0;
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                double du = dist[u];
+                reach = du;
+                for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                    int v = g.target(a);
+                    double c = g.weight(a);
+                    if (c == Double.POSITIVE_INFINITY) continue;
+                    double d = du + Math.max(0.0, c + potential[u] - potential[v]);
+                    if (d < dist[v]) {
+                        dist[v] = d;
+                        pred[v] = u;
+                        via[v] = a;
+                        origin[v] = origin[u];
+                        heap.insertOrDecrease(v, d);
+                    }
+                }
+                for (int a = in.firstArc(u), end = in.endArc(u); a < end; a++) {
+                    if (flow[in.arcEdge(a)] == 0) continue;
+                    int v = in.target(a);
+                    double d = du + Math.max(0.0, -in.weight(a) + potential[u] - potential[v]);
+                    if (d < dist[v]) {
+                        dist[v] = d;
+                        pred[v] = u;
+                        via[v] = ~a;
+                        origin[v] = origin[u];
+                        heap.insertOrDecrease(v, d);
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                potential[v] += dist[v] == Double.POSITIVE_INFINITY ? reach : dist[v];
+            }
+
+            // tous les arcs de l'arbre ont un coût réduit nul : chaque chemin de l'arbre est de
+            // coût minimal ; seules les capacités des arcs inverses sont à revérifier
+            boolean augmented = false;
+            for (int t = 0; t < n && remaining > 0; t++) {
+                if (left[t] >= 0 || dist[t] == Double.POSITIVE_INFINITY) continue;
+                int s = origin[t];
+                int amount = Math.min(left[s], -left[t]);
+                for (int v = t; v != s && amount > 0; v = pred[v]) {
+                    if (via[v] < 0) amount = Math.min(amount, flow[in.arcEdge(~via[v])]);
+                }
+                if (amount <= 0) continue;
+                for (int v = t; v != s; v = pred[v]) {
+                    if (via[v] >= 0) flow[g.arcEdge(via[v])] += amount;
+                    else flow[in.arcEdge(~via[v])] -= amount;
+                }
+                left[s] -= amount;
+                left[t] += amount;
+                remaining -= amount;
+                augmented = true;
+            }
+            if (!augmented) {
+                throw new IllegalArgumentException(
+                        "Postier chinois : des sens uniques empêchent de revenir (réseau pas fortement connexe)");
+            }
+        }
+        return flow;
+    }
+
+    /** Somme des poids des arêtes (un graphe non orienté a deux arcs par arête). */
+    private static double totalWeight(CompactGraph g) {
+        double total = 0.0;
+        for (int a = 0; a < g.arcCount(); a++) {
+            total += g.weight(a);
+        }
+        return g.isDirected() ? total : total / 2;
+    }
+
+    private static double lightestArc(CompactGraph g, int u, int v) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+            if (g.target(a) == v) best = Math.min(best, g.weight(a));
+        }
+        return best;
+    }
+
+    /* ====================== COUPLAGE EXACT ====================== */
+
+    /**
+     * dp[mask] = coût minimal pour coupler les sommets de mask ; le plus petit sommet
+     * non couplé est toujours traité en premier, d'où O(2^k * k).
+     *
+     * @return mate[i] = indice (dans odd) du partenaire de odd[i]
+     */
+    private static int[] exactMatching(CompactGraph g, int[] odd) {
+        int k = odd.length;
+        DistanceMatrix m = DistanceMatrix.compute(g, odd);
+        int full = (1 << k) - 1;
+        double[] dp = new double[full + 1];
+        short[] choice = new short[full + 1]; // (i << 5) | j
+        Arrays.fill(dp, Double.POSITIVE_INFINITY);
+        dp[0] = 0.0;
+        for (int mask = 0; mask < full; mask++) {
+            if (dp[mask] == Double.POSITIVE_INFINITY) continue;
+            int i = Integer.numberOfTrailingZeros(~mask);
+            for (int j = i + 1; j < k; j++) {
+                if ((mask & (1 << j)) != 0) continue;
+                int next = mask | (1 << i) | (1 << j);
+                double c = dp[mask] + m.get(i, j);
+                if (c < dp[next]) {
+                    dp[next] = c;
+                    choice[next] = (short) ((i << 5) | j);
+                }
+            }
+        }
+        int[] mate = new int[k];
+        for (int mask = full; mask != 0; ) {
+            int i = choice[mask] >>> 5;
+            int j = choice[mask] & 31;
+            mate[i] = j;
+            mate[j] = i;
+            mask &= ~((1 << i) | (1 << j));
+        }
+        return mate;
+    }
+
+    /* ====================== COUPLAGE HEURISTIQUE ====================== */
+
+    /**
+     * Chaque sommet impair ne cherche que ses NEIGHBOURS plus proches voisins impairs
+     * (Dijkstra borné, en parallèle) : pas de matrice k x k en mémoire.
+     */
+    private static int[] heuristicMatching(CompactGraph g, int[] odd) {
+        int k = odd.length;
+        int[] row = new int[g.vertexCount()];
+        Arrays.fill(row, -1);
+        for (int i = 0; i < k; i++) {
+            row[odd[i]] = i;
+        }
+        int[][] nb = new int[k][];
+        double[][] nd = new double[k][];
+        boolean[] marked = new boolean[g.vertexCount()];
+        for (int v : odd) {
+            marked[v] = true;
+        }
+        IntStream.range(0, k).parallel().forEach(i -> {
+            ShortestPaths.Workspace ws = ShortestPaths.workspace(g);
+            int[] l = new int[Math.min(NEIGHBOURS, k - 1)];
+            int filled = ws.nearestMarked(odd[i], marked, l);
+            nb[i] = new int[filled];
+            nd[i] = new double[filled];
+            for (int q = 0; q < filled; q++) {
+                nb[i][q] = row[l[q]];
+                nd[i][q] = ws.dist(l[q]);
+            }
+        });
+
+        // glouton : paires candidates par distance croissante
+        int candidates = 0;
+        for (int[] l : nb) candidates += l.length;
+        long[] pairs = new long[candidates];
+        double[] pd = new double[candidates];
+        Integer[] order = new Integer[candidates];
+        int c = 0;
+        for (int i = 0; i < k; i++) {
+            for (int q = 0; q < nb[i].length; q++) {
+                pairs[c] = ((long) i << 32) | nb[i][q];
+                pd[c] = nd[i][q];
+                order[c] = c;
+                c++;
+            }
+        }
+        Arrays.parallelSort(order, (x, y) -> Double.compare(pd[x], pd[y]));
+        int[] mate = new int[k];
+        Arrays.fill(mate, -1);
+        for (int p : order) {
+            int i = (int) (pairs[p] >>> 32);
+            int j = (int) pairs[p];
+            if (mate[i] < 0 && mate[j] < 0) {
+                mate[i] = j;
+                mate[j] = i;
+            }
+        }
+
+        // sommets restés seuls : couplés au plus proche sommet impair encore libre
+        ShortestPaths.Workspace ws = ShortestPaths.workspace(g);
+        int[] free = IntStream.range(0, k).filter(i -> mate[i] < 0).map(i -> odd[i]).toArray();
+        int count = free.length;
+        while (count > 0) {
+            int u = free[--count];
+            int v = ws.nearest(u, free, count);
+            int i = row[u];
+            int j = row[v];
+            mate[i] = j;
+            mate[j] = i;
+            for (int q = 0; q < count; q++) {
+                if (free[q] == v) {
+                    free[q] = free[--count];
+                    break;
+                }
+            }
+        }
+
+        improve(mate, nb, nd);
+        return mate;
+    }
+
+    /**
+     * Échange de partenaires : (a, b) + (c, d) remplacées par (a, c) + (b, d)
+     * quand toutes les distances sont connues par les listes de voisins et que le total baisse.
+     */
+    private static void improve(int[] mate, int[][] nb, double[][] nd) {
+        boolean improved = true;
+        for (int pass = 0; pass < MAX_PASSES && improved; pass++) {
+            improved = false;
+            for (int a = 0; a < mate.length; a++) {
+                int b = mate[a];
+                double ab = known(nb, nd, a, b);
+                if (ab == Double.POSITIVE_INFINITY) continue;
+                for (int q = 0; q < nb[a].length; q++) {
+                    int cc = nb[a][q];
+                    int d = mate[cc];
+                    if (cc == b || d == a) continue;
+                    double ac = nd[a][q];
+                    if (ac >= ab) break;
+                    double bd = known(nb, nd, b, d);
+                    double cd = known(nb, nd, cc, d);
+                    if (ac + bd < ab + cd - 1e-9) {
+                        mate[a] = cc;
+                        mate[cc] = a;
+                        mate[b] = d;
+                        mate[d] = b;
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Distance entre deux sommets impairs si l'un est dans la liste de voisins de l'autre, +infini sinon. */
+    private static double known(int[][] nb, double[][] nd, int i, int j) {
+        for (int q = 0; q < nb[i].length; q++) {
+            if (nb[i][q] == j) return nd[i][q];
+        }
+        for (int q = 0; q < nb[j].length; q++) {
+            if (nb[j][q] == i) return nd[j][q];
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
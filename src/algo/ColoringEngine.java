@@ -0,0 +1,297 @@
+package algo;
+
+import metrics.Metrics;
+import metrics.Operation;
+import model.CompactGraph;
+import model.Graph;
+import model.Vertex;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Coloration des sommets d'un graphe non orienté (secteurs voisins = couleurs différentes).
+ *
+ * Stratégies :
+ * - GREEDY : ordre des indices
+ * - WELSH_POWELL : degrés décroissants
+ * - SMALLEST_LAST : on retire à chaque fois un sommet de degré minimal, puis on colore dans
+ *   l'ordre inverse (au plus dégénérescence + 1 couleurs)
+ * - DSATUR : à chaque étape, le sommet voyant le plus de couleurs distinctes chez ses voisins
+ *
+ * Les couleurs interdites sont des masques de bits (long[]) réutilisés ; toutes les égalités
+ * sont départagées par le degré puis par l'indice, le résultat est donc reproductible.
+ * Les boucles (arête d'un sommet vers lui-même) sont ignorées.
+ */
+public final class ColoringEngine {
+
+    public enum Strategy {
+        GREEDY, WELSH_POWELL, SMALLEST_LAST, DSATUR
+    }
+
+    private ColoringEngine() {
+    }
+
+    public static Map<Vertex, Integer> color(Graph g, Strategy strategy) {
+        CompactGraph cg = g.compact();
+        int[] c = color(cg, strategy);
+        Map<Vertex, Integer> colors = new LinkedHashMap<>();
+        for (int v = 0; v < c.length; v++) {
+            colors.put(cg.vertex(v), c[v]);
+        }
+        return colors;
+    }
+
+    /** @return la couleur (0, 1, 2...) de chaque sommet */
+    public static int[] color(CompactGraph g, Strategy strategy) {
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Coloration ici pour graphe non orienté");
+        }
+        g = g.open(); // une rue fermée ne relie plus ses extrémités
+        Metrics.Span span = Metrics.begin(Operation.COLORATION);
+        try {
+            switch (strategy) {
+                case GREEDY:
+                    return colorInOrder(g, identity(g.vertexCount()));
+                case WELSH_POWELL:
+                    return colorInOrder(g, byDegree(g));
+                case SMALLEST_LAST:
+                    return colorInOrder(g, smallestLast(g));
+                default:
+                    return dsatur(g);
+            }
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /** Nombre de couleurs utilisées. */
+    public static int colorCount(int[] colors) {
+        int max = -1;
+        for (int c : colors) {
+            max = Math.max(max, c);
+        }
+        return max + 1;
+    }
+
+    /* ====================== ORDRES ====================== */
+
+    private static int[] identity(int n) {
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        return order;
+    }
+
+    private static int[] degrees(CompactGraph g) {
+        int n = g.vertexCount();
+        int[] deg = new int[n];
+        for (int v = 0; v < n; v++) {
+            for (int a = g.firstArc(v), end = g.endArc(v); a < end; a++) {
+                if (g.target(a) != v) deg[v]++;
+            }
+        }
+        return deg;
+    }
+
+    /** Degrés décroissants, indices croissants à degré égal (tri par dénombrement). */
+    private static int[] byDegree(CompactGraph g) {
+        int n = g.vertexCount();
+        int[] deg = degrees(g);
+        int max = 0;
+        for (int d : deg) max = Math.max(max, d);
+        int[] start = new int[max + 2];
+        for (int d : deg) start[max - d + 1]++;
+        for (int i = 1; i < start.length; i++) start[i] += start[i - 1];
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[start[max - deg[v]]++] = v;
+        }
+        return order;
+    }
+
+    /**
+     * Ordre "plus petit en dernier" (Matula et Beck) : seaux de sommets par degré résiduel,
+     * listes doublement chaînées, O(n + m).
+     */
+    private static int[] smallestLast(CompactGraph g) {
+        int n = g.vertexCount();
+        int[] deg = degrees(g);
+        int max = 0;
+        for (int d : deg) max = Math.max(max, d);
+        int[] head = new int[max + 1];
+        Arrays.fill(head, -1);
+        int[] next = new int[n];
+        int[] prev = new int[n];
+        for (int v = n - 1; v >= 0; v--) {
+            push(head, next, prev, deg[v], v);
+        }
+        boolean[] removed = new boolean[n];
+        int[] order = new int[n];
+        int low = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            while (head[low] < 0) low++;
+            int v = head[low];
+            unlink(head, next, prev, low, v);
+            removed[v] = true;
+            order[i] = v;
+            for (int a = g.firstArc(v), end = g.endArc(v); a < end; a++) {
+                int u = g.target(a);
+                if (u == v || removed[u]) continue;
+                unlink(head, next, prev, deg[u], u);
+                deg[u]--;
+                push(head, next, prev, deg[u], u);
+                low = Math.min(low, deg[u]);
+            }
+        }
+        return order;
+    }
+
+    private static void push(int[] head, int[] next, int[] prev, int bucket, int v) {
+        next[v] = head[bucket];
+        prev[v] = -1;
+        if (head[bucket] >= 0) prev[head[bucket]] = v;
+        head[bucket] = v;
+    }
+
+    private static void unlink(int[] head, int[] next, int[] prev, int bucket, int v) {
+        if (prev[v] >= 0) {
+            next[prev[v]] = next[v];
+        } else {
+            head[bucket] = next[v];
+        }
+        if (next[v] >= 0) prev[next[v]] = prev[v];
+    }
+
+    /* ====================== COLORATION DANS UN ORDRE DONNE ====================== */
+
+    /**
+     * Chaque sommet prend la plus petite couleur absente de ses voisins déjà colorés.
+     * Le masque des couleurs interdites est remis à zéro en repassant sur les mêmes voisins.
+     */
+    private static int[] colorInOrder(CompactGraph g, int[] order) {
+        int n = g.vertexCount();
+        int[] color = new int[n];
+        Arrays.fill(color, -1);
+        long[] forbidden = new long[1];
+        for (int v : order) {
+            int firstArc = g.firstArc(v);
+            int endArc = g.endArc(v);
+            for (int a = firstArc; a < endArc; a++) {
+                int c = color[g.target(a)];
+                if (c < 0) continue;
+                if ((c >>> 6) >= forbidden.length) {
+                    forbidden = Arrays.copyOf(forbidden, Math.max(forbidden.length * 2, (c >>> 6) + 1));
+                }
+                forbidden[c >>> 6] |= 1L << c;
+            }
+            color[v] = firstFree(forbidden);
+            for (int a = firstArc; a < endArc; a++) {
+                int c = color[g.target(a)];
+                if (c >= 0 && g.target(a) != v) forbidden[c >>> 6] = 0L;
+            }
+        }
+        return color;
+    }
+
+    private static int firstFree(long[] mask) {
+        for (int w = 0; w < mask.length; w++) {
+            if (mask[w] != -1L) {
+                return (w << 6) + Long.numberOfTrailingZeros(~mask[w]);
+            }
+        }
+        return mask.length << 6;
+    }
+
+    /* ====================== DSATUR ====================== */
+
+    /**
+     * Seaux par degré de saturation ; dans un seau, les sommets sont repérés par leur rang dans
+     * l'ordre de Welsh et Powell (masque de bits), si bien que le premier bit à 1 du seau le plus
+     * haut donne directement le sommet à colorer : saturation maximale, puis degré, puis indice.
+     * Les couleurs vues par chaque sommet sont un petit masque qui grandit avec le nombre de couleurs.
+     */
+    private static int[] dsatur(CompactGraph g) {
+        int n = g.vertexCount();
+        int[] byRank = byDegree(g);
+        int[] rank = new int[n];
+        for (int r = 0; r < n; r++) {
+            rank[byRank[r]] = r;
+        }
+        int[] color = new int[n];
+        Arrays.fill(color, -1);
+        long[][] seen = new long[n][];
+        int[] saturation = new int[n];
+        Bucket[] buckets = new Bucket[1];
+        buckets[0] = new Bucket(n);
+        for (int r = 0; r < n; r++) {
+            buckets[0].add(r);
+        }
+        int top = 0;
+        for (int done = 0; done < n; done++) {
+            while (buckets[top].isEmpty()) top--;
+            int r = buckets[top].pollFirst();
+            int v = byRank[r];
+            int c = seen[v] == null ? 0 : firstFree(seen[v]);
+            color[v] = c;
+            for (int a = g.firstArc(v), end = g.endArc(v); a < end; a++) {
+                int u = g.target(a);
+                if (color[u] >= 0) continue;
+                long[] s = seen[u];
+                if (s == null || (c >>> 6) >= s.length) {
+                    s = seen[u] = s == null ? new long[(c >>> 6) + 1] : Arrays.copyOf(s, (c >>> 6) + 1);
+                }
+                if ((s[c >>> 6] & (1L << c)) != 0) continue;
+                s[c >>> 6] |= 1L << c;
+                int sat = saturation[u]++;
+                buckets[sat].remove(rank[u]);
+                if (sat + 1 == buckets.length) {
+                    buckets = Arrays.copyOf(buckets, buckets.length + 1);
+                }
+                if (buckets[sat + 1] == null) {
+                    buckets[sat + 1] = new Bucket(n);
+                }
+                buckets[sat + 1].add(rank[u]);
+                top = Math.max(top, sat + 1);
+            }
+        }
+        return color;
+    }
+
+    /** Ensemble de rangs 0..n-1 sous forme de masque, avec un curseur sur le plus petit rang présent. */
+    private static final class Bucket {
+        private final long[] bits;
+        private int first; // aucun rang présent avant ce mot
+        private int size;
+
+        Bucket(int n) {
+            bits = new long[(n + 63) >>> 6];
+            first = bits.length;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int r) {
+            bits[r >>> 6] |= 1L << r;
+            first = Math.min(first, r >>> 6);
+            size++;
+        }
+
+        void remove(int r) {
+            bits[r >>> 6] &= ~(1L << r);
+            size--;
+        }
+
+        int pollFirst() {
+            while (bits[first] == 0L) first++;
+            int r = (first << 6) + Long.numberOfTrailingZeros(bits[first]);
+            bits[first] &= ~(1L << r);
+            size--;
+            return r;
+        }
+    }
+}
@@ -0,0 +1,625 @@
+package algo;
+
+import model.CompactGraph;
+import model.Vertex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hiérarchie de contraction (contraction hierarchies) pour les requêtes point à point
+ * répétées sur un réseau qui change rarement.
+ *
+ * Prétraitement : les sommets sont contractés un par un (ordre choisi par différence d'arêtes
+ * + voisins déjà contractés, avec mise à jour paresseuse) ; un raccourci u -> w est ajouté
+ * quand le chemin u -> v -> w est le seul plus court chemin (recherche de témoin bornée).
+ * Requête : Dijkstra bidirectionnel qui ne monte que vers des sommets de rang supérieur,
+ * puis dépliage des raccourcis pour retrouver le chemin complet.
+ *
+ * Fonctionne pour les graphes orientés comme non orientés. Le résultat se sauvegarde
+ * ({@link #save(String)}) pour ne pas refaire le prétraitement au démarrage.
+ */
+public final class ContractionHierarchy {
+    private static final int MAGIC = 0x54474348; // "TGCH"
+    private static final int FORMAT_VERSION = 1;
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final int[] rank;
+    // arcs montants u -> w (rank[w] > rank[u]) rangés chez u
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upMiddles; // sommet contourné par le raccourci, -1 pour un arc d'origine
+    // arcs x -> v avec rank[x] > rank[v], rangés chez v (parcourus à l'envers par la recherche arrière)
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final double[] downWeights;
+    private final int[] downMiddles;
+    private final long fingerprint;
+    private final ThreadLocal<Query> queries;
+
+    private ContractionHierarchy(int[] rank, int[] upOffsets, int[] upTargets, double[] upWeights,
+                                 int[] upMiddles, int[] downOffsets, int[] downSources,
+                                 double[] downWeights, int[] downMiddles, long fingerprint) {
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddles = upMiddles;
+        this.downOffsets = downOffsets;
+        this.downSources = downSources;
+        this.downWeights = downWeights;
+        this.downMiddles = downMiddles;
+        this.fingerprint = fingerprint;
+        this.queries = ThreadLocal.withInitial(() -> new Query(rank.length));
+    }
+
+    public int vertexCount() {
+        return rank.length;
+    }
+
+    public int rank(int v) {
+        return rank[v];
+    }
+
+    /** Nombre de raccourcis ajoutés par le prétraitement. */
+    public int shortcutCount() {
+        int count = 0;
+        for (int m : upMiddles) if (m >= 0) count++;
+        for (int m : downMiddles) if (m >= 0) count++;
+        return count;
+    }
+
+    /* ====================== PRETRAITEMENT ====================== */
+
+    public static ContractionHierarchy build(CompactGraph g) {
+        return new Contractor(g).run();
+    }
+
+    /** Liste d'arcs modifiable d'un sommet pendant la contraction (un seul arc par voisin). */
+    private static final class ArcList {
+        int[] to = new int[4];
+        double[] w = new double[4];
+        int[] mid = new int[4];
+        int size;
+
+        /** @return vrai si l'arc a été ajouté ou raccourci */
+        boolean addOrMin(int v, double weight, int middle) {
+            for (int i = 0; i < size; i++) {
+                if (to[i] == v) {
+                    if (weight < w[i]) {
+                        w[i] = weight;
+                        mid[i] = middle;
+                        return true;
+                    }
+                    return false;
+                }
+            }
+            if (size == to.length) {
+                to = Arrays.copyOf(to, size * 2);
+                w = Arrays.copyOf(w, size * 2);
+                mid = Arrays.copyOf(mid, size * 2);
+            }
+            to[size] = v;
+            w[size] = weight;
+            mid[size] = middle;
+            size++;
+            return true;
+        }
+
+        void remove(int v) {
+            for (int i = 0; i < size; i++) {
+                if (to[i] == v) {
+                    size--;
+                    to[i] = to[size];
+                    w[i] = w[size];
+                    mid[i] = mid[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Contractor {
+        final CompactGraph graph;
+        final int n;
+        final ArcList[] out;
+        final ArcList[] in;
+        final int[] deleted;    // voisins déjà contractés
+        final int[] rank;
+        // recherche de témoins
+        final double[] dist;
+        final int[] stamp;
+        final IndexedHeap heap;
+        int generation;
+        // arcs définitifs, figés au moment de la contraction de chaque sommet
+        final int[][] upTo;
+        final double[][] upW;
+        final int[][] upMid;
+        final int[][] downFrom;
+        final double[][] downW;
+        final int[][] downMid;
+
+        Contractor(CompactGraph g) {
+            graph = g;
+            n = g.vertexCount();
+            out = new ArcList[n];
+            in = new ArcList[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new ArcList();
+                in[v] = new ArcList();
+            }
+            for (int u = 0; u < n; u++) {
+                for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                    int v = g.target(a);
+                    if (v == u) continue;
+                    out[u].addOrMin(v, g.weight(a), -1);
+                    in[v].addOrMin(u, g.weight(a), -1);
+                }
+            }
+            deleted = new int[n];
+            rank = new int[n];
+            dist = new double[n];
+            stamp = new int[n];
+            heap = new IndexedHeap(n);
+            upTo = new int[n][];
+            upW = new double[n][];
+            upMid = new int[n][];
+            downFrom = new int[n][];
+            downW = new double[n][];
+            downMid = new int[n][];
+        }
+
+        ContractionHierarchy run() {
+            IndexedHeap order = new IndexedHeap(n);
+            for (int v = 0; v < n; v++) {
+                order.update(v, priority(v));
+            }
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.poll();
+                // mise à jour paresseuse : si la priorité a augmenté, on le remet dans la file
+                double p = priority(v);
+                if (!order.isEmpty() && p > order.minKey()) {
+                    order.update(v, p);
+                    continue;
+                }
+                rank[v] = next++;
+                contract(v);
+                for (int i = 0; i < out[v].size; i++) {
+                    neighbourContracted(order, out[v].to[i]);
+                }
+                for (int i = 0; i < in[v].size; i++) {
+                    neighbourContracted(order, in[v].to[i]);
+                }
+                freeze(v);
+            }
+            return assemble();
+        }
+
+        private void neighbourContracted(IndexedHeap order, int w) {
+            if (order.contains(w)) {
+                deleted[w]++;
+            }
+        }
+
+        /** Différence d'arêtes + voisins contractés : petit = à contracter tôt. */
+        private double priority(int v) {
+            int shortcuts = shortcuts(v, false);
+            return 2.0 * (shortcuts - in[v].size - out[v].size) + deleted[v];
+        }
+
+        private void contract(int v) {
+            shortcuts(v, true);
+        }
+
+        /** Compte (et ajoute si add) les raccourcis nécessaires pour contracter v. */
+        private int shortcuts(int v, boolean add) {
+            int count = 0;
+            ArcList ins = in[v];
+            ArcList outs = out[v];
+            for (int i = 0; i < ins.size; i++) {
+                int u = ins.to[i];
+                double wu = ins.w[i];
+                double bound = -1;
+                for (int j = 0; j < outs.size; j++) {
+                    if (outs.to[j] != u) bound = Math.max(bound, wu + outs.w[j]);
+                }
+                if (bound < 0) continue;
+                witnessSearch(u, v, bound);
+                for (int j = 0; j < outs.size; j++) {
+                    int w = outs.to[j];
+                    if (w == u) continue;
+                    double candidate = wu + outs.w[j];
+                    if (witnessDist(w) > candidate) {
+                        count++;
+                        if (add) {
+                            out[u].addOrMin(w, candidate, v);
+                            in[w].addOrMin(u, candidate, v);
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /** Dijkstra borné depuis u dans le graphe restant, sans passer par v. */
+        private void witnessSearch(int u, int v, double bound) {
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+            heap.clear();
+            stamp[u] = generation;
+            dist[u] = 0.0;
+            heap.insertOrDecrease(u, 0.0);
+            int settled = 0;
+            while (!heap.isEmpty() && heap.minKey() <= bound && settled < WITNESS_SETTLE_LIMIT) {
+                int x = heap.poll();
+                settled++;
+                double dx = dist[x];
+                ArcList l = out[x];
+                for (int i = 0; i < l.size; i++) {
+                    int y = l.to[i];
+                    if (y == v) continue;
+                    double alt = dx + l.w[i];
+                    if (stamp[y] != generation || alt < dist[y]) {
+                        stamp[y] = generation;
+                        dist[y] = alt;
+                        heap.insertOrDecrease(y, alt);
+                    }
+                }
+            }
+        }
+
+        private double witnessDist(int w) {
+            return stamp[w] == generation ? dist[w] : Double.POSITIVE_INFINITY;
+        }
+
+        /** Fige les arcs restants de v (tous vers des sommets de rang supérieur) et le retire du graphe. */
+        private void freeze(int v) {
+            ArcList o = out[v];
+            upTo[v] = Arrays.copyOf(o.to, o.size);
+            upW[v] = Arrays.copyOf(o.w, o.size);
+            upMid[v] = Arrays.copyOf(o.mid, o.size);
+            ArcList i = in[v];
+            downFrom[v] = Arrays.copyOf(i.to, i.size);
+            downW[v] = Arrays.copyOf(i.w, i.size);
+            downMid[v] = Arrays.copyOf(i.mid, i.size);
+            for (int k = 0; k < o.size; k++) {
+                in[o.to[k]].remove(v);
+            }
+            for (int k = 0; k < i.size; k++) {
+                out[i.to[k]].remove(v);
+            }
+            out[v] = null;
+            in[v] = null;
+        }
+
+        private ContractionHierarchy assemble() {
+            int[] upOffsets = new int[n + 1];
+            int[] downOffsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                upOffsets[v + 1] = upOffsets[v] + upTo[v].length;
+                downOffsets[v + 1] = downOffsets[v] + downFrom[v].length;
+            }
+            int[] upTargets = new int[upOffsets[n]];
+            double[] upWeights = new double[upOffsets[n]];
+            int[] upMiddles = new int[upOffsets[n]];
+            int[] downSources = new int[downOffsets[n]];
+            double[] downWeights = new double[downOffsets[n]];
+            int[] downMiddles = new int[downOffsets[n]];
+            for (int v = 0; v < n; v++) {
+                System.arraycopy(upTo[v], 0, upTargets, upOffsets[v], upTo[v].length);
+                System.arraycopy(upW[v], 0, upWeights, upOffsets[v], upW[v].length);
+                System.arraycopy(upMid[v], 0, upMiddles, upOffsets[v], upMid[v].length);
+                System.arraycopy(downFrom[v], 0, downSources, downOffsets[v], downFrom[v].length);
+                System.arraycopy(downW[v], 0, downWeights, downOffsets[v], downW[v].length);
+                System.arraycopy(downMid[v], 0, downMiddles, downOffsets[v], downMid[v].length);
+            }
+            return new ContractionHierarchy(rank, upOffsets, upTargets, upWeights, upMiddles,
+                    downOffsets, downSources, downWeights, downMiddles, fingerprint(graph));
+        }
+    }
+
+    /* ====================== REQUETES ====================== */
+
+    private static final class Query {
+        final double[] distF;
+        final double[] distB;
+        final int[] predArcF; // arc montant utilisé pour atteindre le sommet
+        final int[] predArcB; // arc descendant utilisé pour atteindre le sommet (recherche arrière)
+        final int[] stampF;
+        final int[] stampB;
+        final IndexedHeap heapF;
+        final IndexedHeap heapB;
+        int generation;
+
+        Query(int n) {
+            distF = new double[n];
+            distB = new double[n];
+            predArcF = new int[n];
+            predArcB = new int[n];
+            stampF = new int[n];
+            stampB = new int[n];
+            heapF = new IndexedHeap(n);
+            heapB = new IndexedHeap(n);
+        }
+    }
+
+    public double distance(int source, int target) {
+        return route(source, target, false).dist;
+    }
+
+    public PointToPoint.Route route(int source, int target) {
+        return route(source, target, true);
+    }
+
+    public List<Vertex> route(CompactGraph g, Vertex source, Vertex target) {
+        PointToPoint.Route r = route(GraphAlgorithms.indexOf(g, source), GraphAlgorithms.indexOf(g, target));
+        return r.exists() ? GraphAlgorithms.toVertices(g, r.path) : new ArrayList<>();
+    }
+
+    private PointToPoint.Route route(int s, int t, boolean withPath) {
+        Query q = queries.get();
+        if (++q.generation == Integer.MAX_VALUE) {
+            Arrays.fill(q.stampF, 0);
+            Arrays.fill(q.stampB, 0);
+            q.generation = 1;
+        }
+        int gen = q.generation;
+        q.heapF.clear();
+        q.heapB.clear();
+        q.stampF[s] = gen;
+        q.distF[s] = 0.0;
+        q.predArcF[s] = -1;
+        q.heapF.insertOrDecrease(s, 0.0);
+        q.stampB[t] = gen;
+        q.distB[t] = 0.0;
+        q.predArcB[t] = -1;
+        q.heapB.insertOrDecrease(t, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        int settled = 0;
+        while (true) {
+            boolean forwardOpen = !q.heapF.isEmpty() && q.heapF.minKey() < best;
+            boolean backwardOpen = !q.heapB.isEmpty() && q.heapB.minKey() < best;
+            if (!forwardOpen && !backwardOpen) break;
+            boolean forward = forwardOpen && (!backwardOpen || q.heapF.minKey() <= q.heapB.minKey());
+            settled++;
+            if (forward) {
+                int u = q.heapF.poll();
+                double du = q.distF[u];
+                if (q.stampB[u] == gen && du + q.distB[u] < best) {
+                    best = du + q.distB[u];
+                    meet = u;
+                }
+                for (int a = upOffsets[u]; a < upOffsets[u + 1]; a++) {
+                    int v = upTargets[a];
+                    double alt = du + upWeights[a];
+                    if (q.stampF[v] != gen || alt < q.distF[v]) {
+                        q.stampF[v] = gen;
+                        q.distF[v] = alt;
+                        q.predArcF[v] = a;
+                        q.heapF.insertOrDecrease(v, alt);
+                    }
+                }
+            } else {
+                int u = q.heapB.poll();
+                double du = q.distB[u];
+                if (q.stampF[u] == gen && du + q.distF[u] < best) {
+                    best = du + q.distF[u];
+                    meet = u;
+                }
+                for (int a = downOffsets[u]; a < downOffsets[u + 1]; a++) {
+                    int x = downSources[a];
+                    double alt = du + downWeights[a];
+                    if (q.stampB[x] != gen || alt < q.distB[x]) {
+                        q.stampB[x] = gen;
+                        q.distB[x] = alt;
+                        q.predArcB[x] = a;
+                        q.heapB.insertOrDecrease(x, alt);
+                    }
+                }
+            }
+        }
+        if (meet < 0) {
+            return new PointToPoint.Route(Double.POSITIVE_INFINITY, new int[0], settled);
+        }
+        return new PointToPoint.Route(best, withPath ? unpack(q, s, meet) : new int[0], settled);
+    }
+
+    /** Chemin complet : arcs montants s -> meet puis descendants meet -> t, raccourcis dépliés. */
+    private int[] unpack(Query q, int s, int meet) {
+        IntList up = new IntList();
+        for (int v = meet; v != s; ) {
+            int a = q.predArcF[v];
+            up.add(a);
+            v = sourceOfUpArc(a);
+        }
+        IntList path = new IntList();
+        path.add(s);
+        IntList stack = new IntList();
+        for (int i = up.size - 1; i >= 0; i--) {
+            int a = up.data[i];
+            unpackArc(sourceOfUpArc(a), upTargets[a], upMiddles[a], path, stack);
+        }
+        for (int v = meet; q.predArcB[v] >= 0; ) {
+            int a = q.predArcB[v];
+            int next = ownerOfDownArc(a);
+            unpackArc(v, next, downMiddles[a], path, stack);
+            v = next;
+        }
+        return Arrays.copyOf(path.data, path.size);
+    }
+
+    /**
+     * Déplie l'arc x -> y (raccourci via middle si middle >= 0) en ajoutant les sommets après x.
+     * Itératif : pile de triplets (x, y, middle).
+     */
+    private void unpackArc(int x, int y, int middle, IntList path, IntList stack) {
+        stack.add(x);
+        stack.add(y);
+        stack.add(middle);
+        while (stack.size > 0) {
+            int m = stack.data[--stack.size];
+            int b = stack.data[--stack.size];
+            int a = stack.data[--stack.size];
+            if (m < 0) {
+                path.add(b);
+                continue;
+            }
+            // a -> m est rangé chez m (arc descendant), m -> b aussi chez m (arc montant) ;
+            // on empile la seconde moitié d'abord pour dépiler la première
+            int second = findUp(m, b);
+            stack.add(m);
+            stack.add(b);
+            stack.add(upMiddles[second]);
+            int first = findDown(m, a);
+            stack.add(a);
+            stack.add(m);
+            stack.add(downMiddles[first]);
+        }
+    }
+
+    private int findUp(int from, int to) {
+        for (int a = upOffsets[from]; a < upOffsets[from + 1]; a++) {
+            if (upTargets[a] == to) return a;
+        }
+        throw new IllegalStateException("Raccourci incohérent " + from + " -> " + to);
+    }
+
+    private int findDown(int to, int from) {
+        for (int a = downOffsets[to]; a < downOffsets[to + 1]; a++) {
+            if (downSources[a] == from) return a;
+        }
+        throw new IllegalStateException("Raccourci incohérent " + from + " -> " + to);
+    }
+
+    private int sourceOfUpArc(int a) {
+        return ownerOf(upOffsets, a);
+    }
+
+    private int ownerOfDownArc(int a) {
+        return ownerOf(downOffsets, a);
+    }
+
+    private static int ownerOf(int[] offsets, int arc) {
+        int lo = 0;
+        int hi = offsets.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= arc) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private static final class IntList {
+        int[] data = new int[16];
+        int size;
+
+        void add(int v) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = v;
+        }
+    }
+
+    /* ====================== PERSISTANCE ====================== */
+
+    /** Empreinte du graphe (taille, arcs, poids) pour vérifier qu'une hiérarchie sauvée lui correspond. */
+    public static long fingerprint(CompactGraph g) {
+        long h = 1125899906842597L;
+        h = 31 * h + g.vertexCount();
+        h = 31 * h + g.arcCount();
+        h = 31 * h + (g.isDirected() ? 1 : 0);
+        for (int u = 0; u < g.vertexCount(); u++) {
+            for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                h = 31 * h + g.target(a);
+                h = 31 * h + Double.doubleToLongBits(g.weight(a));
+            }
+        }
+        return h;
+    }
+
+    public void save(String path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(rank.length);
+            writeInts(out, rank);
+            writeInts(out, upOffsets);
+            writeInts(out, upTargets);
+            writeDoubles(out, upWeights);
+            writeInts(out, upMiddles);
+            writeInts(out, downOffsets);
+            writeInts(out, downSources);
+            writeDoubles(out, downWeights);
+            writeInts(out, downMiddles);
+        }
+    }
+
+    /**
+     * Recharge une hiérarchie sauvegardée.
+     *
+     * @throws IOException si le fichier est invalide ou a été calculé pour un autre graphe
+     */
+    public static ContractionHierarchy load(String path, CompactGraph g) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("Fichier de hiérarchie invalide : " + path);
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) throw new IOException("Version de hiérarchie non supportée : " + version);
+            long fp = in.readLong();
+            if (fp != fingerprint(g)) throw new IOException("La hiérarchie ne correspond pas à ce territoire");
+            int n = in.readInt();
+            int[] rank = readInts(in, n);
+            int[] upOffsets = readInts(in, n + 1);
+            int[] upTargets = readInts(in, upOffsets[n]);
+            double[] upWeights = readDoubles(in, upOffsets[n]);
+            int[] upMiddles = readInts(in, upOffsets[n]);
+            int[] downOffsets = readInts(in, n + 1);
+            int[] downSources = readInts(in, downOffsets[n]);
+            double[] downWeights = readDoubles(in, downOffsets[n]);
+            int[] downMiddles = readInts(in, downOffsets[n]);
+            return new ContractionHierarchy(rank, upOffsets, upTargets, upWeights, upMiddles,
+                    downOffsets, downSources, downWeights, downMiddles, fp);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] a) throws IOException {
+        for (int x : a) out.writeInt(x);
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] a) throws IOException {
+        for (double x : a) out.writeDouble(x);
+    }
+
+    private static int[] readInts(DataInputStream in, int len) throws IOException {
+        int[] a = new int[len];
+        for (int i = 0; i < len; i++) a[i] = in.readInt();
+        return a;
+    }
+
+    private static double[] readDoubles(DataInputStream in, int len) throws IOException {
+        double[] a = new double[len];
+        for (int i = 0; i < len; i++) a[i] = in.readDouble();
+        return a;
+    }
+}
@@ -0,0 +1,259 @@
+package algo;
+
+import model.CompactGraph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Répartition de secteurs sur des jours de collecte avec deux contraintes :
+ * - deux secteurs voisins (arête du graphe) n'ont pas le même jour
+ * - la quantité collectée chaque jour ne dépasse pas la capacité
+ *
+ * 1. rangement glouton par quantités décroissantes : chaque secteur va dans le jour sans conflit
+ *    où il reste le plus de place (pire ajustement), sinon dans le jour le moins pénalisant.
+ *    Les charges restent équilibrées : chaque jour garde de la place pour les secteurs suivants,
+ *    qui ont souvent un voisin dans les autres jours. Le meilleur ajustement remplit un jour
+ *    jusqu'au bord et laisse bien plus de violations à réparer (jusqu'à 10 fois plus de temps
+ *    sur des grilles de 3000 secteurs à 3 % de marge)
+ * 2. réparation locale tant qu'il reste des violations : un secteur en faute est déplacé vers
+ *    un autre jour, ou échangé avec un secteur non voisin d'un autre jour ; les mouvements récents
+ *    sont interdits quelques itérations (tabou) pour sortir des minima locaux
+ *
+ * Charges par jour et nombre de voisins de chaque secteur dans chaque jour sont tenus à jour
+ * incrémentalement : un mouvement s'évalue en O(1) (déplacement) ou O(degré) (échange).
+ * Le tirage des secteurs à réparer a une graine fixe : le résultat ne dépend que des données.
+ */
+public final class DayScheduler {
+    private static final int TABU_TENURE = 7;
+    private static final int MAX_ITERATIONS_PER_SECTOR = 20;
+    private static final int STALL_ITERATIONS = 2000; // arrêt sans nouveau record pendant ce nombre d'itérations
+    private static final long SEED = 42L;
+
+    public static class Result {
+        public final int[] day;        // jour (0..days-1) de chaque secteur
+        public final double[] load;    // quantité collectée chaque jour
+        public final int conflicts;    // paires de voisins restées le même jour
+        public final double overload;  // dépassements de capacité cumulés
+
+        public Result(int[] day, double[] load, int conflicts, double overload) {
+            this.day = day;
+            this.load = load;
+            this.conflicts = conflicts;
+            this.overload = overload;
+        }
+
+        public boolean isFeasible() {
+            return conflicts == 0 && overload <= 1e-9;
+        }
+    }
+
+    private final CompactGraph g;
+    private final int n;
+    private final int days;
+    private final double[] q;
+    private final double capacity;
+    private final double conflictWeight; // un conflit coûte plus que n'importe quel dépassement
+
+    private final int[] day;
+    private final double[] load;
+    private final int[] neighboursIn;   // neighboursIn[v * days + d] : voisins de v placés le jour d
+    private final long[] tabuUntil;     // tabuUntil[v * days + d] : retour de v au jour d interdit jusque-là
+    private int conflicts;
+
+    private DayScheduler(CompactGraph g, double[] quantity, int days, double capacity) {
+        this.g = g;
+        this.n = g.vertexCount();
+        this.days = days;
+        this.q = quantity;
+        this.capacity = capacity;
+        double total = 0.0;
+        for (double x : quantity) total += x;
+        conflictWeight = total + 1.0;
+        day = new int[n];
+        Arrays.fill(day, -1);
+        load = new double[days];
+        neighboursIn = new int[n * days];
+        tabuUntil = new long[n * days];
+    }
+
+    /**
+     * @param quantity quantité de chaque secteur (indices du graphe)
+     * @param days     nombre de jours disponibles
+     * @param capacity quantité maximale collectée par jour
+     */
+    public static Result schedule(CompactGraph g, double[] quantity, int days, double capacity) {
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Planification ici pour graphe non orienté");
+        }
+        if (days <= 0) {
+            throw new IllegalArgumentException("Au moins un jour de collecte est nécessaire");
+        }
+        if (quantity.length != g.vertexCount()) {
+            throw new IllegalArgumentException("Une quantité par secteur est attendue");
+        }
+        DayScheduler s = new DayScheduler(g.open(), quantity, days, capacity); // rue fermée : plus voisins
+        s.pack();
+        s.repair();
+        double overload = 0.0;
+        for (double l : s.load) overload += Math.max(0.0, l - capacity);
+        return new Result(s.day, s.load, s.conflicts, overload);
+    }
+
+    /* ====================== RANGEMENT INITIAL ====================== */
+
+    private void pack() {
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) order[v] = v;
+        Arrays.sort(order, (a, b) -> q[a] != q[b] ? Double.compare(q[b], q[a]) : Integer.compare(a, b));
+        for (int v : order) {
+            int best = -1;
+            double bestSlack = Double.POSITIVE_INFINITY;
+            for (int d = 0; d < days; d++) {
+                double slack = capacity - load[d] - q[v];
+                if (neighboursIn[v * days + d] == 0 && slack >= 0 && (best < 0 || slack > bestSlack)) {
+                    bestSlack = slack;
+                    best = d;
+                }
+            }
+            if (best < 0) {
+                double bestCost = Double.POSITIVE_INFINITY;
+                for (int d = 0; d < days; d++) {
+                    double cost = conflictWeight * neighboursIn[v * days + d] + over(load[d] + q[v]);
+                    if (best < 0 || cost < bestCost) {
+                        bestCost = cost;
+                        best = d;
+                    }
+                }
+            }
+            place(v, best);
+        }
+    }
+
+    private void place(int v, int d) {
+        day[v] = d;
+        load[d] += q[v];
+        conflicts += neighboursIn[v * days + d];
+        for (int a = g.firstArc(v), end = g.endArc(v); a < end; a++) {
+            int u = g.target(a);
+            if (u != v) neighboursIn[u * days + d]++;
+        }
+    }
+
+    private void remove(int v) {
+        int d = day[v];
+        load[d] -= q[v];
+        conflicts -= neighboursIn[v * days + d];
+        for (int a = g.firstArc(v), end = g.endArc(v); a < end; a++) {
+            int u = g.target(a);
+            if (u != v) neighboursIn[u * days + d]--;
+        }
+        day[v] = -1;
+    }
+
+    /* ====================== REPARATION LOCALE ====================== */
+
+    private double over(double l) {
+        return Math.max(0.0, l - capacity);
+    }
+
+    private double penalty() {
+        double p = conflictWeight * conflicts;
+        for (double l : load) p += over(l);
+        return p;
+    }
+
+    /** Variation de pénalité si v passe au jour d. */
+    private double moveDelta(int v, int d) {
+        int c = day[v];
+        return conflictWeight * (neighboursIn[v * days + d] - neighboursIn[v * days + c])
+                + over(load[c] - q[v]) - over(load[c]) + over(load[d] + q[v]) - over(load[d]);
+    }
+
+    /** Variation de pénalité si u et v (non voisins, jours différents) échangent leurs jours. */
+    private double swapDelta(int u, int v) {
+        int du = day[u];
+        int dv = day[v];
+        double diff = q[v] - q[u];
+        return conflictWeight * (neighboursIn[u * days + dv] - neighboursIn[u * days + du]
+                + neighboursIn[v * days + du] - neighboursIn[v * days + dv])
+                + over(load[du] + diff) - over(load[du]) + over(load[dv] - diff) - over(load[dv]);
+    }
+
+    private boolean adjacent(int u, int v) {
+        for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+            if (g.target(a) == v) return true;
+        }
+        return false;
+    }
+
+    private boolean faulty(int v) {
+        return neighboursIn[v * days + day[v]] > 0 || load[day[v]] > capacity;
+    }
+
+    private void repair() {
+        double current = penalty();
+        double best = current;
+        int[] bestDay = day.clone();
+        int[] faulty = new int[n];
+        Random random = new Random(SEED);
+        long maxIterations = (long) MAX_ITERATIONS_PER_SECTOR * n + STALL_ITERATIONS;
+        long lastRecord = 0;
+        for (long it = 0; it < maxIterations && best > 1e-9 && it - lastRecord < STALL_ITERATIONS; it++) {
+            int count = 0;
+            for (int v = 0; v < n; v++) {
+                if (faulty(v)) faulty[count++] = v;
+            }
+            if (count == 0) break;
+            // un secteur en faute tiré au hasard (graine fixe), son meilleur mouvement non tabou
+            // (aspiration : un mouvement tabou est permis s'il bat le record)
+            int v = faulty[random.nextInt(count)];
+            int dv = day[v];
+            int mv = -1;
+            int md = -1;
+            double bestDelta = Double.POSITIVE_INFINITY;
+            for (int d = 0; d < days; d++) {
+                if (d == dv) continue;
+                double delta = moveDelta(v, d);
+                if (delta < bestDelta && (tabuUntil[v * days + d] <= it || current + delta < best - 1e-9)) {
+                    bestDelta = delta;
+                    md = d;
+                }
+            }
+            // échange avec un secteur non voisin d'un autre jour
+            for (int u = 0; u < n; u++) {
+                int du = day[u];
+                if (du == dv) continue;
+                double delta = swapDelta(v, u);
+                if (delta >= bestDelta) continue;
+                boolean tabu = tabuUntil[v * days + du] > it || tabuUntil[u * days + dv] > it;
+                if ((!tabu || current + delta < best - 1e-9) && !adjacent(u, v)) {
+                    bestDelta = delta;
+                    mv = u;
+                    md = du;
+                }
+            }
+            if (md < 0) continue;
+            tabuUntil[v * days + dv] = it + TABU_TENURE;
+            remove(v);
+            if (mv >= 0) {
+                tabuUntil[mv * days + md] = it + TABU_TENURE;
+                remove(mv);
+                place(mv, dv);
+            }
+            place(v, md);
+            current = penalty();
+            if (current < best - 1e-9) {
+                best = current;
+                lastRecord = it;
+                System.arraycopy(day, 0, bestDay, 0, n);
+            }
+        }
+        if (current > best) {
+            Arrays.fill(load, 0.0);
+            Arrays.fill(neighboursIn, 0);
+            conflicts = 0;
+            for (int v = 0; v < n; v++) place(v, bestDay[v]);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package algo;
+
+import metrics.Metrics;
+import metrics.Operation;
+import model.CompactGraph;
+import model.VertexDictionary;
+
+import java.util.Arrays;
+
+/**
+ * Partage du réseau entre plusieurs dépôts (cellules de Voronoï sur le graphe) : chaque sommet
+ * est rattaché au dépôt le plus proche, avec sa distance, par un seul Dijkstra multi-sources en
+ * O((V + E) log V), au lieu d'une recherche par dépôt. En cas d'égalité de distance, le dépôt
+ * cité le premier l'emporte ; le prédécesseur de chaque sommet est alors dans la même cellule,
+ * si bien que chaque cellule contient les plus courts chemins depuis son dépôt.
+ *
+ * Orienté : distances depuis les dépôts (départ des camions), ou vers les dépôts (retour)
+ * avec towardDepots = true, calculées sur le graphe transposé.
+ * {@link #subgraphs()} découpe le réseau en sous-graphes indépendants (mêmes ids de sommets),
+ * que l'on peut planifier en parallèle.
+ */
+public final class DepotPartition {
+    private final CompactGraph graph;
+    private final int[] depots;
+    private final int[] owner;    // rang du dépôt dans depots, -1 si inaccessible
+    private final double[] dist;
+    private final int[] pred;
+    private final boolean towardDepots;
+
+    private DepotPartition(CompactGraph graph, int[] depots, int[] owner, double[] dist, int[] pred,
+                           boolean towardDepots) {
+        this.graph = graph;
+        this.depots = depots;
+        this.owner = owner;
+        this.dist = dist;
+        this.pred = pred;
+        this.towardDepots = towardDepots;
+    }
+
+    /** Partage selon la distance depuis les dépôts. */
+    public static DepotPartition compute(CompactGraph g, int[] depots) {
+        return compute(g, depots, false);
+    }
+
+    /**
+     * @param depots       sommets des dépôts (un dépôt cité deux fois ne compte qu'une fois)
+     * @param towardDepots distances vers les dépôts plutôt que depuis (seulement si orienté)
+     */
+    public static DepotPartition compute(CompactGraph g, int[] depots, boolean towardDepots) {
+        if (depots.length == 0) {
+            throw new IllegalArgumentException("Au moins un dépôt est attendu");
+        }
+        Metrics.Span span = Metrics.begin(Operation.PARTITION_DEPOTS);
+        try {
+            CompactGraph search = towardDepots ? g.reverse() : g;
+            int n = g.vertexCount();
+            double[] dist = new double[n];
+            int[] owner = new int[n];
+            int[] pred = new int[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(owner, -1);
+            Arrays.fill(pred, -1);
+            boolean[] settled = new boolean[n];
+            IndexedHeap heap = new IndexedHeap(n);
+            for (int i = 0; i < depots.length; i++) {
+                int d = depots[i];
+                if (d < 0 || d >= n) {
+                    throw new IllegalArgumentException("Dépôt hors du graphe : " + d);
+                }
+                if (owner[d] < 0) {
+                    owner[d] = i;
+                    dist[d] = 0.0;
+                    heap.insertOrDecrease(d, 0.0);
+                }
+            }
+
+            long count = 0;
+            long relaxed = 0;
+            long improved = 0;
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                settled[u] = true;
+                count++;
+                double du = dist[u];
+                for (int a = search.firstArc(u), end = search.endArc(u); a < end; a++) {
+                    int v = search.target(a);
+                    relaxed++;
+                    if (settled[v]) continue;
+                    double alt = du + search.weight(a);
+                    if (alt < dist[v]) {
+                        dist[v] = alt;
+                        owner[v] = owner[u];
+                        pred[v] = u;
+                        heap.insertOrDecrease(v, alt);
+                        improved++;
+                    } else if (alt == dist[v] && owner[u] < owner[v]) {
+                        owner[v] = owner[u]; // égalité : le premier dépôt de la liste
+                        pred[v] = u;
+                    }
+                }
+            }
+            Metrics.work(count, relaxed, count + improved + depots.length);
+            return new DepotPartition(g, depots.clone(), owner, dist, pred, towardDepots);
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    public int depotCount() {
+        return depots.length;
+    }
+
+    /** Sommet du dépôt de rang r. */
+    public int depot(int r) {
+        return depots[r];
+    }
+
+    /** Rang (dans la liste des dépôts) du dépôt de v, -1 si v est inaccessible. */
+    public int owner(int v) {
+        return owner[v];
+    }
+
+    /** Distance entre v et son dépôt (POSITIVE_INFINITY si inaccessible). */
+    public double dist(int v) {
+        return dist[v];
+    }
+
+    /**
+     * Chemin entre le dépôt de v et v, dans le sens des distances calculées
+     * (dépôt -> v, ou v -> dépôt si towardDepots) ; vide si v est inaccessible.
+     */
+    public int[] path(int v) {
+        if (owner[v] < 0) return new int[0];
+        int len = 1;
+        for (int x = v; pred[x] >= 0; x = pred[x]) len++;
+        int[] path = new int[len];
+        int i = towardDepots ? 0 : len - 1;
+        for (int x = v; x >= 0; x = pred[x]) {
+            path[i] = x;
+            i += towardDepots ? 1 : -1;
+        }
+        return path;
+    }
+
+    /** Sommets de la cellule du dépôt de rang r, par indice croissant. */
+    public int[] cell(int r) {
+        int size = 0;
+        for (int o : owner) {
+            if (o == r) size++;
+        }
+        int[] res = new int[size];
+        size = 0;
+        for (int v = 0; v < owner.length; v++) {
+            if (owner[v] == r) res[size++] = v;
+        }
+        return res;
+    }
+
+    /** Nombre de sommets de chaque cellule. */
+    public int[] cellSizes() {
+        int[] sizes = new int[depots.length];
+        for (int o : owner) {
+            if (o >= 0) sizes[o]++;
+        }
+        return sizes;
+    }
+
+    /**
+     * Sous-graphe de chaque cellule (une case par dépôt, dans l'ordre des dépôts) : ses sommets,
+     * avec les mêmes ids, libellés et coordonnées, et les arêtes dont les deux extrémités y sont.
+     * Les arêtes entre deux cellules sont écartées, comme les rues fermées. Un dépôt cité deux fois
+     * a un sous-graphe vide. Un seul parcours des arcs pour toutes les cellules.
+     */
+    public CompactGraph[] subgraphs() {
+        CompactGraph graph = this.graph.open();
+        int k = depots.length;
+        int n = graph.vertexCount();
+        int[] local = new int[n];          // indice du sommet dans sa cellule
+        int[] sizes = new int[k];
+        for (int v = 0; v < n; v++) {
+            local[v] = owner[v] < 0 ? -1 : sizes[owner[v]]++;
+        }
+        int[] edges = new int[k];
+        boolean[] seen = new boolean[graph.edgeCount()];
+        for (int u = 0; u < n; u++) {
+            for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+                int e = graph.arcEdge(a);
+                if (!seen[e]) {
+                    seen[e] = true;
+                    if (owner[u] >= 0 && owner[u] == owner[graph.target(a)]) edges[owner[u]]++;
+                }
+            }
+        }
+
+        VertexDictionary dict = graph.dictionary();
+        String[][] ids = new String[k][];
+        String[][] labels = new String[k][];
+        double[][] xs = new double[k][];
+        double[][] ys = new double[k][];
+        int[][] from = new int[k][];
+        int[][] to = new int[k][];
+        double[][] w = new double[k][];
+        for (int r = 0; r < k; r++) {
+            ids[r] = new String[sizes[r]];
+            labels[r] = new String[sizes[r]];
+            xs[r] = new double[sizes[r]];
+            ys[r] = new double[sizes[r]];
+            from[r] = new int[edges[r]];
+            to[r] = new int[edges[r]];
+            w[r] = new double[edges[r]];
+        }
+        for (int v = 0; v < n; v++) {
+            int r = owner[v];
+            if (r < 0) continue;
+            ids[r][local[v]] = dict.id(v);
+            labels[r][local[v]] = dict.label(v);
+            xs[r][local[v]] = graph.hasCoordinates() ? graph.x(v) : Double.NaN;
+            ys[r][local[v]] = graph.hasCoordinates() ? graph.y(v) : Double.NaN;
+        }
+        Arrays.fill(seen, false);
+        Arrays.fill(edges, 0);
+        for (int u = 0; u < n; u++) {
+            for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+                int e = graph.arcEdge(a);
+                int v = graph.target(a);
+                if (seen[e]) continue;
+                seen[e] = true;
+                int r = owner[u];
+                if (r >= 0 && r == owner[v]) {
+                    from[r][edges[r]] = local[u];
+                    to[r][edges[r]] = local[v];
+                    w[r][edges[r]++] = graph.weight(a);
+                }
+            }
+        }
+        CompactGraph[] res = new CompactGraph[k];
+        for (int r = 0; r < k; r++) {
+            res[r] = CompactGraph.of(graph.isDirected(), ids[r], labels[r], xs[r], ys[r], from[r], to[r], w[r], edges[r]);
+        }
+        return res;
+    }
+}
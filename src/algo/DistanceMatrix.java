@@ -0,0 +1,167 @@
+package algo;
+
+import model.CompactGraph;
+import model.Graph;
+import model.Vertex;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Matrice des distances entre un ensemble de points (dépôt + points de collecte).
+ *
+ * Une seule recherche Dijkstra par point source, arrêtée dès que tous les points sont fixés ;
+ * les recherches sont réparties sur un pool fork-join. Les distances sont rangées dans un
+ * double[] à plat (ligne i = départ du point i), les chemins eux-mêmes ne sont recalculés
+ * qu'à la demande ({@link #leg(int, int)}).
+ */
+public final class DistanceMatrix {
+    private final CompactGraph graph;
+    private final int[] points;
+    private final double[] dist;
+    private final Map<Integer, Integer> rows = new HashMap<>();
+    private volatile Boolean symmetric; // calculé au premier appel de isSymmetric()
+
+    private DistanceMatrix(CompactGraph graph, int[] points, double[] dist) {
+        this.graph = graph;
+        this.points = points;
+        this.dist = dist;
+        for (int i = points.length - 1; i >= 0; i--) {
+            rows.put(points[i], i);
+        }
+    }
+
+    public static DistanceMatrix compute(CompactGraph g, int[] points) {
+        return compute(g, points, ForkJoinPool.commonPool());
+    }
+
+    public static DistanceMatrix compute(CompactGraph g, int[] points, ForkJoinPool pool) {
+        int k = points.length;
+        double[] dist = new double[k * k];
+        pool.submit(() -> IntStream.range(0, k).parallel().forEach(i -> {
+            ShortestPaths.Workspace ws = ShortestPaths.workspace(g);
+            ws.run(points[i], points);
+            int row = i * k;
+            for (int j = 0; j < k; j++) {
+                dist[row + j] = ws.isSettled(points[j]) ? ws.dist(points[j]) : Double.POSITIVE_INFINITY;
+            }
+        })).join();
+        return new DistanceMatrix(g, points.clone(), dist);
+    }
+
+    /**
+     * Variante s'appuyant sur un cache : la ligne d'une source dont l'arbre est déjà en cache
+     * (dépôt, foyer...) y est lue ; les autres sont calculées par recherche bornée, comme
+     * {@link #compute(CompactGraph, int[])}, sans être ajoutées au cache : une grande matrice
+     * n'évince pas les arbres que l'on veut garder.
+     */
+    public static DistanceMatrix compute(Graph g, int[] points, ShortestPathCache cache) {
+        CompactGraph cg = g.compact();
+        int k = points.length;
+        double[] dist = new double[k * k];
+        ForkJoinPool.commonPool().submit(() -> IntStream.range(0, k).parallel().forEach(i -> {
+            ShortestPathTree t = cache.peek(g, points[i]);
+            int row = i * k;
+            if (t != null) {
+                for (int j = 0; j < k; j++) {
+                    dist[row + j] = t.dist(points[j]);
+                }
+            } else {
+                ShortestPaths.Workspace ws = ShortestPaths.workspace(cg);
+                ws.run(points[i], points);
+                for (int j = 0; j < k; j++) {
+                    dist[row + j] = ws.isSettled(points[j]) ? ws.dist(points[j]) : Double.POSITIVE_INFINITY;
+                }
+            }
+        })).join();
+        return new DistanceMatrix(cg, points.clone(), dist);
+    }
+
+    /** Matrice sur les sommets donnés, dans l'ordre de la liste. */
+    public static DistanceMatrix of(Graph g, List<Vertex> points) {
+        return compute(g.compact(), indices(g, points));
+    }
+
+    public static DistanceMatrix of(Graph g, List<Vertex> points, ShortestPathCache cache) {
+        return compute(g, indices(g, points), cache);
+    }
+
+    private static int[] indices(Graph g, List<Vertex> points) {
+        CompactGraph cg = g.compact();
+        int[] idx = new int[points.size()];
+        for (int i = 0; i < idx.length; i++) {
+            idx[i] = GraphAlgorithms.indexOf(cg, points.get(i));
+        }
+        return idx;
+    }
+
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    public int size() {
+        return points.length;
+    }
+
+    /** Sommet (indice dans le graphe compact) de la ligne i. */
+    public int point(int i) {
+        return points[i];
+    }
+
+    /** @return la première ligne correspondant au sommet, -1 s'il n'est pas dans la matrice */
+    public int rowOf(int vertex) {
+        Integer r = rows.get(vertex);
+        return r == null ? -1 : r;
+    }
+
+    public double get(int i, int j) {
+        return dist[i * points.length + j];
+    }
+
+    /** Vrai si d(i, j) = d(j, i) pour tous les points (toujours le cas sur un graphe non orienté). */
+    public boolean isSymmetric() {
+        Boolean s = symmetric;
+        if (s == null) {
+            s = !graph.isDirected() || computeSymmetric();
+            symmetric = s;
+        }
+        return s;
+    }
+
+    private boolean computeSymmetric() {
+        int k = points.length;
+        for (int i = 0; i < k; i++) {
+            for (int j = i + 1; j < k; j++) {
+                if (dist[i * k + j] != dist[j * k + i]) return false;
+            }
+        }
+        return true;
+    }
+
+    /** Matrice à plat, ligne par ligne (ne pas modifier). */
+    public double[] values() {
+        return dist;
+    }
+
+    /** Longueur d'une tournée exprimée en lignes de la matrice. */
+    public double tourLength(int[] tour) {
+        double total = 0.0;
+        for (int i = 0; i + 1 < tour.length; i++) {
+            total += get(tour[i], tour[i + 1]);
+        }
+        return total;
+    }
+
+    /**
+     * Chemin complet (sommets du graphe) du point i au point j, recalculé à la demande
+     * par une recherche bornée.
+     */
+    public int[] leg(int i, int j) {
+        ShortestPaths.Workspace ws = ShortestPaths.workspace(graph);
+        ws.run(points[i], new int[]{points[j]});
+        return ws.pathTo(points[j]);
+    }
+}
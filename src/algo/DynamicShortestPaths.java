@@ -0,0 +1,337 @@
+package algo;
+
+import model.CompactGraph;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Arbres de plus courts chemins tenus à jour quand le poids d'une arête change
+ * (fermeture d'une rue = poids infini), sans tout recalculer (Ramalingam et Reps) :
+ * - baisse : Dijkstra relancé depuis la seule extrémité améliorée, il s'arrête dès que
+ *   plus aucune distance ne baisse
+ * - hausse d'un arc de l'arbre : seul le sous-arbre sous cet arc est touché ; ses sommets
+ *   repartent des meilleurs arcs entrants venant du reste de l'arbre, puis Dijkstra limité
+ *   au sous-arbre
+ * - hausse d'un arc hors de l'arbre : rien à faire
+ *
+ * Les poids courants sont gardés ici (le graphe compact d'origine n'est pas modifié), indexés
+ * comme ses arêtes : {@link model.Graph#updateEdgeWeight} et {@link model.Graph#removeEdge}
+ * gardent ces indices, on peut donc relayer leurs notifications ({@link model.GraphListener})
+ * vers {@link #setWeight}, comme le fait {@link ShortestPathCache}.
+ * Méthodes synchronisées : mises à jour et lectures depuis plusieurs threads ; lire un arbre par
+ * {@link #snapshot(int)} pour une vue cohérente.
+ */
+public final class DynamicShortestPaths {
+    private final CompactGraph g;
+    private final CompactGraph in;     // arcs entrants (le graphe lui-même s'il est non orienté)
+    private final int n;
+    private final double[] weight;     // poids courant de chaque arête
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final Map<Integer, Tree> trees = new LinkedHashMap<>();
+
+    // espace de travail partagé par les réparations
+    private final IndexedHeap heap;
+    private final int[] mark;          // mark[v] == stamp : v est dans le sous-arbre en cours de réparation
+    private final int[] queue;
+    private int stamp;
+
+    /** Arbre d'une source : distance, prédécesseur et arête empruntée pour chaque sommet. */
+    public final class Tree {
+        private final int source;
+        private final double[] dist;
+        private final int[] pred;
+        private final int[] predEdge;
+
+        private Tree(int source) {
+            this.source = source;
+            dist = new double[n];
+            pred = new int[n];
+            predEdge = new int[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(pred, -1);
+            Arrays.fill(predEdge, -1);
+            dist[source] = 0.0;
+            heap.insertOrDecrease(source, 0.0);
+            relaxAll(this);
+        }
+
+        /** Reprise d'un arbre déjà calculé sur les poids courants : l'arête de chaque arc d'arbre est retrouvée. */
+        private Tree(ShortestPathTree t) {
+            source = t.source();
+            dist = new double[n];
+            pred = new int[n];
+            predEdge = new int[n];
+            for (int v = 0; v < n; v++) {
+                dist[v] = t.dist(v);
+                int u = t.pred(v);
+                pred[v] = u;
+                predEdge[v] = u < 0 ? -1 : treeEdge(u, v, t.dist(u), dist[v]);
+            }
+        }
+
+        public int source() {
+            return source;
+        }
+
+        public double dist(int v) {
+            synchronized (DynamicShortestPaths.this) {
+                return dist[v];
+            }
+        }
+
+        public int pred(int v) {
+            synchronized (DynamicShortestPaths.this) {
+                return pred[v];
+            }
+        }
+
+        /** @return les sommets du chemin source -> target, tableau vide s'il n'existe pas */
+        public int[] pathTo(int target) {
+            return snapshot().pathTo(target);
+        }
+
+        /** Copie figée de l'arbre courant. */
+        public ShortestPathTree snapshot() {
+            synchronized (DynamicShortestPaths.this) {
+                return new ShortestPathTree(g, source, dist.clone(), pred.clone());
+            }
+        }
+    }
+
+    public DynamicShortestPaths(CompactGraph g) {
+        this.g = g;
+        this.in = g.reverse();
+        this.n = g.vertexCount();
+        int m = g.edgeCount();
+        weight = new double[m];
+        edgeFrom = new int[m];
+        edgeTo = new int[m];
+        Arrays.fill(edgeFrom, -1);
+        for (int u = 0; u < n; u++) {
+            for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                int e = g.arcEdge(a);
+                if (edgeFrom[e] < 0) {
+                    edgeFrom[e] = u;
+                    edgeTo[e] = g.target(a);
+                    weight[e] = g.weight(a);
+                }
+            }
+        }
+        heap = new IndexedHeap(n);
+        mark = new int[n];
+        queue = new int[n];
+    }
+
+    public CompactGraph graph() {
+        return g;
+    }
+
+    /** Arbre de la source, calculé (Dijkstra complet) au premier appel puis tenu à jour. */
+    public synchronized Tree tree(int source) {
+        Tree t = trees.get(source);
+        if (t == null) {
+            t = new Tree(source);
+            trees.put(source, t);
+        }
+        return t;
+    }
+
+    /**
+     * Tient à jour un arbre déjà calculé, sans refaire de Dijkstra. Il doit avoir été calculé sur
+     * la même structure et sur les poids courants de cette instance.
+     */
+    public synchronized Tree track(ShortestPathTree t) {
+        Tree res = new Tree(t);
+        trees.put(res.source, res);
+        return res;
+    }
+
+    /** Vrai si l'arbre de cette source est tenu à jour. */
+    public synchronized boolean tracks(int source) {
+        return trees.containsKey(source);
+    }
+
+    /** Copie figée de l'arbre de la source (calculé s'il n'est pas encore tenu à jour). */
+    public synchronized ShortestPathTree snapshot(int source) {
+        return tree(source).snapshot();
+    }
+
+    /** L'arbre de cette source n'est plus tenu à jour. */
+    public synchronized void forget(int source) {
+        trees.remove(source);
+    }
+
+    /** Taille approximative en mémoire d'un arbre tenu à jour, en octets. */
+    public long treeFootprint() {
+        return 64L + n * 16L;
+    }
+
+    public synchronized double weight(int edge) {
+        return weight[edge];
+    }
+
+    /** Arête d'un arc u -> v de l'arbre : celle qui redonne exactement dv depuis du, sinon la plus légère. */
+    private int treeEdge(int u, int v, double du, double dv) {
+        int best = -1;
+        for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+            if (g.target(a) != v) continue;
+            int e = g.arcEdge(a);
+            if (du + weight[e] == dv) return e;
+            if (best < 0 || weight[e] < weight[best]) best = e;
+        }
+        return best;
+    }
+
+    /** Arête la plus légère from -> to (dans un sens ou l'autre si non orienté), -1 s'il n'y en a pas. */
+    public synchronized int edge(int from, int to) {
+        int best = -1;
+        for (int a = g.firstArc(from), end = g.endArc(from); a < end; a++) {
+            int e = g.arcEdge(a);
+            if (g.target(a) == to && (best < 0 || weight[e] < weight[best])) {
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    /** Fermeture d'une rue : poids infini. */
+    public synchronized int close(int edge) {
+        return setWeight(edge, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Change le poids d'une arête et répare tous les arbres.
+     *
+     * @return nombre de distances modifiées (tous arbres confondus)
+     */
+    public synchronized int setWeight(int edge, double w) {
+        if (w < 0 || Double.isNaN(w)) {
+            throw new IllegalArgumentException("Poids négatif ou invalide : " + w);
+        }
+        double old = weight[edge];
+        if (w == old) return 0;
+        weight[edge] = w;
+        int u = edgeFrom[edge];
+        int v = edgeTo[edge];
+        int changed = 0;
+        for (Tree t : trees.values()) {
+            if (w < old) {
+                changed += decrease(t, u, v, edge);
+                if (!g.isDirected()) changed += decrease(t, v, u, edge);
+            } else {
+                changed += increase(t, u, v, edge);
+                if (!g.isDirected()) changed += increase(t, v, u, edge);
+            }
+        }
+        return changed;
+    }
+
+    /* ====================== BAISSE ====================== */
+
+    private int decrease(Tree t, int u, int v, int edge) {
+        double d = t.dist[u] + weight[edge];
+        if (!(d < t.dist[v])) return 0;
+        t.dist[v] = d;
+        t.pred[v] = u;
+        t.predEdge[v] = edge;
+        heap.insertOrDecrease(v, d);
+        return relaxAll(t);
+    }
+
+    /** Dijkstra à partir du contenu du tas ; renvoie le nombre de sommets sortis du tas. */
+    private int relaxAll(Tree t) {
+        int count = 0;
+        while (!heap.isEmpty()) {
+            double d = heap.minKey();
+            int x = heap.poll();
+            count++;
+            for (int a = g.firstArc(x), end = g.endArc(x); a < end; a++) {
+                int e = g.arcEdge(a);
+                int y = g.target(a);
+                double nd = d + weight[e];
+                if (nd < t.dist[y]) {
+                    t.dist[y] = nd;
+                    t.pred[y] = x;
+                    t.predEdge[y] = e;
+                    heap.insertOrDecrease(y, nd);
+                }
+            }
+        }
+        return count;
+    }
+
+    /* ====================== HAUSSE ====================== */
+
+    private int increase(Tree t, int u, int v, int edge) {
+        if (t.pred[v] != u || t.predEdge[v] != edge) return 0; // arc hors de l'arbre
+        if (++stamp == 0) {
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+        // sous-arbre de v : les fils de x sont les cibles des arcs de x qui sont leurs arcs d'arbre
+        int size = 0;
+        queue[size++] = v;
+        mark[v] = stamp;
+        for (int i = 0; i < size; i++) {
+            int x = queue[i];
+            for (int a = g.firstArc(x), end = g.endArc(x); a < end; a++) {
+                int y = g.target(a);
+                if (mark[y] != stamp && t.pred[y] == x && t.predEdge[y] == g.arcEdge(a)) {
+                    mark[y] = stamp;
+                    queue[size++] = y;
+                }
+            }
+        }
+        double[] before = new double[size];
+        for (int i = 0; i < size; i++) {
+            int y = queue[i];
+            before[i] = t.dist[y];
+            t.dist[y] = Double.POSITIVE_INFINITY;
+            t.pred[y] = -1;
+            t.predEdge[y] = -1;
+        }
+        // meilleur arc entrant depuis la partie intacte de l'arbre
+        for (int i = 0; i < size; i++) {
+            int y = queue[i];
+            for (int a = in.firstArc(y), end = in.endArc(y); a < end; a++) {
+                int z = in.target(a);
+                if (mark[z] == stamp) continue;
+                int e = in.arcEdge(a);
+                double d = t.dist[z] + weight[e];
+                if (d < t.dist[y]) {
+                    t.dist[y] = d;
+                    t.pred[y] = z;
+                    t.predEdge[y] = e;
+                }
+            }
+            if (t.dist[y] != Double.POSITIVE_INFINITY) {
+                heap.insertOrDecrease(y, t.dist[y]);
+            }
+        }
+        // Dijkstra limité au sous-arbre : les autres distances ne peuvent pas baisser
+        while (!heap.isEmpty()) {
+            double d = heap.minKey();
+            int x = heap.poll();
+            for (int a = g.firstArc(x), end = g.endArc(x); a < end; a++) {
+                int y = g.target(a);
+                if (mark[y] != stamp) continue;
+                int e = g.arcEdge(a);
+                double nd = d + weight[e];
+                if (nd < t.dist[y]) {
+                    t.dist[y] = nd;
+                    t.pred[y] = x;
+                    t.predEdge[y] = e;
+                    heap.insertOrDecrease(y, nd);
+                }
+            }
+        }
+        int changed = 0;
+        for (int i = 0; i < size; i++) {
+            if (t.dist[queue[i]] != before[i]) changed++;
+        }
+        return changed;
+    }
+}
@@ -1,44 +1,104 @@
 package algo;
 
+import metrics.Metrics;
+import metrics.Operation;
+import model.CompactGraph;
 import model.Edge;
 import model.Graph;
 import model.Vertex;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Algorithmes sur les graphes :
- * - BFS
+ * - BFS (parallèle à direction optimisée : {@link BreadthFirstSearch})
  * - Dijkstra
- * - MST (Prim)
+ * - MST (Prim ; forêt couvrante parallèle : {@link MinimumSpanningForest})
  * - Cycle eulérien (Hierholzer)
- * - TSP heuristique (plus proche voisin)
- * - Coloration gloutonne
+ * - TSP heuristique (plus proche voisin, double arbre)
+ * - Coloration gloutonne (autres stratégies : {@link ColoringEngine})
+ *
+ * Chaque algorithme travaille sur la forme compacte {@link CompactGraph} (sommets = indices int) ;
+ * les versions prenant un {@link Graph} se contentent de convertir entrées et résultats.
+ * Les versions compactes sont instrumentées ({@link Metrics}, sans coût si désactivé).
  */
 public class GraphAlgorithms {
 
+    static int indexOf(CompactGraph cg, Vertex v) {
+        int i = cg.indexOf(v);
+        if (i < 0) {
+            throw new IllegalArgumentException("Sommet absent du graphe : " + v);
+        }
+        return i;
+    }
+
+    static List<Vertex> toVertices(CompactGraph cg, int[] path) {
+        List<Vertex> res = new ArrayList<>(path.length);
+        for (int v : path) {
+            res.add(cg.vertex(v));
+        }
+        return res;
+    }
+
     /* ====================== BFS ====================== */
 
     public static Map<Vertex, Integer> bfsDistances(Graph g, Vertex source) {
+        CompactGraph cg = g.compact();
+        int[] level = bfsDistances(cg, indexOf(cg, source));
         Map<Vertex, Integer> dist = new HashMap<>();
-        Queue<Vertex> queue = new ArrayDeque<>();
-        dist.put(source, 0);
-        queue.add(source);
-
-        while (!queue.isEmpty()) {
-            Vertex u = queue.poll();
-            int du = dist.get(u);
-            for (Edge e : g.getOutgoingEdges(u)) {
-                Vertex v = e.getTo();
-                if (!dist.containsKey(v)) {
-                    dist.put(v, du + 1);
-                    queue.add(v);
-                }
+        for (int v = 0; v < level.length; v++) {
+            if (level[v] >= 0) {
+                dist.put(cg.vertex(v), level[v]);
             }
         }
         return dist;
     }
 
+    /**
+     * @return nombre d'arcs depuis la source pour chaque sommet, -1 si inaccessible
+     *         (grands graphes, plusieurs cœurs : parcours parallèle de {@link BreadthFirstSearch})
+     */
+    public static int[] bfsDistances(CompactGraph g, int source) {
+        g = g.open(); // une rue fermée ne mène nulle part
+        if (g.vertexCount() >= BreadthFirstSearch.PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            return BreadthFirstSearch.levels(g, source);
+        }
+        Metrics.Span span = Metrics.begin(Operation.BFS);
+        try {
+            return bfs(g, source);
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    private static int[] bfs(CompactGraph g, int source) {
+        int n = g.vertexCount();
+        int[] level = new int[n];
+        Arrays.fill(level, -1);
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        level[source] = 0;
+        queue[tail++] = source;
+        long relaxed = 0;
+
+        while (head < tail) {
+            int u = queue[head++];
+            int du = level[u];
+            relaxed += g.endArc(u) - g.firstArc(u);
+            for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                int v = g.target(a);
+                if (level[v] < 0) {
+                    level[v] = du + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        Metrics.work(tail, relaxed, 0);
+        return level;
+    }
+
     /* ====================== DIJKSTRA ====================== */
 
     public static class PathResult {
@@ -66,32 +126,52 @@ public class GraphAlgorithms {
     }
 
     public static PathResult dijkstra(Graph g, Vertex source) {
+        CompactGraph cg = g.compact();
+        int n = cg.vertexCount();
+        int[] predIdx = new int[n];
+        double[] d = dijkstra(cg, indexOf(cg, source), predIdx);
+
         Map<Vertex, Double> dist = new HashMap<>();
         Map<Vertex, Vertex> pred = new HashMap<>();
-        for (Vertex v : g.getVertices()) {
-            dist.put(v, Double.POSITIVE_INFINITY);
-            pred.put(v, null);
+        for (int v = 0; v < n; v++) {
+            Vertex vertex = cg.vertex(v);
+            dist.put(vertex, d[v]);
+            pred.put(vertex, predIdx[v] < 0 ? null : cg.vertex(predIdx[v]));
         }
-        dist.put(source, 0.0);
+        return new PathResult(dist, pred);
+    }
 
-        PriorityQueue<Vertex> pq = new PriorityQueue<>(Comparator.comparingDouble(dist::get));
-        pq.add(source);
+    /**
+     * Arbre des plus courts chemins à base de tableaux (voir {@link ShortestPaths}).
+     */
+    public static ShortestPathTree shortestPathTree(Graph g, Vertex source) {
+        CompactGraph cg = g.compact();
+        return ShortestPaths.tree(cg, indexOf(cg, source));
+    }
 
-        while (!pq.isEmpty()) {
-            Vertex u = pq.poll();
-            double du = dist.get(u);
-            for (Edge e : g.getOutgoingEdges(u)) {
-                Vertex v = e.getTo();
-                double alt = du + e.getWeight();
-                if (alt < dist.get(v)) {
-                    dist.put(v, alt);
-                    pred.put(v, u);
-                    pq.remove(v);
-                    pq.add(v);
+    /**
+     * Dijkstra sur la forme compacte.
+     *
+     * @param pred rempli avec le prédécesseur de chaque sommet (-1 si aucun), peut être null
+     * @return distances depuis la source (POSITIVE_INFINITY si inaccessible)
+     */
+    public static double[] dijkstra(CompactGraph g, int source, int[] pred) {
+        Metrics.Span span = Metrics.begin(Operation.DIJKSTRA);
+        try {
+            ShortestPaths.Workspace ws = ShortestPaths.workspace(g);
+            ws.run(source);
+            int n = g.vertexCount();
+            double[] dist = new double[n];
+            for (int v = 0; v < n; v++) {
+                dist[v] = ws.dist(v);
+                if (pred != null) {
+                    pred[v] = ws.pred(v);
                 }
             }
+            return dist;
+        } finally {
+            Metrics.end(span);
         }
-        return new PathResult(dist, pred);
     }
 
     /* ====================== MST (PRIM) ====================== */
@@ -100,108 +180,367 @@ public class GraphAlgorithms {
         if (g.isDirected()) {
             throw new IllegalArgumentException("MST seulement pour graphe non orienté");
         }
+        CompactGraph cg = g.compact();
+        List<Edge> edges = g.getEdges();
         Set<Edge> mst = new HashSet<>();
-        Set<Vertex> inTree = new HashSet<>();
-        PriorityQueue<Edge> pq = new PriorityQueue<>(Comparator.comparingDouble(Edge::getWeight));
+        for (int a : primMST(cg)) {
+            mst.add(edges.get(cg.arcEdge(a))); // les arêtes du graphe, pas des copies
+        }
+        return mst;
+    }
+
+    /**
+     * Prim paresseux depuis le sommet 0.
+     *
+     * @return les arcs retenus (orientés de l'arbre vers le nouveau sommet)
+     */
+    public static int[] primMST(CompactGraph g) {
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("MST seulement pour graphe non orienté");
+        }
+        Metrics.Span span = Metrics.begin(Operation.PRIM);
+        try {
+            return prim(g);
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    private static int[] prim(CompactGraph g) {
+        int n = g.vertexCount();
+        if (n == 0) return new int[0];
+        int[] mst = new int[n - 1];
+        int size = 0;
+        boolean[] inTree = new boolean[n];
+        PriorityQueue<Integer> pq = new PriorityQueue<>((a, b) -> Double.compare(g.weight(a), g.weight(b)));
 
-        Iterator<Vertex> it = g.getVertices().iterator();
-        if (!it.hasNext()) return mst;
-        Vertex start = it.next();
-        inTree.add(start);
-        pq.addAll(g.getOutgoingEdges(start));
+        inTree[0] = true;
+        for (int a = g.firstArc(0), end = g.endArc(0); a < end; a++) {
+            if (!g.isClosed(a)) pq.add(a); // arcs de g et non de g.open() : on rend leurs indices
+        }
+        long relaxed = g.outDegree(0);
+        long heapOperations = relaxed;
 
         while (!pq.isEmpty()) {
-            Edge e = pq.poll();
-            Vertex u = e.getFrom();
-            Vertex v = e.getTo();
-            if (inTree.contains(v) && inTree.contains(u)) continue;
-            mst.add(e);
-            Vertex newV = inTree.contains(u) ? v : u;
-            inTree.add(newV);
-            for (Edge e2 : g.getOutgoingEdges(newV)) {
-                Vertex w = e2.getTo();
-                if (!inTree.contains(w)) {
-                    pq.add(e2);
+            int e = pq.poll();
+            heapOperations++;
+            int v = g.target(e);
+            if (inTree[v]) continue;
+            mst[size++] = e;
+            inTree[v] = true;
+            for (int a = g.firstArc(v), end = g.endArc(v); a < end; a++) {
+                relaxed++;
+                if (!inTree[g.target(a)] && !g.isClosed(a)) {
+                    pq.add(a);
+                    heapOperations++;
                 }
             }
         }
-        return mst;
+        Metrics.work(size + 1, relaxed, heapOperations);
+        return Arrays.copyOf(mst, size);
     }
 
     /* ====================== EULERIEN ====================== */
 
     public static boolean isEulerian(Graph g) {
-        if (g.isDirected()) {
-            throw new IllegalArgumentException("Cette version est pour graphe non orienté");
+        return isEulerian(g.compact());
+    }
+
+    /**
+     * Cycle eulérien possible : degrés pairs (non orienté) ou degré entrant = degré sortant
+     * en chaque sommet (orienté, rues à sens unique), et toutes les arêtes dans une même
+     * composante connexe.
+     */
+    public static boolean isEulerian(CompactGraph g) {
+        return eulerianDefect(g) == null;
+    }
+
+    /** Raison pour laquelle le graphe n'est pas eulérien (rues fermées exclues), null s'il l'est. */
+    private static String eulerianDefect(CompactGraph g) {
+        g = g.open();
+        CompactGraph in = g.reverse();
+        for (int v = 0; v < g.vertexCount(); v++) {
+            if (g.isDirected() ? g.outDegree(v) != in.outDegree(v) : g.outDegree(v) % 2 != 0) {
+                return g.isDirected()
+                        ? "degré entrant différent du degré sortant en " + g.dictionary().id(v)
+                        : "degré impair en " + g.dictionary().id(v);
+            }
+        }
+        if (!edgesConnected(g)) {
+            return "les arêtes ne sont pas toutes dans une même composante connexe";
+        }
+        return null;
+    }
+
+    /**
+     * Parcours en largeur en O(V + E) depuis un sommet de degré non nul : tous les sommets
+     * de degré non nul doivent être atteints (en ignorant le sens des arcs si le graphe est orienté).
+     */
+    static boolean edgesConnected(CompactGraph g) {
+        int n = g.vertexCount();
+        CompactGraph in = g.reverse();
+        int start = -1;
+        for (int v = 0; v < n && start < 0; v++) {
+            if (g.outDegree(v) > 0 || in.outDegree(v) > 0) start = v;
         }
-        for (Vertex v : g.getVertices()) {
-            if (g.getDegree(v) % 2 != 0) {
-                return false;
+        if (start < 0) return true;
+        boolean[] seen = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        seen[start] = true;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                int v = g.target(a);
+                if (!seen[v]) {
+                    seen[v] = true;
+                    queue[tail++] = v;
+                }
             }
+            if (in != g) {
+                for (int a = in.firstArc(u), end = in.endArc(u); a < end; a++) {
+                    int v = in.target(a);
+                    if (!seen[v]) {
+                        seen[v] = true;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            if (!seen[v] && (g.outDegree(v) > 0 || in.outDegree(v) > 0)) return false;
         }
-        return true; // on suppose connexe sur les sommets de deg > 0
+        return true;
     }
 
     public static List<Vertex> findEulerianCycle(Graph g) {
-        if (!isEulerian(g)) {
-            throw new IllegalArgumentException("Le graphe n'est pas eulérien (tous degrés pairs requis)");
-        }
-        Map<Vertex, Deque<Vertex>> localAdj = new HashMap<>();
-        for (Vertex v : g.getVertices()) {
-            localAdj.put(v, new ArrayDeque<>());
+        CompactGraph cg = g.compact();
+        return toVertices(cg, findEulerianCycle(cg));
+    }
+
+    /**
+     * Hierholzer itératif sur la forme compacte, en O(V + E) : chaque arête est marquée
+     * utilisée par son indice, ce qui évite de la reparcourir dans l'autre sens, et une pile
+     * d'entiers remplace la récursion (pas de débordement sur les très grands réseaux).
+     * Fonctionne aussi sur les graphes orientés.
+     */
+    public static int[] findEulerianCycle(CompactGraph g) {
+        Metrics.Span span = Metrics.begin(Operation.CYCLE_EULERIEN);
+        try {
+            return hierholzer(g);
+        } finally {
+            Metrics.end(span);
         }
-        for (Edge e : g.getEdges()) {
-            localAdj.get(e.getFrom()).add(e.getTo());
+    }
+
+    private static int[] hierholzer(CompactGraph g) {
+        g = g.open(); // le circuit ne passe pas par les rues fermées
+        String defect = eulerianDefect(g);
+        if (defect != null) {
+            throw new IllegalArgumentException("Le graphe n'est pas eulérien : " + defect);
         }
+        int n = g.vertexCount();
+        if (n == 0) return new int[0];
+        int start = 0;
+        while (start < n - 1 && g.outDegree(start) == 0) start++;
 
-        Vertex start = g.getVertices().iterator().next();
-        Deque<Vertex> stack = new ArrayDeque<>();
-        List<Vertex> circuit = new ArrayList<>();
-        stack.push(start);
+        boolean[] used = new boolean[g.edgeCount()];
+        int[] next = new int[n]; // prochain arc à examiner pour chaque sommet
+        for (int v = 0; v < n; v++) {
+            next[v] = g.firstArc(v);
+        }
+        int[] stack = new int[g.edgeCount() + 1];
+        int[] circuit = new int[g.edgeCount() + 1];
+        int top = 0;
+        int size = 0;
+        stack[top++] = start;
 
-        while (!stack.isEmpty()) {
-            Vertex v = stack.peek();
-            Deque<Vertex> neighbors = localAdj.get(v);
-            if (neighbors != null && !neighbors.isEmpty()) {
-                Vertex u = neighbors.pollFirst();
-                stack.push(u);
+        while (top > 0) {
+            int v = stack[top - 1];
+            int end = g.endArc(v);
+            while (next[v] < end && used[g.arcEdge(next[v])]) {
+                next[v]++;
+            }
+            if (next[v] < end) {
+                int a = next[v]++;
+                used[g.arcEdge(a)] = true;
+                stack[top++] = g.target(a);
             } else {
-                circuit.add(stack.pop());
+                circuit[size++] = stack[--top];
             }
         }
-        Collections.reverse(circuit);
-        return circuit;
+        int[] res = new int[size];
+        for (int i = 0; i < size; i++) {
+            res[i] = circuit[size - 1 - i];
+        }
+        return res;
     }
 
     /* ====================== TSP HEURISTIQUE ====================== */
 
     public static List<Vertex> tspNearestNeighbor(Graph g, Vertex start, List<Vertex> toVisit) {
-        List<Vertex> remaining = new ArrayList<>(toVisit);
-        List<Vertex> tour = new ArrayList<>();
-        Vertex current = start;
-        tour.add(current);
-        remaining.remove(current);
-
-        while (!remaining.isEmpty()) {
-            Vertex best = null;
+        CompactGraph cg = g.compact();
+        int[] idx = new int[toVisit.size()];
+        for (int i = 0; i < idx.length; i++) {
+            idx[i] = indexOf(cg, toVisit.get(i));
+        }
+        return toVertices(cg, tspNearestNeighbor(cg, indexOf(cg, start), idx));
+    }
+
+    /**
+     * Plus proche voisin sur la matrice des distances entre start et les points à visiter
+     * (une recherche bornée par point, en parallèle, au lieu d'un Dijkstra complet par étape).
+     */
+    public static int[] tspNearestNeighbor(CompactGraph g, int start, int[] toVisit) {
+        Metrics.Span span = Metrics.begin(Operation.TSP_PLUS_PROCHE_VOISIN);
+        try {
+            int[] points = new int[toVisit.length + 1];
+            points[0] = start;
+            System.arraycopy(toVisit, 0, points, 1, toVisit.length);
+            DistanceMatrix m = DistanceMatrix.compute(g, points);
+            int[] rows = tspNearestNeighbor(m, 0);
+            int[] tour = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                tour[i] = m.point(rows[i]);
+            }
+            return tour;
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /**
+     * Plus proche voisin sur une matrice de distances déjà calculée.
+     *
+     * @return la tournée en lignes de la matrice, refermée sur start ;
+     *         les lignes désignant le même sommet que start ou qu'un point déjà pris sont ignorées
+     */
+    public static int[] tspNearestNeighbor(DistanceMatrix m, int start) {
+        int k = m.size();
+        boolean[] done = new boolean[k];
+        for (int i = 0; i < k; i++) {
+            done[i] = m.rowOf(m.point(i)) != i || m.point(i) == m.point(start);
+        }
+        int[] tour = new int[k + 1];
+        int size = 0;
+        int current = start;
+        tour[size++] = current;
+
+        while (true) {
+            int best = -1;
             double bestDist = Double.POSITIVE_INFINITY;
-            PathResult prFromCurrent = dijkstra(g, current);
-            for (Vertex v : remaining) {
-                double d = prFromCurrent.dist.getOrDefault(v, Double.POSITIVE_INFINITY);
-                if (d < bestDist) {
-                    bestDist = d;
-                    best = v;
+            for (int j = 0; j < k; j++) {
+                if (!done[j] && m.get(current, j) < bestDist) {
+                    bestDist = m.get(current, j);
+                    best = j;
                 }
             }
-            if (best == null) break;
-            tour.add(best);
-            remaining.remove(best);
+            if (best < 0) break;
+            tour[size++] = best;
+            done[best] = true;
             current = best;
         }
-        if (!tour.get(tour.size() - 1).equals(start)) {
-            tour.add(start);
+        if (tour[size - 1] != start) {
+            tour[size++] = start;
+        }
+        return Arrays.copyOf(tour, size);
+    }
+
+    public static List<Vertex> tspDoubleTree(Graph g, Vertex start, List<Vertex> toVisit) {
+        CompactGraph cg = g.compact();
+        int[] idx = new int[toVisit.size()];
+        for (int i = 0; i < idx.length; i++) {
+            idx[i] = indexOf(cg, toVisit.get(i));
+        }
+        return toVertices(cg, tspDoubleTree(cg, indexOf(cg, start), idx));
+    }
+
+    /** Tournée double arbre sur la matrice des distances entre start et les points à visiter. */
+    public static int[] tspDoubleTree(CompactGraph g, int start, int[] toVisit) {
+        Metrics.Span span = Metrics.begin(Operation.TSP_DOUBLE_ARBRE);
+        try {
+            int[] points = new int[toVisit.length + 1];
+            points[0] = start;
+            System.arraycopy(toVisit, 0, points, 1, toVisit.length);
+            DistanceMatrix m = DistanceMatrix.compute(g, points);
+            int[] rows = tspDoubleTree(m, 0);
+            int[] tour = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                tour[i] = m.point(rows[i]);
+            }
+            return tour;
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /**
+     * Tournée "double arbre" : arbre couvrant minimal des points dans la fermeture métrique
+     * (Prim dense en O(k²) sur la matrice, sans tas), parcouru en profondeur depuis start en
+     * gardant chaque point à sa première visite. Les distances de plus court chemin respectent
+     * l'inégalité triangulaire : sur une matrice symétrique, la tournée fait au plus deux fois
+     * l'optimum. Même conventions que {@link #tspNearestNeighbor(DistanceMatrix, int)} ; les
+     * points inaccessibles depuis start sont laissés de côté.
+     */
+    public static int[] tspDoubleTree(DistanceMatrix m, int start) {
+        int k = m.size();
+        boolean[] done = new boolean[k];
+        for (int i = 0; i < k; i++) {
+            done[i] = m.rowOf(m.point(i)) != i || m.point(i) == m.point(start);
+        }
+        double[] key = new double[k];
+        int[] parent = new int[k];
+        for (int j = 0; j < k; j++) {
+            key[j] = m.get(start, j);
+            parent[j] = start;
+        }
+        int[] order = new int[k]; // lignes dans l'ordre d'entrée dans l'arbre
+        int size = 0;
+        while (true) {
+            int best = -1;
+            for (int j = 0; j < k; j++) {
+                if (!done[j] && (best < 0 || key[j] < key[best])) best = j;
+            }
+            if (best < 0 || key[best] == Double.POSITIVE_INFINITY) break;
+            done[best] = true;
+            order[size++] = best;
+            for (int j = 0; j < k; j++) {
+                if (!done[j] && m.get(best, j) < key[j]) {
+                    key[j] = m.get(best, j);
+                    parent[j] = best;
+                }
+            }
+        }
+
+        // enfants de chaque ligne (ordre d'entrée dans l'arbre), puis parcours préfixe
+        int[] first = new int[k + 1];
+        for (int i = 0; i < size; i++) {
+            first[parent[order[i]] + 1]++;
+        }
+        for (int r = 0; r < k; r++) {
+            first[r + 1] += first[r];
+        }
+        int[] children = new int[size];
+        int[] fill = Arrays.copyOf(first, k);
+        for (int i = 0; i < size; i++) {
+            children[fill[parent[order[i]]]++] = order[i];
         }
-        return tour;
+        int[] tour = new int[size + 2];
+        int len = 0;
+        int[] stack = new int[size + 1];
+        int top = 0;
+        stack[top++] = start;
+        while (top > 0) {
+            int r = stack[--top];
+            tour[len++] = r;
+            for (int c = first[r + 1] - 1; c >= first[r]; c--) {
+                stack[top++] = children[c];
+            }
+        }
+        tour[len++] = start;
+        return Arrays.copyOf(tour, len);
     }
 
     /* ====================== COLORATION GLOUTONNE ====================== */
@@ -210,18 +549,48 @@ public class GraphAlgorithms {
         if (g.isDirected()) {
             throw new IllegalArgumentException("Coloration ici pour graphe non orienté");
         }
-        Map<Vertex, Integer> color = new HashMap<>();
-        for (Vertex v : g.getVertices()) {
-            Set<Integer> forbidden = new HashSet<>();
-            for (Edge e : g.getOutgoingEdges(v)) {
-                Vertex neigh = e.getTo();
-                if (color.containsKey(neigh)) {
-                    forbidden.add(color.get(neigh));
+        CompactGraph cg = g.compact();
+        int[] c = greedyColoring(cg);
+        Map<Vertex, Integer> color = new LinkedHashMap<>();
+        for (int v = 0; v < c.length; v++) {
+            color.put(cg.vertex(v), c[v]);
+        }
+        return color;
+    }
+
+    /**
+     * Coloration gloutonne dans l'ordre des indices.
+     * Les couleurs interdites sont marquées par le numéro du sommet courant (pas de remise à zéro).
+     */
+    public static int[] greedyColoring(CompactGraph g) {
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Coloration ici pour graphe non orienté");
+        }
+        Metrics.Span span = Metrics.begin(Operation.COLORATION);
+        try {
+            return greedy(g);
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    private static int[] greedy(CompactGraph g) {
+        g = g.open(); // une rue fermée ne relie plus ses extrémités
+        int n = g.vertexCount();
+        int[] color = new int[n];
+        Arrays.fill(color, -1);
+        int[] forbiddenBy = new int[n + 1];
+        Arrays.fill(forbiddenBy, -1);
+        for (int v = 0; v < n; v++) {
+            for (int a = g.firstArc(v), end = g.endArc(v); a < end; a++) {
+                int c = color[g.target(a)];
+                if (c >= 0) {
+                    forbiddenBy[c] = v;
                 }
             }
             int c = 0;
-            while (forbidden.contains(c)) c++;
-            color.put(v, c);
+            while (forbiddenBy[c] == v) c++;
+            color[v] = c;
         }
         return color;
     }
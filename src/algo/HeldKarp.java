@@ -0,0 +1,189 @@
+package algo;
+
+import metrics.Metrics;
+import metrics.Operation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Tournée optimale exacte (Held-Karp) sur la matrice des distances, pour les petites tournées :
+ * cost[S][j] = longueur du plus court chemin qui part de start, visite exactement les arrêts
+ * de l'ensemble S et finit en j. O(k² 2^k) opérations pour k arrêts, table à plat de 2^k * k
+ * double (S codé en bits dans un int), sans table de prédécesseurs : la tournée est retrouvée
+ * en remontant la table, chaque valeur étant recalculée à l'identique.
+ *
+ * Les ensembles d'une même taille ne dépendent que des ensembles plus petits : ils sont traités
+ * par couches de cardinal croissant, chaque couche en parallèle sur un pool fork-join. Chaque
+ * case n'est écrite que par la tâche de son ensemble, sans synchronisation. Les distances
+ * peuvent être asymétriques (sens uniques).
+ */
+public final class HeldKarp {
+    /** Au-delà, la table ne tient plus dans un tableau Java. */
+    public static final int MAX_STOPS = 24;
+    private static final int PARALLEL_THRESHOLD = 4096; // ensembles par couche
+
+    private HeldKarp() {
+    }
+
+    /** Mémoire de la table pour ce nombre d'arrêts (valeurs et ordre des ensembles), en octets. */
+    public static long tableBytes(int stops) {
+        return (1L << stops) * (8L * stops + 4);
+    }
+
+    /** Nombre d'arrêts distincts de la tournée (lignes désignant un autre sommet que start). */
+    public static int stopCount(DistanceMatrix m, int start) {
+        return stops(m, start).length;
+    }
+
+    public static int[] solve(DistanceMatrix m, int start) {
+        return solve(m, start, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Même conventions que {@link GraphAlgorithms#tspNearestNeighbor(DistanceMatrix, int)}.
+     *
+     * @return la tournée optimale en lignes de la matrice, refermée sur start ;
+     *         null si aucune tournée n'est finie (un arrêt inaccessible)
+     * @throws IllegalArgumentException au-delà de {@link #MAX_STOPS} arrêts
+     */
+    public static int[] solve(DistanceMatrix m, int start, ForkJoinPool pool) {
+        int[] stops = stops(m, start);
+        int s = stops.length;
+        if (s > MAX_STOPS) {
+            throw new IllegalArgumentException("Trop d'arrêts pour la résolution exacte : " + s + " > " + MAX_STOPS);
+        }
+        if (s == 0) {
+            return new int[]{start};
+        }
+        Metrics.Span span = Metrics.begin(Operation.TSP_EXACT);
+        try {
+            return new Table(m, start, stops).run(pool);
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    private static int[] stops(DistanceMatrix m, int start) {
+        int k = m.size();
+        int[] res = new int[k];
+        int s = 0;
+        for (int i = 0; i < k; i++) {
+            if (m.rowOf(m.point(i)) == i && m.point(i) != m.point(start)) {
+                res[s++] = i;
+            }
+        }
+        return Arrays.copyOf(res, s);
+    }
+
+    /** Table de programmation dynamique d'une résolution. */
+    private static final class Table {
+        private final int start;
+        private final int[] stops;
+        private final int s;
+        private final double[] d;     // d[i * s + j] : arrêt i -> arrêt j
+        private final double[] out;   // start -> arrêt j
+        private final double[] back;  // arrêt j -> start
+        private final double[] cost;  // cost[S * s + j], lu seulement si j est dans S
+
+        Table(DistanceMatrix m, int start, int[] stops) {
+            this.start = start;
+            this.stops = stops;
+            this.s = stops.length;
+            d = new double[s * s];
+            out = new double[s];
+            back = new double[s];
+            for (int i = 0; i < s; i++) {
+                out[i] = m.get(start, stops[i]);
+                back[i] = m.get(stops[i], start);
+                for (int j = 0; j < s; j++) {
+                    d[i * s + j] = m.get(stops[i], stops[j]);
+                }
+            }
+            cost = new double[(1 << s) * s];
+        }
+
+        int[] run(ForkJoinPool pool) {
+            int full = (1 << s) - 1;
+            // ensembles rangés par cardinal (tri par dénombrement)
+            int[] layer = new int[s + 2];
+            for (int set = 1; set <= full; set++) {
+                layer[Integer.bitCount(set) + 1]++;
+            }
+            for (int c = 0; c <= s; c++) {
+                layer[c + 1] += layer[c];
+            }
+            int[] sets = new int[full + 1];
+            int[] fill = Arrays.copyOf(layer, s + 1);
+            for (int set = 1; set <= full; set++) {
+                sets[fill[Integer.bitCount(set)]++] = set;
+            }
+
+            for (int j = 0; j < s; j++) {
+                cost[(1 << j) * s + j] = out[j];
+            }
+            for (int c = 2; c <= s; c++) {
+                int from = layer[c];
+                int to = layer[c + 1];
+                if (to - from >= PARALLEL_THRESHOLD && pool.getParallelism() > 1) {
+                    pool.submit(() -> IntStream.range(from, to).parallel().forEach(i -> fillSet(sets[i]))).join();
+                } else {
+                    for (int i = from; i < to; i++) {
+                        fillSet(sets[i]);
+                    }
+                }
+            }
+
+            int last = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < s; j++) {
+                double total = cost[full * s + j] + back[j];
+                if (total < best) {
+                    best = total;
+                    last = j;
+                }
+            }
+            if (last < 0) return null;
+
+            // remontée : le prédécesseur de j dans S est celui qui redonne exactement cost[S][j]
+            int[] tour = new int[s + 2];
+            tour[0] = start;
+            tour[s + 1] = start;
+            int set = full;
+            int j = last;
+            for (int pos = s; pos >= 1; pos--) {
+                tour[pos] = stops[j];
+                int prev = set & ~(1 << j);
+                if (prev == 0) break;
+                double target = cost[set * s + j];
+                int found = -1;
+                for (int bits = prev; bits != 0; bits &= bits - 1) {
+                    int i = Integer.numberOfTrailingZeros(bits);
+                    if (cost[prev * s + i] + d[i * s + j] == target) {
+                        found = i;
+                        break;
+                    }
+                }
+                set = prev;
+                j = found;
+            }
+            return tour;
+        }
+
+        /** cost[set][j] pour chaque j de set, à partir des ensembles de cardinal inférieur. */
+        private void fillSet(int set) {
+            for (int jb = set; jb != 0; jb &= jb - 1) {
+                int j = Integer.numberOfTrailingZeros(jb);
+                int prev = set & ~(1 << j);
+                double best = Double.POSITIVE_INFINITY;
+                for (int ib = prev; ib != 0; ib &= ib - 1) {
+                    int i = Integer.numberOfTrailingZeros(ib);
+                    double c = cost[prev * s + i] + d[i * s + j];
+                    if (c < best) best = c;
+                }
+                cost[set * s + j] = best;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package algo;
+
+import java.util.Arrays;
+
+/**
+ * Tas 4-aire indexé sur des sommets 0..n-1 avec de vraies opérations decrease-key.
+ * Aucune allocation après construction : positions et clés sont dans des tableaux primitifs.
+ */
+public final class IndexedHeap {
+    private static final int ARITY = 4;
+
+    private final int[] heap;     // sommets, rangés en tas
+    private final double[] keys;  // clé de chaque position du tas
+    private final int[] pos;      // position de chaque sommet dans le tas, -1 si absent
+    private int size;
+
+    public IndexedHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new double[capacity];
+        pos = new int[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    public int capacity() {
+        return pos.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int v) {
+        return pos[v] >= 0;
+    }
+
+    public double minKey() {
+        return keys[0];
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    /** Insère v ou diminue sa clé ; une clé plus grande que l'actuelle est ignorée. */
+    public void insertOrDecrease(int v, double key) {
+        int i = pos[v];
+        if (i < 0) {
+            i = size++;
+        } else if (key >= keys[i]) {
+            return;
+        }
+        siftUp(i, v, key);
+    }
+
+    /** Insère v ou change sa clé, à la hausse comme à la baisse. */
+    public void update(int v, double key) {
+        int i = pos[v];
+        if (i < 0) {
+            siftUp(size++, v, key);
+        } else if (key < keys[i]) {
+            siftUp(i, v, key);
+        } else {
+            siftDown(i, v, key);
+        }
+    }
+
+    public int poll() {
+        int min = heap[0];
+        pos[min] = -1;
+        int last = --size;
+        if (last > 0) {
+            siftDown(0, heap[last], keys[last]);
+        }
+        return min;
+    }
+
+    /** Vide le tas en O(taille courante). */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i, int v, double key) {
+        while (i > 0) {
+            int parent = (i - 1) / ARITY;
+            if (keys[parent] <= key) break;
+            place(i, heap[parent], keys[parent]);
+            i = parent;
+        }
+        place(i, v, key);
+    }
+
+    private void siftDown(int i, int v, double key) {
+        while (true) {
+            int first = i * ARITY + 1;
+            if (first >= size) break;
+            int best = first;
+            double bestKey = keys[first];
+            int end = Math.min(first + ARITY, size);
+            for (int c = first + 1; c < end; c++) {
+                if (keys[c] < bestKey) {
+                    best = c;
+                    bestKey = keys[c];
+                }
+            }
+            if (bestKey >= key) break;
+            place(i, heap[best], bestKey);
+            i = best;
+        }
+        place(i, v, key);
+    }
+
+    private void place(int i, int v, double key) {
+        heap[i] = v;
+        keys[i] = key;
+        pos[v] = i;
+    }
+}
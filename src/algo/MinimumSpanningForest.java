@@ -0,0 +1,278 @@
+package algo;
+
+import metrics.Metrics;
+import metrics.Operation;
+import model.CompactGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Forêt couvrante de poids minimal (un arbre par composante connexe, contrairement à
+ * {@link GraphAlgorithms#primMST(CompactGraph)} qui s'arrête à la composante du sommet 0) :
+ * - {@link #boruvka} : à chaque tour, chaque composante choisit en parallèle son arête sortante
+ *   la plus légère, puis toutes ces arêtes sont fusionnées ; au plus log2(V) tours
+ * - {@link #kruskal} : arêtes triées en parallèle, puis parcourues dans l'ordre
+ *
+ * Les deux variantes partagent un union-find sans verrou (compareAndSet sur les parents,
+ * compression par division du chemin). Les arêtes sont ordonnées par (poids, indice) : cet ordre
+ * total rend la forêt unique, les deux variantes rendent donc exactement les mêmes arêtes.
+ * Pour un graphe non orienté ; les boucles (u - u) sont ignorées.
+ */
+public final class MinimumSpanningForest {
+    private static final int PARALLEL_THRESHOLD = 1 << 14; // en dessous : un seul thread
+
+    private MinimumSpanningForest() {
+    }
+
+    public static class Result {
+        public final int[] arcs;     // un arc par arête retenue (source -> target)
+        public final double weight;  // poids total
+        public final int trees;      // nombre d'arbres (composantes connexes, sommets isolés compris)
+
+        public Result(int[] arcs, double weight, int trees) {
+            this.arcs = arcs;
+            this.weight = weight;
+            this.trees = trees;
+        }
+    }
+
+    /** Arêtes du graphe à plat : extrémités, poids et un arc représentant par arête. */
+    private static final class Edges {
+        final int[] from;
+        final int[] to;
+        final double[] w;
+        final int[] arc;
+        final int[] list; // indices des arêtes qui ne sont pas des boucles
+
+        Edges(CompactGraph g) {
+            int m = g.edgeCount();
+            from = new int[m];
+            to = new int[m];
+            w = new double[m];
+            arc = new int[m];
+            Arrays.fill(arc, -1);
+            int count = 0;
+            for (int u = 0; u < g.vertexCount(); u++) {
+                for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                    int e = g.arcEdge(a);
+                    if (arc[e] < 0 && !g.isClosed(a)) { // rue fermée : pas dans la forêt
+                        arc[e] = a;
+                        from[e] = u;
+                        to[e] = g.target(a);
+                        w[e] = g.weight(a);
+                        if (from[e] != to[e]) count++;
+                    }
+                }
+            }
+            list = new int[count];
+            count = 0;
+            for (int e = 0; e < m; e++) {
+                if (arc[e] >= 0 && from[e] != to[e]) list[count++] = e;
+            }
+        }
+
+        /** Ordre total des arêtes : poids, puis indice. */
+        boolean lighter(int e, int f) {
+            return w[e] < w[f] || (w[e] == w[f] && e < f);
+        }
+    }
+
+    /** Union-find partagé entre threads ; une racine est toujours rattachée à une racine plus petite. */
+    static final class UnionFind {
+        private final AtomicIntegerArray parent;
+
+        UnionFind(int n) {
+            parent = new AtomicIntegerArray(n);
+            for (int v = 0; v < n; v++) {
+                parent.set(v, v);
+            }
+        }
+
+        int find(int v) {
+            while (true) {
+                int p = parent.get(v);
+                if (p == v) return v;
+                int gp = parent.get(p);
+                if (p != gp) {
+                    parent.compareAndSet(v, p, gp); // division du chemin, sans importance si raté
+                }
+                v = gp;
+            }
+        }
+
+        /** @return false si a et b étaient déjà dans le même ensemble */
+        boolean union(int a, int b) {
+            while (true) {
+                a = find(a);
+                b = find(b);
+                if (a == b) return false;
+                if (a < b) {
+                    int t = a;
+                    a = b;
+                    b = t;
+                }
+                if (parent.compareAndSet(a, a, b)) return true; // échoue si a n'est plus une racine
+            }
+        }
+    }
+
+    /* ====================== BORUVKA ====================== */
+
+    public static Result boruvka(CompactGraph g) {
+        return boruvka(g, ForkJoinPool.commonPool());
+    }
+
+    public static Result boruvka(CompactGraph g, ForkJoinPool pool) {
+        checkUndirected(g);
+        Metrics.Span span = Metrics.begin(Operation.FORET_COUVRANTE);
+        try {
+            Edges es = new Edges(g);
+            int n = g.vertexCount();
+            UnionFind uf = new UnionFind(n);
+            AtomicIntegerArray best = new AtomicIntegerArray(n);
+            for (int v = 0; v < n; v++) {
+                best.set(v, -1);
+            }
+            int[] chosen = new int[Math.max(0, n - 1)];
+            AtomicInteger size = new AtomicInteger();
+            int[] live = es.list;
+
+            while (live.length > 0) {
+                // arête la plus légère sortant de chaque composante (racines stables pendant cette phase)
+                int[] current = live;
+                forEach(pool, current.length, i -> {
+                    int e = current[i];
+                    int ru = uf.find(es.from[e]);
+                    int rv = uf.find(es.to[e]);
+                    if (ru != rv) {
+                        offer(es, best, ru, e);
+                        offer(es, best, rv, e);
+                    }
+                });
+                // fusion : une arête choisie par ses deux composantes n'est ajoutée qu'une fois
+                forEach(pool, n, v -> {
+                    int e = best.get(v);
+                    if (e >= 0) {
+                        best.set(v, -1);
+                        if (uf.union(es.from[e], es.to[e])) {
+                            chosen[size.getAndIncrement()] = e;
+                        }
+                    }
+                });
+                live = filter(pool, current, e -> uf.find(es.from[e]) != uf.find(es.to[e]));
+            }
+            return result(es, chosen, size.get(), n);
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /** Propose e comme arête la plus légère de la composante de racine r. */
+    private static void offer(Edges es, AtomicIntegerArray best, int r, int e) {
+        while (true) {
+            int cur = best.get(r);
+            if (cur >= 0 && !es.lighter(e, cur)) return;
+            if (best.compareAndSet(r, cur, e)) return;
+        }
+    }
+
+    /* ====================== KRUSKAL ====================== */
+
+    public static Result kruskal(CompactGraph g) {
+        return kruskal(g, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Tri parallèle sur des clés long (rang du poids, indice d'arête) : pas d'objet par arête.
+     * Le parcours des arêtes triées reste séquentiel et s'arrête à V - 1 arêtes retenues.
+     */
+    public static Result kruskal(CompactGraph g, ForkJoinPool pool) {
+        checkUndirected(g);
+        Metrics.Span span = Metrics.begin(Operation.FORET_COUVRANTE);
+        try {
+            Edges es = new Edges(g);
+            int n = g.vertexCount();
+            int[] list = es.list;
+            double[] sorted = new double[list.length];
+            for (int i = 0; i < list.length; i++) {
+                sorted[i] = es.w[list[i]];
+            }
+            Arrays.parallelSort(sorted);
+            long[] keys = new long[list.length];
+            forEach(pool, list.length, i -> {
+                int e = list[i];
+                keys[i] = (long) lowerBound(sorted, es.w[e]) << 32 | e;
+            });
+            Arrays.parallelSort(keys);
+
+            UnionFind uf = new UnionFind(n);
+            int[] chosen = new int[Math.max(0, n - 1)];
+            int size = 0;
+            for (int i = 0; i < keys.length && size < n - 1; i++) {
+                int e = (int) keys[i];
+                if (uf.union(es.from[e], es.to[e])) {
+                    chosen[size++] = e;
+                }
+            }
+            return result(es, chosen, size, n);
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /** Premier indice i tel que sorted[i] >= x. */
+    private static int lowerBound(double[] sorted, double x) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < x) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /* ====================== OUTILS ====================== */
+
+    private static void checkUndirected(CompactGraph g) {
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Forêt couvrante seulement pour graphe non orienté");
+        }
+    }
+
+    /** Arêtes retenues triées par indice (résultat identique quel que soit l'ordre des threads). */
+    private static Result result(Edges es, int[] chosen, int size, int n) {
+        int[] edges = Arrays.copyOf(chosen, size);
+        Arrays.sort(edges);
+        int[] arcs = new int[size];
+        double weight = 0.0;
+        for (int i = 0; i < size; i++) {
+            arcs[i] = es.arc[edges[i]];
+            weight += es.w[edges[i]];
+        }
+        return new Result(arcs, weight, n - size);
+    }
+
+    private static void forEach(ForkJoinPool pool, int count, IntConsumer body) {
+        if (count < PARALLEL_THRESHOLD) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).join();
+        }
+    }
+
+    private static int[] filter(ForkJoinPool pool, int[] values, IntPredicate keep) {
+        if (values.length < PARALLEL_THRESHOLD) {
+            return Arrays.stream(values).filter(keep).toArray();
+        }
+        return pool.submit(() -> Arrays.stream(values).parallel().filter(keep).toArray()).join();
+    }
+}
@@ -0,0 +1,262 @@
+package algo;
+
+import metrics.Metrics;
+import model.CompactGraph;
+import model.Graph;
+import model.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plus court chemin d'un point à un autre, sans calculer tout l'arbre depuis la source :
+ * - Dijkstra bidirectionnel (source -> et <- cible, arrêt quand les deux fronts se rejoignent)
+ * - A* guidé par la distance géométrique quand tous les sommets ont des coordonnées
+ *
+ * L'heuristique d'A* est la distance euclidienne multipliée par le plus petit rapport
+ * poids / longueur des arcs du graphe : elle reste admissible et cohérente quelle que soit
+ * l'unité des coordonnées (mètres, longitude / latitude...).
+ */
+public final class PointToPoint {
+
+    private static final ThreadLocal<Search> SEARCHES = new ThreadLocal<>();
+
+    private PointToPoint() {
+    }
+
+    public static class Route {
+        public final double dist;
+        public final int[] path;     // sommets du chemin, vide si la cible est inaccessible
+        public final int settled;    // nombre de sommets fixés pendant la recherche
+
+        public Route(double dist, int[] path, int settled) {
+            this.dist = dist;
+            this.path = path;
+            this.settled = settled;
+        }
+
+        public boolean exists() {
+            return dist != Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /** A* si le graphe a des coordonnées, Dijkstra bidirectionnel sinon. */
+    public static Route route(CompactGraph g, int source, int target) {
+        return g.hasCoordinates() ? astar(g, source, target) : bidirectional(g, source, target);
+    }
+
+    public static List<Vertex> route(Graph g, Vertex source, Vertex target) {
+        CompactGraph cg = g.compact();
+        Route r = route(cg, GraphAlgorithms.indexOf(cg, source), GraphAlgorithms.indexOf(cg, target));
+        return r.exists() ? GraphAlgorithms.toVertices(cg, r.path) : new ArrayList<>();
+    }
+
+    public static Route bidirectional(CompactGraph g, int source, int target) {
+        return search(g).bidirectional(source, target);
+    }
+
+    public static Route astar(CompactGraph g, int source, int target) {
+        if (!g.hasCoordinates()) {
+            throw new IllegalArgumentException("A* nécessite des coordonnées sur tous les sommets");
+        }
+        return search(g).astar(source, target);
+    }
+
+    private static Search search(CompactGraph g) {
+        Search s = SEARCHES.get();
+        if (s == null || s.graph != g) {
+            s = new Search(g);
+            SEARCHES.set(s);
+        }
+        return s;
+    }
+
+    /** Un front de recherche : tableaux réutilisés d'une requête à l'autre grâce aux générations. */
+    private static final class Side {
+        final CompactGraph graph;
+        final double[] dist;
+        final int[] pred;
+        final int[] stamp;
+        final boolean[] settled;
+        final IndexedHeap heap;
+        int generation;
+
+        Side(CompactGraph graph) {
+            this.graph = graph;
+            int n = graph.vertexCount();
+            dist = new double[n];
+            pred = new int[n];
+            stamp = new int[n];
+            settled = new boolean[n];
+            heap = new IndexedHeap(n);
+        }
+
+        void reset(int start) {
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+            heap.clear();
+            touch(start);
+            dist[start] = 0.0;
+        }
+
+        void touch(int v) {
+            if (stamp[v] != generation) {
+                stamp[v] = generation;
+                dist[v] = Double.POSITIVE_INFINITY;
+                pred[v] = -1;
+                settled[v] = false;
+            }
+        }
+
+        double distOf(int v) {
+            return stamp[v] == generation ? dist[v] : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private static final class Search {
+        final CompactGraph graph;
+        final Side forward;
+        final Side backward;
+        double scale = -1; // facteur de l'heuristique A*, calculé au premier usage
+
+        Search(CompactGraph graph) {
+            this.graph = graph;
+            forward = new Side(graph);
+            backward = new Side(graph.reverse());
+        }
+
+        Route bidirectional(int s, int t) {
+            forward.reset(s);
+            backward.reset(t);
+            if (s == t) {
+                return new Route(0.0, new int[]{s}, 0);
+            }
+            forward.heap.insertOrDecrease(s, 0.0);
+            backward.heap.insertOrDecrease(t, 0.0);
+            double best = Double.POSITIVE_INFINITY;
+            int meet = -1;
+            int count = 0;
+            long relaxed = 0;
+            long improved = 0;
+
+            while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+                if (forward.heap.minKey() + backward.heap.minKey() >= best) {
+                    break;
+                }
+                Side side = forward.heap.minKey() <= backward.heap.minKey() ? forward : backward;
+                Side other = side == forward ? backward : forward;
+                int u = side.heap.poll();
+                side.settled[u] = true;
+                count++;
+                double du = side.dist[u];
+                CompactGraph g = side.graph;
+                relaxed += g.endArc(u) - g.firstArc(u);
+                for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                    int v = g.target(a);
+                    side.touch(v);
+                    double alt = du + g.weight(a);
+                    if (!side.settled[v] && alt < side.dist[v]) {
+                        side.dist[v] = alt;
+                        side.pred[v] = u;
+                        side.heap.insertOrDecrease(v, alt);
+                        improved++;
+                    }
+                    double through = alt + other.distOf(v);
+                    if (through < best) {
+                        best = through;
+                        meet = v;
+                    }
+                }
+            }
+            Metrics.work(count, relaxed, count + improved + 2);
+            if (meet < 0) {
+                return new Route(Double.POSITIVE_INFINITY, new int[0], count);
+            }
+            return new Route(best, join(meet), count);
+        }
+
+        /** Chemin s -> meet (prédécesseurs avant) puis meet -> t (prédécesseurs arrière). */
+        private int[] join(int meet) {
+            int before = 0;
+            for (int v = meet; forward.pred[v] >= 0; v = forward.pred[v]) before++;
+            int after = 0;
+            for (int v = meet; backward.pred[v] >= 0; v = backward.pred[v]) after++;
+            int[] path = new int[before + 1 + after];
+            int i = before;
+            for (int v = meet; i >= 0; v = forward.pred[v], i--) {
+                path[i] = v;
+            }
+            i = before + 1;
+            for (int v = backward.pred[meet]; v >= 0; v = backward.pred[v]) {
+                path[i++] = v;
+            }
+            return path;
+        }
+
+        Route astar(int s, int t) {
+            if (scale < 0) {
+                scale = heuristicScale(graph);
+            }
+            Side side = forward;
+            side.reset(s);
+            side.heap.insertOrDecrease(s, heuristic(s, t));
+            int count = 0;
+            long relaxed = 0;
+            long improved = 0;
+
+            while (!side.heap.isEmpty()) {
+                int u = side.heap.poll();
+                side.settled[u] = true;
+                count++;
+                if (u == t) break;
+                double du = side.dist[u];
+                relaxed += graph.endArc(u) - graph.firstArc(u);
+                for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+                    int v = graph.target(a);
+                    side.touch(v);
+                    if (side.settled[v]) continue;
+                    double alt = du + graph.weight(a);
+                    if (alt < side.dist[v]) {
+                        side.dist[v] = alt;
+                        side.pred[v] = u;
+                        side.heap.insertOrDecrease(v, alt + heuristic(v, t));
+                        improved++;
+                    }
+                }
+            }
+            Metrics.work(count, relaxed, count + improved + 1);
+            if (side.distOf(t) == Double.POSITIVE_INFINITY) {
+                return new Route(Double.POSITIVE_INFINITY, new int[0], count);
+            }
+            int len = 1;
+            for (int v = t; v != s; v = side.pred[v]) len++;
+            int[] path = new int[len];
+            for (int v = t, i = len - 1; i >= 0; v = side.pred[v], i--) {
+                path[i] = v;
+            }
+            return new Route(side.dist[t], path, count);
+        }
+
+        private double heuristic(int v, int t) {
+            return scale * Math.hypot(graph.x(v) - graph.x(t), graph.y(v) - graph.y(t));
+        }
+    }
+
+    /** Plus petit rapport poids / distance géométrique sur tous les arcs. */
+    private static double heuristicScale(CompactGraph g) {
+        double scale = Double.POSITIVE_INFINITY;
+        for (int u = 0; u < g.vertexCount(); u++) {
+            for (int a = g.firstArc(u), end = g.endArc(u); a < end; a++) {
+                int v = g.target(a);
+                double len = Math.hypot(g.x(u) - g.x(v), g.y(u) - g.y(v));
+                if (len > 0) {
+                    scale = Math.min(scale, g.weight(a) / len);
+                }
+            }
+        }
+        return scale == Double.POSITIVE_INFINITY ? 0.0 : scale;
+    }
+}
@@ -0,0 +1,291 @@
+package algo;
+
+import model.CompactGraph;
+import model.Graph;
+import model.GraphListener;
+import model.Vertex;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Cache d'arbres de plus courts chemins, indexé par (graphe, source), chaque arbre étant
+ * exact pour une version du graphe (voir {@link Graph#getVersion()}).
+ *
+ * - éviction LRU dès que la taille estimée des arbres dépasse la borne mémoire
+ * - abonné aux modifications de chaque graphe servi ({@link GraphListener}) : au premier
+ *   changement de poids (rue fermée ou rouverte, bouchon), les arbres en cache de ce graphe sont
+ *   confiés à un {@link DynamicShortestPaths} qui les répare à chaque changement, sans les
+ *   recalculer ; une requête qui voit la nouvelle version reçoit une copie de l'arbre réparé.
+ *   Un ajout de sommet ou d'arête les abandonne : jamais d'arbre périmé
+ * - statistiques succès / défauts / arbres réparés / évictions
+ *
+ * Thread-safe ; le calcul d'un arbre manquant se fait hors verrou. Les réparations sont faites
+ * par le thread qui modifie le graphe, sous le verrou du graphe puis celui du cache.
+ */
+public class ShortestPathCache {
+
+    private static final class Key {
+        final Graph graph;
+        final int source;
+
+        Key(Graph graph, int source) {
+            this.graph = graph;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return graph == k.graph && source == k.source;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(graph), source);
+        }
+    }
+
+    /** Arbre en cache, exact pour la version indiquée du graphe. */
+    private static final class Entry {
+        ShortestPathTree tree;
+        long version;
+        long bytes;     // arbre figé, plus l'arbre tenu à jour une fois le graphe modifié
+
+        Entry(ShortestPathTree tree, long version, long bytes) {
+            this.tree = tree;
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Suivi d'un graphe servi par le cache. Ne garde pas le graphe lui-même (clé faible de
+     * {@link #graphs}) ; dyn, sous le verrou du cache, est créé au premier changement de poids.
+     */
+    private final class Live implements GraphListener {
+        final WeakReference<Graph> graph;
+        DynamicShortestPaths dyn;
+
+        Live(Graph g) {
+            graph = new WeakReference<>(g);
+        }
+
+        @Override
+        public void edgeWeightChanged(int edge, double weight) {
+            synchronized (ShortestPathCache.this) {
+                Graph g = graph.get();
+                if (g == null) return;
+                if (dyn == null && !startRepairs(g, this)) return; // aucun arbre de ce graphe en cache
+                dyn.setWeight(edge, weight);
+            }
+        }
+
+        @Override
+        public void structureChanged() {
+            synchronized (ShortestPathCache.this) {
+                dyn = null;
+                Graph g = graph.get();
+                if (g != null) purge(g);
+            }
+        }
+    }
+
+    public static class Stats {
+        public final long hits;
+        public final long misses;
+        public final long repaired;   // arbres servis après réparation, sans nouveau Dijkstra
+        public final long evictions;
+        public final int entries;
+        public final long bytes;
+
+        public Stats(long hits, long misses, long repaired, long evictions, int entries, long bytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.repaired = repaired;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d succès / %d défauts (%.0f %%), %d réparés, %d arbres, %d Ko, %d évictions",
+                    hits, misses, 100 * hitRate(), repaired, entries, bytes / 1024, evictions);
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Graph, Live> graphs = new WeakHashMap<>();
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long repaired;
+    private long evictions;
+
+    /**
+     * @param maxBytes taille maximale estimée des arbres conservés
+     */
+    public ShortestPathCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public ShortestPathTree get(Graph g, Vertex source) {
+        CompactGraph cg = g.compact();
+        return get(g, GraphAlgorithms.indexOf(cg, source));
+    }
+
+    /**
+     * @param source indice de la source dans g.compact()
+     */
+    public ShortestPathTree get(Graph g, int source) {
+        long version = g.getVersion();
+        Key key = new Key(g, source);
+        DynamicShortestPaths dyn;
+        synchronized (this) {
+            ShortestPathTree t = cached(key, version);
+            if (t != null) return t;
+            misses++;
+            dyn = live(g).dyn;
+        }
+
+        // graphe déjà modifié : l'arbre est calculé par la structure qui répare les autres
+        ShortestPathTree t = dyn != null ? dyn.snapshot(source) : ShortestPaths.tree(g.compact(), source);
+
+        synchronized (this) {
+            Live live = graphs.get(g);
+            boolean tracked = dyn != null && live != null && live.dyn == dyn;
+            long size = t.memoryFootprint() + (tracked ? dyn.treeFootprint() : 0);
+            if (g.getVersion() != version || (dyn != null && !tracked) || size > maxBytes) {
+                // graphe modifié entre-temps, ou arbre trop gros pour le cache
+                if (tracked && !entries.containsKey(key)) dyn.forget(source);
+                return t;
+            }
+            Entry previous = entries.put(key, new Entry(t, version, size));
+            if (previous != null) {
+                bytes -= previous.bytes;
+            }
+            bytes += size;
+            evict();
+        }
+        return t;
+    }
+
+    /**
+     * Arbre déjà en cache pour cette source (réparé si besoin), null s'il n'y est pas : rien
+     * n'est calculé ni conservé (un succès est compté, pas un défaut). Pour les sources
+     * ponctuelles, qui ne doivent pas évincer les arbres réutilisés.
+     *
+     * @param source indice de la source dans g.compact()
+     */
+    public ShortestPathTree peek(Graph g, int source) {
+        long version = g.getVersion();
+        synchronized (this) {
+            return cached(new Key(g, source), version);
+        }
+    }
+
+    /** Arbre exact pour cette version : en cache, ou copie de l'arbre réparé ; null sinon. */
+    private ShortestPathTree cached(Key key, long version) {
+        Entry e = entries.get(key);
+        if (e == null) return null;
+        if (e.version != version) {
+            Live live = graphs.get(key.graph);
+            if (live == null || live.dyn == null || !live.dyn.tracks(key.source)) return null;
+            // les réparations de cette version sont faites : l'écouteur passe avant la nouvelle version
+            e.tree = live.dyn.snapshot(key.source);
+            e.version = version;
+            repaired++;
+            return e.tree;
+        }
+        hits++;
+        return e.tree;
+    }
+
+    private Live live(Graph g) {
+        Live live = graphs.get(g);
+        if (live == null) {
+            live = new Live(g);
+            graphs.put(g, live);
+            g.addListener(live);
+        }
+        return live;
+    }
+
+    /**
+     * Premier changement de poids du graphe : ses arbres en cache, calculés sur les poids
+     * d'avant, sont repris tels quels par une structure de réparation (sans nouveau Dijkstra).
+     *
+     * @return false si aucun arbre de ce graphe n'est en cache
+     */
+    private boolean startRepairs(Graph g, Live live) {
+        CompactGraph base = null;
+        for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+            if (e.getKey().graph == g) {
+                base = e.getValue().tree.graph();
+                break;
+            }
+        }
+        if (base == null) return false;
+        live.dyn = new DynamicShortestPaths(base);
+        for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+            if (e.getKey().graph == g) {
+                live.dyn.track(e.getValue().tree);
+                e.getValue().bytes += live.dyn.treeFootprint();
+                bytes += live.dyn.treeFootprint();
+            }
+        }
+        evict();
+        return true;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            bytes -= e.getValue().bytes;
+            it.remove();
+            Live live = graphs.get(e.getKey().graph);
+            if (live != null && live.dyn != null) {
+                live.dyn.forget(e.getKey().source);
+            }
+            evictions++;
+        }
+    }
+
+    private void purge(Graph g) {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().graph == g) {
+                bytes -= e.getValue().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        for (Map.Entry<Graph, Live> e : graphs.entrySet()) {
+            e.getKey().removeListener(e.getValue());
+        }
+        graphs.clear();
+        bytes = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, repaired, evictions, entries.size(), bytes);
+    }
+}
@@ -0,0 +1,79 @@
+package algo;
+
+import model.CompactGraph;
+import model.Vertex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Variante de {@link GraphAlgorithms.PathResult} basée sur des tableaux primitifs :
+ * distance et prédécesseur de chaque sommet, chemins reconstruits à la demande.
+ */
+public class ShortestPathTree {
+    private final CompactGraph graph;
+    private final int source;
+    private final double[] dist;
+    private final int[] pred;
+
+    public ShortestPathTree(CompactGraph graph, int source, double[] dist, int[] pred) {
+        this.graph = graph;
+        this.source = source;
+        this.dist = dist;
+        this.pred = pred;
+    }
+
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    public int source() {
+        return source;
+    }
+
+    public double dist(int v) {
+        return dist[v];
+    }
+
+    public int pred(int v) {
+        return pred[v];
+    }
+
+    public double distTo(Vertex v) {
+        int i = graph.indexOf(v);
+        return i < 0 ? Double.POSITIVE_INFINITY : dist[i];
+    }
+
+    public boolean hasPathTo(int v) {
+        return dist[v] != Double.POSITIVE_INFINITY;
+    }
+
+    /** @return les sommets du chemin source -> target, tableau vide s'il n'existe pas */
+    public int[] pathTo(int target) {
+        if (!hasPathTo(target)) {
+            return new int[0];
+        }
+        int len = 1;
+        for (int v = target; v != source; v = pred[v]) {
+            len++;
+        }
+        int[] path = new int[len];
+        for (int v = target, i = len - 1; i >= 0; v = pred[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    public List<Vertex> buildPathTo(Vertex target) {
+        int t = graph.indexOf(target);
+        if (t < 0) {
+            return new ArrayList<>(); // pas de chemin
+        }
+        return GraphAlgorithms.toVertices(graph, pathTo(t));
+    }
+
+    /** Taille approximative en mémoire (tableaux de distances et de prédécesseurs), en octets. */
+    public long memoryFootprint() {
+        return 64L + dist.length * 8L + pred.length * 4L;
+    }
+}
@@ -0,0 +1,272 @@
+package algo;
+
+import metrics.Metrics;
+import model.CompactGraph;
+
+import java.util.Arrays;
+
+/**
+ * Moteur de plus courts chemins (Dijkstra) sur la forme compacte :
+ * - tas 4-aire indexé avec decrease-key ({@link IndexedHeap})
+ * - distances / prédécesseurs dans des tableaux double[] / int[]
+ * - arrêt anticipé dès que toutes les cibles demandées sont fixées
+ *
+ * Les requêtes répétées passent par un {@link Workspace} réutilisable (un par thread) :
+ * un compteur de génération évite de réinitialiser les tableaux entre deux requêtes,
+ * une requête ne coûte donc que les sommets qu'elle atteint, sans allocation.
+ */
+public final class ShortestPaths {
+
+    private static final ThreadLocal<Workspace> WORKSPACES = new ThreadLocal<>();
+
+    private ShortestPaths() {
+    }
+
+    /** Arbre complet des plus courts chemins depuis source. */
+    public static ShortestPathTree tree(CompactGraph g, int source) {
+        Workspace ws = workspace(g);
+        ws.run(source);
+        return ws.toTree();
+    }
+
+    /** Arbre partiel : exact pour les cibles (et tous les sommets fixés avant elles). */
+    public static ShortestPathTree tree(CompactGraph g, int source, int[] targets) {
+        Workspace ws = workspace(g);
+        ws.run(source, targets);
+        return ws.toTree();
+    }
+
+    /** Workspace du thread courant pour ce graphe (recréé si le graphe change). */
+    public static Workspace workspace(CompactGraph g) {
+        Workspace ws = WORKSPACES.get();
+        if (ws == null || ws.graph != g) {
+            ws = new Workspace(g);
+            WORKSPACES.set(ws);
+        }
+        return ws;
+    }
+
+    /**
+     * Tableaux de travail d'une recherche. Non thread-safe : un workspace par thread.
+     * Les résultats restent valides jusqu'à la requête suivante.
+     */
+    public static final class Workspace {
+        private static final int SETTLED = 1;
+        private static final int TARGET = 2;
+
+        private final CompactGraph graph;
+        private final double[] dist;
+        private final int[] pred;
+        private final int[] stamp;   // génération de la dernière visite de chaque sommet
+        private final byte[] flags;  // SETTLED / TARGET, valides si stamp == generation
+        private final IndexedHeap heap;
+        private int generation;
+        private int source = -1;
+
+        public Workspace(CompactGraph graph) {
+            this.graph = graph;
+            int n = graph.vertexCount();
+            dist = new double[n];
+            pred = new int[n];
+            stamp = new int[n];
+            flags = new byte[n];
+            heap = new IndexedHeap(n);
+        }
+
+        public CompactGraph graph() {
+            return graph;
+        }
+
+        public int source() {
+            return source;
+        }
+
+        /** Recherche complète depuis source. */
+        public void run(int source) {
+            search(source, null, 0, 0);
+        }
+
+        /**
+         * Recherche arrêtée dès que toutes les cibles sont fixées.
+         *
+         * @return nombre de cibles atteintes
+         */
+        public int run(int source, int[] targets) {
+            return search(source, targets, targets.length, targets.length);
+        }
+
+        /**
+         * Les found.length sommets marqués les plus proches de source (source exclue),
+         * rangés par distance croissante ; la recherche s'arrête dès qu'ils sont fixés.
+         * Le coût ne dépend pas du nombre total de sommets marqués.
+         *
+         * @return nombre de sommets écrits dans found
+         */
+        public int nearestMarked(int s, boolean[] marked, int[] found) {
+            int gen = nextGeneration();
+            source = s;
+            heap.clear();
+            touch(s, gen);
+            dist[s] = 0.0;
+            heap.insertOrDecrease(s, 0.0);
+            int count = 0;
+            long settled = 0;
+            long relaxed = 0;
+            long improved = 0;
+            while (!heap.isEmpty() && count < found.length) {
+                int u = heap.poll();
+                settled++;
+                flags[u] |= SETTLED;
+                if (marked[u] && u != s) {
+                    found[count++] = u;
+                    if (count == found.length) break;
+                }
+                double du = dist[u];
+                for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+                    int v = graph.target(a);
+                    touch(v, gen);
+                    relaxed++;
+                    if ((flags[v] & SETTLED) != 0) continue;
+                    double alt = du + graph.weight(a);
+                    if (alt < dist[v]) {
+                        dist[v] = alt;
+                        pred[v] = u;
+                        heap.insertOrDecrease(v, alt);
+                        improved++;
+                    }
+                }
+            }
+            Metrics.work(settled, relaxed, settled + improved + 1);
+            return count;
+        }
+
+        /**
+         * Plus proche cible parmi targets[0..count) : la première fixée par Dijkstra.
+         *
+         * @return la cible, ou -1 si aucune n'est accessible
+         */
+        public int nearest(int source, int[] targets, int count) {
+            search(source, targets, count, 1);
+            for (int i = 0; i < count; i++) {
+                int t = targets[i];
+                if (t != source && isSettled(t)) {
+                    return t;
+                }
+            }
+            return -1;
+        }
+
+        private int search(int s, int[] targets, int count, int needed) {
+            int gen = nextGeneration();
+            source = s;
+            heap.clear();
+            int pending = 0;
+            for (int i = 0; i < count; i++) {
+                int t = targets[i];
+                if (t == s) continue;
+                touch(t, gen);
+                if ((flags[t] & TARGET) == 0) {
+                    flags[t] |= TARGET;
+                    pending++;
+                }
+            }
+            needed = Math.min(needed, pending);
+            int reached = 0;
+
+            touch(s, gen);
+            dist[s] = 0.0;
+            if (targets != null && needed == 0) {
+                flags[s] |= SETTLED;
+                return 0;
+            }
+            heap.insertOrDecrease(s, 0.0);
+
+            long settled = 0;
+            long relaxed = 0;
+            long improved = 0;
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                settled++;
+                flags[u] |= SETTLED;
+                if ((flags[u] & TARGET) != 0 && ++reached >= needed && targets != null) {
+                    break;
+                }
+                double du = dist[u];
+                for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+                    int v = graph.target(a);
+                    touch(v, gen);
+                    relaxed++;
+                    if ((flags[v] & SETTLED) != 0) continue;
+                    double alt = du + graph.weight(a);
+                    if (alt < dist[v]) {
+                        dist[v] = alt;
+                        pred[v] = u;
+                        heap.insertOrDecrease(v, alt);
+                        improved++;
+                    }
+                }
+            }
+            Metrics.work(settled, relaxed, settled + improved + 1); // + 1 : insertion de la source
+            return reached;
+        }
+
+        private int nextGeneration() {
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+            return generation;
+        }
+
+        private void touch(int v, int gen) {
+            if (stamp[v] != gen) {
+                stamp[v] = gen;
+                dist[v] = Double.POSITIVE_INFINITY;
+                pred[v] = -1;
+                flags[v] = 0;
+            }
+        }
+
+        /** Distance depuis la dernière source (exacte si le sommet est fixé). */
+        public double dist(int v) {
+            return stamp[v] == generation ? dist[v] : Double.POSITIVE_INFINITY;
+        }
+
+        public int pred(int v) {
+            return stamp[v] == generation ? pred[v] : -1;
+        }
+
+        public boolean isSettled(int v) {
+            return stamp[v] == generation && (flags[v] & SETTLED) != 0;
+        }
+
+        /** @return le chemin depuis la dernière source, vide si target n'est pas fixé */
+        public int[] pathTo(int target) {
+            if (!isSettled(target)) {
+                return new int[0];
+            }
+            int len = 1;
+            for (int v = target; v != source; v = pred[v]) {
+                len++;
+            }
+            int[] path = new int[len];
+            for (int v = target, i = len - 1; i >= 0; v = pred[v], i--) {
+                path[i] = v;
+            }
+            return path;
+        }
+
+        /** Copie les résultats de la dernière recherche (seule allocation du moteur). */
+        public ShortestPathTree toTree() {
+            int n = dist.length;
+            double[] d = new double[n];
+            int[] p = new int[n];
+            for (int v = 0; v < n; v++) {
+                boolean ok = stamp[v] == generation && (flags[v] & SETTLED) != 0;
+                d[v] = ok ? dist[v] : Double.POSITIVE_INFINITY;
+                p[v] = ok ? pred[v] : -1;
+            }
+            return new ShortestPathTree(graph, source, d, p);
+        }
+    }
+}
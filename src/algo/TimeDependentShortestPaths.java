@@ -0,0 +1,207 @@
+package algo;
+
+import metrics.Metrics;
+import model.CompactGraph;
+import model.TravelTimeProfiles;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra dépendant du temps : on part de la source à une heure donnée (minutes depuis minuit)
+ * et chaque arête coûte la durée de parcours au moment où on l'emprunte
+ * ({@link TravelTimeProfiles#travelTime}). Les clés du tas sont des heures d'arrivée.
+ *
+ * Exact parce que les profils respectent FIFO (vérifié à l'affectation) : arriver plus tôt
+ * en un sommet ne fait jamais repartir plus tard, le premier étiquetage définitif est donc le bon.
+ *
+ * Même organisation que {@link ShortestPaths} : un {@link Workspace} par thread, générations au
+ * lieu de réinitialisations ; la lecture des profils dans la relaxation ne fait aucune allocation.
+ */
+public final class TimeDependentShortestPaths {
+
+    private static final ThreadLocal<Workspace> WORKSPACES = new ThreadLocal<>();
+
+    private TimeDependentShortestPaths() {
+    }
+
+    /** Arbre complet depuis source pour un départ à l'heure departure ; dist = durée du trajet. */
+    public static ShortestPathTree tree(CompactGraph g, TravelTimeProfiles profiles, int source, double departure) {
+        Workspace ws = workspace(g, profiles);
+        ws.run(source, departure, -1);
+        return ws.toTree();
+    }
+
+    /** Heure d'arrivée en target pour un départ de source à departure (infini si inaccessible). */
+    public static double arrival(CompactGraph g, TravelTimeProfiles profiles, int source, int target, double departure) {
+        Workspace ws = workspace(g, profiles);
+        ws.run(source, departure, target);
+        return ws.arrival(target);
+    }
+
+    /** Workspace du thread courant pour ce graphe et ces profils (recréé s'ils changent). */
+    public static Workspace workspace(CompactGraph g, TravelTimeProfiles profiles) {
+        Workspace ws = WORKSPACES.get();
+        if (ws == null || ws.graph != g || ws.profiles != profiles) {
+            ws = new Workspace(g, profiles);
+            WORKSPACES.set(ws);
+        }
+        return ws;
+    }
+
+    /**
+     * Tableaux de travail d'une recherche. Non thread-safe : un workspace par thread.
+     * Les résultats restent valides jusqu'à la requête suivante.
+     */
+    public static final class Workspace {
+        private final CompactGraph graph;
+        private final TravelTimeProfiles profiles;
+        private final double[] arrival;
+        private final int[] pred;
+        private final int[] stamp;
+        private final boolean[] settled; // valide si stamp == generation
+        private final IndexedHeap heap;
+        private int generation;
+        private int source = -1;
+        private double departure;
+        private long settledCount;   // travail de la recherche en cours (instrumentation)
+        private long relaxedCount;
+        private long improvedCount;
+
+        public Workspace(CompactGraph graph, TravelTimeProfiles profiles) {
+            this.graph = graph;
+            this.profiles = profiles;
+            int n = graph.vertexCount();
+            arrival = new double[n];
+            pred = new int[n];
+            stamp = new int[n];
+            settled = new boolean[n];
+            heap = new IndexedHeap(n);
+        }
+
+        /**
+         * Recherche depuis s au départ de l'heure departure, arrêtée quand target est fixé
+         * (target = -1 : recherche complète).
+         */
+        public void run(int s, double departure, int target) {
+            start(s, departure);
+            while (!heap.isEmpty()) {
+                int u = settle();
+                if (u == target) break;
+            }
+            report();
+        }
+
+        /**
+         * Premier sommet marqué (autre que s) atteint au départ de s à l'heure departure :
+         * le plus tôt atteint, pas forcément le plus proche en poids nominal.
+         *
+         * @return le sommet, ou -1 si aucun n'est accessible
+         */
+        public int nearestMarked(int s, double departure, boolean[] marked) {
+            start(s, departure);
+            int found = -1;
+            while (!heap.isEmpty()) {
+                int u = settle();
+                if (marked[u] && u != s) {
+                    found = u;
+                    break;
+                }
+            }
+            report();
+            return found;
+        }
+
+        private void start(int s, double t) {
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+            source = s;
+            departure = t;
+            settledCount = 0;
+            relaxedCount = 0;
+            improvedCount = 0;
+            heap.clear();
+            touch(s);
+            arrival[s] = t;
+            heap.insertOrDecrease(s, t);
+        }
+
+        /** Fixe le sommet du tas arrivé le plus tôt et relâche ses arcs à son heure d'arrivée. */
+        private int settle() {
+            int u = heap.poll();
+            settled[u] = true;
+            settledCount++;
+            double tu = arrival[u];
+            for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+                int v = graph.target(a);
+                touch(v);
+                relaxedCount++;
+                if (settled[v]) continue;
+                double alt = tu + profiles.travelTime(graph.arcEdge(a), graph.weight(a), tu);
+                if (alt < arrival[v]) {
+                    arrival[v] = alt;
+                    pred[v] = u;
+                    heap.insertOrDecrease(v, alt);
+                    improvedCount++;
+                }
+            }
+            return u;
+        }
+
+        private void report() {
+            Metrics.work(settledCount, relaxedCount, settledCount + improvedCount + 1);
+        }
+
+        private void touch(int v) {
+            if (stamp[v] != generation) {
+                stamp[v] = generation;
+                arrival[v] = Double.POSITIVE_INFINITY;
+                pred[v] = -1;
+                settled[v] = false;
+            }
+        }
+
+        /** Heure d'arrivée depuis la dernière source (exacte si le sommet est fixé). */
+        public double arrival(int v) {
+            return stamp[v] == generation ? arrival[v] : Double.POSITIVE_INFINITY;
+        }
+
+        public int pred(int v) {
+            return stamp[v] == generation ? pred[v] : -1;
+        }
+
+        public boolean isSettled(int v) {
+            return stamp[v] == generation && settled[v];
+        }
+
+        /** @return le chemin depuis la dernière source, vide si target n'est pas fixé */
+        public int[] pathTo(int target) {
+            if (!isSettled(target)) {
+                return new int[0];
+            }
+            int len = 1;
+            for (int v = target; v != source; v = pred[v]) {
+                len++;
+            }
+            int[] path = new int[len];
+            for (int v = target, i = len - 1; i >= 0; v = pred[v], i--) {
+                path[i] = v;
+            }
+            return path;
+        }
+
+        /** Copie de la dernière recherche ; dist = durée depuis l'heure de départ. */
+        public ShortestPathTree toTree() {
+            int n = arrival.length;
+            double[] d = new double[n];
+            int[] p = new int[n];
+            for (int v = 0; v < n; v++) {
+                boolean ok = isSettled(v);
+                d[v] = ok ? arrival[v] - departure : Double.POSITIVE_INFINITY;
+                p[v] = ok ? pred[v] : -1;
+            }
+            return new ShortestPathTree(graph, source, d, p);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package algo;
+
+import metrics.Metrics;
+import metrics.Operation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Recuit simulé multi-départs sur une matrice de distances, pour les grandes tournées où le
+ * plus proche voisin suivi de {@link TourImprover} reste bloqué dans un optimum local médiocre.
+ *
+ * - plusieurs recherches indépendantes (une par cœur), chacune partant du plus proche voisin
+ *   depuis un point différent (le dépôt pour la première), ramené pour commencer au dépôt
+ * - mouvements tirés dans les listes de voisins : 2-opt et déplacement de segment (Or-opt),
+ *   évalués en O(1) sur la matrice ; si elle est asymétrique, le coût d'un segment inversé est
+ *   lu dans des sommes préfixes des arêtes dans les deux sens
+ * - par époques : chaque recherche refroidit de son côté, puis propose sa tournée à la meilleure
+ *   partagée (AtomicReference, sans verrou) ; les recherches moins bonnes repartent de celle-ci,
+ *   un peu réchauffées
+ * - chaque recherche a son propre aléa, dérivé de la graine, et ne lit la tournée partagée
+ *   qu'entre deux époques : à graine, nombre de recherches et nombre d'époques fixés, le résultat
+ *   ne dépend pas de l'ordonnancement des threads. Le budget en temps n'est vérifié qu'entre deux
+ *   époques ; pour un résultat reproductible, borner par maxEpochs.
+ *
+ * La meilleure tournée est enfin menée à l'optimum local par {@link TourImprover}.
+ * Le premier point de la tournée (le dépôt) reste en tête.
+ */
+public final class TourAnnealing {
+    private static final int NEIGHBOURS = 8;
+    private static final int MAX_SEGMENT = 3;
+    private static final int MOVES_PER_POINT = 100;        // mouvements par point et par époque
+    private static final int SAMPLES = 1000;               // mouvements tirés pour la température initiale
+    private static final double INITIAL_ACCEPTANCE = 0.3;  // d'une dégradation moyenne, au départ
+    private static final double REHEAT = 0.2;              // température de reprise / initiale
+    private static final double FINAL = 1e-3;              // température finale / initiale
+
+    private TourAnnealing() {
+    }
+
+    public static class Result {
+        public final int[] tour;     // lignes de la matrice, refermée sur le dépôt
+        public final double length;
+        public final int epochs;     // époques effectuées
+
+        public Result(int[] tour, double length, int epochs) {
+            this.tour = tour;
+            this.length = length;
+            this.epochs = epochs;
+        }
+    }
+
+    /** Une recherche par cœur, sur le pool commun. */
+    public static Result optimize(DistanceMatrix m, int start, long seed, long maxMillis, int maxEpochs) {
+        return optimize(m, start, Runtime.getRuntime().availableProcessors(), seed, maxMillis, maxEpochs,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Même conventions que {@link GraphAlgorithms#tspNearestNeighbor(DistanceMatrix, int)}.
+     *
+     * @param searches  nombre de recherches simultanées
+     * @param seed      graine de l'aléa : même graine et même nombre de recherches, même résultat
+     * @param maxMillis budget en temps, vérifié entre deux époques (<= 0 : illimité)
+     * @param maxEpochs nombre maximal d'époques (<= 0 : illimité)
+     */
+    public static Result optimize(DistanceMatrix m, int start, int searches, long seed, long maxMillis,
+                                  int maxEpochs, ForkJoinPool pool) {
+        if (searches < 1) {
+            throw new IllegalArgumentException("Au moins une recherche est attendue : " + searches);
+        }
+        if (maxMillis <= 0 && maxEpochs <= 0) {
+            throw new IllegalArgumentException("Budget en temps ou en époques attendu");
+        }
+        int[] nn = GraphAlgorithms.tspNearestNeighbor(m, start);
+        double initial = m.tourLength(nn);
+        if (nn.length < 5 || initial == Double.POSITIVE_INFINITY) {
+            return new Result(nn, initial, 0);
+        }
+        Metrics.Span span = Metrics.begin(Operation.TSP_RECUIT);
+        try {
+            long deadline = maxMillis > 0 ? System.nanoTime() + maxMillis * 1_000_000L : Long.MAX_VALUE;
+            double[] d = m.values();
+            int k = m.size();
+            int n = nn.length - 1;
+            int[][] neighbours = TourImprover.neighbourLists(d, k, nn, n, Math.min(NEIGHBOURS, n - 1));
+            int moves = (int) Math.min(Integer.MAX_VALUE, (long) MOVES_PER_POINT * n);
+
+            // aléas répartis dans l'ordre des recherches, avant tout parallélisme
+            SplittableRandom root = new SplittableRandom(seed);
+            SplittableRandom[] random = new SplittableRandom[searches];
+            for (int s = 0; s < searches; s++) {
+                random[s] = root.split();
+            }
+            Search[] all = new Search[searches];
+            forEach(pool, searches, s -> {
+                int[] tour = s == 0 ? nn : startingTour(m, start, nn[1 + random[s].nextInt(n - 1)], nn);
+                all[s] = new Search(s, d, k, m.isSymmetric(), neighbours, tour, random[s]);
+            });
+            double t0 = all[0].initialTemperature(root);
+
+            AtomicReference<Candidate> best = new AtomicReference<>(new Candidate(nn, initial, -1));
+            int epochs = 0;
+            do {
+                double from = epochs == 0 ? t0 : t0 * REHEAT;
+                double ratio = epochs == 0 ? FINAL : FINAL / REHEAT;
+                forEach(pool, searches, s -> {
+                    all[s].anneal(moves, from, ratio);
+                    best.accumulateAndGet(all[s].candidate(), TourAnnealing::better);
+                });
+                epochs++;
+                Candidate b = best.get();
+                for (Search s : all) {
+                    if (b.search != s.id) s.restart(b.tour);
+                }
+            } while ((maxEpochs <= 0 || epochs < maxEpochs) && System.nanoTime() < deadline);
+
+            TourImprover.Result polished = TourImprover.improve(m, best.get().tour, 0, 0);
+            return new Result(polished.tour, polished.length, epochs);
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /** Plus proche voisin depuis la ligne from, tourné pour commencer au dépôt (nn si incomplet). */
+    private static int[] startingTour(DistanceMatrix m, int start, int from, int[] nn) {
+        int[] closed = GraphAlgorithms.tspNearestNeighbor(m, from);
+        int n = closed.length - 1;
+        if (closed.length != nn.length || m.tourLength(closed) == Double.POSITIVE_INFINITY) {
+            return nn;
+        }
+        int at = 0;
+        while (closed[at] != start) {
+            at++;
+        }
+        int[] res = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            res[i] = closed[(at + i) % n];
+        }
+        res[n] = start;
+        return res;
+    }
+
+    private static void forEach(ForkJoinPool pool, int count, IntConsumer body) {
+        if (count == 1 || pool.getParallelism() == 1) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).join();
+        }
+    }
+
+    /** Tournée proposée par une recherche à la fin d'une époque. */
+    private static final class Candidate {
+        final int[] tour;    // refermée sur le dépôt
+        final double length;
+        final int search;
+
+        Candidate(int[] tour, double length, int search) {
+            this.tour = tour;
+            this.length = length;
+            this.search = search;
+        }
+    }
+
+    /** Ordre total (longueur, puis rang de la recherche) : le gagnant ne dépend pas de l'ordre d'arrivée. */
+    private static Candidate better(Candidate a, Candidate b) {
+        if (a.length != b.length) return a.length < b.length ? a : b;
+        return a.search <= b.search ? a : b;
+    }
+
+    /* ====================== RECHERCHE ====================== */
+
+    /** Une recherche : sa tournée courante et son aléa, modifiés par un seul thread à la fois. */
+    private static final class Search {
+        private final int id;
+        private final double[] d;
+        private final int k;
+        private final boolean symmetric;
+        private final int[][] neighbours;
+        private final int n;
+        private final int[] t;       // tournée ouverte : t[0] = dépôt, retour implicite
+        private final int[] pos;     // position de chaque ligne dans t
+        private final double[] ef;   // ef[p] = d(t[p], t[p+1]), eb[p] = d(t[p+1], t[p]) (matrice asymétrique)
+        private final double[] eb;
+        private final double[] fw;   // fw[p] = longueur de t[0] .. t[p]
+        private final double[] bw;   // bw[p] = longueur de t[p] .. t[0], à rebours
+        private final SplittableRandom random;
+
+        Search(int id, double[] d, int k, boolean symmetric, int[][] neighbours, int[] tour, SplittableRandom random) {
+            this.id = id;
+            this.d = d;
+            this.k = k;
+            this.symmetric = symmetric;
+            this.neighbours = neighbours;
+            this.random = random;
+            n = tour.length - 1;
+            t = Arrays.copyOf(tour, n);
+            pos = new int[k];
+            Arrays.fill(pos, -1);
+            for (int i = 0; i < n; i++) {
+                pos[t[i]] = i;
+            }
+            ef = symmetric ? null : new double[n];
+            eb = symmetric ? null : new double[n];
+            fw = symmetric ? null : new double[n];
+            bw = symmetric ? null : new double[n];
+            edges();
+        }
+
+        private double dist(int a, int b) {
+            return d[a * k + b];
+        }
+
+        private int at(int i) {
+            return t[i == n ? 0 : i];
+        }
+
+        private int pred(int a) {
+            int i = pos[a];
+            return t[i == 0 ? n - 1 : i - 1];
+        }
+
+        /** Arêtes et sommes préfixes de toute la tournée (rien à faire si la matrice est symétrique). */
+        private void edges() {
+            if (symmetric) return;
+            for (int p = 0; p < n; p++) {
+                edge(p);
+            }
+            prefixes(0);
+        }
+
+        private void edge(int p) {
+            ef[p] = dist(t[p], at(p + 1));
+            eb[p] = dist(at(p + 1), t[p]);
+        }
+
+        /**
+         * Sommes préfixes à partir de la position from. Elles ne lisent que ef et eb, tenus à jour
+         * par les mouvements : un parcours séquentiel, sans accès dispersé à la matrice.
+         */
+        private void prefixes(int from) {
+            for (int p = from; p + 1 < n; p++) {
+                fw[p + 1] = fw[p] + ef[p];
+                bw[p + 1] = bw[p] + eb[p];
+            }
+        }
+
+        private double length() {
+            double len = dist(t[n - 1], t[0]);
+            for (int i = 0; i + 1 < n; i++) {
+                len += dist(t[i], t[i + 1]);
+            }
+            return len;
+        }
+
+        Candidate candidate() {
+            int[] tour = Arrays.copyOf(t, n + 1);
+            tour[n] = t[0];
+            return new Candidate(tour, length(), id);
+        }
+
+        void restart(int[] tour) {
+            System.arraycopy(tour, 0, t, 0, n);
+            for (int i = 0; i < n; i++) {
+                pos[t[i]] = i;
+            }
+            edges();
+        }
+
+        /** Température à laquelle une dégradation moyenne est acceptée avec INITIAL_ACCEPTANCE. */
+        double initialTemperature(SplittableRandom sample) {
+            double sum = 0.0;
+            int count = 0;
+            for (int s = 0; s < SAMPLES; s++) {
+                int a = t[sample.nextInt(n)];
+                int c = neighbours[a][sample.nextInt(neighbours[a].length)];
+                double dl = sample.nextBoolean() ? twoOptDelta(a, c) : orOptDelta(a, 1 + sample.nextInt(MAX_SEGMENT), c);
+                if (dl > 0 && dl < Double.POSITIVE_INFINITY) {
+                    sum += dl;
+                    count++;
+                }
+            }
+            return count == 0 ? 0.0 : -(sum / count) / Math.log(INITIAL_ACCEPTANCE);
+        }
+
+        /** moves mouvements tirés au hasard, température décroissant géométriquement de from à from * ratio. */
+        void anneal(int moves, double from, double ratio) {
+            double cooling = Math.pow(ratio, 1.0 / moves);
+            double temp = from;
+            for (int it = 0; it < moves; it++, temp *= cooling) {
+                int a = t[random.nextInt(n)];
+                int c = neighbours[a][random.nextInt(neighbours[a].length)];
+                int kind = random.nextInt(4);
+                if (kind < 2) {
+                    if (kind == 1) { // (a, c) avec leurs prédécesseurs plutôt que leurs successeurs
+                        a = pred(a);
+                        c = pred(c);
+                    }
+                    double dl = twoOptDelta(a, c);
+                    if (accept(dl, temp)) twoOpt(a, c);
+                } else {
+                    int len = 1 + random.nextInt(MAX_SEGMENT);
+                    double dl = orOptDelta(a, len, c);
+                    if (accept(dl, temp)) orOpt(a, len, c);
+                }
+            }
+        }
+
+        private boolean accept(double delta, double temp) {
+            if (delta <= 0) return true;
+            // NaN (infini - infini sur une matrice incomplète) et +infini refusés
+            return delta < Double.POSITIVE_INFINITY && random.nextDouble() < Math.exp(-delta / temp);
+        }
+
+        /* ---------------------- mouvements ---------------------- */
+
+        /** Arêtes (a, a+) et (c, c+) remplacées par (a, c) et (a+, c+), segment a+..c inversé. */
+        private double twoOptDelta(int a, int c) {
+            int i = pos[a];
+            int j = pos[c];
+            if (i > j) {
+                int tmp = i;
+                i = j;
+                j = tmp;
+            }
+            if (j - i < 2) return Double.POSITIVE_INFINITY;
+            int x = t[i];
+            int y = t[j];
+            double dl = dist(x, y) + dist(t[i + 1], at(j + 1)) - dist(x, t[i + 1]) - dist(y, at(j + 1));
+            if (!symmetric) {
+                dl += (bw[j] - bw[i + 1]) - (fw[j] - fw[i + 1]);
+            }
+            return dl;
+        }
+
+        private void twoOpt(int a, int c) {
+            int i = Math.min(pos[a], pos[c]);
+            int j = Math.max(pos[a], pos[c]);
+            for (int from = i + 1, to = j; from < to; from++, to--) {
+                int x = t[from];
+                t[from] = t[to];
+                t[to] = x;
+                pos[t[from]] = from;
+                pos[t[to]] = to;
+            }
+            if (symmetric) return;
+            // arêtes internes parcourues à rebours : l'aller devient l'ancien retour, en ordre inverse
+            for (int from = i + 1, to = j - 1; from <= to; from++, to--) {
+                double f1 = ef[from];
+                double b1 = eb[from];
+                double f2 = ef[to];
+                double b2 = eb[to];
+                ef[from] = b2;
+                eb[from] = f2;
+                ef[to] = b1;
+                eb[to] = f1;
+            }
+            edge(i);
+            edge(j);
+            prefixes(i);
+        }
+
+        /** Segment de len points commençant à a, déplacé juste après c. */
+        private double orOptDelta(int a, int len, int c) {
+            int i = pos[a];
+            int last = i + len - 1;
+            if (i == 0 || last >= n) return Double.POSITIVE_INFINITY;
+            int p = pos[c];
+            if (p >= i - 1 && p <= last) return Double.POSITIVE_INFINITY;
+            int prev = t[i - 1];
+            int next = at(last + 1);
+            int end = t[last];
+            int after = at(p + 1);
+            return dist(prev, next) - dist(prev, a) - dist(end, next)
+                    + dist(c, a) + dist(end, after) - dist(c, after);
+        }
+
+        private void orOpt(int a, int len, int c) {
+            int i = pos[a];
+            int p = pos[c];
+            int[] segment = Arrays.copyOfRange(t, i, i + len);
+            // arêtes internes du segment, déplacées avec lui
+            double[] sf = symmetric ? null : Arrays.copyOfRange(ef, i, i + len - 1);
+            double[] sb = symmetric ? null : Arrays.copyOfRange(eb, i, i + len - 1);
+            if (p < i) {
+                System.arraycopy(t, p + 1, t, p + 1 + len, i - p - 1);
+                System.arraycopy(segment, 0, t, p + 1, len);
+                for (int q = p + 1; q < i + len; q++) pos[t[q]] = q;
+                if (symmetric) return;
+                System.arraycopy(ef, p + 1, ef, p + 1 + len, i - p - 2);
+                System.arraycopy(eb, p + 1, eb, p + 1 + len, i - p - 2);
+                System.arraycopy(sf, 0, ef, p + 1, len - 1);
+                System.arraycopy(sb, 0, eb, p + 1, len - 1);
+                edge(p);
+                edge(p + len);
+                edge(i + len - 1);
+                prefixes(p);
+            } else {
+                System.arraycopy(t, i + len, t, i, p - i - len + 1);
+                System.arraycopy(segment, 0, t, p - len + 1, len);
+                for (int q = i; q <= p; q++) pos[t[q]] = q;
+                if (symmetric) return;
+                System.arraycopy(ef, i + len, ef, i, p - i - len);
+                System.arraycopy(eb, i + len, eb, i, p - i - len);
+                System.arraycopy(sf, 0, ef, p - len + 1, len - 1);
+                System.arraycopy(sb, 0, eb, p - len + 1, len - 1);
+                edge(i - 1);
+                edge(p - len);
+                edge(p);
+                prefixes(i - 1);
+            }
+        }
+    }
+}
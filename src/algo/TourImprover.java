@@ -0,0 +1,342 @@
+package algo;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Amélioration locale d'une tournée (2-opt et Or-opt) sur une matrice de distances.
+ *
+ * - seuls les K plus proches voisins de chaque point sont essayés (listes de voisins)
+ * - bits "don't look" : un point sans mouvement améliorant n'est réexaminé que si
+ *   une de ses arêtes a changé
+ * - budget en temps et en nombre d'examens
+ * - pour les grandes tournées, les meilleurs mouvements de tous les points actifs sont
+ *   évalués en parallèle puis appliqués un par un (après revérification sur la tournée courante)
+ *
+ * Le premier point de la tournée (le dépôt) reste en tête ; la matrice peut être
+ * asymétrique (graphe orienté), le coût d'un segment inversé est alors recalculé.
+ */
+public final class TourImprover {
+    private static final int NEIGHBOURS = 10;
+    private static final int PARALLEL_THRESHOLD = 1000;
+    private static final int MAX_SEGMENT = 3;
+
+    public static class Result {
+        public final int[] tour;     // lignes de la matrice, refermée sur le dépôt
+        public final double length;
+        public final int moves;      // nombre de mouvements appliqués
+
+        public Result(int[] tour, double length, int moves) {
+            this.tour = tour;
+            this.length = length;
+            this.moves = moves;
+        }
+    }
+
+    private final double[] d;
+    private final int k;
+    private final boolean symmetric;
+    private final int[][] neighbours;
+    private final int[] t;    // tournée ouverte : t[0] = dépôt, retour implicite
+    private final int[] pos;  // position de chaque ligne dans t, -1 si absente
+    private final int n;
+    private final boolean[] dontLook;
+
+    private TourImprover(DistanceMatrix m, int[] tour) {
+        d = m.values();
+        k = m.size();
+        symmetric = m.isSymmetric();
+        n = tour.length - 1;
+        t = Arrays.copyOf(tour, n);
+        pos = new int[k];
+        Arrays.fill(pos, -1);
+        for (int i = 0; i < n; i++) {
+            pos[t[i]] = i;
+        }
+        neighbours = neighbourLists(d, k, t, n, Math.min(NEIGHBOURS, n - 1));
+        dontLook = new boolean[k];
+    }
+
+    /**
+     * @param tour      tournée en lignes de la matrice, premier = dernier = dépôt
+     * @param maxMillis budget en temps (<= 0 : illimité)
+     * @param maxChecks nombre maximal d'examens de points (<= 0 : illimité)
+     */
+    public static Result improve(DistanceMatrix m, int[] tour, long maxMillis, long maxChecks) {
+        double initial = m.tourLength(tour);
+        if (tour.length < 5 || initial == Double.POSITIVE_INFINITY) {
+            return new Result(tour.clone(), initial, 0);
+        }
+        TourImprover ti = new TourImprover(m, tour);
+        long deadline = maxMillis > 0 ? System.nanoTime() + maxMillis * 1_000_000L : Long.MAX_VALUE;
+        long checks = maxChecks > 0 ? maxChecks : Long.MAX_VALUE;
+        int moves = ti.n >= PARALLEL_THRESHOLD ? ti.runParallel(deadline, checks) : ti.run(deadline, checks);
+        int[] res = Arrays.copyOf(ti.t, ti.n + 1);
+        res[ti.n] = res[0];
+        return new Result(res, m.tourLength(res), moves);
+    }
+
+    private double dist(int a, int b) {
+        return d[a * k + b];
+    }
+
+    /**
+     * Les size plus proches voisins (parmi cities[0..count-1]) de chaque point de cities, calculés
+     * en parallèle ; d est la matrice à plat de k lignes. Les lignes absentes de cities restent null.
+     */
+    static int[][] neighbourLists(double[] d, int k, int[] cities, int count, int size) {
+        int[][] lists = new int[k][];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            int a = cities[i];
+            int[] l = new int[size];
+            double[] ld = new double[size];
+            int filled = 0;
+            for (int j = 0; j < count; j++) {
+                if (j == i) continue;
+                int c = cities[j];
+                double dc = d[a * k + c];
+                if (filled == size && dc >= ld[size - 1]) continue;
+                // insertion dans la liste triée des meilleurs
+                int q = filled < size ? filled++ : size - 1;
+                while (q > 0 && ld[q - 1] > dc) {
+                    l[q] = l[q - 1];
+                    ld[q] = ld[q - 1];
+                    q--;
+                }
+                l[q] = c;
+                ld[q] = dc;
+            }
+            lists[a] = l;
+        });
+        return lists;
+    }
+
+    /* ====================== RECHERCHE SEQUENTIELLE ====================== */
+
+    private int run(long deadline, long maxChecks) {
+        int[] queue = new int[n + 1];
+        int head = 0;
+        int tail = 0;
+        boolean[] queued = new boolean[k];
+        for (int i = 0; i < n; i++) {
+            queue[tail++] = t[i];
+            queued[t[i]] = true;
+        }
+        int moves = 0;
+        long checks = 0;
+        while (head != tail && checks < maxChecks) {
+            if ((checks & 255) == 0 && System.nanoTime() > deadline) break;
+            checks++;
+            int a = queue[head];
+            head = (head + 1) % queue.length;
+            queued[a] = false;
+            if (dontLook[a]) continue;
+            long move = bestMove(a);
+            if (move == NO_MOVE) {
+                dontLook[a] = true;
+                continue;
+            }
+            int[] touched = apply(move);
+            moves++;
+            for (int c : touched) {
+                dontLook[c] = false;
+                if (!queued[c]) {
+                    queue[tail] = c;
+                    tail = (tail + 1) % queue.length;
+                    queued[c] = true;
+                }
+            }
+        }
+        return moves;
+    }
+
+    /* ====================== RECHERCHE PARALLELE ====================== */
+
+    private int runParallel(long deadline, long maxChecks) {
+        int moves = 0;
+        long checks = 0;
+        long[] best = new long[k];
+        double[] gain = new double[k];
+        while (checks < maxChecks && System.nanoTime() < deadline) {
+            int[] active = IntStream.range(0, n).map(i -> t[i]).filter(a -> !dontLook[a]).toArray();
+            if (active.length == 0) break;
+            checks += active.length;
+            // évaluation en lecture seule, en parallèle
+            ForkJoinPool.commonPool().submit(() -> IntStream.of(active).parallel().forEach(a -> {
+                best[a] = bestMove(a);
+                gain[a] = best[a] == NO_MOVE ? 0.0 : -delta(best[a]);
+            })).join();
+            Integer[] order = IntStream.of(active).filter(a -> best[a] != NO_MOVE).boxed().toArray(Integer[]::new);
+            for (int a : active) {
+                if (best[a] == NO_MOVE) dontLook[a] = true;
+            }
+            if (order.length == 0) break;
+            Arrays.sort(order, (x, y) -> Double.compare(gain[y], gain[x]));
+            // application séquentielle : un mouvement n'est gardé que s'il améliore encore
+            int applied = 0;
+            for (int a : order) {
+                if (System.nanoTime() > deadline) break;
+                long move = best[a];
+                if (delta(move) < -1e-9) {
+                    for (int c : apply(move)) {
+                        dontLook[c] = false;
+                    }
+                    applied++;
+                }
+            }
+            moves += applied;
+            if (applied == 0) break;
+        }
+        return moves;
+    }
+
+    /* ====================== MOUVEMENTS ====================== */
+
+    // mouvement codé sur un long : type (2 bits) | longueur de segment (2 bits) | ville a | ville c
+    private static final long NO_MOVE = -1L;
+    private static final int TWO_OPT = 0;
+    private static final int OR_OPT = 1;
+
+    private static long encode(int type, int len, int a, int c) {
+        return ((long) type << 62) | ((long) len << 60) | ((long) a << 30) | c;
+    }
+
+    private static int typeOf(long move) {
+        return (int) (move >>> 62);
+    }
+
+    private static int lenOf(long move) {
+        return (int) ((move >>> 60) & 3);
+    }
+
+    private static int firstOf(long move) {
+        return (int) ((move >>> 30) & 0x3FFFFFFF);
+    }
+
+    private static int secondOf(long move) {
+        return (int) (move & 0x3FFFFFFF);
+    }
+
+    private int at(int i) {
+        return t[i == n ? 0 : i];
+    }
+
+    private int pred(int a) {
+        int i = pos[a];
+        return t[i == 0 ? n - 1 : i - 1];
+    }
+
+    /** Meilleur mouvement améliorant autour de a, NO_MOVE s'il n'y en a pas. */
+    private long bestMove(int a) {
+        long best = NO_MOVE;
+        double bestDelta = -1e-9;
+        for (int c : neighbours[a]) {
+            // nouvelle arête (a, c) : avec leurs successeurs, ou avec leurs prédécesseurs
+            long m = encode(TWO_OPT, 0, a, c);
+            double dl = delta(m);
+            if (dl < bestDelta) {
+                bestDelta = dl;
+                best = m;
+            }
+            m = encode(TWO_OPT, 0, pred(a), pred(c));
+            dl = delta(m);
+            if (dl < bestDelta) {
+                bestDelta = dl;
+                best = m;
+            }
+            if (pos[a] != 0) {
+                for (int len = 1; len <= MAX_SEGMENT; len++) {
+                    m = encode(OR_OPT, len, a, c);
+                    dl = delta(m);
+                    if (dl < bestDelta) {
+                        bestDelta = dl;
+                        best = m;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Variation de longueur si le mouvement est appliqué à la tournée courante (+infini si invalide). */
+    private double delta(long move) {
+        int a = firstOf(move);
+        int c = secondOf(move);
+        if (typeOf(move) == TWO_OPT) {
+            // arêtes (a, a+) et (c, c+) remplacées par (a, c) et (a+, c+), segment a+..c inversé
+            int i = pos[a];
+            int j = pos[c];
+            if (i > j) {
+                int tmp = i;
+                i = j;
+                j = tmp;
+            }
+            if (j - i < 2) return Double.POSITIVE_INFINITY;
+            int x = t[i];
+            int y = t[j];
+            double dl = dist(x, y) + dist(t[i + 1], at(j + 1)) - dist(x, t[i + 1]) - dist(y, at(j + 1));
+            if (!symmetric) {
+                for (int p = i + 1; p < j; p++) {
+                    dl += dist(t[p + 1], t[p]) - dist(t[p], t[p + 1]);
+                }
+            }
+            return dl;
+        }
+        // Or-opt : segment de len points commençant à a, déplacé juste après c
+        int len = lenOf(move);
+        int i = pos[a];
+        int last = i + len - 1;
+        if (i == 0 || last >= n) return Double.POSITIVE_INFINITY;
+        int p = pos[c];
+        if (p >= i - 1 && p <= last) return Double.POSITIVE_INFINITY;
+        int prev = t[i - 1];
+        int next = at(last + 1);
+        int end = t[last];
+        int after = at(p + 1);
+        return dist(prev, next) - dist(prev, a) - dist(end, next)
+                + dist(c, a) + dist(end, after) - dist(c, after);
+    }
+
+    /** Applique le mouvement et renvoie les points dont les arêtes ont changé. */
+    private int[] apply(long move) {
+        int a = firstOf(move);
+        int c = secondOf(move);
+        if (typeOf(move) == TWO_OPT) {
+            int i = Math.min(pos[a], pos[c]);
+            int j = Math.max(pos[a], pos[c]);
+            int[] touched = {t[i], t[i + 1], t[j], at(j + 1)};
+            reverse(i + 1, j);
+            return touched;
+        }
+        int len = lenOf(move);
+        int i = pos[a];
+        int p = pos[c];
+        int[] touched = {t[i - 1], a, t[i + len - 1], at(i + len), c, at(p + 1)};
+        int[] segment = Arrays.copyOfRange(t, i, i + len);
+        if (p < i) {
+            // décalage vers la droite de t[p+1..i-1]
+            System.arraycopy(t, p + 1, t, p + 1 + len, i - p - 1);
+            System.arraycopy(segment, 0, t, p + 1, len);
+            for (int q = p + 1; q < i + len; q++) pos[t[q]] = q;
+        } else {
+            // décalage vers la gauche de t[i+len..p]
+            System.arraycopy(t, i + len, t, i, p - i - len + 1);
+            System.arraycopy(segment, 0, t, p - len + 1, len);
+            for (int q = i; q <= p; q++) pos[t[q]] = q;
+        }
+        return touched;
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            int x = t[from];
+            t[from] = t[to];
+            t[to] = x;
+            pos[t[from]] = from;
+            pos[t[to]] = to;
+            from++;
+            to--;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Tournées de plusieurs camions de capacité limitée (CVRP) sur une matrice de distances.
+ *
+ * 1. économies de Clarke et Wright : s(i, j) = d(i, dépôt) + d(dépôt, j) - d(i, j), calculées en
+ *    parallèle sur les plus proches voisins de chaque point, triées, puis fusion des tournées
+ *    tant que la capacité le permet
+ * 2. recherche locale entre tournées sur les listes de voisins : déplacement d'un point
+ *    (relocate), échange de deux points (swap), échange des fins de deux tournées (2-opt*) ;
+ *    meilleurs mouvements évalués en parallèle puis appliqués un par un après revérification
+ * 3. 2-opt / Or-opt à l'intérieur de chaque tournée ({@link TourImprover}), en parallèle
+ *
+ * La matrice peut être asymétrique (sens uniques) : les tournées ne sont alors jamais inversées.
+ */
+public final class VehicleRouting {
+    private static final int NEIGHBOURS = 20;          // voisins examinés par la recherche locale
+    private static final int SAVINGS_NEIGHBOURS = 100; // voisins retenus pour les économies
+
+    public static class Result {
+        public final int[][] routes;  // lignes de la matrice, chaque tournée part du dépôt et y revient
+        public final double[] loads;  // charge de chaque tournée
+        public final double length;   // longueur totale
+
+        public Result(int[][] routes, double[] loads, double length) {
+            this.routes = routes;
+            this.loads = loads;
+            this.length = length;
+        }
+    }
+
+    private final double[] d;
+    private final int k;
+    private final int depot;
+    private final double[] q;
+    private final double capacity;
+    private final boolean symmetric;
+    private final int[] customers;
+
+    // tournées en listes doublement chaînées ; le dépôt sert de sentinelle aux deux bouts
+    private final int[] next;
+    private final int[] prev;
+    private final int[] route;    // tournée de chaque point
+    private final double[] cum;   // charge cumulée du début de la tournée jusqu'au point inclus
+    private final int[] first;    // par tournée (identifiant = un de ses points)
+    private final int[] last;
+    private final double[] load;
+    private final int[] size;
+
+    private int[][] neighbours;
+    private boolean[] dontLook;
+
+    private VehicleRouting(DistanceMatrix m, int depot, double[] demand, double capacity) {
+        d = m.values();
+        k = m.size();
+        this.depot = depot;
+        this.q = demand;
+        this.capacity = capacity;
+        symmetric = m.isSymmetric();
+        customers = IntStream.range(0, k).filter(i -> i != depot).toArray();
+        next = new int[k];
+        prev = new int[k];
+        route = new int[k];
+        cum = new double[k];
+        first = new int[k];
+        last = new int[k];
+        load = new double[k];
+        size = new int[k];
+    }
+
+    /**
+     * @param depot     ligne du dépôt dans la matrice
+     * @param demand    quantité à collecter pour chaque ligne (celle du dépôt est ignorée)
+     * @param capacity  capacité d'un camion
+     * @param maxMillis budget en temps de l'amélioration (<= 0 : jusqu'à ce qu'aucun mouvement n'améliore)
+     */
+    public static Result solve(DistanceMatrix m, int depot, double[] demand, double capacity, long maxMillis) {
+        VehicleRouting vr = new VehicleRouting(m, depot, demand, capacity);
+        vr.check();
+        if (vr.customers.length == 0) {
+            return new Result(new int[0][], new double[0], 0.0);
+        }
+        long start = System.nanoTime();
+        long budget = maxMillis > 0 ? maxMillis * 1_000_000L : Long.MAX_VALUE / 2;
+        vr.neighbours = vr.neighbourLists(Math.min(SAVINGS_NEIGHBOURS, vr.customers.length - 1));
+        vr.savings();
+        vr.localSearch(start + budget * 7 / 10);
+        return vr.result(m, maxMillis > 0 ? start + budget : 0L);
+    }
+
+    private void check() {
+        for (int c : customers) {
+            if (q[c] > capacity) {
+                throw new IllegalArgumentException("Quantité du point " + c + " supérieure à la capacité d'un camion");
+            }
+            if (dist(depot, c) == Double.POSITIVE_INFINITY || dist(c, depot) == Double.POSITIVE_INFINITY) {
+                throw new IllegalArgumentException("Point " + c + " inaccessible depuis le dépôt (ou sans retour)");
+            }
+        }
+    }
+
+    private double dist(int a, int b) {
+        return d[a * k + b];
+    }
+
+    /** K plus proches points (hors dépôt) de chaque point, triés, calculés en parallèle. */
+    private int[][] neighbourLists(int size) {
+        int[][] lists = new int[k][];
+        IntStream.of(customers).parallel().forEach(a -> {
+            int[] l = new int[Math.max(size, 0)];
+            double[] ld = new double[l.length];
+            int filled = 0;
+            for (int c : customers) {
+                if (c == a || l.length == 0) continue;
+                double dc = dist(a, c);
+                if (filled == l.length && dc >= ld[l.length - 1]) continue;
+                int p = filled < l.length ? filled++ : l.length - 1;
+                while (p > 0 && ld[p - 1] > dc) {
+                    l[p] = l[p - 1];
+                    ld[p] = ld[p - 1];
+                    p--;
+                }
+                l[p] = c;
+                ld[p] = dc;
+            }
+            lists[a] = Arrays.copyOf(l, filled);
+        });
+        return lists;
+    }
+
+    /* ====================== ECONOMIES DE CLARKE ET WRIGHT ====================== */
+
+    private void savings() {
+        for (int c : customers) {
+            next[c] = depot;
+            prev[c] = depot;
+            route[c] = c;
+            first[c] = c;
+            last[c] = c;
+            load[c] = q[c];
+            size[c] = 1;
+        }
+        // économies positives (i suivi de j), calculées en parallèle point par point
+        long[][] perPoint = new long[k][];
+        IntStream.of(customers).parallel().forEach(i -> {
+            int[] l = neighbours[i];
+            long[] pairs = new long[l.length];
+            int count = 0;
+            for (int j : l) {
+                double s = dist(i, depot) + dist(depot, j) - dist(i, j);
+                if (s > 0) {
+                    pairs[count++] = ((long) i << 32) | j;
+                }
+            }
+            perPoint[i] = Arrays.copyOf(pairs, count);
+        });
+        int total = 0;
+        for (int c : customers) total += perPoint[c].length;
+        long[] pairs = new long[total];
+        int p = 0;
+        for (int c : customers) {
+            System.arraycopy(perPoint[c], 0, pairs, p, perPoint[c].length);
+            p += perPoint[c].length;
+        }
+        // clé de tri : économie (float, positif donc ordonné comme ses bits) puis indice de la paire
+        long[] keys = new long[total];
+        IntStream.range(0, total).parallel().forEach(x -> {
+            int i = (int) (pairs[x] >>> 32);
+            int j = (int) pairs[x];
+            float s = (float) (dist(i, depot) + dist(depot, j) - dist(i, j));
+            keys[x] = ((long) Float.floatToIntBits(s) << 32) | x;
+        });
+        Arrays.parallelSort(keys);
+
+        for (int x = total - 1; x >= 0; x--) {
+            long pair = pairs[(int) keys[x]];
+            merge((int) (pair >>> 32), (int) pair);
+        }
+    }
+
+    /** Fusionne les tournées de i et j pour que j suive i, si c'est possible. */
+    private void merge(int i, int j) {
+        int ri = route[i];
+        int rj = route[j];
+        if (ri == rj || load[ri] + load[rj] > capacity) return;
+        if (i == last[ri] && j == first[rj]) {
+            link(ri, rj);
+        } else if (symmetric) {
+            if (i == first[ri] && j == last[rj]) {
+                link(rj, ri);
+            } else if (i == first[ri] && j == first[rj]) {
+                reverse(ri);
+                link(ri, rj);
+            } else if (i == last[ri] && j == last[rj]) {
+                reverse(rj);
+                link(ri, rj);
+            }
+        }
+    }
+
+    /** Tournée a suivie de la tournée b ; la plus courte des deux est renumérotée. */
+    private void link(int a, int b) {
+        int keep = size[a] >= size[b] ? a : b;
+        int drop = keep == a ? b : a;
+        for (int c = first[drop]; c != depot; c = next[c]) { // avant le chaînage : drop seule
+            route[c] = keep;
+        }
+        next[last[a]] = first[b];
+        prev[first[b]] = last[a];
+        int f = first[a];
+        int l = last[b];
+        first[keep] = f;
+        last[keep] = l;
+        load[keep] = load[a] + load[b];
+        size[keep] = size[a] + size[b];
+        size[drop] = 0;
+    }
+
+    private void reverse(int r) {
+        for (int c = first[r]; c != depot; ) {
+            int n = next[c];
+            next[c] = prev[c];
+            prev[c] = n;
+            c = n;
+        }
+        int f = first[r];
+        first[r] = last[r];
+        last[r] = f;
+    }
+
+    /** Recalcule charges cumulées, charge et taille d'une tournée après modification. */
+    private void refresh(int r) {
+        double total = 0.0;
+        int count = 0;
+        for (int c = first[r]; c != depot; c = next[c]) {
+            route[c] = r;
+            total += q[c];
+            cum[c] = total;
+            count++;
+        }
+        load[r] = total;
+        size[r] = count;
+        if (count == 0) {
+            first[r] = depot;
+            last[r] = depot;
+        }
+    }
+
+    /* ====================== RECHERCHE LOCALE ENTRE TOURNEES ====================== */
+
+    // mouvement codé sur un long : type (2 bits) | variante (1 bit) | point u | point w
+    private static final long NO_MOVE = -1L;
+    private static final int RELOCATE = 0;
+    private static final int SWAP = 1;
+    private static final int TWO_OPT_STAR = 2;
+
+    private static long encode(int type, int variant, int u, int w) {
+        return ((long) type << 62) | ((long) variant << 61) | ((long) u << 30) | w;
+    }
+
+    private static int typeOf(long move) {
+        return (int) (move >>> 62);
+    }
+
+    private static int variantOf(long move) {
+        return (int) ((move >>> 61) & 1);
+    }
+
+    private static int uOf(long move) {
+        return (int) ((move >>> 30) & 0x3FFFFFFF);
+    }
+
+    private static int wOf(long move) {
+        return (int) (move & 0x3FFFFFFF);
+    }
+
+    private double cumBefore(int c) {
+        return c == depot ? 0.0 : cum[c] - q[c];
+    }
+
+    private double cumAt(int c) {
+        return c == depot ? 0.0 : cum[c];
+    }
+
+    private void localSearch(long deadline) {
+        for (int c : customers) {
+            if (size[c] > 0) refresh(c);
+            neighbours[c] = Arrays.copyOf(neighbours[c], Math.min(NEIGHBOURS, neighbours[c].length));
+        }
+        dontLook = new boolean[k];
+        long[] best = new long[k];
+        double[] gain = new double[k];
+        while (System.nanoTime() < deadline) {
+            int[] active = IntStream.of(customers).filter(c -> !dontLook[c]).toArray();
+            if (active.length == 0) break;
+            IntStream.of(active).parallel().forEach(u -> {
+                best[u] = bestMove(u);
+                gain[u] = best[u] == NO_MOVE ? 0.0 : -delta(best[u]);
+            });
+            List<Integer> order = new ArrayList<>();
+            for (int u : active) {
+                if (best[u] == NO_MOVE) {
+                    dontLook[u] = true;
+                } else {
+                    order.add(u);
+                }
+            }
+            if (order.isEmpty()) break;
+            order.sort((x, y) -> gain[x] != gain[y] ? Double.compare(gain[y], gain[x]) : Integer.compare(x, y));
+            int applied = 0;
+            for (int u : order) {
+                if (System.nanoTime() > deadline) break;
+                long move = best[u];
+                if (delta(move) < -1e-9) {
+                    apply(move);
+                    applied++;
+                }
+            }
+            if (applied == 0) break;
+        }
+    }
+
+    /** Meilleur mouvement améliorant autour de u, NO_MOVE s'il n'y en a pas. */
+    private long bestMove(int u) {
+        long best = NO_MOVE;
+        double bestDelta = -1e-9;
+        for (int w : neighbours[u]) {
+            long[] candidates = {
+                    encode(RELOCATE, 0, u, w), encode(RELOCATE, 1, u, w),
+                    encode(SWAP, 0, u, w), encode(TWO_OPT_STAR, 0, u, w)
+            };
+            for (long m : candidates) {
+                double dl = delta(m);
+                if (dl < bestDelta) {
+                    bestDelta = dl;
+                    best = m;
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Variation de longueur du mouvement sur les tournées courantes (+infini s'il est impossible). */
+    private double delta(long move) {
+        int u = uOf(move);
+        int w = wOf(move);
+        if (u == w) return Double.POSITIVE_INFINITY;
+        int a = route[u];
+        int b = route[w];
+        int pu = prev[u];
+        int nu = next[u];
+        int pw = prev[w];
+        int nw = next[w];
+        switch (typeOf(move)) {
+            case RELOCATE: {
+                // u retiré de sa place, inséré avant w (variante 0) ou après w (variante 1)
+                int x = variantOf(move) == 0 ? pw : w;
+                int y = variantOf(move) == 0 ? w : nw;
+                if (x == u || y == u) return Double.POSITIVE_INFINITY;
+                if (a != b && load[b] + q[u] > capacity) return Double.POSITIVE_INFINITY;
+                return dist(pu, nu) - dist(pu, u) - dist(u, nu)
+                        + dist(x, u) + dist(u, y) - dist(x, y);
+            }
+            case SWAP: {
+                if (a == b) return Double.POSITIVE_INFINITY;
+                if (load[a] - q[u] + q[w] > capacity || load[b] - q[w] + q[u] > capacity) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                return dist(pu, w) + dist(w, nu) - dist(pu, u) - dist(u, nu)
+                        + dist(pw, u) + dist(u, nw) - dist(pw, w) - dist(w, nw);
+            }
+            default: {
+                // 2-opt* : a = début de a jusqu'à u puis w et la fin de b ; b = début de b jusqu'avant w puis la fin de a
+                if (a == b) return Double.POSITIVE_INFINITY;
+                double headA = cumAt(u);
+                double headB = cumBefore(w);
+                if (headA + load[b] - headB > capacity || headB + load[a] - headA > capacity) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                return dist(u, w) + dist(pw, nu) - dist(u, nu) - dist(pw, w);
+            }
+        }
+    }
+
+    private void apply(long move) {
+        int u = uOf(move);
+        int w = wOf(move);
+        int a = route[u];
+        int b = route[w];
+        int pu = prev[u];
+        int nu = next[u];
+        int pw = prev[w];
+        int nw = next[w];
+        switch (typeOf(move)) {
+            case RELOCATE: {
+                unlink(a, u);
+                int x = variantOf(move) == 0 ? prev[w] : w;
+                int y = variantOf(move) == 0 ? w : next[w];
+                prev[u] = x;
+                next[u] = y;
+                setNext(b, x, u);
+                setPrev(b, y, u);
+                wake(pu, nu, u, x, y);
+                break;
+            }
+            case SWAP: {
+                prev[u] = pw;
+                next[u] = nw;
+                setNext(b, pw, u);
+                setPrev(b, nw, u);
+                prev[w] = pu;
+                next[w] = nu;
+                setNext(a, pu, w);
+                setPrev(a, nu, w);
+                route[u] = b;
+                route[w] = a;
+                wake(pu, nu, pw, nw, u, w);
+                break;
+            }
+            default: {
+                int lastA = last[a];
+                int lastB = last[b];
+                next[u] = w;
+                prev[w] = u;
+                last[a] = lastB;
+                if (pw == depot) {
+                    first[b] = nu;
+                } else {
+                    next[pw] = nu;
+                }
+                if (nu != depot) {
+                    prev[nu] = pw;
+                    last[b] = lastA;
+                } else {
+                    last[b] = pw;
+                }
+                wake(u, nu, pw, w);
+                break;
+            }
+        }
+        refresh(a);
+        if (b != a) refresh(b);
+    }
+
+    private void unlink(int r, int c) {
+        setNext(r, prev[c], next[c]);
+        setPrev(r, next[c], prev[c]);
+    }
+
+    /** Successeur de x dans la tournée r (x = dépôt : premier point de la tournée). */
+    private void setNext(int r, int x, int c) {
+        if (x == depot) {
+            first[r] = c;
+        } else {
+            next[x] = c;
+        }
+    }
+
+    private void setPrev(int r, int y, int c) {
+        if (y == depot) {
+            last[r] = c;
+        } else {
+            prev[y] = c;
+        }
+    }
+
+    private void wake(int... points) {
+        for (int c : points) {
+            if (c != depot) dontLook[c] = false;
+        }
+    }
+
+    /* ====================== RESULTAT ====================== */
+
+    /** Tournées finales, chacune améliorée par 2-opt / Or-opt en parallèle (deadline 0 : sans limite). */
+    private Result result(DistanceMatrix m, long deadline) {
+        List<int[]> routes = new ArrayList<>();
+        boolean[] done = new boolean[k];
+        for (int c : customers) {
+            int r = route[c];
+            if (done[r]) continue;
+            done[r] = true;
+            int[] t = new int[size[r] + 2];
+            int i = 0;
+            t[i++] = depot;
+            for (int x = first[r]; x != depot; x = next[x]) {
+                t[i++] = x;
+            }
+            t[i] = depot;
+            routes.add(t);
+        }
+        int[][] res = routes.toArray(new int[0][]);
+        long remaining = deadline == 0L ? 0L : Math.max(1L, (deadline - System.nanoTime()) / 1_000_000L);
+        IntStream.range(0, res.length).parallel().forEach(i ->
+                res[i] = TourImprover.improve(m, res[i], remaining, 0).tour);
+        double[] loads = new double[res.length];
+        double length = 0.0;
+        for (int i = 0; i < res.length; i++) {
+            for (int j = 1; j + 1 < res[i].length; j++) {
+                loads[i] += q[res[i][j]];
+            }
+            length += m.tourLength(res[i]);
+        }
+        return new Result(res, loads, length);
+    }
+}
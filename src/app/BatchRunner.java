@@ -0,0 +1,416 @@
+package app;
+
+import algo.ChinesePostman;
+import algo.DayScheduler;
+import io.GraphLoader;
+import metrics.Metrics;
+import model.CompactGraph;
+import model.Graph;
+import model.Vertex;
+import service.CollectionPlanner;
+import service.SectorPlanner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mode batch (sans menu) : une liste de travaux exécutés en parallèle, un thread virtuel par
+ * travail, sur un même territoire partagé en lecture seule. Chaque résultat est écrit dès qu'il
+ * est prêt (donc dans l'ordre de fin, pas dans l'ordre du fichier), avec sa durée.
+ *
+ * Usage : java app.Main --batch territoire travaux [--format jsonl|csv] [--sortie fichier] [--metriques fichier]
+ *
+ * Fichier de travaux, une ligne par travail (sommets désignés par leur id) :
+ * <pre>
+ * idTravail ENCOMBRANTS centre foyer
+ * idTravail TOURNEE depot point1 point2 ...
+ * idTravail TOUTES_RUES
+ * idTravail MULTI_CAMIONS depot capacite point1:quantite point2:quantite ...
+ * idTravail JOURS [nbJours capaciteParJour]   (sans argument : coloration DSatur)
+ * </pre>
+ * Les lignes vides et celles commençant par # sont ignorées.
+ *
+ * --metriques écrit à la fin les mesures des opérations au format Prometheus (à lancer avec
+ * -Dcollecte.metriques=true, sinon les compteurs restent à zéro).
+ */
+public final class BatchRunner {
+
+    public enum Format {
+        JSONL, CSV
+    }
+
+    public static class Job {
+        public final int line;      // ligne dans le fichier de travaux
+        public final String id;
+        public final String type;
+        public final String[] args;
+
+        public Job(int line, String id, String type, String[] args) {
+            this.line = line;
+            this.id = id;
+            this.type = type;
+            this.args = args;
+        }
+    }
+
+    /** Résultat d'un travail ; les champs inutiles restent vides. */
+    static final class Outcome {
+        double longueur = Double.NaN;
+        final List<List<Vertex>> tournees = new ArrayList<>();
+        Map<Vertex, Integer> jours;
+        String detail;
+    }
+
+    public static class Summary {
+        public final int jobs;
+        public final int errors;
+        public final long millis;
+
+        public Summary(int jobs, int errors, long millis) {
+            this.jobs = jobs;
+            this.errors = errors;
+            this.millis = millis;
+        }
+    }
+
+    private BatchRunner() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : java app.Main --batch territoire travaux [--format jsonl|csv] [--sortie fichier] [--metriques fichier]");
+            System.exit(2);
+        }
+        Format format = Format.JSONL;
+        String sortie = null;
+        String metriques = null;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--format")) {
+                format = Format.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+            } else if (args[i].equals("--sortie")) {
+                sortie = args[i + 1];
+            } else if (args[i].equals("--metriques")) {
+                metriques = args[i + 1];
+            } else {
+                throw new IllegalArgumentException("Option inconnue : " + args[i]);
+            }
+        }
+        Graph g = GraphLoader.loadFromFile(args[0]);
+        List<Job> jobs = readJobs(Path.of(args[1]));
+        Writer out = sortie == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(sortie), StandardCharsets.UTF_8);
+        Summary s;
+        try {
+            s = run(g, jobs, format, out);
+        } finally {
+            if (sortie == null) {
+                out.flush();
+            } else {
+                out.close();
+            }
+        }
+        System.err.printf(Locale.ROOT, "%d travaux (%d en erreur) en %d ms, %.1f travaux/s%s%n",
+                s.jobs, s.errors, s.millis, s.millis == 0 ? 0.0 : s.jobs * 1000.0 / s.millis,
+                VirtualThreads.available() ? ", threads virtuels" : ", threads classiques (JDK < 21)");
+        if (metriques != null) {
+            Metrics.writeTo(Path.of(metriques));
+        }
+    }
+
+    public static List<Job> readJobs(Path path) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = br.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] t = line.split("\\s+");
+                if (t.length < 2) {
+                    throw new IOException("Ligne " + number + " : travail invalide : " + line);
+                }
+                jobs.add(new Job(number, t[0], t[1].toUpperCase(Locale.ROOT), Arrays.copyOfRange(t, 2, t.length)));
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Exécute les travaux en parallèle et écrit une ligne par résultat dans out (plus l'en-tête en CSV).
+     * Le territoire n'est que lu : sa forme compacte est construite avant de lancer les travaux.
+     */
+    public static Summary run(Graph g, List<Job> jobs, Format format, Writer out) throws IOException {
+        g.compact();
+        if (format == Format.CSV) {
+            out.write("id;type;statut;duree_ms;longueur;resultat;message\n");
+        }
+        AtomicInteger errors = new AtomicInteger();
+        IOException[] writeError = new IOException[1];
+        long start = System.nanoTime();
+        ExecutorService executor = VirtualThreads.newExecutor();
+        try {
+            for (Job job : jobs) {
+                executor.submit(() -> {
+                    long t0 = System.nanoTime();
+                    Outcome o = null;
+                    String message = null;
+                    try {
+                        o = execute(g, job);
+                    } catch (RuntimeException e) {
+                        message = e.getMessage() == null ? e.toString() : e.getMessage();
+                        errors.incrementAndGet();
+                    }
+                    double ms = (System.nanoTime() - t0) / 1e6;
+                    String line = format == Format.JSONL ? json(job, o, message, ms) : csv(job, o, message, ms);
+                    synchronized (out) {
+                        try {
+                            out.write(line);
+                            out.write('\n');
+                        } catch (IOException e) {
+                            writeError[0] = e;
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (out) {
+            if (writeError[0] != null) throw writeError[0];
+        }
+        return new Summary(jobs.size(), errors.get(), (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    /* ====================== TRAVAUX ====================== */
+
+    static Outcome execute(Graph g, Job job) {
+        Outcome o = new Outcome();
+        String[] a = job.args;
+        switch (job.type) {
+            case "ENCOMBRANTS": {
+                arguments(job, 2, 2);
+                Vertex centre = sommet(g, a[0]);
+                Vertex foyer = sommet(g, a[1]);
+                o.tournees.add(CollectionPlanner.itineraireEncombrants(g, centre, foyer));
+                // distances entre les deux extrémités seulement, pas entre tous les carrefours du trajet
+                o.longueur = CollectionPlanner.longueurTour(g, List.of(centre, foyer, centre));
+                break;
+            }
+            case "TOURNEE": {
+                arguments(job, 2, Integer.MAX_VALUE);
+                List<Vertex> points = new ArrayList<>();
+                for (int i = 1; i < a.length; i++) {
+                    points.add(sommet(g, a[i]));
+                }
+                List<Vertex> tour = CollectionPlanner.tourEncombrantsMulti(g, sommet(g, a[0]), points);
+                o.tournees.add(tour);
+                o.longueur = CollectionPlanner.longueurTour(g, tour);
+                break;
+            }
+            case "TOUTES_RUES": {
+                arguments(job, 0, 0);
+                ChinesePostman.Result r = CollectionPlanner.tourneeToutesRues(g);
+                CompactGraph cg = g.compact();
+                List<Vertex> cycle = new ArrayList<>(r.circuit.length);
+                for (int v : r.circuit) {
+                    cycle.add(cg.vertex(v));
+                }
+                o.tournees.add(cycle);
+                o.longueur = r.length;
+                o.detail = r.oddVertices == 0 ? "eulérien" : "postier chinois, " + r.duplicatedEdges + " tronçons repris";
+                break;
+            }
+            case "MULTI_CAMIONS": {
+                arguments(job, 3, Integer.MAX_VALUE);
+                double capacite = nombre(a[1]);
+                List<Vertex> points = new ArrayList<>();
+                List<Double> quantites = new ArrayList<>();
+                for (int i = 2; i < a.length; i++) {
+                    int sep = a[i].lastIndexOf(':');
+                    points.add(sommet(g, sep < 0 ? a[i] : a[i].substring(0, sep)));
+                    quantites.add(sep < 0 ? 1.0 : nombre(a[i].substring(sep + 1)));
+                }
+                o.tournees.addAll(CollectionPlanner.tourneesMultiCamions(g, sommet(g, a[0]), points, quantites, capacite));
+                o.longueur = 0.0;
+                for (List<Vertex> tour : o.tournees) {
+                    o.longueur += CollectionPlanner.longueurTour(g, tour);
+                }
+                o.detail = o.tournees.size() + " camion(s)";
+                break;
+            }
+            case "JOURS": {
+                if (a.length == 0) {
+                    o.jours = SectorPlanner.planificationJoursParColoration(g);
+                    break;
+                }
+                arguments(job, 2, 2);
+                DayScheduler.Result r = SectorPlanner.planificationJoursAvecCapacite(
+                        g, (int) nombre(a[0]), nombre(a[1]));
+                o.jours = SectorPlanner.joursParSecteur(g, r);
+                o.detail = r.isFeasible() ? "faisable"
+                        : r.conflicts + " conflit(s), dépassement " + r.overload;
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Type de travail inconnu : " + job.type);
+        }
+        return o;
+    }
+
+    private static void arguments(Job job, int min, int max) {
+        if (job.args.length < min || job.args.length > max) {
+            throw new IllegalArgumentException("Nombre d'arguments invalide pour " + job.type + " (ligne " + job.line + ")");
+        }
+    }
+
+    private static Vertex sommet(Graph g, String id) {
+        Vertex v = g.getVertex(id);
+        if (v == null) {
+            throw new IllegalArgumentException("Sommet inconnu : " + id);
+        }
+        return v;
+    }
+
+    private static double nombre(String s) {
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nombre invalide : " + s);
+        }
+    }
+
+    /* ====================== SORTIES ====================== */
+
+    static String json(Job job, Outcome o, String message, double ms) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"id\":");
+        jsonString(sb, job.id);
+        sb.append(",\"type\":");
+        jsonString(sb, job.type);
+        sb.append(",\"statut\":\"").append(o == null ? "erreur" : "ok").append('"');
+        sb.append(",\"duree_ms\":").append(String.format(Locale.ROOT, "%.3f", ms));
+        if (o == null) {
+            sb.append(",\"message\":");
+            jsonString(sb, message);
+            return sb.append('}').toString();
+        }
+        if (!Double.isNaN(o.longueur)) {
+            sb.append(",\"longueur\":").append(Double.isInfinite(o.longueur) ? "null" : Double.toString(o.longueur));
+        }
+        if (!o.tournees.isEmpty()) {
+            sb.append(",\"tournees\":[");
+            for (int i = 0; i < o.tournees.size(); i++) {
+                if (i > 0) sb.append(',');
+                sb.append('[');
+                List<Vertex> tour = o.tournees.get(i);
+                for (int j = 0; j < tour.size(); j++) {
+                    if (j > 0) sb.append(',');
+                    jsonString(sb, tour.get(j).getId());
+                }
+                sb.append(']');
+            }
+            sb.append(']');
+        }
+        if (o.jours != null) {
+            sb.append(",\"jours\":{");
+            boolean first = true;
+            for (Map.Entry<Vertex, Integer> e : o.jours.entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                jsonString(sb, e.getKey().getId());
+                sb.append(':').append(e.getValue());
+            }
+            sb.append('}');
+        }
+        if (o.detail != null) {
+            sb.append(",\"detail\":");
+            jsonString(sb, o.detail);
+        }
+        return sb.append('}').toString();
+    }
+
+    static void jsonString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /** Colonnes : id;type;statut;duree_ms;longueur;resultat;message (tournées séparées par " | "). */
+    static String csv(Job job, Outcome o, String message, double ms) {
+        StringBuilder resultat = new StringBuilder();
+        String longueur = "";
+        if (o != null) {
+            if (!Double.isNaN(o.longueur)) longueur = Double.toString(o.longueur);
+            for (List<Vertex> tour : o.tournees) {
+                if (resultat.length() > 0) resultat.append(" | ");
+                for (int j = 0; j < tour.size(); j++) {
+                    if (j > 0) resultat.append(' ');
+                    resultat.append(tour.get(j).getId());
+                }
+            }
+            if (o.jours != null) {
+                for (Map.Entry<Vertex, Integer> e : o.jours.entrySet()) {
+                    if (resultat.length() > 0) resultat.append(' ');
+                    resultat.append(e.getKey().getId()).append('=').append(e.getValue());
+                }
+            }
+            message = o.detail;
+        }
+        return String.join(";", csvField(job.id), csvField(job.type), o == null ? "erreur" : "ok",
+                String.format(Locale.ROOT, "%.3f", ms), longueur, csvField(resultat.toString()),
+                csvField(message == null ? "" : message));
+    }
+
+    private static String csvField(String s) {
+        if (s.indexOf(';') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) {
+            return s;
+        }
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
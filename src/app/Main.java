@@ -1,6 +1,8 @@
 package app;
 
-import algo.GraphAlgorithms;
+import algo.ChinesePostman;
+import algo.ColoringEngine;
+import algo.DayScheduler;
 import io.GraphLoader;
 import model.Graph;
 import model.Vertex;
@@ -14,11 +16,22 @@ public class Main {
 
     private static final Scanner scanner = new Scanner(System.in);
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            // mode sans menu : java app.Main --batch territoire travaux [--format jsonl|csv] [--sortie fichier] [--metriques fichier]
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serveur")) {
+            // service HTTP : java app.Main --serveur territoire [port] [--ecoute adresse]
+            PlanningServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         System.out.println("=== Application de planification des tournées de collecte de déchets ===");
 
-        // Par défaut, on démarre avec un petit territoire de démo
-        Graph territoire = buildDemoTerritoire();
+        // Par défaut, on démarre avec un petit territoire de démo ; sinon le fichier passé en argument
+        // (texte, ou instantané binaire produit par io.GraphSnapshot : ouverture quasi immédiate)
+        Graph territoire = args.length > 0 ? chargerAuDemarrage(args[0]) : buildDemoTerritoire();
 
         while (true) {
             System.out.println("\n=== MENU PRINCIPAL ===");
@@ -27,9 +40,12 @@ public class Main {
             System.out.println("1. Visualiser le territoire (graphe)");
             System.out.println("2. ENTREPRISE : Tournée d'encombrants (centre -> foyer -> centre)");
             System.out.println("3. ENTREPRISE : Tournée de collecte des points de collecte (colonnes, bacs...)");
-            System.out.println("4. ENTREPRISE : Tournée de collecte \"toutes les rues\" (cycle eulérien, si possible)");
+            System.out.println("4. ENTREPRISE : Tournée de collecte \"toutes les rues\" (cycle eulérien ou postier chinois)");
             System.out.println("5. COLLECTIVITE : Planifier les jours de collecte par secteur (coloration)");
             System.out.println("6. COLLECTIVITE : Charger un territoire depuis un fichier texte");
+            System.out.println("7. ENTREPRISE : Tournées de plusieurs camions (capacité limitée)");
+            System.out.println("8. COLLECTIVITE : Planifier les jours de collecte avec une capacité par jour");
+            System.out.println("9. ENTREPRISE : Tournée selon l'heure de prise de service (temps de parcours horaires)");
             System.out.println("0. Quitter");
             System.out.print("Votre choix : ");
 
@@ -54,6 +70,15 @@ public class Main {
                 case "6":
                     territoire = chargerTerritoireDepuisFichier();
                     break;
+                case "7":
+                    runTourneesMultiCamions(territoire);
+                    break;
+                case "8":
+                    runPlanificationJoursCapacite(territoire);
+                    break;
+                case "9":
+                    runTourneeHoraire(territoire);
+                    break;
                 case "0":
                     System.out.println("Fin de l'application. Merci.");
                     return;
@@ -118,6 +143,7 @@ public class Main {
         System.out.println("  " + tour);
         System.out.println("Distance totale approximative : " + dist);
         System.out.println("(Modélise : plus courts chemins centre -> foyer -> centre)");
+        System.out.println("Cache des plus courts chemins : " + CollectionPlanner.cache().stats());
     }
 
     /* ====================== OPTION 3 : tournée des points de collecte ====================== */
@@ -161,10 +187,11 @@ public class Main {
         List<Vertex> tour = CollectionPlanner.tourEncombrantsMulti(g, depot, points);
         double dist = CollectionPlanner.longueurTour(g, tour);
 
-        System.out.println("\nTournée de collecte proposée (heuristique du plus proche voisin) :");
+        System.out.println("\nTournée de collecte proposée (plus proche voisin + 2-opt / Or-opt) :");
         System.out.println("  " + tour);
         System.out.println("Distance totale approximative : " + dist);
         System.out.println("(Modélise : tournée d'un camion qui visite tous les points de collecte puis revient au dépôt)");
+        System.out.println("Cache des plus courts chemins : " + CollectionPlanner.cache().stats());
     }
 
     /* ====================== OPTION 4 : tournée \"toutes les rues\" (eulérien) ====================== */
@@ -172,17 +199,28 @@ public class Main {
     private static void runTourneeToutesRues(Graph g) {
         System.out.println("\n--- Tournée de collecte \"toutes les rues\" ---");
         System.out.println("On cherche une tournée qui passe au moins une fois sur chaque tronçon de rue.");
-        System.out.println("Mathématiquement : cycle eulérien (si tous les degrés sont pairs).");
+        System.out.println("Mathématiquement : cycle eulérien si tous les degrés sont pairs, problème du postier chinois sinon.");
 
         try {
-            List<Vertex> cycle = GraphAlgorithms.findEulerianCycle(g);
-            System.out.println("\nLe territoire est eulérien : une tournée idéale existe.");
-            System.out.println("Tournée (cycle eulérien) :");
-            System.out.println("  " + cycle);
-            System.out.println("(Le camion passe sur chaque tronçon exactement une fois, en revenant au point de départ.)");
+            ChinesePostman.Result r = CollectionPlanner.tourneeToutesRues(g);
+            List<Vertex> cycle = new ArrayList<>();
+            for (int v : r.circuit) {
+                cycle.add(g.compact().vertex(v));
+            }
+            if (r.oddVertices == 0) {
+                System.out.println("\nLe territoire est eulérien : une tournée idéale existe.");
+                System.out.println("Tournée (cycle eulérien) :");
+                System.out.println("  " + cycle);
+                System.out.println("(Le camion passe sur chaque tronçon exactement une fois, en revenant au point de départ.)");
+            } else {
+                System.out.println("\nLe territoire n'est pas eulérien (" + r.oddVertices + " sommets de degré impair).");
+                System.out.println("Tournée du postier chinois (certains tronçons sont parcourus deux fois) :");
+                System.out.println("  " + cycle);
+                System.out.printf("Longueur totale : %.2f dont %.2f de parcours à vide (%d tronçons repris)%n",
+                        r.length, r.extraLength, r.duplicatedEdges);
+            }
         } catch (IllegalArgumentException e) {
-            System.out.println("Le territoire n'est pas eulérien : tous les tronçons ne peuvent pas être parcourus une seule fois.");
-            System.out.println("Dans le rapport, vous pourrez expliquer les cas 2 sommets impairs et cas général (problème du postier chinois).");
+            System.out.println("Impossible de construire la tournée : " + e.getMessage());
         }
     }
 
@@ -195,9 +233,26 @@ public class Main {
             return;
         }
 
-        Map<Vertex, Integer> jours = SectorPlanner.planificationJoursParColoration(g);
+        System.out.println("Stratégie de coloration : 1 = DSatur (défaut), 2 = Welsh-Powell, 3 = plus petit en dernier, 4 = gloutonne");
+        System.out.print("Votre choix : ");
+        ColoringEngine.Strategy strategie;
+        switch (scanner.nextLine().trim()) {
+            case "2":
+                strategie = ColoringEngine.Strategy.WELSH_POWELL;
+                break;
+            case "3":
+                strategie = ColoringEngine.Strategy.SMALLEST_LAST;
+                break;
+            case "4":
+                strategie = ColoringEngine.Strategy.GREEDY;
+                break;
+            default:
+                strategie = ColoringEngine.Strategy.DSATUR;
+        }
+
+        Map<Vertex, Integer> jours = SectorPlanner.planificationJoursParColoration(g, strategie);
 
-        System.out.println("Proposition de planification (coloration gloutonne) :");
+        System.out.println("Proposition de planification (" + new HashSet<>(jours.values()).size() + " jour(s)) :");
         for (Map.Entry<Vertex, Integer> e : jours.entrySet()) {
             Vertex secteur = e.getKey();
             int jour = e.getValue();
@@ -217,8 +272,10 @@ public class Main {
         System.out.println("Format attendu :");
         System.out.println("  1ère ligne : UNDIRECTED ou DIRECTED");
         System.out.println("  2ème ligne : nbSommets nbAretes");
-        System.out.println("  puis nbSommets lignes : id label");
+        System.out.println("  puis nbSommets lignes : id label [x y]");
         System.out.println("  puis nbAretes lignes : idFrom idTo poids");
+        System.out.println("  puis, facultatif : une ligne QUANTITES suivie de lignes id quantité");
+        System.out.println("(un instantané binaire créé par io.GraphSnapshot est aussi accepté)");
         System.out.print("Chemin du fichier (ex : resources/demo_small.txt) : ");
 
         String path = scanner.nextLine().trim();
@@ -235,6 +292,192 @@ public class Main {
         }
     }
 
+    private static Graph chargerAuDemarrage(String path) {
+        try {
+            return GraphLoader.loadFromFile(path);
+        } catch (IOException e) {
+            System.out.println("Erreur de chargement : " + e.getMessage());
+            System.out.println("On démarre avec le territoire de démo.");
+            return buildDemoTerritoire();
+        }
+    }
+
+    /* ====================== OPTION 7 : tournées multi-camions ====================== */
+
+    private static void runTourneesMultiCamions(Graph g) {
+        System.out.println("\n--- Tournées de plusieurs camions (capacité limitée) ---");
+        List<Vertex> sommets = new ArrayList<>(g.getVertices());
+        if (sommets.isEmpty()) {
+            System.out.println("Le territoire est vide.");
+            return;
+        }
+
+        System.out.println("Points disponibles (intersections, secteurs, points de collecte) :");
+        for (int i = 0; i < sommets.size(); i++) {
+            System.out.println(i + " : " + sommets.get(i));
+        }
+
+        System.out.print("Index du dépôt / centre de traitement : ");
+        Vertex depot = sommets.get(lireIndex(sommets.size()));
+
+        System.out.println("Entrez les points de collecte sous la forme index:quantité (séparés par des espaces) : ");
+        List<Vertex> points = new ArrayList<>();
+        List<Double> quantites = new ArrayList<>();
+        for (String p : scanner.nextLine().trim().split("\\s+")) {
+            if (p.isEmpty()) continue;
+            String[] iq = p.split(":");
+            try {
+                int idx = Integer.parseInt(iq[0]);
+                double quantite = iq.length > 1 ? Double.parseDouble(iq[1]) : 1.0;
+                if (idx < 0 || idx >= sommets.size()) {
+                    System.out.println("Index ignoré (hors limites) : " + idx);
+                    continue;
+                }
+                points.add(sommets.get(idx));
+                quantites.add(quantite);
+            } catch (NumberFormatException e) {
+                System.out.println("Entrée ignorée : " + p);
+            }
+        }
+        if (points.isEmpty()) {
+            System.out.println("Aucun point de collecte sélectionné.");
+            return;
+        }
+
+        System.out.print("Capacité d'un camion : ");
+        double capacite;
+        try {
+            capacite = Double.parseDouble(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Capacité invalide.");
+            return;
+        }
+
+        try {
+            List<List<Vertex>> tournees = CollectionPlanner.tourneesMultiCamions(g, depot, points, quantites, capacite);
+            double total = 0.0;
+            System.out.println("\n" + tournees.size() + " camion(s) nécessaire(s) :");
+            for (int i = 0; i < tournees.size(); i++) {
+                double dist = CollectionPlanner.longueurTour(g, tournees.get(i));
+                total += dist;
+                System.out.println("  Camion " + (i + 1) + " : " + tournees.get(i) + " (distance " + dist + ")");
+            }
+            System.out.println("Distance totale approximative : " + total);
+            System.out.println("(Modélise : économies de Clarke et Wright puis échanges de points entre tournées)");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Impossible de construire les tournées : " + e.getMessage());
+        }
+    }
+
+    /* ====================== OPTION 8 : jours de collecte avec capacité ====================== */
+
+    private static void runPlanificationJoursCapacite(Graph g) {
+        System.out.println("\n--- Planification des jours de collecte avec capacité par jour ---");
+        if (g.isDirected()) {
+            System.out.println("ATTENTION : la planification attend un graphe non orienté (secteurs voisins).");
+            return;
+        }
+        double total = 0.0;
+        for (Vertex v : g.getVertices()) {
+            total += v.getQuantity();
+        }
+        if (total == 0.0) {
+            System.out.println("Aucune quantité dans le territoire (section QUANTITES du fichier) : toutes valent 0.");
+        }
+
+        int nbJours;
+        double capacite;
+        try {
+            System.out.print("Nombre de jours de collecte disponibles : ");
+            nbJours = Integer.parseInt(scanner.nextLine().trim());
+            System.out.print("Capacité de collecte par jour : ");
+            capacite = Double.parseDouble(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Entrée non valide.");
+            return;
+        }
+
+        try {
+            DayScheduler.Result r = SectorPlanner.planificationJoursAvecCapacite(g, nbJours, capacite);
+            System.out.println(r.isFeasible()
+                    ? "Planification trouvée :"
+                    : "Pas de planification parfaite ; meilleure trouvée (" + r.conflicts
+                    + " conflit(s) de voisinage, dépassement " + r.overload + ") :");
+            for (Map.Entry<Vertex, Integer> e : SectorPlanner.joursParSecteur(g, r).entrySet()) {
+                System.out.println("  " + e.getKey() + " (" + e.getKey().getQuantity() + ") -> jour " + e.getValue());
+            }
+            for (int j = 0; j < r.load.length; j++) {
+                System.out.println("  Jour " + j + " : " + r.load[j] + " / " + capacite);
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Impossible de planifier : " + e.getMessage());
+        }
+    }
+
+    /* ====================== OPTION 9 : tournée selon l'heure de départ ====================== */
+
+    private static void runTourneeHoraire(Graph g) {
+        System.out.println("\n--- Tournée selon l'heure de prise de service ---");
+        if (g.getProfiles().count() == 0) {
+            System.out.println("Aucun profil horaire (section PROFILS du fichier) : les temps de parcours sont constants.");
+        }
+        List<Vertex> sommets = new ArrayList<>(g.getVertices());
+        if (sommets.isEmpty()) {
+            System.out.println("Le territoire est vide.");
+            return;
+        }
+        for (int i = 0; i < sommets.size(); i++) {
+            System.out.println(i + " : " + sommets.get(i));
+        }
+        System.out.print("Index du dépôt : ");
+        Vertex depot = sommets.get(lireIndex(sommets.size()));
+        System.out.println("Entrez les index des points à visiter (séparés par des espaces) : ");
+        List<Vertex> points = new ArrayList<>();
+        for (String p : scanner.nextLine().trim().split("\\s+")) {
+            if (p.isEmpty()) continue;
+            try {
+                int idx = Integer.parseInt(p);
+                if (idx >= 0 && idx < sommets.size()) points.add(sommets.get(idx));
+                else System.out.println("Index ignoré (hors limites) : " + idx);
+            } catch (NumberFormatException e) {
+                System.out.println("Index ignoré : " + p);
+            }
+        }
+        if (points.isEmpty()) {
+            System.out.println("Aucun point sélectionné.");
+            return;
+        }
+        System.out.print("Heure de prise de service (h:mm) : ");
+        double debut;
+        try {
+            String[] hm = scanner.nextLine().trim().split(":");
+            debut = Integer.parseInt(hm[0]) * 60.0 + (hm.length > 1 ? Integer.parseInt(hm[1]) : 0);
+        } catch (NumberFormatException e) {
+            System.out.println("Heure non valide.");
+            return;
+        }
+
+        try {
+            List<Vertex> tour = CollectionPlanner.tourneeDepuis(g, depot, points, debut);
+            double[] heures = CollectionPlanner.horaires(g, tour, debut);
+            System.out.println("\nTournée proposée (heures de passage) :");
+            for (int i = 0; i < tour.size(); i++) {
+                System.out.println("  " + heure(heures[i]) + "  " + tour.get(i));
+            }
+            System.out.println("Durée totale : " + Math.round(heures[heures.length - 1] - debut) + " min");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Impossible de construire la tournée : " + e.getMessage());
+        }
+    }
+
+    /** Minutes depuis minuit -> "h:mm" (au-delà de minuit : "j+1 h:mm"). */
+    private static String heure(double minutes) {
+        if (Double.isInfinite(minutes)) return "inaccessible";
+        long m = Math.round(minutes);
+        String hm = String.format("%d:%02d", (m / 60) % 24, m % 60);
+        return m >= 1440 ? "j+" + (m / 1440) + " " + hm : hm;
+    }
+
     /* ====aa==============aaaa==== utilitaire ====================== */
 
     private static int lireIndex(int max) {
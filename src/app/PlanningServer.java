@@ -0,0 +1,260 @@
+package app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.GraphLoader;
+import metrics.Metrics;
+import model.Graph;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service HTTP de planification (com.sun.net.httpserver du JDK, un thread virtuel par requête).
+ *
+ * Usage : java app.Main --serveur territoire [port] [--ecoute adresse]
+ * Port 8080 par défaut. Le service n'écoute que sur la boucle locale, sauf adresse donnée
+ * explicitement (--ecoute 0.0.0.0 : toutes les interfaces).
+ *
+ * Requêtes GET, sommets désignés par leur id, réponses JSON (mêmes champs que le mode batch) :
+ * <pre>
+ * /encombrants?centre=A&amp;foyer=B
+ * /tournee?depot=A&amp;points=B,C,D
+ * /toutes-rues
+ * /multi-camions?depot=A&amp;capacite=20&amp;points=B:5,C:8
+ * /jours[?nbJours=5&amp;capacite=100]
+ * /sante
+ * /metriques          (format texte Prometheus, voir {@link Metrics})
+ * </pre>
+ * POST /recharger recharge le fichier du territoire ; POST /recharger?fichier=nom en charge un
+ * autre, pris dans le répertoire de ce fichier (tout chemin qui en sort est refusé).
+ *
+ * Toutes les requêtes lisent le territoire courant par une seule lecture d'une AtomicReference.
+ * Ce territoire n'est jamais modifié (forme compacte construite avant publication). Un
+ * rechargement prépare le nouveau territoire à côté puis remplace la référence : les requêtes
+ * en cours terminent sur l'ancien, sans attente ni verrou.
+ */
+public final class PlanningServer {
+
+    private final AtomicReference<Graph> territoire = new AtomicReference<>();
+    private final AtomicLong requetes = new AtomicLong();
+    private final AtomicLong rechargements = new AtomicLong();
+    private final Path fichier;    // territoire rechargé par défaut, null : pas de rechargement
+    private final Path repertoire; // seul répertoire d'où un territoire peut être rechargé
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private PlanningServer(Graph g, InetSocketAddress adresse, Path fichier) throws IOException {
+        publier(g);
+        this.fichier = fichier == null ? null : fichier.toRealPath();
+        this.repertoire = this.fichier == null ? null : this.fichier.getParent();
+        server = HttpServer.create(adresse, 0);
+        executor = VirtualThreads.newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/encombrants", ex -> travail(ex, "ENCOMBRANTS", "centre", "foyer"));
+        server.createContext("/tournee", ex -> travail(ex, "TOURNEE", "depot", "points*"));
+        server.createContext("/toutes-rues", ex -> travail(ex, "TOUTES_RUES"));
+        server.createContext("/multi-camions", ex -> travail(ex, "MULTI_CAMIONS", "depot", "capacite", "points*"));
+        server.createContext("/jours", ex -> travail(ex, "JOURS", "nbJours?", "capacite?"));
+        server.createContext("/recharger", this::recharger);
+        server.createContext("/sante", this::sante);
+        server.createContext("/metriques", this::metriques);
+    }
+
+    /**
+     * Démarre le service sur la boucle locale (port 0 : port libre choisi par le système),
+     * sans fichier de territoire : /recharger est refusé.
+     */
+    public static PlanningServer start(Graph g, int port) throws IOException {
+        return start(g, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), null);
+    }
+
+    /**
+     * @param fichier fichier d'où g a été chargé : /recharger le relit, ou lit un fichier du même
+     *                répertoire ; null : pas de rechargement
+     */
+    public static PlanningServer start(Graph g, InetSocketAddress adresse, Path fichier) throws IOException {
+        PlanningServer s = new PlanningServer(g, adresse, fichier);
+        s.server.start();
+        return s;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    InetSocketAddress adresse() {
+        return server.getAddress();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /** Territoire servi actuellement. */
+    public Graph territoire() {
+        return territoire.get();
+    }
+
+    /** Remplace le territoire servi ; les requêtes déjà lancées gardent l'ancien. */
+    public void publier(Graph g) {
+        g.compact(); // construite avant publication : les requêtes ne font que lire
+        territoire.set(g);
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> positionnels = new ArrayList<>();
+        InetAddress ecoute = InetAddress.getLoopbackAddress();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--ecoute") && i + 1 < args.length) {
+                ecoute = InetAddress.getByName(args[++i]);
+            } else if (args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Option inconnue : " + args[i]);
+            } else {
+                positionnels.add(args[i]);
+            }
+        }
+        if (positionnels.isEmpty() || positionnels.size() > 2) {
+            System.err.println("Usage : java app.Main --serveur territoire [port] [--ecoute adresse]");
+            System.exit(2);
+        }
+        int port = positionnels.size() > 1 ? Integer.parseInt(positionnels.get(1)) : 8080;
+        String territoire = positionnels.get(0);
+        PlanningServer s = start(GraphLoader.loadFromFile(territoire), new InetSocketAddress(ecoute, port), Path.of(territoire));
+        System.out.println("Service de planification sur http://" + ecoute.getHostAddress() + ":" + s.port() + "/"
+                + (VirtualThreads.available() ? " (threads virtuels)" : " (threads classiques, JDK < 21)"));
+    }
+
+    /* ====================== REQUETES ====================== */
+
+    /**
+     * Construit un travail du mode batch à partir des paramètres de la requête.
+     * Paramètres : "nom" obligatoire, "nom?" facultatif, "nom*" liste séparée par des virgules.
+     */
+    private void travail(HttpExchange ex, String type, String... parametres) throws IOException {
+        try {
+            if (!ex.getRequestMethod().equals("GET")) {
+                repondre(ex, 405, erreur("Méthode non permise : " + ex.getRequestMethod()));
+                return;
+            }
+            long numero = requetes.incrementAndGet();
+            Graph g = territoire.get(); // une seule lecture : toute la requête voit le même territoire
+            Map<String, String> q = parametres(ex);
+            List<String> args = new ArrayList<>();
+            for (String p : parametres) {
+                boolean liste = p.endsWith("*");
+                boolean facultatif = p.endsWith("?");
+                String nom = liste || facultatif ? p.substring(0, p.length() - 1) : p;
+                String valeur = q.get(nom);
+                if (valeur == null || valeur.isEmpty()) {
+                    if (facultatif) continue;
+                    repondre(ex, 400, erreur("Paramètre manquant : " + nom));
+                    return;
+                }
+                if (liste) {
+                    for (String v : valeur.split(",")) {
+                        if (!v.isEmpty()) args.add(v);
+                    }
+                } else {
+                    args.add(valeur);
+                }
+            }
+            BatchRunner.Job job = new BatchRunner.Job(0, Long.toString(numero), type, args.toArray(new String[0]));
+            long t0 = System.nanoTime();
+            BatchRunner.Outcome o;
+            try {
+                o = BatchRunner.execute(g, job);
+            } catch (IllegalArgumentException e) {
+                repondre(ex, 400, BatchRunner.json(job, null, e.getMessage(), (System.nanoTime() - t0) / 1e6));
+                return;
+            }
+            repondre(ex, 200, BatchRunner.json(job, o, null, (System.nanoTime() - t0) / 1e6));
+        } catch (RuntimeException e) {
+            repondre(ex, 500, erreur(e.toString()));
+        }
+    }
+
+    private void recharger(HttpExchange ex) throws IOException {
+        if (!ex.getRequestMethod().equals("POST")) {
+            repondre(ex, 405, erreur("Utiliser POST"));
+            return;
+        }
+        if (fichier == null) {
+            repondre(ex, 409, erreur("Service démarré sans fichier de territoire : rechargement impossible"));
+            return;
+        }
+        String nom = parametres(ex).get("fichier");
+        try {
+            Path chemin = nom == null || nom.isEmpty() ? fichier : repertoire.resolve(nom).normalize();
+            if (!chemin.startsWith(repertoire) || !chemin.toRealPath().startsWith(repertoire)) {
+                repondre(ex, 403, erreur("Fichier hors du répertoire des territoires : " + nom));
+                return;
+            }
+            Graph g = GraphLoader.loadFromFile(chemin.toString());
+            publier(g);
+            rechargements.incrementAndGet();
+            repondre(ex, 200, "{\"statut\":\"ok\",\"sommets\":" + g.compact().vertexCount()
+                    + ",\"aretes\":" + g.compact().edgeCount() + "}");
+        } catch (IOException | UncheckedIOException | InvalidPathException e) {
+            repondre(ex, 400, erreur("Erreur de chargement : " + e.getMessage()));
+        }
+    }
+
+    private void sante(HttpExchange ex) throws IOException {
+        Graph g = territoire.get();
+        repondre(ex, 200, "{\"statut\":\"ok\",\"sommets\":" + g.compact().vertexCount()
+                + ",\"requetes\":" + requetes.get() + ",\"rechargements\":" + rechargements.get() + "}");
+    }
+
+    private void metriques(HttpExchange ex) throws IOException {
+        byte[] body = Metrics.prometheus().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        ex.sendResponseHeaders(200, body.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static Map<String, String> parametres(HttpExchange ex) {
+        Map<String, String> res = new LinkedHashMap<>();
+        String query = ex.getRequestURI().getRawQuery();
+        if (query == null) return res;
+        for (String kv : query.split("&")) {
+            int eq = kv.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? kv : kv.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(kv.substring(eq + 1), StandardCharsets.UTF_8);
+            res.put(k, v);
+        }
+        return res;
+    }
+
+    private static String erreur(String message) {
+        StringBuilder sb = new StringBuilder("{\"statut\":\"erreur\",\"message\":");
+        BatchRunner.jsonString(sb, message);
+        return sb.append('}').toString();
+    }
+
+    private static void repondre(HttpExchange ex, int code, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(code, body.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}
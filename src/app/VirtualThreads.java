@@ -0,0 +1,38 @@
+package app;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exécuteur "un thread virtuel par tâche" (JDK 21 et plus).
+ * Le code reste compilable avec un JDK 17 : la méthode est cherchée par réflexion et, à défaut,
+ * on se replie sur un pool de threads classiques qui grandit à la demande.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static ExecutorService newExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    static boolean available() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
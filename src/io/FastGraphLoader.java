@@ -0,0 +1,694 @@
+package io;
+
+import model.CompactGraph;
+import model.Edge;
+import model.Graph;
+import model.TravelTimeProfiles;
+import model.Vertex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Chargeur rapide du format texte des territoires (même format que {@link GraphLoader}) :
+ * - fichier projeté en mémoire (NIO), lu octet par octet, sans String par ligne
+ * - nombres décodés à la main (repli sur Double.parseDouble dans les cas difficiles)
+ * - identifiants convertis en indices denses par une table de hachage sur les octets
+ * - lignes d'arêtes découpées en blocs décodés en parallèle pour les gros fichiers ;
+ *   si un bloc cite un sommet non déclaré, les arêtes sont relues séquentiellement
+ *   (le sommet est alors créé, comme avec Graph.addEdge)
+ *
+ * Le fichier est lu en UTF-8 ; sa taille est limitée à 2 Go (une seule projection).
+ */
+public final class FastGraphLoader {
+    private static final int PARALLEL_MIN_BYTES = 1 << 20;
+
+    // 10^0 .. 10^22 sont exacts en double (chemin rapide de Clinger)
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10.0;
+        }
+    }
+
+    private FastGraphLoader() {
+    }
+
+    public static CompactGraph loadCompact(String path) throws IOException {
+        return loadCompact(path, true);
+    }
+
+    public static CompactGraph loadCompact(String path, boolean parallel) throws IOException {
+        return compact(parse(path, parallel));
+    }
+
+    /**
+     * Réseau seul, pour un instantané binaire : refuse un territoire dont les quantités
+     * (QUANTITES) ou les profils horaires (PROFILS) seraient perdus en silence.
+     */
+    static CompactGraph loadNetwork(String path) throws IOException {
+        Parser p = parse(path, true);
+        if (p.quantities != null || p.profiles != null) {
+            throw new IOException("Un instantané ne garde que le réseau : les sections "
+                    + (p.quantities != null ? "QUANTITES " : "") + (p.profiles != null ? "PROFILS " : "")
+                    + "de " + path + " seraient perdues (garder le fichier texte pour ce territoire)");
+        }
+        return compact(p);
+    }
+
+    private static CompactGraph compact(Parser p) {
+        return CompactGraph.of(p.directed, Arrays.copyOf(p.ids, p.n), Arrays.copyOf(p.labels, p.n),
+                p.xs, p.ys, p.from, p.to, p.w, p.m);
+    }
+
+    /**
+     * Même graphe que GraphLoader.loadFromFile (les objets Vertex / Edge sont créés à la fin),
+     * avec les quantités de la section QUANTITES et les profils horaires (PROFILS, PROFILS_ARETES).
+     * La forme compacte ne garde que le réseau.
+     */
+    public static Graph load(String path) throws IOException {
+        Parser p = parse(path, true);
+        Graph g = new Graph(p.directed);
+        for (int v = 0; v < p.n; v++) {
+            Vertex vx = g.addVertex(p.ids[v], p.labels[v], p.xs[v], p.ys[v]); // NaN : pas de coordonnées
+            if (p.quantities != null) vx.setQuantity(p.quantities[v]);
+        }
+        Edge[] added = p.edgeProfile != null ? new Edge[p.m] : null;
+        for (int i = 0; i < p.m; i++) {
+            Edge e = g.addEdge(p.ids[p.from[i]], p.ids[p.to[i]], p.w[i]);
+            if (added != null) added[i] = e;
+        }
+        if (p.profiles != null) {
+            g.setProfiles(p.profiles);
+            if (added != null) {
+                for (int i = 0; i < p.m; i++) {
+                    if (p.edgeProfile[i] >= 0) g.setEdgeProfile(added[i], p.edgeProfile[i]); // FIFO déjà vérifié
+                }
+            }
+        }
+        return g;
+    }
+
+    private static Parser parse(String path, boolean parallel) throws IOException {
+        try (FileChannel ch = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Fichier trop volumineux (> 2 Go) : " + path);
+            }
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            Parser p = new Parser(buf, (int) size);
+            p.parse(parallel);
+            return p;
+        }
+    }
+
+    private static final class Parser {
+        final ByteBuffer buf;
+        final int limit;
+        int pos;
+        int lineStart; // ligne courante, sans les blancs de début et de fin
+        int lineEnd;
+
+        boolean directed;
+        int n;
+        String[] ids = new String[0];
+        String[] labels = new String[0];
+        double[] xs = new double[0]; // NaN si le sommet n'a pas de coordonnées
+        double[] ys = new double[0];
+        int[] table = new int[64];   // par case : hachage, sommet + 1 (0 si vide), début et longueur dans pool
+        byte[] pool = new byte[256]; // octets des identifiants, les uns à la suite des autres
+        int poolSize;
+        byte[] scratch = new byte[64];
+
+        double[] quantities; // section QUANTITES, null si absente
+
+        List<String> profileNames;          // section PROFILS
+        List<double[]> profileTimes;
+        List<double[]> profileFactors;
+        TravelTimeProfiles profiles;        // construit à la fin de PROFILS
+        int[] edgeProfile;                  // section PROFILS_ARETES, null si absente
+        Map<Long, Integer> edgeByEnds;      // (from, to) -> première arête, les suivantes via nextSameEnds
+        int[] nextSameEnds;
+
+        int m;
+        int[] from;
+        int[] to;
+        double[] w;
+
+        Parser(ByteBuffer buf, int limit) {
+            this.buf = buf;
+            this.limit = limit;
+        }
+
+        void parse(boolean parallel) throws IOException {
+            if (!nextLine()) throw new IOException("Fichier invalide");
+            directed = equalsIgnoreCase(lineStart, lineEnd, "DIRECTED");
+
+            if (!nextLine()) throw new IOException("Fichier invalide");
+            int e0 = tokenEnd(lineStart);
+            int s1 = skipBlanks(e0, lineEnd);
+            int declared = parseInt(lineStart, e0);
+            m = parseInt(s1, tokenEnd(s1));
+            if (declared < 0 || m < 0) throw new IOException("Fichier invalide (n m)");
+            ensureVertexCapacity(declared);
+
+            for (int i = 0; i < declared; i++) {
+                if (!nextLine()) throw new IOException("Fichier invalide (sommets)");
+                readVertex();
+            }
+
+            int edgeStart = pos;
+            int edgeEnd = skipLines(m);
+            from = new int[m];
+            to = new int[m];
+            w = new double[m];
+            if (!parallel || edgeEnd - edgeStart < PARALLEL_MIN_BYTES || !parseEdgesParallel(edgeStart, edgeEnd)) {
+                pos = edgeStart;
+                for (int i = 0; i < m; i++) {
+                    nextLine();
+                    readEdge(i, true);
+                }
+            }
+            pos = edgeEnd;
+            for (int v = 0; v < n; v++) {
+                if (labels[v] == null) labels[v] = ids[v]; // sommet créé par une arête
+            }
+            readSections();
+        }
+
+        /* ====================== SECTIONS FACULTATIVES ====================== */
+
+        /**
+         * Après les arêtes : sections introduites par une ligne d'un seul mot.
+         * QUANTITES : lignes "id quantité" ;
+         * PROFILS : lignes "nom heure facteur [heure facteur...]" (heures h ou h:mm) ;
+         * PROFILS_ARETES : lignes "from to nom", après PROFILS.
+         * Les sections inconnues sont ignorées, comme les lignes hors section (l'ancien lecteur
+         * s'arrêtait après la m-ième arête : un fichier qu'il acceptait reste accepté).
+         */
+        void readSections() throws IOException {
+            boolean more = nextLine();
+            while (more) {
+                if (tokenEnd(lineStart) != lineEnd) {
+                    more = nextLine(); // pas un titre de section
+                    continue;
+                }
+                boolean quantities = equalsIgnoreCase(lineStart, lineEnd, "QUANTITES");
+                boolean profileLines = equalsIgnoreCase(lineStart, lineEnd, "PROFILS");
+                boolean edgeProfiles = equalsIgnoreCase(lineStart, lineEnd, "PROFILS_ARETES");
+                if (edgeProfiles && profiles == null) {
+                    throw new IOException("Section PROFILS_ARETES sans section PROFILS avant elle");
+                }
+                while ((more = nextLine()) && tokenEnd(lineStart) != lineEnd) {
+                    if (quantities) readQuantity();
+                    else if (profileLines) readProfile();
+                    else if (edgeProfiles) readEdgeProfile();
+                }
+                if (profileLines && profileNames != null) buildProfiles();
+            }
+        }
+
+        /** Format : id quantité. */
+        void readQuantity() throws IOException {
+            int e0 = tokenEnd(lineStart);
+            int s1 = skipBlanks(e0, lineEnd);
+            int e1 = tokenEnd(s1);
+            int v = intern(lineStart, e0, false);
+            if (v < 0) throw new IOException("Sommet inconnu dans QUANTITES : " + currentLine());
+            if (e1 != lineEnd || !isNumber(s1, e1)) {
+                throw new IOException("Ligne QUANTITES invalide : " + currentLine());
+            }
+            if (quantities == null) quantities = new double[n];
+            quantities[v] = parseDouble(s1, e1);
+        }
+
+        /** Format : nom heure facteur [heure facteur...]. */
+        void readProfile() throws IOException {
+            if (profileNames == null) {
+                profileNames = new ArrayList<>();
+                profileTimes = new ArrayList<>();
+                profileFactors = new ArrayList<>();
+            }
+            int e0 = tokenEnd(lineStart);
+            String name = string(lineStart, e0);
+            if (profileNames.contains(name)) {
+                throw new IOException("Profil déclaré deux fois : " + currentLine());
+            }
+            double[] times = new double[4];
+            double[] factors = new double[4];
+            int count = 0;
+            int s = skipBlanks(e0, lineEnd);
+            while (s < lineEnd) {
+                int e = tokenEnd(s);
+                int fs = skipBlanks(e, lineEnd);
+                int fe = tokenEnd(fs);
+                if (fs == fe || !isNumber(fs, fe)) {
+                    throw new IOException("Ligne PROFILS invalide (heure facteur attendus) : " + currentLine());
+                }
+                if (count == times.length) {
+                    times = Arrays.copyOf(times, count * 2);
+                    factors = Arrays.copyOf(factors, count * 2);
+                }
+                times[count] = parseTime(s, e);
+                factors[count] = parseDouble(fs, fe);
+                count++;
+                s = skipBlanks(fe, lineEnd);
+            }
+            if (count == 0) throw new IOException("Profil sans point : " + currentLine());
+            profileNames.add(name);
+            profileTimes.add(Arrays.copyOf(times, count));
+            profileFactors.add(Arrays.copyOf(factors, count));
+        }
+
+        /** Heure "h" ou "h:mm" (h décimal accepté) en minutes depuis minuit. */
+        double parseTime(int s, int e) throws IOException {
+            int colon = s;
+            while (colon < e && buf.get(colon) != ':') colon++;
+            if (!isNumber(s, colon) || colon + 1 == e || (colon < e && !isNumber(colon + 1, e))) {
+                throw new IOException("Heure invalide : " + string(s, e) + " (ligne : " + currentLine() + ")");
+            }
+            double minutes = parseDouble(s, colon) * 60.0;
+            if (colon < e) minutes += parseDouble(colon + 1, e);
+            return minutes;
+        }
+
+        void buildProfiles() throws IOException {
+            try {
+                profiles = TravelTimeProfiles.of(profileNames.toArray(new String[0]),
+                        profileTimes.toArray(new double[0][]), profileFactors.toArray(new double[0][]));
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("Section PROFILS invalide : " + ex.getMessage());
+            }
+        }
+
+        /** Format : from to nom ; toutes les arêtes from -> to (ou to -> from si non orienté) suivent le profil. */
+        void readEdgeProfile() throws IOException {
+            int e0 = tokenEnd(lineStart);
+            int s1 = skipBlanks(e0, lineEnd);
+            int e1 = tokenEnd(s1);
+            int s2 = skipBlanks(e1, lineEnd);
+            int e2 = tokenEnd(s2);
+            if (s2 == e2 || e2 != lineEnd) {
+                throw new IOException("Ligne PROFILS_ARETES invalide : " + currentLine());
+            }
+            int u = intern(lineStart, e0, false);
+            int v = intern(s1, e1, false);
+            int p = profiles.indexOf(string(s2, e2));
+            if (p < 0) throw new IOException("Profil inconnu : " + currentLine());
+            if (edgeProfile == null) indexEdgeEnds();
+            Integer first = u < 0 || v < 0 ? null : edgeByEnds.get(endsKey(u, v));
+            if (first == null) throw new IOException("Arête inconnue dans PROFILS_ARETES : " + currentLine());
+            for (int i = first; i >= 0; i = nextSameEnds[i]) {
+                if (!profiles.isFifo(p, w[i])) {
+                    throw new IOException("Profil non FIFO pour cette arête (partir plus tard ferait arriver plus tôt) : "
+                            + currentLine());
+                }
+                edgeProfile[i] = p;
+            }
+        }
+
+        long endsKey(int u, int v) {
+            if (!directed && u > v) {
+                int t = u;
+                u = v;
+                v = t;
+            }
+            return (long) u * n + v;
+        }
+
+        void indexEdgeEnds() {
+            edgeProfile = new int[m];
+            Arrays.fill(edgeProfile, -1);
+            nextSameEnds = new int[m];
+            edgeByEnds = new HashMap<>();
+            for (int i = m - 1; i >= 0; i--) {
+                Integer next = edgeByEnds.put(endsKey(from[i], to[i]), i);
+                nextSameEnds[i] = next == null ? -1 : next;
+            }
+        }
+
+        /* ====================== LIGNES ET JETONS ====================== */
+
+        private static boolean isBlank(byte b) {
+            return b <= ' ' && b >= 0;
+        }
+
+        /** Avance jusqu'à la prochaine ligne non vide qui n'est pas un commentaire. */
+        boolean nextLine() {
+            while (pos < limit) {
+                int start = pos;
+                int end = start;
+                while (end < limit && buf.get(end) != '\n') end++;
+                pos = end < limit ? end + 1 : end;
+                int s = skipBlanks(start, end);
+                int e = end;
+                while (e > s && isBlank(buf.get(e - 1))) e--;
+                if (s < e && buf.get(s) != '#') {
+                    lineStart = s;
+                    lineEnd = e;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Position de fin des count prochaines lignes utiles (la position courante ne bouge pas). */
+        int skipLines(int count) throws IOException {
+            int saved = pos;
+            for (int i = 0; i < count; i++) {
+                if (!nextLine()) throw new IOException("Fichier invalide (arêtes)");
+            }
+            int end = pos;
+            pos = saved;
+            return end;
+        }
+
+        int skipBlanks(int i, int end) {
+            while (i < end && isBlank(buf.get(i))) i++;
+            return i;
+        }
+
+        int tokenEnd(int i) {
+            while (i < lineEnd && !isBlank(buf.get(i))) i++;
+            return i;
+        }
+
+        boolean equalsIgnoreCase(int s, int e, String word) {
+            if (e - s != word.length()) return false;
+            for (int i = 0; i < word.length(); i++) {
+                if (Character.toUpperCase((char) buf.get(s + i)) != word.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        String string(int s, int e) {
+            int len = e - s;
+            if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+            for (int i = 0; i < len; i++) {
+                scratch[i] = buf.get(s + i);
+            }
+            return new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+
+        String currentLine() {
+            return string(lineStart, lineEnd);
+        }
+
+        /* ====================== SOMMETS ====================== */
+
+        /** Format : id label [x y] (coordonnées facultatives). */
+        void readVertex() {
+            int idEnd = tokenEnd(lineStart);
+            int rest = skipBlanks(idEnd, lineEnd);
+            int v = intern(lineStart, idEnd, true);
+
+            // deux derniers jetons, lus depuis la fin de la ligne
+            int le = lineEnd;
+            int ls = le;
+            while (ls > rest && !isBlank(buf.get(ls - 1))) ls--;
+            int pe = ls;
+            while (pe > rest && isBlank(buf.get(pe - 1))) pe--;
+            int ps = pe;
+            while (ps > rest && !isBlank(buf.get(ps - 1))) ps--;
+            int labelEnd = ps;
+            while (labelEnd > rest && isBlank(buf.get(labelEnd - 1))) labelEnd--;
+
+            if (labelEnd > rest && isNumber(ps, pe) && isNumber(ls, le)) {
+                if (labels[v] == null) labels[v] = string(rest, labelEnd);
+                xs[v] = parseDouble(ps, pe);
+                ys[v] = parseDouble(ls, le);
+            } else if (labels[v] == null) {
+                labels[v] = rest < lineEnd ? string(rest, lineEnd) : ids[v];
+            }
+        }
+
+        void ensureVertexCapacity(int count) {
+            if (count > ids.length) {
+                int cap = Math.max(count, ids.length * 2);
+                ids = Arrays.copyOf(ids, cap);
+                labels = Arrays.copyOf(labels, cap);
+                int old = xs.length;
+                xs = Arrays.copyOf(xs, cap);
+                ys = Arrays.copyOf(ys, cap);
+                Arrays.fill(xs, old, cap, Double.NaN);
+                Arrays.fill(ys, old, cap, Double.NaN);
+            }
+            if (count * 2 > table.length >> 2) {
+                rehash(Integer.highestOneBit(count * 2 - 1) << 1);
+            }
+        }
+
+        /* ====================== TABLE DES IDENTIFIANTS ====================== */
+
+        int hash(int s, int e) {
+            int h = 0;
+            for (int i = s; i < e; i++) {
+                h = 31 * h + buf.get(i);
+            }
+            // brassage final : des identifiants voisins ("n1", "n2"...) ne doivent pas former de grappes
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        /** Octets [s, e) du fichier égaux à l'identifiant rangé en pool[o, o + len) ? */
+        boolean sameId(int o, int len, int s, int e) {
+            if (len != e - s) return false;
+            for (int i = s; i < e; i++) {
+                if (pool[o++] != buf.get(i)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Indice dense de l'identifiant [s, e) ; s'il est inconnu, il est ajouté (create)
+         * ou -1 est renvoyé. Sans création, la table n'est que lue : appel sûr en parallèle.
+         */
+        int intern(int s, int e, boolean create) {
+            int h = hash(s, e);
+            int mask = (table.length >> 2) - 1;
+            int slot = h & mask;
+            int q;
+            while (table[(q = slot << 2) + 1] != 0) {
+                // le hachage stocké évite presque toujours de comparer les octets
+                if (table[q] == h && sameId(table[q + 2], table[q + 3], s, e)) {
+                    return table[q + 1] - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!create) return -1;
+            int v = n++;
+            int len = e - s;
+            if (poolSize + len > pool.length) {
+                pool = Arrays.copyOf(pool, Math.max(poolSize + len, pool.length * 2));
+            }
+            for (int i = 0; i < len; i++) {
+                pool[poolSize + i] = buf.get(s + i);
+            }
+            ensureVertexCapacity(n);
+            ids[v] = new String(pool, poolSize, len, StandardCharsets.UTF_8);
+            if ((table.length >> 2) - 1 != mask) {
+                // la table a grandi : nouvelle case
+                mask = (table.length >> 2) - 1;
+                slot = h & mask;
+                while (table[(slot << 2) + 1] != 0) slot = (slot + 1) & mask;
+            }
+            q = slot << 2;
+            table[q] = h;
+            table[q + 1] = v + 1;
+            table[q + 2] = poolSize;
+            table[q + 3] = len;
+            poolSize += len;
+            return v;
+        }
+
+        void rehash(int slots) {
+            int[] t = new int[slots << 2];
+            int mask = slots - 1;
+            for (int i = 0; i < table.length; i += 4) {
+                if (table[i + 1] == 0) continue;
+                int slot = table[i] & mask;
+                while (t[(slot << 2) + 1] != 0) slot = (slot + 1) & mask;
+                System.arraycopy(table, i, t, slot << 2, 4);
+            }
+            table = t;
+        }
+
+        /* ====================== ARETES ====================== */
+
+        /** Décode la ligne courante comme arête i ; false si un sommet est inconnu et !create. */
+        boolean readEdge(int i, boolean create) throws IOException {
+            int e0 = tokenEnd(lineStart);
+            int s1 = skipBlanks(e0, lineEnd);
+            int e1 = tokenEnd(s1);
+            int s2 = skipBlanks(e1, lineEnd);
+            int e2 = tokenEnd(s2);
+            if (s2 == e2) throw new IOException("Ligne arête invalide : " + currentLine());
+            double weight;
+            try {
+                weight = parseDouble(s2, e2);
+            } catch (NumberFormatException ex) {
+                throw new IOException("Ligne arête invalide : " + currentLine());
+            }
+            int u = intern(lineStart, e0, create);
+            int v = intern(s1, e1, create);
+            if (u < 0 || v < 0) return false;
+            from[i] = u;
+            to[i] = v;
+            w[i] = weight;
+            return true;
+        }
+
+        /**
+         * Découpe [start, end) en blocs alignés sur les fins de ligne, décodés en parallèle
+         * par des lecteurs indépendants qui partagent la table des identifiants (en lecture).
+         *
+         * @return false si un bloc cite un sommet non déclaré
+         */
+        boolean parseEdgesParallel(int start, int end) throws IOException {
+            int chunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4,
+                    (end - start) / (PARALLEL_MIN_BYTES / 4)));
+            int[] bounds = new int[chunks + 1];
+            bounds[0] = start;
+            for (int c = 1; c < chunks; c++) {
+                int b = Math.max(bounds[c - 1], start + (int) ((long) (end - start) * c / chunks));
+                while (b < end && buf.get(b - 1) != '\n') b++;
+                bounds[c] = b;
+            }
+            bounds[chunks] = end;
+
+            Parser[] readers = new Parser[chunks];
+            IOException[] error = new IOException[1];
+            boolean ok = IntStream.range(0, chunks).parallel().allMatch(c -> {
+                Parser r = new Parser(buf, bounds[c + 1]);
+                r.pos = bounds[c];
+                r.table = table;
+                r.pool = pool;
+                r.n = n;
+                int cap = 1024;
+                r.from = new int[cap];
+                r.to = new int[cap];
+                r.w = new double[cap];
+                try {
+                    while (r.nextLine()) {
+                        if (r.m == r.from.length) {
+                            r.from = Arrays.copyOf(r.from, r.m * 2);
+                            r.to = Arrays.copyOf(r.to, r.m * 2);
+                            r.w = Arrays.copyOf(r.w, r.m * 2);
+                        }
+                        if (!r.readEdge(r.m, false)) return false;
+                        r.m++;
+                    }
+                } catch (IOException ex) {
+                    synchronized (error) {
+                        error[0] = ex;
+                    }
+                    return false;
+                }
+                readers[c] = r;
+                return true;
+            });
+            if (error[0] != null) throw error[0];
+            if (!ok) return false;
+            int i = 0;
+            for (Parser r : readers) {
+                System.arraycopy(r.from, 0, from, i, r.m);
+                System.arraycopy(r.to, 0, to, i, r.m);
+                System.arraycopy(r.w, 0, w, i, r.m);
+                i += r.m;
+            }
+            return true;
+        }
+
+        /* ====================== NOMBRES ====================== */
+
+        int parseInt(int s, int e) throws IOException {
+            if (s == e) throw new IOException("Fichier invalide (n m)");
+            long v = 0;
+            for (int i = s; i < e; i++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9 || v > Integer.MAX_VALUE) throw new IOException("Fichier invalide (n m)");
+                v = v * 10 + d;
+            }
+            if (v > Integer.MAX_VALUE) throw new IOException("Fichier invalide (n m)");
+            return (int) v;
+        }
+
+        boolean isNumber(int s, int e) {
+            byte c = buf.get(s);
+            if (!((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'N' || c == 'I')) {
+                return false;
+            }
+            try {
+                parseDouble(s, e);
+                return true;
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        }
+
+        /**
+         * Décimal simple ([signe] chiffres [. chiffres] [e exposant]) d'au plus 15 chiffres et
+         * d'exposant décimal dans [-22, 22] : résultat exact par une seule multiplication ou
+         * division. Tout le reste passe par Double.parseDouble, ce qui garantit le même arrondi.
+         */
+        double parseDouble(int s, int e) {
+            int i = s;
+            boolean negative = false;
+            byte c = buf.get(i);
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                i++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int scale = 0;
+            boolean any = false;
+            for (; i < e && (c = buf.get(i)) >= '0' && c <= '9'; i++) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                any = true;
+            }
+            if (i < e && buf.get(i) == '.') {
+                for (i++; i < e && (c = buf.get(i)) >= '0' && c <= '9'; i++) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    scale--;
+                    any = true;
+                }
+            }
+            if (any && i < e && (buf.get(i) == 'e' || buf.get(i) == 'E')) {
+                i++;
+                boolean negExp = false;
+                if (i < e && (buf.get(i) == '-' || buf.get(i) == '+')) {
+                    negExp = buf.get(i) == '-';
+                    i++;
+                }
+                int exp = 0;
+                boolean expDigits = false;
+                for (; i < e && (c = buf.get(i)) >= '0' && c <= '9' && exp < 10000; i++) {
+                    exp = exp * 10 + (c - '0');
+                    expDigits = true;
+                }
+                if (!expDigits) any = false;
+                scale += negExp ? -exp : exp;
+            }
+            if (!any || i != e || digits > 15 || scale < -22 || scale > 22) {
+                return Double.parseDouble(string(s, e));
+            }
+            double v = scale >= 0 ? mantissa * POW10[scale] : mantissa / POW10[-scale];
+            return negative ? -v : v;
+        }
+    }
+}
@@ -1,70 +1,59 @@
 package io;
 
+import metrics.Metrics;
+import metrics.Operation;
+import model.CompactGraph;
 import model.Graph;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 
+/**
+ * Format texte des territoires :
+ * <pre>
+ * UNDIRECTED | DIRECTED
+ * n m
+ * id label [x y]      (n lignes, coordonnées facultatives)
+ * from to poids       (m lignes)
+ * QUANTITES           (section facultative)
+ * id quantité         (quantité à collecter dans le secteur / au point)
+ * PROFILS             (section facultative : temps de parcours selon l'heure)
+ * nom h:mm facteur [h:mm facteur...]   (facteur appliqué au poids, linéaire entre deux heures)
+ * PROFILS_ARETES      (après PROFILS)
+ * from to nom         (poids de l'arête en minutes, voir {@link model.TravelTimeProfiles})
+ * </pre>
+ * Les lignes vides et celles commençant par # sont ignorées, de même que les sections
+ * (ligne d'un seul mot) inconnues et les lignes qui suivent les arêtes hors de toute section. Les instantanés binaires ne gardent que le réseau
+ * (la conversion refuse un fichier qui a des QUANTITES ou des PROFILS).
+ * La lecture est faite par {@link FastGraphLoader} ; un instantané binaire
+ * ({@link GraphSnapshot}) est reconnu à sa signature et projeté en mémoire, puis vu comme un
+ * Graph sans copie (voir {@link Graph#from}) : ses sommets et arêtes ne sont créés qu'à la demande.
+ */
 public class GraphLoader {
 
     public static Graph loadFromFile(String path) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line;
-
-            // lire type
-            do {
-                line = br.readLine();
-                if (line == null) throw new IOException("Fichier invalide");
-                line = line.trim();
-            } while (line.isEmpty() || line.startsWith("#"));
-
-            boolean directed = line.equalsIgnoreCase("DIRECTED");
-            Graph g = new Graph(directed);
-
-            // lire n, m
-            do {
-                line = br.readLine();
-                if (line == null) throw new IOException("Fichier invalide");
-                line = line.trim();
-            } while (line.isEmpty() || line.startsWith("#"));
-            String[] parts = line.split("\\s+");
-            int n = Integer.parseInt(parts[0]);
-            int m = Integer.parseInt(parts[1]);
-
-            // lire sommets
-            for (int i = 0; i < n; i++) {
-                line = br.readLine();
-                if (line == null) throw new IOException("Fichier invalide (sommets)");
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) {
-                    i--;
-                    continue;
-                }
-                String[] p = line.split("\\s+", 2);
-                String id = p[0];
-                String label = (p.length > 1 ? p[1] : id);
-                g.addVertex(id, label);
+        Metrics.Span span = Metrics.begin(Operation.CHARGEMENT);
+        try {
+            if (GraphSnapshot.isSnapshot(path)) {
+                return Graph.from(GraphSnapshot.open(path));
             }
+            return FastGraphLoader.load(path);
+        } finally {
+            Metrics.end(span);
+        }
+    }
 
-            // lire arêtes/arcs
-            for (int i = 0; i < m; i++) {
-                line = br.readLine();
-                if (line == null) throw new IOException("Fichier invalide (arêtes)");
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) {
-                    i--;
-                    continue;
-                }
-                String[] p = line.split("\\s+");
-                if (p.length < 3) throw new IOException("Ligne arête invalide : " + line);
-                String from = p[0];
-                String to = p[1];
-                double w = Double.parseDouble(p[2]);
-                g.addEdge(from, to, w);
+    /**
+     * Charge directement la forme compacte (CSR), sans créer d'objets Vertex / Edge.
+     */
+    public static CompactGraph loadCompact(String path) throws IOException {
+        Metrics.Span span = Metrics.begin(Operation.CHARGEMENT);
+        try {
+            if (GraphSnapshot.isSnapshot(path)) {
+                return GraphSnapshot.open(path);
             }
-
-            return g;
+            return FastGraphLoader.loadCompact(path);
+        } finally {
+            Metrics.end(span);
         }
     }
 }
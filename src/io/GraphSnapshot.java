@@ -0,0 +1,387 @@
+package io;
+
+import model.CompactGraph;
+import model.VertexDictionary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Instantané binaire d'un territoire (forme compacte), projeté en mémoire à l'ouverture :
+ * les tableaux CSR, les coordonnées et le dictionnaire des sommets sont lus directement
+ * dans le fichier, sans copie sur le tas. La projection est en lecture seule, si bien que
+ * plusieurs JVM d'une même machine partagent les mêmes pages du cache système.
+ *
+ * Format (petit-boutiste) : en-tête de 64 octets, puis des sections alignées sur 8 octets
+ * <pre>
+ * 0   "TGSN"           magique
+ * 4   int version      VERSION
+ * 8   int drapeaux     1 = orienté, 2 = coordonnées
+ * 12  int n, int m, int nbArcs, int nbCases (table de hachage des identifiants), int 0
+ * 32  long octets      taille des chaînes (identifiants et libellés, UTF-8)
+ * 40  long crc         CRC32C de tout ce qui suit l'en-tête
+ * sections : offsets (n+1), cibles, arêtes (nbArcs int), poids (nbArcs double),
+ *            [x, y (n double)], débuts des chaînes (2n+1 int), table (nbCases int), chaînes
+ * </pre>
+ *
+ * Usage : java io.GraphSnapshot territoire.txt territoire.tgs
+ */
+public final class GraphSnapshot {
+    public static final int VERSION = 1;
+    private static final int MAGIC = 0x4E534754; // "TGSN" lu en petit-boutiste
+    private static final int HEADER = 64;
+    private static final int DIRECTED = 1;
+    private static final int COORDINATES = 2;
+
+    private GraphSnapshot() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage : java io.GraphSnapshot territoire.txt territoire.tgs");
+            return;
+        }
+        long t0 = System.nanoTime();
+        convert(args[0], args[1]);
+        System.out.printf("Instantané écrit en %.0f ms%n", (System.nanoTime() - t0) / 1e6);
+    }
+
+    /**
+     * Convertit un territoire au format texte en instantané binaire.
+     *
+     * @throws IOException si le fichier a des quantités ou des profils horaires, que l'instantané perdrait
+     */
+    public static void convert(String textPath, String snapshotPath) throws IOException {
+        write(FastGraphLoader.loadNetwork(textPath), snapshotPath);
+    }
+
+    /** Vrai si le fichier commence par la signature d'un instantané. */
+    public static boolean isSnapshot(String path) throws IOException {
+        try (FileChannel ch = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (b.hasRemaining() && ch.read(b) >= 0) {
+                // lecture des 4 premiers octets
+            }
+            return !b.hasRemaining() && b.getInt(0) == MAGIC;
+        }
+    }
+
+    /* ====================== DISPOSITION ====================== */
+
+    /** Position de chaque section, déduite des compteurs de l'en-tête. */
+    private static final class Layout {
+        final int n;
+        final int arcs;
+        final int slots;
+        final long offsets, targets, arcEdges, weights, xs, ys, strOffsets, table, strings, end;
+
+        Layout(int n, int arcs, boolean coordinates, int slots, long stringBytes) {
+            this.n = n;
+            this.arcs = arcs;
+            this.slots = slots;
+            offsets = HEADER;
+            targets = align(offsets + 4L * (n + 1));
+            arcEdges = align(targets + 4L * arcs);
+            weights = align(arcEdges + 4L * arcs);
+            xs = weights + 8L * arcs;
+            ys = xs + (coordinates ? 8L * n : 0);
+            strOffsets = ys + (coordinates ? 8L * n : 0);
+            table = align(strOffsets + 4L * (2 * n + 1));
+            strings = align(table + 4L * slots);
+            end = strings + stringBytes;
+        }
+
+        private static long align(long pos) {
+            return (pos + 7) & ~7L;
+        }
+    }
+
+    private static int hash(byte[] b, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + b[i];
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /* ====================== ECRITURE ====================== */
+
+    /**
+     * Écrit l'instantané dans un fichier temporaire puis le renomme : un lecteur ne voit
+     * jamais de fichier à moitié écrit.
+     */
+    public static void write(CompactGraph g, String path) throws IOException {
+        int n = g.vertexCount();
+        int arcs = g.arcCount();
+        VertexDictionary dict = g.dictionary();
+
+        // chaînes : identifiant puis libellé de chaque sommet, à la suite
+        byte[][] parts = new byte[2 * n][];
+        int[] strOffsets = new int[2 * n + 1];
+        long total = 0;
+        for (int v = 0; v < n; v++) {
+            parts[2 * v] = dict.id(v).getBytes(StandardCharsets.UTF_8);
+            parts[2 * v + 1] = dict.label(v).getBytes(StandardCharsets.UTF_8);
+        }
+        for (int i = 0; i < parts.length; i++) {
+            strOffsets[i] = (int) total;
+            total += parts[i].length;
+            if (total > Integer.MAX_VALUE) {
+                throw new IOException("Identifiants et libellés trop volumineux (> 2 Go)");
+            }
+        }
+        strOffsets[2 * n] = (int) total;
+
+        int slots = Integer.highestOneBit(Math.max(2, 2 * n) - 1) << 1;
+        int[] table = new int[slots];
+        for (int v = 0; v < n; v++) {
+            byte[] id = parts[2 * v];
+            int slot = hash(id, 0, id.length) & (slots - 1);
+            while (table[slot] != 0) slot = (slot + 1) & (slots - 1);
+            table[slot] = v + 1;
+        }
+
+        boolean coordinates = g.hasCoordinates();
+        Layout l = new Layout(n, arcs, coordinates, slots, total);
+        Path target = Path.of(path).toAbsolutePath();
+        Path tmp = Files.createTempFile(target.getParent(), "snapshot", ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                Output out = new Output(ch);
+                out.skipTo(l.offsets);
+                for (int v = 0; v < n; v++) out.putInt(g.firstArc(v));
+                out.putInt(arcs);
+                out.skipTo(l.targets);
+                for (int a = 0; a < arcs; a++) out.putInt(g.target(a));
+                out.skipTo(l.arcEdges);
+                for (int a = 0; a < arcs; a++) out.putInt(g.arcEdge(a));
+                out.skipTo(l.weights);
+                for (int a = 0; a < arcs; a++) out.putDouble(g.weight(a));
+                if (coordinates) {
+                    for (int v = 0; v < n; v++) out.putDouble(g.x(v));
+                    for (int v = 0; v < n; v++) out.putDouble(g.y(v));
+                }
+                for (int o : strOffsets) out.putInt(o);
+                out.skipTo(l.table);
+                for (int t : table) out.putInt(t);
+                out.skipTo(l.strings);
+                for (byte[] p : parts) out.put(p);
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION)
+                        .putInt((g.isDirected() ? DIRECTED : 0) | (coordinates ? COORDINATES : 0))
+                        .putInt(n).putInt(g.edgeCount()).putInt(arcs).putInt(slots).putInt(0)
+                        .putLong(total).putLong(out.crc.getValue());
+                header.clear();
+                ch.write(header, 0);
+                ch.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Écriture tamponnée après l'en-tête, avec calcul du CRC au fil de l'eau. */
+    private static final class Output {
+        final FileChannel ch;
+        final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32C crc = new CRC32C();
+        long pos = HEADER;      // position logique (octets déjà confiés au tampon)
+        long written = HEADER;  // position d'écriture dans le fichier
+
+        Output(FileChannel ch) {
+            this.ch = ch;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buf.remaining() < bytes) flush();
+        }
+
+        void putInt(int v) throws IOException {
+            ensure(4);
+            buf.putInt(v);
+            pos += 4;
+        }
+
+        void putDouble(double v) throws IOException {
+            ensure(8);
+            buf.putDouble(v);
+            pos += 8;
+        }
+
+        void put(byte[] b) throws IOException {
+            for (int i = 0; i < b.length; ) {
+                ensure(1);
+                int len = Math.min(buf.remaining(), b.length - i);
+                buf.put(b, i, len);
+                i += len;
+                pos += len;
+            }
+        }
+
+        /** Bourrage à zéro jusqu'au début de la section suivante. */
+        void skipTo(long section) throws IOException {
+            while (pos < section) {
+                ensure(1);
+                buf.put((byte) 0);
+                pos++;
+            }
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            crc.update(buf.duplicate());
+            while (buf.hasRemaining()) {
+                written += ch.write(buf, written);
+            }
+            buf.clear();
+        }
+    }
+
+    /* ====================== LECTURE ====================== */
+
+    public static CompactGraph open(String path) throws IOException {
+        return open(path, true);
+    }
+
+    /**
+     * Projette l'instantané en mémoire ; verify = false saute le calcul du CRC
+     * (démarrage le plus rapide possible, l'en-tête et la taille restent vérifiés).
+     */
+    public static CompactGraph open(String path, boolean verify) throws IOException {
+        try (FileChannel ch = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && ch.read(header) >= 0) {
+                // lecture de l'en-tête complet
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException("Ce fichier n'est pas un instantané de territoire : " + path);
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Version d'instantané non prise en charge : " + version
+                        + " (attendue : " + VERSION + ")");
+            }
+            int flags = header.getInt(8);
+            int n = header.getInt(12);
+            int m = header.getInt(16);
+            int arcs = header.getInt(20);
+            int slots = header.getInt(24);
+            long stringBytes = header.getLong(32);
+            long crc = header.getLong(40);
+            if (n < 0 || m < 0 || arcs < 0 || slots <= 0 || Integer.bitCount(slots) != 1 || stringBytes < 0) {
+                throw new IOException("En-tête d'instantané invalide : " + path);
+            }
+            boolean coordinates = (flags & COORDINATES) != 0;
+            Layout l = new Layout(n, arcs, coordinates, slots, stringBytes);
+            if (ch.size() != l.end) {
+                throw new IOException("Instantané tronqué ou corrompu (taille " + ch.size()
+                        + ", attendue " + l.end + ") : " + path);
+            }
+            if (verify && checksum(ch, l.end) != crc) {
+                throw new IOException("Somme de contrôle incorrecte, instantané corrompu : " + path);
+            }
+
+            IntBuffer offsets = map(ch, l.offsets, 4L * (n + 1)).asIntBuffer();
+            IntBuffer targets = map(ch, l.targets, 4L * arcs).asIntBuffer();
+            IntBuffer arcEdges = map(ch, l.arcEdges, 4L * arcs).asIntBuffer();
+            DoubleBuffer weights = map(ch, l.weights, 8L * arcs).asDoubleBuffer();
+            DoubleBuffer xs = coordinates ? map(ch, l.xs, 8L * n).asDoubleBuffer() : null;
+            DoubleBuffer ys = coordinates ? map(ch, l.ys, 8L * n).asDoubleBuffer() : null;
+            MappedDictionary dict = new MappedDictionary(n,
+                    map(ch, l.strOffsets, 4L * (2 * n + 1)).asIntBuffer(),
+                    map(ch, l.table, 4L * slots).asIntBuffer(),
+                    map(ch, l.strings, stringBytes));
+            return CompactGraph.wrap((flags & DIRECTED) != 0, dict, offsets, targets, weights, arcEdges, m, xs, ys);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel ch, long pos, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Section d'instantané trop volumineuse (> 2 Go)");
+        }
+        return ch.map(FileChannel.MapMode.READ_ONLY, pos, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long checksum(FileChannel ch, long end) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long pos = HEADER; pos < end; ) {
+            long len = Math.min(end - pos, 1L << 30);
+            crc.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, len));
+            pos += len;
+        }
+        return crc.getValue();
+    }
+
+    /** Dictionnaire lu dans le fichier : les chaînes ne sont décodées qu'à la demande. */
+    private static final class MappedDictionary extends VertexDictionary {
+        private final int n;
+        private final IntBuffer strOffsets;
+        private final IntBuffer table;
+        private final ByteBuffer strings;
+
+        MappedDictionary(int n, IntBuffer strOffsets, IntBuffer table, ByteBuffer strings) {
+            this.n = n;
+            this.strOffsets = strOffsets;
+            this.table = table;
+            this.strings = strings;
+        }
+
+        @Override
+        public int size() {
+            return n;
+        }
+
+        @Override
+        public int indexOf(String id) {
+            byte[] b = id.getBytes(StandardCharsets.UTF_8);
+            int mask = table.limit() - 1;
+            int slot = hash(b, 0, b.length) & mask;
+            int v;
+            while ((v = table.get(slot) - 1) >= 0) {
+                if (sameBytes(2 * v, b)) return v;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private boolean sameBytes(int s, byte[] b) {
+            int from = strOffsets.get(s);
+            if (strOffsets.get(s + 1) - from != b.length) return false;
+            for (int i = 0; i < b.length; i++) {
+                if (strings.get(from + i) != b[i]) return false;
+            }
+            return true;
+        }
+
+        private String string(int s) {
+            int from = strOffsets.get(s);
+            byte[] b = new byte[strOffsets.get(s + 1) - from];
+            strings.get(from, b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String id(int v) {
+            return string(2 * v);
+        }
+
+        @Override
+        public String label(int v) {
+            return string(2 * v + 1);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Instrumentation des algorithmes, planifications et chargements :
+ * - par opération ({@link Operation}) : nombre d'appels, histogramme des durées, sommets fixés,
+ *   arcs relâchés, opérations sur le tas et octets alloués par le thread appelant
+ * - compteurs globaux de travail (toutes recherches, tous threads)
+ * - un événement JFR par opération ({@link OperationEvent}, "collecte.Operation")
+ *
+ * Activée par la propriété système collecte.metriques=true. ENABLED est une constante :
+ * désactivée, chaque point de mesure se réduit à un test que le JIT supprime, sans allocation.
+ *
+ * Usage :
+ * <pre>
+ * Metrics.Span span = Metrics.begin(Operation.DIJKSTRA);
+ * try { ... } finally { Metrics.end(span); }
+ * </pre>
+ * Les moteurs de recherche signalent leur travail par {@link #work} à la fin de chaque recherche ;
+ * il est imputé à l'opération en cours dans le thread (et, à sa fin, aux opérations englobantes).
+ * Tous les compteurs sont des LongAdder (répartis par cœur) : pas de contention entre threads.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("collecte.metriques");
+
+    /** Bornes supérieures des classes de durée, en secondes (la dernière classe est +Inf). */
+    private static final double[] BUCKETS = {1e-5, 1e-4, 5e-4, 1e-3, 5e-3, 1e-2, 5e-2, 0.1, 0.5, 1, 5, 10, 60};
+
+    private static final Stats[] STATS = new Stats[Operation.values().length];
+    private static final LongAdder SETTLED = new LongAdder();
+    private static final LongAdder RELAXED = new LongAdder();
+    private static final LongAdder HEAP_OPERATIONS = new LongAdder();
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    static {
+        for (int i = 0; i < STATS.length; i++) {
+            STATS[i] = new Stats();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /** Compteurs d'une opération. */
+    private static final class Stats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder[] buckets = new LongAdder[BUCKETS.length + 1];
+        final LongAdder settled = new LongAdder();
+        final LongAdder relaxed = new LongAdder();
+        final LongAdder heapOperations = new LongAdder();
+        final LongAdder allocated = new LongAdder();
+
+        Stats() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+    }
+
+    /** Opération en cours dans un thread (non partagée entre threads). */
+    public static final class Span {
+        private final Operation operation;
+        private final Span parent;
+        private final long start;
+        private final long allocatedAtStart;
+        private final OperationEvent event;
+        private long settled;
+        private long relaxed;
+        private long heapOperations;
+
+        private Span(Operation operation, Span parent) {
+            this.operation = operation;
+            this.parent = parent;
+            OperationEvent e = new OperationEvent();
+            if (e.isEnabled()) {
+                e.begin();
+                event = e;
+            } else {
+                event = null;
+            }
+            allocatedAtStart = allocatedBytes();
+            start = System.nanoTime();
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (!ENABLED) return null;
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean b = (com.sun.management.ThreadMXBean) bean;
+            if (b.isThreadAllocatedMemorySupported() && b.isThreadAllocatedMemoryEnabled()) {
+                return b;
+            }
+        }
+        return null;
+    }
+
+    /** Octets alloués par le thread courant depuis son démarrage, -1 si la JVM ne le mesure pas. */
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /** Début d'une opération ; null (sans rien faire) si l'instrumentation est désactivée. */
+    public static Span begin(Operation operation) {
+        if (!ENABLED) return null;
+        Span s = new Span(operation, CURRENT.get());
+        CURRENT.set(s);
+        return s;
+    }
+
+    /** Fin de l'opération commencée par {@link #begin} (span null accepté). */
+    public static void end(Span s) {
+        if (!ENABLED || s == null) return;
+        long nanos = System.nanoTime() - s.start;
+        long allocated = s.allocatedAtStart < 0 ? 0 : allocatedBytes() - s.allocatedAtStart;
+        CURRENT.set(s.parent);
+        if (s.parent != null) {
+            s.parent.settled += s.settled;
+            s.parent.relaxed += s.relaxed;
+            s.parent.heapOperations += s.heapOperations;
+        }
+        Stats st = STATS[s.operation.ordinal()];
+        st.calls.increment();
+        st.nanos.add(nanos);
+        st.buckets[bucket(nanos / 1e9)].increment();
+        st.settled.add(s.settled);
+        st.relaxed.add(s.relaxed);
+        st.heapOperations.add(s.heapOperations);
+        st.allocated.add(allocated);
+        if (s.event != null) {
+            OperationEvent e = s.event;
+            e.end();
+            if (e.shouldCommit()) {
+                e.operation = s.operation.label();
+                e.settled = s.settled;
+                e.relaxed = s.relaxed;
+                e.heapOperations = s.heapOperations;
+                e.allocated = allocated;
+                e.commit();
+            }
+        }
+    }
+
+    /** Travail d'une recherche terminée (appelé par les moteurs de plus courts chemins, BFS, Prim). */
+    public static void work(long settled, long relaxed, long heapOperations) {
+        if (!ENABLED) return;
+        SETTLED.add(settled);
+        RELAXED.add(relaxed);
+        HEAP_OPERATIONS.add(heapOperations);
+        Span s = CURRENT.get();
+        if (s != null) {
+            s.settled += settled;
+            s.relaxed += relaxed;
+            s.heapOperations += heapOperations;
+        }
+    }
+
+    private static int bucket(double seconds) {
+        int i = 0;
+        while (i < BUCKETS.length && seconds > BUCKETS[i]) i++;
+        return i;
+    }
+
+    /** Remet tous les compteurs à zéro. */
+    public static void reset() {
+        for (Stats st : STATS) {
+            st.calls.reset();
+            st.nanos.reset();
+            for (LongAdder b : st.buckets) b.reset();
+            st.settled.reset();
+            st.relaxed.reset();
+            st.heapOperations.reset();
+            st.allocated.reset();
+        }
+        SETTLED.reset();
+        RELAXED.reset();
+        HEAP_OPERATIONS.reset();
+    }
+
+    /* ====================== INSTANTANES ====================== */
+
+    /** Valeurs d'une opération à un instant donné. */
+    public static final class OperationSnapshot {
+        public final Operation operation;
+        public final long calls;
+        public final double seconds;
+        public final long[] buckets;   // nombre d'appels par classe de durée (non cumulé)
+        public final long settled;
+        public final long relaxed;
+        public final long heapOperations;
+        public final long allocated;
+
+        OperationSnapshot(Operation operation, Stats st) {
+            this.operation = operation;
+            this.calls = st.calls.sum();
+            this.seconds = st.nanos.sum() / 1e9;
+            this.buckets = new long[st.buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = st.buckets[i].sum();
+            }
+            this.settled = st.settled.sum();
+            this.relaxed = st.relaxed.sum();
+            this.heapOperations = st.heapOperations.sum();
+            this.allocated = st.allocated.sum();
+        }
+    }
+
+    /**
+     * Lecture de tous les compteurs. Chaque compteur est lu sans verrou : pendant des mesures
+     * en cours, l'instantané peut mêler des appels finis juste avant et juste après.
+     */
+    public static final class Snapshot {
+        public final OperationSnapshot[] operations;
+        public final long settled;
+        public final long relaxed;
+        public final long heapOperations;
+
+        Snapshot() {
+            Operation[] ops = Operation.values();
+            operations = new OperationSnapshot[ops.length];
+            for (int i = 0; i < ops.length; i++) {
+                operations[i] = new OperationSnapshot(ops[i], STATS[i]);
+            }
+            settled = SETTLED.sum();
+            relaxed = RELAXED.sum();
+            heapOperations = HEAP_OPERATIONS.sum();
+        }
+
+        public OperationSnapshot get(Operation op) {
+            return operations[op.ordinal()];
+        }
+
+        /** Format texte d'exposition Prometheus (version 0.0.4). */
+        public String toPrometheus() {
+            StringBuilder sb = new StringBuilder(4096);
+            sb.append("# HELP collecte_metriques_actives 1 si l'instrumentation est active\n");
+            sb.append("# TYPE collecte_metriques_actives gauge\n");
+            sb.append("collecte_metriques_actives ").append(ENABLED ? 1 : 0).append('\n');
+
+            sb.append("# HELP collecte_operation_duree_secondes Durée des opérations\n");
+            sb.append("# TYPE collecte_operation_duree_secondes histogram\n");
+            for (OperationSnapshot o : operations) {
+                long cumulative = 0;
+                for (int i = 0; i < o.buckets.length; i++) {
+                    cumulative += o.buckets[i];
+                    String le = i < BUCKETS.length ? number(BUCKETS[i]) : "+Inf";
+                    sb.append("collecte_operation_duree_secondes_bucket{operation=\"").append(o.operation.label())
+                            .append("\",le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+                }
+                sb.append("collecte_operation_duree_secondes_sum{operation=\"").append(o.operation.label())
+                        .append("\"} ").append(number(o.seconds)).append('\n');
+                sb.append("collecte_operation_duree_secondes_count{operation=\"").append(o.operation.label())
+                        .append("\"} ").append(o.calls).append('\n');
+            }
+            counter(sb, "collecte_operation_sommets_fixes_total", "Sommets fixés pendant l'opération (thread appelant)", o -> o.settled);
+            counter(sb, "collecte_operation_arcs_relaches_total", "Arcs relâchés pendant l'opération (thread appelant)", o -> o.relaxed);
+            counter(sb, "collecte_operation_operations_tas_total", "Insertions, baisses de clé et extractions du tas", o -> o.heapOperations);
+            counter(sb, "collecte_operation_octets_alloues_total", "Octets alloués par le thread appelant (estimation JVM)", o -> o.allocated);
+
+            sb.append("# HELP collecte_sommets_fixes_total Sommets fixés, toutes recherches\n");
+            sb.append("# TYPE collecte_sommets_fixes_total counter\n");
+            sb.append("collecte_sommets_fixes_total ").append(settled).append('\n');
+            sb.append("# HELP collecte_arcs_relaches_total Arcs relâchés, toutes recherches\n");
+            sb.append("# TYPE collecte_arcs_relaches_total counter\n");
+            sb.append("collecte_arcs_relaches_total ").append(relaxed).append('\n');
+            sb.append("# HELP collecte_operations_tas_total Opérations sur le tas, toutes recherches\n");
+            sb.append("# TYPE collecte_operations_tas_total counter\n");
+            sb.append("collecte_operations_tas_total ").append(heapOperations).append('\n');
+            return sb.toString();
+        }
+
+        private void counter(StringBuilder sb, String name, String help, ToLongFunction<OperationSnapshot> value) {
+            sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            sb.append("# TYPE ").append(name).append(" counter\n");
+            for (OperationSnapshot o : operations) {
+                sb.append(name).append("{operation=\"").append(o.operation.label()).append("\"} ")
+                        .append(value.applyAsLong(o)).append('\n');
+            }
+        }
+
+        private static String number(double x) {
+            return Double.toString(x);
+        }
+    }
+
+    public static Snapshot snapshot() {
+        return new Snapshot();
+    }
+
+    /** Instantané au format Prometheus. */
+    public static String prometheus() {
+        return snapshot().toPrometheus();
+    }
+
+    /** Écrit l'instantané au format Prometheus (collecteur textfile de node_exporter, archivage...). */
+    public static void writeTo(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(tmp, prometheus(), StandardCharsets.UTF_8);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
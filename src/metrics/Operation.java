@@ -0,0 +1,35 @@
+package metrics;
+
+/**
+ * Opérations mesurées ; le nom est la valeur de l'étiquette "operation" de l'export Prometheus.
+ */
+public enum Operation {
+    CHARGEMENT("chargement"),
+    DIJKSTRA("dijkstra"),
+    BFS("bfs"),
+    PRIM("prim"),
+    FORET_COUVRANTE("foret_couvrante"),
+    CYCLE_EULERIEN("cycle_eulerien"),
+    TSP_PLUS_PROCHE_VOISIN("tsp_plus_proche_voisin"),
+    TSP_DOUBLE_ARBRE("tsp_double_arbre"),
+    TSP_EXACT("tsp_exact"),
+    TSP_RECUIT("tsp_recuit"),
+    COLORATION("coloration"),
+    ITINERAIRE_ENCOMBRANTS("itineraire_encombrants"),
+    TOURNEE("tournee"),
+    TOURNEE_HORAIRE("tournee_horaire"),
+    MULTI_CAMIONS("multi_camions"),
+    PARTITION_DEPOTS("partition_depots"),
+    TOURNEES_PAR_DEPOT("tournees_par_depot"),
+    TOUTES_RUES("toutes_rues");
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+}
@@ -0,0 +1,36 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Événement JFR émis à la fin de chaque opération mesurée (si l'instrumentation est active
+ * et l'événement activé dans l'enregistrement : jfr configure ou -XX:StartFlightRecording
+ * avec collecte.Operation#enabled=true). La durée est celle de l'événement.
+ */
+@Name("collecte.Operation")
+@Label("Opération de planification")
+@Category({"Collecte"})
+@Description("Durée et travail d'un algorithme, d'une planification ou d'un chargement")
+@StackTrace(false)
+final class OperationEvent extends jdk.jfr.Event {
+    @Label("Opération")
+    String operation;
+
+    @Label("Sommets fixés")
+    long settled;
+
+    @Label("Arcs relâchés")
+    long relaxed;
+
+    @Label("Opérations sur le tas")
+    long heapOperations;
+
+    @Label("Octets alloués")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,494 @@
+package model;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Représentation compacte et figée d'un graphe (format CSR) :
+ * - sommets numérotés de 0 à n-1 (voir {@link VertexDictionary})
+ * - arcs sortants de u : indices [firstArc(u), endArc(u))
+ * - un graphe non orienté stocke chaque arête sous forme de deux arcs
+ *
+ * Aucune allocation par arête : tout tient dans quelques tableaux primitifs, vus comme des
+ * tampons NIO pour qu'un instantané projeté en mémoire (io.GraphSnapshot) serve sans copie.
+ * Les poids sont rangés par blocs de WEIGHT_BLOCK arcs : changer le poids d'une arête
+ * ({@link #withEdgeWeight}) ne recopie que son ou ses blocs.
+ *
+ * Une arête fermée (rue fermée, voir {@link Graph#removeEdge}) garde ses arcs, de poids infini :
+ * les plus courts chemins l'évitent d'eux-mêmes ; les algorithmes qui ignorent les poids
+ * (parcours, cycles eulériens, arbres couvrants, coloration) travaillent sur {@link #open()}.
+ */
+public final class CompactGraph {
+    private static final int WEIGHT_SHIFT = 12;
+    private static final int WEIGHT_BLOCK = 1 << WEIGHT_SHIFT;
+
+    private final boolean directed;
+    private final VertexDictionary dictionary;
+    private final int n;
+    private final IntBuffer offsets;   // taille n + 1
+    private final IntBuffer targets;   // taille nbArcs
+    private final DoubleBuffer[] weights; // poids de l'arc a : weights[a >>> WEIGHT_SHIFT], position a % WEIGHT_BLOCK
+    private final IntBuffer arcEdges;  // arête d'origine de chaque arc
+    private final int edgeCount;
+    private DoubleBuffer xs; // coordonnées, null si au moins un sommet n'en a pas
+    private DoubleBuffer ys;
+    private CompactGraph reverse; // graphe transposé, construit à la demande
+    private CompactGraph open;    // sans les arêtes fermées, construit à la demande
+    private int[] edgeArcs;       // arcs de chaque arête (2 par arête, -1 si un seul), partagé entre versions
+
+    CompactGraph(boolean directed, VertexDictionary dictionary, IntBuffer offsets,
+                 IntBuffer targets, DoubleBuffer weights, IntBuffer arcEdges, int edgeCount) {
+        this(directed, dictionary, offsets, targets, blocks(weights, targets.limit()), arcEdges, edgeCount);
+    }
+
+    private CompactGraph(boolean directed, VertexDictionary dictionary, IntBuffer offsets,
+                         IntBuffer targets, DoubleBuffer[] weights, IntBuffer arcEdges, int edgeCount) {
+        this.directed = directed;
+        this.dictionary = dictionary;
+        this.n = offsets.limit() - 1;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.arcEdges = arcEdges;
+        this.edgeCount = edgeCount;
+    }
+
+    /** Découpe en blocs (vues sur le même tampon, sans copie). */
+    private static DoubleBuffer[] blocks(DoubleBuffer weights, int arcs) {
+        DoubleBuffer[] res = new DoubleBuffer[Math.max(1, (arcs + WEIGHT_BLOCK - 1) >>> WEIGHT_SHIFT)];
+        for (int b = 0; b < res.length; b++) {
+            int start = b << WEIGHT_SHIFT;
+            res[b] = weights.slice(start, Math.min(WEIGHT_BLOCK, arcs - start));
+        }
+        return res;
+    }
+
+    /**
+     * Graphe compact sur des tampons existants, sans copie (par exemple projetés depuis
+     * un instantané binaire). xs / ys peuvent être null.
+     */
+    public static CompactGraph wrap(boolean directed, VertexDictionary dictionary, IntBuffer offsets,
+                                    IntBuffer targets, DoubleBuffer weights, IntBuffer arcEdges, int edgeCount,
+                                    DoubleBuffer xs, DoubleBuffer ys) {
+        CompactGraph g = new CompactGraph(directed, dictionary, offsets, targets, weights, arcEdges, edgeCount);
+        g.xs = xs;
+        g.ys = ys;
+        return g;
+    }
+
+    private static double[][] coordinates(double[] xs, double[] ys, int n) {
+        for (int v = 0; v < n; v++) {
+            if (Double.isNaN(xs[v]) || Double.isNaN(ys[v])) {
+                return null;
+            }
+        }
+        return new double[][]{Arrays.copyOf(xs, n), Arrays.copyOf(ys, n)};
+    }
+
+    private CompactGraph withCoordinates(double[][] xy) {
+        if (xy != null) {
+            xs = DoubleBuffer.wrap(xy[0]);
+            ys = DoubleBuffer.wrap(xy[1]);
+        }
+        return this;
+    }
+
+    /**
+     * Construit la forme compacte d'un graphe ; les sommets gardent l'ordre de g.getVertices().
+     */
+    public static CompactGraph from(Graph g) {
+        List<Vertex> vs = new ArrayList<>(g.getVertices());
+        VertexDictionary dict = VertexDictionary.of(vs);
+        List<Edge> edges = g.getEdges();
+        int m = edges.size();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] w = new double[m];
+        for (int i = 0; i < m; i++) {
+            Edge e = edges.get(i);
+            from[i] = dict.indexOf(e.getFrom().getId());
+            to[i] = dict.indexOf(e.getTo().getId());
+            w[i] = e.getWeight();
+        }
+        double[] xs = new double[vs.size()];
+        double[] ys = new double[vs.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = vs.get(i).getX();
+            ys[i] = vs.get(i).getY();
+        }
+        return build(g.isDirected(), dict, from, to, w, m)
+                .withCoordinates(coordinates(xs, ys, xs.length));
+    }
+
+    /**
+     * Construit la forme compacte à partir de tableaux déjà indexés (chargeurs rapides) :
+     * sommets 0..n-1 décrits par ids / labels / xs / ys (NaN si absent), arêtes from[i] -> to[i].
+     */
+    public static CompactGraph of(boolean directed, String[] ids, String[] labels, double[] xs, double[] ys,
+                                  int[] from, int[] to, double[] w, int m) {
+        VertexDictionary dict = VertexDictionary.of(ids, labels, null);
+        return build(directed, dict, from, to, w, m).withCoordinates(coordinates(xs, ys, ids.length));
+    }
+
+    /** Arêtes from[i] -> to[i] ; une arête où from[i] < 0 est absente (son indice reste réservé). */
+    static CompactGraph build(boolean directed, VertexDictionary dict,
+                              int[] from, int[] to, double[] w, int m) {
+        int n = dict.size();
+        int arcs = 0;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            if (from[i] < 0) continue;
+            offsets[from[i] + 1]++;
+            arcs++;
+            if (!directed) {
+                offsets[to[i] + 1]++;
+                arcs++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        // tri par dénombrement stable : on garde l'ordre d'insertion des arêtes
+        int[] pos = Arrays.copyOf(offsets, n);
+        int[] targets = new int[arcs];
+        double[] weights = new double[arcs];
+        int[] arcEdges = new int[arcs];
+        for (int i = 0; i < m; i++) {
+            if (from[i] < 0) continue;
+            int a = pos[from[i]]++;
+            targets[a] = to[i];
+            weights[a] = w[i];
+            arcEdges[a] = i;
+            if (!directed) {
+                int b = pos[to[i]]++;
+                targets[b] = from[i];
+                weights[b] = w[i];
+                arcEdges[b] = i;
+            }
+        }
+        return new CompactGraph(directed, dict, IntBuffer.wrap(offsets), IntBuffer.wrap(targets),
+                DoubleBuffer.wrap(weights), IntBuffer.wrap(arcEdges), m);
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    public int vertexCount() {
+        return n;
+    }
+
+    /** Nombre d'arêtes (ou d'arcs pour un graphe orienté) du graphe d'origine. */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public int arcCount() {
+        return targets.limit();
+    }
+
+    public VertexDictionary dictionary() {
+        return dictionary;
+    }
+
+    public int indexOf(String id) {
+        return dictionary.indexOf(id);
+    }
+
+    public int indexOf(Vertex v) {
+        return dictionary.indexOf(v.getId());
+    }
+
+    public Vertex vertex(int v) {
+        return dictionary.vertex(v);
+    }
+
+    public int firstArc(int v) {
+        return offsets.get(v);
+    }
+
+    public int endArc(int v) {
+        return offsets.get(v + 1);
+    }
+
+    public int outDegree(int v) {
+        return offsets.get(v + 1) - offsets.get(v);
+    }
+
+    public int target(int arc) {
+        return targets.get(arc);
+    }
+
+    public double weight(int arc) {
+        return weights[arc >>> WEIGHT_SHIFT].get(arc & (WEIGHT_BLOCK - 1));
+    }
+
+    /** Arc d'une arête fermée (poids infini). */
+    public boolean isClosed(int arc) {
+        return weight(arc) == Double.POSITIVE_INFINITY;
+    }
+
+    public int arcEdge(int arc) {
+        return arcEdges.get(arc);
+    }
+
+    /** Vrai si tous les sommets ont des coordonnées (nécessaire pour A*). */
+    public boolean hasCoordinates() {
+        return xs != null;
+    }
+
+    public double x(int v) {
+        return xs.get(v);
+    }
+
+    public double y(int v) {
+        return ys.get(v);
+    }
+
+    /**
+     * Graphe transposé (arcs entrants de chaque sommet), construit une fois à la demande.
+     * Pour un graphe non orienté, c'est le graphe lui-même.
+     */
+    public synchronized CompactGraph reverse() {
+        if (!directed) {
+            return this;
+        }
+        if (reverse == null) {
+            int[] from = new int[edgeCount];
+            int[] to = new int[edgeCount];
+            double[] w = new double[edgeCount];
+            Arrays.fill(from, -1); // arêtes absentes de cette vue (voir open())
+            for (int u = 0; u < n; u++) {
+                for (int a = firstArc(u), end = endArc(u); a < end; a++) {
+                    int e = arcEdges.get(a);
+                    from[e] = targets.get(a);
+                    to[e] = u;
+                    w[e] = weight(a);
+                }
+            }
+            reverse = build(true, dictionary, from, to, w, edgeCount);
+            reverse.xs = xs;
+            reverse.ys = ys;
+            reverse.reverse = this;
+        }
+        return reverse;
+    }
+
+    /**
+     * Nouveau graphe compact : les arêtes de celui-ci (mêmes indices) suivies des arêtes données.
+     * Les sommets et le dictionnaire sont partagés.
+     */
+    public CompactGraph withExtraEdges(int[] from, int[] to, double[] w, int count) {
+        int m = edgeCount + count;
+        int[] f = new int[m];
+        int[] t = new int[m];
+        double[] ws = new double[m];
+        Arrays.fill(f, 0, edgeCount, -1); // arêtes absentes de cette vue (voir open())
+        for (int u = 0; u < n; u++) {
+            for (int a = firstArc(u), end = endArc(u); a < end; a++) {
+                int e = arcEdges.get(a);
+                if (f[e] < 0) {
+                    f[e] = u;
+                    t[e] = targets.get(a);
+                    ws[e] = weight(a);
+                }
+            }
+        }
+        System.arraycopy(from, 0, f, edgeCount, count);
+        System.arraycopy(to, 0, t, edgeCount, count);
+        System.arraycopy(w, 0, ws, edgeCount, count);
+        CompactGraph g = build(directed, dictionary, f, t, ws, m);
+        g.xs = xs;
+        g.ys = ys;
+        return g;
+    }
+
+    /**
+     * Nouveau graphe compact sur les mêmes sommets (dictionnaire et coordonnées partagés),
+     * avec les seules arêtes données.
+     */
+    public CompactGraph withOnlyEdges(int[] from, int[] to, double[] w, int count) {
+        CompactGraph g = build(directed, dictionary, from, to, w, count);
+        g.xs = xs;
+        g.ys = ys;
+        return g;
+    }
+
+    /**
+     * Nouveau graphe compact où l'arête e pèse weight (POSITIVE_INFINITY : arête fermée).
+     * Seul le bloc de poids de chacun de ses arcs est recopié : structure, dictionnaire,
+     * coordonnées et autres blocs sont partagés (celui-ci reste inchangé).
+     */
+    public CompactGraph withEdgeWeight(int e, double weight) {
+        if (e < 0 || e >= edgeCount) {
+            throw new IllegalArgumentException("Arête inconnue : " + e);
+        }
+        int[] arcs = edgeArcs();
+        DoubleBuffer[] w = weights.clone();
+        for (int k = 2 * e; k < 2 * e + 2 && arcs[k] >= 0; k++) {
+            int b = arcs[k] >>> WEIGHT_SHIFT;
+            if (w[b] == weights[b]) {
+                double[] copy = new double[weights[b].limit()];
+                weights[b].get(0, copy); // lecture absolue, sans toucher à la position du tampon partagé
+                w[b] = DoubleBuffer.wrap(copy);
+            }
+            w[b].put(arcs[k] & (WEIGHT_BLOCK - 1), weight);
+        }
+        CompactGraph g = new CompactGraph(directed, dictionary, offsets, targets, w, arcEdges, edgeCount);
+        g.xs = xs;
+        g.ys = ys;
+        g.edgeArcs = arcs;
+        return g;
+    }
+
+    /** Même graphe (tampons, poids et coordonnées partagés) avec un autre dictionnaire des sommets. */
+    CompactGraph withDictionary(VertexDictionary dict) {
+        CompactGraph g = new CompactGraph(directed, dict, offsets, targets, weights, arcEdges, edgeCount);
+        g.xs = xs;
+        g.ys = ys;
+        g.edgeArcs = edgeArcs;
+        return g;
+    }
+
+    /** Arcs de chaque arête, construits une fois par structure (O(arcs)). */
+    private synchronized int[] edgeArcs() {
+        if (edgeArcs == null) {
+            int[] arcs = new int[2 * edgeCount];
+            Arrays.fill(arcs, -1);
+            for (int a = 0; a < arcCount(); a++) {
+                int e = arcEdges.get(a);
+                arcs[arcs[2 * e] < 0 ? 2 * e : 2 * e + 1] = a;
+            }
+            edgeArcs = arcs;
+        }
+        return edgeArcs;
+    }
+
+    /**
+     * Vue sans les arêtes fermées : mêmes sommets, dictionnaire et indices d'arêtes, mais leurs
+     * arcs sont retirés (les indices d'arcs changent). Le graphe lui-même s'il n'en a pas.
+     * Construite une fois à la demande, en O(arcs).
+     */
+    public synchronized CompactGraph open() {
+        if (open == null) {
+            int closed = 0;
+            for (int a = 0; a < arcCount(); a++) {
+                if (isClosed(a)) closed++;
+            }
+            if (closed == 0) {
+                open = this;
+            } else {
+                int[] from = new int[edgeCount];
+                int[] to = new int[edgeCount];
+                double[] w = new double[edgeCount];
+                Arrays.fill(from, -1);
+                for (int u = 0; u < n; u++) {
+                    for (int a = firstArc(u), end = endArc(u); a < end; a++) {
+                        int e = arcEdges.get(a);
+                        if (from[e] < 0 && !isClosed(a)) {
+                            from[e] = u;
+                            to[e] = targets.get(a);
+                            w[e] = weight(a);
+                        }
+                    }
+                }
+                open = build(directed, dictionary, from, to, w, edgeCount);
+                open.xs = xs;
+                open.ys = ys;
+                open.open = open;
+            }
+        }
+        return open;
+    }
+
+    /** Sommet de départ d'un arc (recherche dichotomique dans les offsets). */
+    public int source(int arc) {
+        int lo = 0;
+        int hi = vertexCount() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets.get(mid) <= arc) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Construction incrémentale d'un graphe compact sans passer par les objets Vertex/Edge
+     * (utilisé par le chargeur de fichiers).
+     */
+    public static class Builder {
+        private final boolean directed;
+        private final Map<String, Integer> index = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> labels = new ArrayList<>();
+        private double[] xs = new double[16];
+        private double[] ys = new double[16];
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private double[] w = new double[16];
+        private int m;
+
+        public Builder(boolean directed) {
+            this.directed = directed;
+        }
+
+        public int addVertex(String id) {
+            return addVertex(id, id);
+        }
+
+        public int addVertex(String id, String label) {
+            Integer i = index.get(id);
+            if (i == null) {
+                i = ids.size();
+                index.put(id, i);
+                ids.add(id);
+                labels.add(label);
+                if (i == xs.length) {
+                    xs = Arrays.copyOf(xs, i * 2);
+                    ys = Arrays.copyOf(ys, i * 2);
+                }
+                xs[i] = Double.NaN;
+                ys[i] = Double.NaN;
+            }
+            return i;
+        }
+
+        public int addVertex(String id, String label, double x, double y) {
+            int i = addVertex(id, label);
+            xs[i] = x;
+            ys[i] = y;
+            return i;
+        }
+
+        public int addEdge(String fromId, String toId, double weight) {
+            int u = addVertex(fromId);
+            int v = addVertex(toId);
+            if (m == from.length) {
+                int cap = m * 2;
+                from = Arrays.copyOf(from, cap);
+                to = Arrays.copyOf(to, cap);
+                w = Arrays.copyOf(w, cap);
+            }
+            from[m] = u;
+            to[m] = v;
+            w[m] = weight;
+            return m++;
+        }
+
+        public CompactGraph build() {
+            VertexDictionary dict = VertexDictionary.of(
+                    ids.toArray(new String[0]), labels.toArray(new String[0]), null);
+            return CompactGraph.build(directed, dict, from, to, w, m)
+                    .withCoordinates(coordinates(xs, ys, ids.size()));
+        }
+    }
+}
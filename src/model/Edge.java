@@ -3,8 +3,12 @@ package model;
 public class Edge {
     private final Vertex from;
     private final Vertex to;
-    private final double weight;
+    private double weight; // modifiable par Graph.updateEdgeWeight
     private final boolean directed;
+    Edge twin;      // non orienté : l'autre sens de la même arête
+    boolean mirror; // vrai pour le sens ajouté dans l'adjacence de la destination (absent de getEdges())
+    int profile = -1; // profil horaire (indice dans Graph.getProfiles()), -1 : poids constant
+    int index = -1;   // position dans Graph.getEdges(), indice de l'arête dans la forme compacte
 
     public Edge(Vertex from, Vertex to, double weight, boolean directed) {
         this.from = from;
@@ -25,6 +29,20 @@ public class Edge {
         return weight;
     }
 
+    void setWeight(double weight) {
+        this.weight = weight;
+    }
+
+    /** Rue fermée ({@link Graph#removeEdge}) : poids infini, évitée par les plus courts chemins. */
+    public boolean isClosed() {
+        return weight == Double.POSITIVE_INFINITY;
+    }
+
+    /** Profil horaire du temps de parcours, -1 si le poids est constant. */
+    public int getProfile() {
+        return profile;
+    }
+
     public boolean isDirected() {
         return directed;
     }
@@ -1,12 +1,22 @@
 package model;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class Graph {
     private final boolean directed;
-    private final Map<String, Vertex> vertices = new HashMap<>();
+    private final Map<String, Vertex> vertices = new LinkedHashMap<>(); // ordre d'insertion : indices reproductibles
     private final List<Edge> edges = new ArrayList<>();
-    private final Map<Vertex, List<Edge>> adjacency = new HashMap<>();
+    private final Map<Vertex, List<Edge>> adjacency = new LinkedHashMap<>();
+    private CompactGraph compact; // forme CSR, reconstruite après modification
+    private volatile CompactGraph pending; // vue sur une forme compacte : objets pas encore créés (voir from)
+    private CompactGraph source;           // forme compacte d'origine d'une vue
+    private AtomicReferenceArray<Vertex> lazy; // sommets de la vue, créés un par un à la demande (sans verrou)
+    private volatile long version; // incrémentée à chaque modification
+    private TravelTimeProfiles profiles = TravelTimeProfiles.NONE;
+    private TravelTimeProfiles travelTimes; // profils affectés aux indices de la forme compacte
+    private final List<GraphListener> listeners = new CopyOnWriteArrayList<>();
 
     public Graph(boolean directed) {
         this.directed = directed;
@@ -17,10 +27,12 @@ public class Graph {
     }
 
     public Collection<Vertex> getVertices() {
+        materialize();
         return vertices.values();
     }
 
     public List<Edge> getEdges() {
+        materialize();
         return edges;
     }
 
@@ -29,34 +41,322 @@ public class Graph {
     }
 
     public Vertex addVertex(String id, String label) {
+        materialize();
         Vertex v = vertices.get(id);
         if (v == null) {
             v = new Vertex(id, label);
             vertices.put(id, v);
             adjacency.put(v, new ArrayList<>());
+            modified();
+        }
+        return v;
+    }
+
+    public Vertex addVertex(String id, String label, double x, double y) {
+        Vertex v = addVertex(id, label);
+        if (Double.compare(v.getX(), x) != 0 || Double.compare(v.getY(), y) != 0) {
+            v.setCoordinates(x, y);
+            modified();
         }
         return v;
     }
 
     public Vertex getVertex(String id) {
+        CompactGraph cg = pending;
+        if (cg != null) {
+            int v = cg.indexOf(id); // sans créer tous les objets
+            return v < 0 ? null : lazyVertex(v);
+        }
         return vertices.get(id);
     }
 
     public Edge addEdge(String fromId, String toId, double weight) {
-        Vertex from = addVertex(fromId);
-        Vertex to = addVertex(toId);
+        Edge e = link(addVertex(fromId), addVertex(toId), weight);
+        modified();
+        return e;
+    }
+
+    private Edge link(Vertex from, Vertex to, double weight) {
         Edge e = new Edge(from, to, weight, directed);
+        e.index = edges.size();
         edges.add(e);
         adjacency.get(from).add(e);
         if (!directed) {
             // on ajoute aussi l'arête dans l'autre sens dans l'adjacence
             Edge e2 = new Edge(to, from, weight, directed);
+            e.twin = e2;
+            e2.twin = e;
+            e2.mirror = true;
             adjacency.get(to).add(e2);
         }
         return e;
     }
 
+    /** Première arête from -> to (dans un sens ou l'autre si non orienté), null s'il n'y en a pas. */
+    public Edge getEdge(String fromId, String toId) {
+        materialize();
+        Vertex from = vertices.get(fromId);
+        if (from == null) return null;
+        for (Edge e : adjacency.get(from)) {
+            if (e.getTo().getId().equals(toId)) {
+                return e.mirror ? e.twin : e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ferme une rue : l'arête garde sa place dans getEdges() et son indice dans la forme compacte,
+     * avec un poids infini (voir {@link Edge#isClosed()}) ; les indices des autres arêtes ne
+     * changent pas, les structures construites sur la forme compacte restent valables. Les plus
+     * courts chemins l'évitent ; les algorithmes qui ignorent les poids ne la voient plus
+     * ({@link CompactGraph#open()}), pas plus que {@link #getDegree}. Rouvrir la rue :
+     * {@link #updateEdgeWeight} avec un poids fini. Mêmes effets que {@link #updateEdgeWeight}.
+     *
+     * @return false si l'arête n'est pas dans le graphe
+     */
+    public synchronized boolean removeEdge(Edge e) {
+        Edge stored = e.mirror ? e.twin : e;
+        if (!owns(stored)) return false;
+        updateEdgeWeight(stored, Double.POSITIVE_INFINITY);
+        return true;
+    }
+
+    private boolean owns(Edge stored) {
+        materialize();
+        return stored.index >= 0 && stored.index < edges.size() && edges.get(stored.index) == stored;
+    }
+
+    /**
+     * Change le poids d'une arête (travaux, bouchon...). Seuls les blocs de poids de ses arcs sont
+     * recopiés dans la forme compacte : pas de reconstruction de la structure, ni de copie de tous
+     * les poids. Arête, forme compacte, écouteurs et version sont mis à jour sous le verrou du
+     * graphe, en une seule fois.
+     *
+     * @param weight nouveau poids, POSITIVE_INFINITY pour fermer la rue
+     * @throws IllegalArgumentException si le poids est négatif ou NaN, ou non FIFO pour le profil de l'arête
+     */
+    public synchronized void updateEdgeWeight(Edge e, double weight) {
+        if (weight < 0 || Double.isNaN(weight)) {
+            throw new IllegalArgumentException("Poids négatif ou invalide : " + weight);
+        }
+        Edge stored = e.mirror ? e.twin : e;
+        if (!owns(stored)) {
+            throw new IllegalArgumentException("Arête absente du graphe : " + e);
+        }
+        int index = stored.index;
+        if (weight != Double.POSITIVE_INFINITY && stored.profile >= 0 && !profiles.isFifo(stored.profile, weight)) {
+            throw new IllegalArgumentException("Poids " + weight + " incompatible (non FIFO) avec le profil de " + stored);
+        }
+        stored.setWeight(weight);
+        if (stored.twin != null) {
+            stored.twin.setWeight(weight);
+        }
+        if (compact != null) {
+            compact = compact.withEdgeWeight(index, weight);
+        }
+        for (GraphListener l : listeners) {
+            l.edgeWeightChanged(index, weight);
+        }
+        version++;
+    }
+
+    /** Abonne l'écouteur aux modifications suivantes du graphe (voir {@link GraphListener}). */
+    public void addListener(GraphListener l) {
+        listeners.add(l);
+    }
+
+    public void removeListener(GraphListener l) {
+        listeners.remove(l);
+    }
+
+    /** Profils horaires des temps de parcours (remplace les affectations existantes). */
+    public synchronized void setProfiles(TravelTimeProfiles profiles) {
+        materialize();
+        this.profiles = profiles;
+        for (Edge e : edges) {
+            e.profile = -1;
+            if (e.twin != null) e.twin.profile = -1;
+        }
+        travelTimes = null;
+        version++;
+    }
+
+    public synchronized TravelTimeProfiles getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * L'arête suit le profil p de getProfiles() (-1 : poids constant).
+     *
+     * @throws IllegalArgumentException si le profil ne respecte pas FIFO pour le poids de l'arête
+     */
+    public synchronized void setEdgeProfile(Edge e, int p) {
+        Edge stored = e.mirror ? e.twin : e;
+        if (p < -1 || p >= profiles.count()) {
+            throw new IllegalArgumentException("Profil inconnu : " + p);
+        }
+        if (p >= 0 && !profiles.isFifo(p, stored.getWeight())) {
+            throw new IllegalArgumentException("Profil " + profiles.name(p)
+                    + " non FIFO pour " + stored + " : partir plus tard ferait arriver plus tôt");
+        }
+        stored.profile = p;
+        if (stored.twin != null) stored.twin.profile = p;
+        travelTimes = null;
+        version++;
+    }
+
+    /**
+     * Profils affectés aux arêtes par indice de la forme compacte (pour le Dijkstra
+     * dépendant du temps), calculés une fois tant que le graphe n'est pas modifié.
+     */
+    public synchronized TravelTimeProfiles travelTimes() {
+        if (travelTimes == null) {
+            if (profiles.count() == 0) {
+                travelTimes = TravelTimeProfiles.NONE;
+            } else {
+                materialize();
+                int[] edgeProfile = new int[edges.size()];
+                for (int i = 0; i < edgeProfile.length; i++) {
+                    edgeProfile[i] = edges.get(i).profile;
+                }
+                travelTimes = profiles.forEdges(edgeProfile);
+            }
+        }
+        return travelTimes;
+    }
+
+    private synchronized void modified() {
+        compact = null;
+        travelTimes = null;
+        for (GraphListener l : listeners) {
+            l.structureChanged();
+        }
+        version++;
+    }
+
+    /**
+     * Numéro de version du graphe : change à chaque ajout, retrait ou changement de poids,
+     * ce qui permet aux caches de ne jamais servir un résultat périmé.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Forme compacte (CSR) du graphe, calculée une seule fois tant que le graphe n'est pas modifié.
+     */
+    public synchronized CompactGraph compact() {
+        if (compact == null) {
+            compact = CompactGraph.from(this);
+        }
+        return compact;
+    }
+
+    /**
+     * Graphe objet équivalent à une forme compacte (arêtes dans l'ordre de leurs indices), sans
+     * copie ni reconstruction de ses tableaux : un instantané projeté en mémoire le reste. Les
+     * sommets sont créés un à un quand on les demande (getVertex, vertex(v) de la forme compacte),
+     * les arêtes et l'adjacence en une fois, au premier accès qui en a besoin (getEdges,
+     * getOutgoingEdges, ajout, fermeture de rue...).
+     */
+    public static Graph from(CompactGraph cg) {
+        Graph g = new Graph(cg.isDirected());
+        synchronized (g) {
+            g.source = cg;
+            g.lazy = new AtomicReferenceArray<>(cg.vertexCount());
+            g.compact = cg.withDictionary(new LazyDictionary(cg.dictionary(), g));
+            g.pending = g.compact;
+        }
+        return g;
+    }
+
+    /** Sommet v de la vue, le même objet à chaque appel ; sans le verrou du graphe (appelé sous d'autres verrous). */
+    private Vertex lazyVertex(int v) {
+        Vertex vx = lazy.get(v);
+        if (vx == null) {
+            vx = new Vertex(source.dictionary().id(v), source.dictionary().label(v));
+            if (source.hasCoordinates()) vx.setCoordinates(source.x(v), source.y(v));
+            if (!lazy.compareAndSet(v, null, vx)) vx = lazy.get(v);
+        }
+        return vx;
+    }
+
+    /** Crée les sommets et arêtes d'une vue (voir from), une seule fois. */
+    private void materialize() {
+        if (pending != null) {
+            materializeNow();
+        }
+    }
+
+    private synchronized void materializeNow() {
+        CompactGraph cg = pending;
+        if (cg == null) return;
+        int n = cg.vertexCount();
+        for (int v = 0; v < n; v++) {
+            Vertex vx = lazyVertex(v);
+            vertices.put(vx.getId(), vx);
+            adjacency.put(vx, new ArrayList<>());
+        }
+        int[] from = new int[cg.edgeCount()];
+        int[] to = new int[cg.edgeCount()];
+        double[] w = new double[cg.edgeCount()];
+        boolean[] seen = new boolean[cg.edgeCount()];
+        for (int u = 0; u < n; u++) {
+            for (int a = cg.firstArc(u), end = cg.endArc(u); a < end; a++) {
+                int e = cg.arcEdge(a);
+                if (!seen[e]) {
+                    seen[e] = true;
+                    from[e] = u;
+                    to[e] = cg.target(a);
+                    w[e] = cg.weight(a);
+                }
+            }
+        }
+        for (int e = 0; e < from.length; e++) {
+            link(lazy.get(from[e]), lazy.get(to[e]), w[e]); // sans modified() : la forme compacte reste valable
+        }
+        pending = null;
+    }
+
+    /** Dictionnaire d'une vue : celui de la forme compacte, mais vertex(v) rend les sommets du graphe. */
+    private static final class LazyDictionary extends VertexDictionary {
+        private final VertexDictionary dict;
+        private final Graph g;
+
+        LazyDictionary(VertexDictionary dict, Graph g) {
+            this.dict = dict;
+            this.g = g;
+        }
+
+        @Override
+        public int size() {
+            return dict.size();
+        }
+
+        @Override
+        public int indexOf(String id) {
+            return dict.indexOf(id);
+        }
+
+        @Override
+        public String id(int v) {
+            return dict.id(v);
+        }
+
+        @Override
+        public String label(int v) {
+            return dict.label(v);
+        }
+
+        @Override
+        public Vertex vertex(int v) {
+            return g.lazyVertex(v);
+        }
+    }
+
     public List<Edge> getOutgoingEdges(Vertex v) {
+        materialize();
         return adjacency.getOrDefault(v, Collections.emptyList());
     }
 
@@ -64,7 +364,12 @@ public class Graph {
         if (directed) {
             throw new UnsupportedOperationException("Use in/out degree for directed graph");
         }
-        return adjacency.getOrDefault(v, Collections.emptyList()).size();
+        materialize();
+        int degree = 0;
+        for (Edge e : adjacency.getOrDefault(v, Collections.emptyList())) {
+            if (!e.isClosed()) degree++; // rue fermée : plus une voisine
+        }
+        return degree;
     }
 
     @Override
@@ -76,7 +381,7 @@ public class Graph {
             sb.append("  ").append(v).append("\n");
         }
         sb.append("Edges:\n");
-        for (Edge e : edges) {
+        for (Edge e : getEdges()) {
             sb.append("  ").append(e).append("\n");
         }
         return sb.toString();
@@ -0,0 +1,19 @@
+package model;
+
+/**
+ * Abonné aux modifications d'un {@link Graph} ({@link Graph#addListener}). Prévenu sous le verrou
+ * du graphe, dans l'ordre des modifications, avant que la nouvelle version ne soit visible : un
+ * lecteur qui voit la nouvelle version voit aussi l'effet de l'écouteur.
+ */
+public interface GraphListener {
+
+    /**
+     * Le poids d'une arête a changé (infini : rue fermée).
+     *
+     * @param edge indice de l'arête dans la forme compacte (celui de getEdges()), inchangé
+     */
+    void edgeWeightChanged(int edge, double weight);
+
+    /** Sommets ou arêtes ajoutés : la forme compacte précédente et ses indices ne valent plus. */
+    void structureChanged();
+}
@@ -0,0 +1,168 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Temps de parcours selon l'heure de la journée : chaque profil est une fonction linéaire
+ * par morceaux, périodique sur 24 h, qui multiplie le poids de l'arête (1 = poids nominal,
+ * 3 = trois fois plus long). Les heures sont en minutes depuis minuit (0 .. 1440) ; les poids
+ * des arêtes concernées sont alors des durées en minutes.
+ *
+ * Stockage compact : les points de tous les profils sont rangés à la suite dans deux tableaux
+ * partagés (heures, facteurs), le profil p occupant [start[p], start[p + 1]). L'affectation
+ * des profils aux arêtes (indices de la forme compacte, -1 : poids constant) est un int[] à part ;
+ * {@link #forEdges(int[])} en change sans recopier les profils.
+ *
+ * Un profil n'est accepté sur une arête que s'il respecte la propriété FIFO (partir plus tard
+ * ne fait jamais arriver plus tôt) : poids * pente ≥ -1 sur chaque morceau. C'est ce qui rend
+ * exact le Dijkstra dépendant du temps. Instances immuables, partageables entre threads.
+ */
+public final class TravelTimeProfiles {
+    public static final double DAY = 1440.0;
+
+    /** Aucun profil : tous les poids sont constants. */
+    public static final TravelTimeProfiles NONE =
+            new TravelTimeProfiles(new String[0], new int[]{0}, new double[0], new double[0], new double[0], null);
+
+    private final String[] names;
+    private final int[] start;
+    private final double[] times;
+    private final double[] factors;
+    private final double[] minSlope;   // pente la plus descendante de chaque profil (par minute)
+    private final int[] edgeProfile;   // null : aucune arête n'a de profil
+
+    private TravelTimeProfiles(String[] names, int[] start, double[] times, double[] factors,
+                               double[] minSlope, int[] edgeProfile) {
+        this.names = names;
+        this.start = start;
+        this.times = times;
+        this.factors = factors;
+        this.minSlope = minSlope;
+        this.edgeProfile = edgeProfile;
+    }
+
+    /**
+     * @param times   pour chaque profil, heures strictement croissantes dans [0, 1440)
+     * @param factors pour chaque profil, facteur (> 0) à chacune de ces heures
+     */
+    public static TravelTimeProfiles of(String[] names, double[][] times, double[][] factors) {
+        int count = names.length;
+        if (times.length != count || factors.length != count) {
+            throw new IllegalArgumentException("Un tableau d'heures et de facteurs par profil est attendu");
+        }
+        int[] start = new int[count + 1];
+        for (int p = 0; p < count; p++) {
+            if (times[p].length == 0 || times[p].length != factors[p].length) {
+                throw new IllegalArgumentException("Profil vide ou incomplet : " + names[p]);
+            }
+            start[p + 1] = start[p] + times[p].length;
+        }
+        double[] t = new double[start[count]];
+        double[] f = new double[start[count]];
+        double[] slope = new double[count];
+        for (int p = 0; p < count; p++) {
+            for (int i = 0; i < times[p].length; i++) {
+                double h = times[p][i];
+                if (!(h >= 0 && h < DAY) || (i > 0 && h <= times[p][i - 1])) {
+                    throw new IllegalArgumentException("Heures invalides dans le profil " + names[p]
+                            + " (croissantes, entre 0:00 et 24:00) : " + h);
+                }
+                if (!(factors[p][i] > 0) || Double.isInfinite(factors[p][i])) {
+                    throw new IllegalArgumentException("Facteur invalide dans le profil " + names[p] + " : " + factors[p][i]);
+                }
+                t[start[p] + i] = h;
+                f[start[p] + i] = factors[p][i];
+            }
+            double min = 0.0;
+            int s = start[p];
+            int e = start[p + 1];
+            for (int i = s; i < e; i++) {
+                int j = i + 1 < e ? i + 1 : s; // dernier point -> premier du lendemain
+                double dt = j > i ? t[j] - t[i] : t[j] + DAY - t[i];
+                if (dt > 0) min = Math.min(min, (f[j] - f[i]) / dt);
+            }
+            slope[p] = min;
+        }
+        return new TravelTimeProfiles(names.clone(), start, t, f, slope, null);
+    }
+
+    /** Mêmes profils, affectés aux arêtes selon edgeProfile (indices d'arêtes, -1 : aucun). */
+    public TravelTimeProfiles forEdges(int[] edgeProfile) {
+        for (int p : edgeProfile) {
+            if (p < -1 || p >= count()) {
+                throw new IllegalArgumentException("Profil inconnu : " + p);
+            }
+        }
+        return new TravelTimeProfiles(names, start, times, factors, minSlope, edgeProfile);
+    }
+
+    public int count() {
+        return names.length;
+    }
+
+    public String name(int p) {
+        return names[p];
+    }
+
+    /** @return indice du profil, -1 s'il n'existe pas */
+    public int indexOf(String name) {
+        for (int p = 0; p < names.length; p++) {
+            if (names[p].equals(name)) return p;
+        }
+        return -1;
+    }
+
+    /** Profil de l'arête, -1 si son poids est constant. */
+    public int profileOf(int edge) {
+        return edgeProfile == null || edge >= edgeProfile.length ? -1 : edgeProfile[edge];
+    }
+
+    public boolean hasEdgeProfiles() {
+        return edgeProfile != null;
+    }
+
+    /** Vrai si une arête de ce poids suivant le profil p respecte FIFO. */
+    public boolean isFifo(int p, double weight) {
+        return minSlope[p] >= 0 || weight * minSlope[p] >= -1.0 - 1e-12;
+    }
+
+    /** Facteur du profil p à l'heure t (minutes, ramenée dans la journée). Sans allocation. */
+    public double factor(int p, double t) {
+        int s = start[p];
+        int e = start[p + 1];
+        if (e - s == 1) return factors[s];
+        double h = t % DAY;
+        if (h < 0) h += DAY;
+        // dernier point d'heure <= h (dichotomie) ; avant le premier : morceau qui enjambe minuit
+        int lo = s;
+        int hi = e - 1;
+        if (h < times[s]) {
+            lo = e - 1;
+        } else {
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (times[mid] <= h) lo = mid;
+                else hi = mid - 1;
+            }
+        }
+        int next = lo + 1 < e ? lo + 1 : s;
+        double t0 = times[lo];
+        double t1 = times[next];
+        if (next == s) {
+            t1 += DAY;
+            if (h < t0) h += DAY;
+        }
+        return factors[lo] + (factors[next] - factors[lo]) * (h - t0) / (t1 - t0);
+    }
+
+    /** Durée de parcours de l'arête (de poids nominal weight) pour un départ à l'heure t. Sans allocation. */
+    public double travelTime(int edge, double weight, double t) {
+        int p = profileOf(edge);
+        return p < 0 ? weight : weight * factor(p, t);
+    }
+
+    @Override
+    public String toString() {
+        return "TravelTimeProfiles" + Arrays.toString(names);
+    }
+}
@@ -5,6 +5,9 @@ import java.util.Objects;
 public class Vertex {
     private final String id;
     private String label;
+    private double x = Double.NaN; // coordonnées facultatives (x/y ou longitude/latitude)
+    private double y = Double.NaN;
+    private double quantity; // quantité à collecter (tonnes, bacs...), 0 par défaut
 
     public Vertex(String id) {
         this(id, id);
@@ -27,6 +30,31 @@ public class Vertex {
         this.label = label;
     }
 
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public boolean hasCoordinates() {
+        return !Double.isNaN(x) && !Double.isNaN(y);
+    }
+
+    public void setCoordinates(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(double quantity) {
+        this.quantity = quantity;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
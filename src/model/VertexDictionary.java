@@ -0,0 +1,92 @@
+package model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionnaire id <-> indice dense (0..n-1) des sommets d'un {@link CompactGraph}.
+ *
+ * L'implémentation par défaut garde les chaînes en mémoire ; un instantané binaire
+ * projeté en mémoire fournit la sienne (voir io.GraphSnapshot), qui lit les octets du fichier.
+ */
+public abstract class VertexDictionary {
+
+    protected VertexDictionary() {
+    }
+
+    static VertexDictionary of(String[] ids, String[] labels, Vertex[] vertices) {
+        return new ArrayDictionary(ids, labels, vertices);
+    }
+
+    static VertexDictionary of(List<Vertex> vs) {
+        int n = vs.size();
+        String[] ids = new String[n];
+        String[] labels = new String[n];
+        Vertex[] vertices = vs.toArray(new Vertex[0]);
+        for (int i = 0; i < n; i++) {
+            ids[i] = vertices[i].getId();
+            labels[i] = vertices[i].getLabel();
+        }
+        return new ArrayDictionary(ids, labels, vertices);
+    }
+
+    public abstract int size();
+
+    /** @return l'indice du sommet, ou -1 s'il n'existe pas */
+    public abstract int indexOf(String id);
+
+    public abstract String id(int v);
+
+    public abstract String label(int v);
+
+    public Vertex vertex(int v) {
+        return new Vertex(id(v), label(v));
+    }
+
+    private static final class ArrayDictionary extends VertexDictionary {
+        private final String[] ids;
+        private final String[] labels;
+        private final Map<String, Integer> index;
+        private final Vertex[] vertices; // null si le graphe n'a pas été construit depuis un Graph
+
+        ArrayDictionary(String[] ids, String[] labels, Vertex[] vertices) {
+            this.ids = ids;
+            this.labels = labels;
+            this.vertices = vertices;
+            this.index = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                index.put(ids[i], i);
+            }
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+
+        @Override
+        public int indexOf(String id) {
+            Integer i = index.get(id);
+            return i == null ? -1 : i;
+        }
+
+        @Override
+        public String id(int v) {
+            return ids[v];
+        }
+
+        @Override
+        public String label(int v) {
+            return labels[v];
+        }
+
+        @Override
+        public Vertex vertex(int v) {
+            if (vertices != null) {
+                return vertices[v];
+            }
+            return super.vertex(v);
+        }
+    }
+}
@@ -1,36 +1,398 @@
 package service;
 
+import algo.ChinesePostman;
+import algo.DepotPartition;
+import algo.DistanceMatrix;
 import algo.GraphAlgorithms;
+import algo.HeldKarp;
+import algo.PointToPoint;
+import algo.ShortestPathCache;
+import algo.ShortestPathTree;
+import algo.TimeDependentShortestPaths;
+import algo.TourAnnealing;
+import algo.TourImprover;
+import algo.VehicleRouting;
+import metrics.Metrics;
+import metrics.Operation;
+import model.CompactGraph;
+import model.Edge;
 import model.Graph;
+import model.TravelTimeProfiles;
 import model.Vertex;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class CollectionPlanner {
 
-    public static List<Vertex> itineraireEncombrants(Graph g, Vertex centre, Vertex particulier) {
-        GraphAlgorithms.PathResult fromCentre = GraphAlgorithms.dijkstra(g, centre);
-        List<Vertex> aller = fromCentre.buildPathTo(particulier);
+    /**
+     * Arbres de plus courts chemins partagés entre les planifications successives
+     * (taille max en Mo : propriété système collecte.cache.mo, 64 par défaut).
+     */
+    private static final ShortestPathCache CACHE =
+            new ShortestPathCache(Long.getLong("collecte.cache.mo", 64L) * 1024 * 1024);
+
+    /** Budget (ms) de l'amélioration locale des tournées : propriété collecte.amelioration.ms. */
+    private static final long BUDGET_AMELIORATION_MS = Long.getLong("collecte.amelioration.ms", 200L);
+
+    /**
+     * Tournée exacte (Held-Karp) jusqu'à collecte.exact.points arrêts (16 par défaut, quelques
+     * dizaines de ms) si sa table tient dans collecte.exact.mo Mo et dans le quart du tas.
+     */
+    private static final int ARRETS_EXACT = Math.min(Integer.getInteger("collecte.exact.points", 16), HeldKarp.MAX_STOPS);
+    private static final long MEMOIRE_EXACT = Math.min(Long.getLong("collecte.exact.mo", 256L) * 1024 * 1024,
+            Runtime.getRuntime().maxMemory() / 4);
+
+    /**
+     * Recuit simulé multi-départs à partir de collecte.recuit.points points (1000 par défaut) :
+     * collecte.recuit.recherches recherches (4) pendant collecte.recuit.epoques époques (20),
+     * graine collecte.recuit.graine. Ce nombre d'époques fixe la tournée (même graine, même
+     * tournée, quelle que soit la machine) ; collecte.recuit.ms (30000) n'est qu'un arrêt de
+     * sécurité.
+     */
+    private static final int POINTS_RECUIT = Integer.getInteger("collecte.recuit.points", 1000);
+    private static final int RECHERCHES_RECUIT = Integer.getInteger("collecte.recuit.recherches", 4);
+    private static final int EPOQUES_RECUIT = Integer.getInteger("collecte.recuit.epoques", 20);
+    private static final long BUDGET_RECUIT_MS = Long.getLong("collecte.recuit.ms", 30000L);
+    private static final long GRAINE_RECUIT = Long.getLong("collecte.recuit.graine", 1L);
+
+    public static ShortestPathCache cache() {
+        return CACHE;
+    }
 
-        GraphAlgorithms.PathResult fromParticulier = GraphAlgorithms.dijkstra(g, particulier);
-        List<Vertex> retour = fromParticulier.buildPathTo(centre);
+    /**
+     * Ferme la rue de -> vers (travaux, événement) : elle garde son indice, les itinéraires la
+     * contournent. Les arbres des dépôts et des foyers en cache sont réparés, pas recalculés.
+     *
+     * @throws IllegalArgumentException s'il n'y a pas de rue de -> vers
+     */
+    public static void fermerRue(Graph g, Vertex de, Vertex vers) {
+        g.removeEdge(rue(g, de, vers));
+    }
 
-        List<Vertex> tour = new ArrayList<>(aller);
-        if (!retour.isEmpty()) {
-            for (int i = 1; i < retour.size(); i++) {
-                tour.add(retour.get(i));
+    /**
+     * Nouveau temps de parcours de la rue de -> vers (bouchon, réouverture), mêmes effets sur le
+     * cache que {@link #fermerRue}.
+     *
+     * @throws IllegalArgumentException s'il n'y a pas de rue de -> vers, ou si le poids est négatif
+     */
+    public static void changerTempsRue(Graph g, Vertex de, Vertex vers, double poids) {
+        g.updateEdgeWeight(rue(g, de, vers), poids);
+    }
+
+    private static Edge rue(Graph g, Vertex de, Vertex vers) {
+        Edge e = g.getEdge(de.getId(), vers.getId());
+        if (e == null) {
+            throw new IllegalArgumentException("Pas de rue " + de.getId() + " -> " + vers.getId());
+        }
+        return e;
+    }
+
+    /**
+     * Aller et retour par deux requêtes point à point (A* si le territoire a des coordonnées,
+     * Dijkstra bidirectionnel sinon) : seule une petite partie du réseau est explorée. Un trajet
+     * est lu dans l'arbre de son départ quand le cache l'a déjà (dépôt d'une tournée récente) ;
+     * aucun arbre complet n'est calculé ni conservé ici.
+     */
+    public static List<Vertex> itineraireEncombrants(Graph g, Vertex centre, Vertex particulier) {
+        Metrics.Span span = Metrics.begin(Operation.ITINERAIRE_ENCOMBRANTS);
+        try {
+            CompactGraph cg = g.compact();
+            List<Vertex> aller = trajet(g, cg, centre, particulier);
+            List<Vertex> retour = trajet(g, cg, particulier, centre);
+
+            List<Vertex> tour = new ArrayList<>(aller);
+            if (!retour.isEmpty()) {
+                for (int i = 1; i < retour.size(); i++) {
+                    tour.add(retour.get(i));
+                }
             }
+            return tour;
+        } finally {
+            Metrics.end(span);
         }
-        return tour;
     }
 
+    private static List<Vertex> trajet(Graph g, CompactGraph cg, Vertex de, Vertex vers) {
+        ShortestPathTree arbre = CACHE.peek(g, indice(cg, de));
+        return arbre != null ? arbre.buildPathTo(vers) : PointToPoint.route(g, de, vers);
+    }
+
+    /**
+     * Tournée optimale (Held-Karp) pour les petites tournées, sous les seuils collecte.exact.* ;
+     * recuit simulé multi-départs pour les grandes (collecte.recuit.*) ; entre les deux, plus
+     * proche voisin et double arbre sur la matrice des distances, la plus courte des deux étant
+     * ensuite améliorée (2-opt / Or-opt) dans la limite du budget.
+     */
     public static List<Vertex> tourEncombrantsMulti(Graph g, Vertex centre, List<Vertex> particuliers) {
-        List<Vertex> toVisit = new ArrayList<>(particuliers);
-        if (!toVisit.contains(centre)) {
+        Metrics.Span span = Metrics.begin(Operation.TOURNEE);
+        try {
+            List<Vertex> toVisit = new ArrayList<>();
             toVisit.add(centre);
+            for (Vertex p : particuliers) {
+                if (!p.equals(centre)) {
+                    toVisit.add(p);
+                }
+            }
+            CACHE.get(g, centre); // arbre du dépôt : sa ligne de la matrice, et les tournées suivantes
+            DistanceMatrix m = DistanceMatrix.of(g, toVisit, CACHE);
+            int[] rows = exacte(m) ? HeldKarp.solve(m, 0) : null;
+            if (rows == null && m.size() >= POINTS_RECUIT) {
+                rows = TourAnnealing.optimize(m, 0, RECHERCHES_RECUIT, GRAINE_RECUIT, BUDGET_RECUIT_MS,
+                        EPOQUES_RECUIT, ForkJoinPool.commonPool()).tour;
+            } else if (rows == null) { // trop d'arrêts, ou un arrêt inaccessible : heuristiques
+                rows = GraphAlgorithms.tspNearestNeighbor(m, 0);
+                int[] arbre = GraphAlgorithms.tspDoubleTree(m, 0);
+                if (arbre.length == rows.length && m.tourLength(arbre) < m.tourLength(rows)) {
+                    rows = arbre;
+                }
+                rows = TourImprover.improve(m, rows, BUDGET_AMELIORATION_MS, 0).tour;
+            }
+            List<Vertex> tour = new ArrayList<>();
+            for (int row : rows) {
+                tour.add(m.graph().vertex(m.point(row)));
+            }
+            return tour;
+        } finally {
+            Metrics.end(span);
         }
-        return GraphAlgorithms.tspNearestNeighbor(g, centre, toVisit);
+    }
+
+    private static boolean exacte(DistanceMatrix m) {
+        int arrets = HeldKarp.stopCount(m, 0);
+        return arrets <= ARRETS_EXACT && HeldKarp.tableBytes(arrets) <= MEMOIRE_EXACT;
+    }
+
+    /**
+     * Tournée d'un camion qui quitte le dépôt à l'heure debutService (minutes depuis minuit)
+     * sur un territoire à temps de parcours horaires (sections PROFILS du fichier) :
+     * plus proche voisin en heure d'arrivée (Dijkstra dépendant du temps), comparé à la tournée
+     * optimisée sur les poids nominaux ; la tournée qui rentre le plus tôt est gardée.
+     *
+     * @return dépôt, points dans l'ordre de passage, dépôt
+     */
+    public static List<Vertex> tourneeDepuis(Graph g, Vertex depot, List<Vertex> points, double debutService) {
+        Metrics.Span span = Metrics.begin(Operation.TOURNEE_HORAIRE);
+        try {
+            CompactGraph cg = g.compact();
+            TravelTimeProfiles tt = g.travelTimes();
+            TimeDependentShortestPaths.Workspace ws = TimeDependentShortestPaths.workspace(cg, tt);
+            int d = indice(cg, depot);
+            boolean[] restants = new boolean[cg.vertexCount()];
+            int reste = 0;
+            for (Vertex p : points) {
+                int i = indice(cg, p);
+                if (i != d && !restants[i]) {
+                    restants[i] = true;
+                    reste++;
+                }
+            }
+            List<Vertex> tour = new ArrayList<>();
+            tour.add(depot);
+            int courant = d;
+            double heure = debutService;
+            while (reste > 0) {
+                int suivant = ws.nearestMarked(courant, heure, restants);
+                if (suivant < 0) {
+                    throw new IllegalArgumentException("Points inaccessibles depuis " + cg.vertex(courant));
+                }
+                heure = ws.arrival(suivant);
+                restants[suivant] = false;
+                reste--;
+                tour.add(cg.vertex(suivant));
+                courant = suivant;
+            }
+            tour.add(depot);
+
+            List<Vertex> nominale = tourEncombrantsMulti(g, depot, points);
+            double[] h1 = horaires(g, tour, debutService);
+            double[] h2 = horaires(g, nominale, debutService);
+            return h2[h2.length - 1] < h1[h1.length - 1] ? nominale : tour;
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /**
+     * Heure d'arrivée à chaque étape d'une tournée partie à debutService (minutes depuis minuit) ;
+     * la dernière case est l'heure de fin (infini si une étape est inaccessible).
+     */
+    public static double[] horaires(Graph g, List<Vertex> tour, double debutService) {
+        CompactGraph cg = g.compact();
+        TimeDependentShortestPaths.Workspace ws = TimeDependentShortestPaths.workspace(cg, g.travelTimes());
+        double[] res = new double[tour.size()];
+        if (res.length == 0) return res;
+        res[0] = debutService;
+        int prev = indice(cg, tour.get(0));
+        for (int i = 1; i < res.length; i++) {
+            int next = indice(cg, tour.get(i));
+            if (res[i - 1] == Double.POSITIVE_INFINITY) {
+                res[i] = Double.POSITIVE_INFINITY;
+            } else if (next == prev) {
+                res[i] = res[i - 1];
+            } else {
+                ws.run(prev, res[i - 1], next);
+                res[i] = ws.arrival(next);
+            }
+            prev = next;
+        }
+        return res;
+    }
+
+    /**
+     * Tournées de plusieurs camions de capacité donnée (économies de Clarke et Wright puis
+     * recherche locale entre tournées) ; quantites.get(i) est la quantité à collecter en points.get(i).
+     * La matrice est calculée directement (sans passer par le cache) : elle peut compter des milliers de points.
+     */
+    public static List<List<Vertex>> tourneesMultiCamions(Graph g, Vertex depot, List<Vertex> points,
+                                                         List<Double> quantites, double capacite) {
+        if (points.size() != quantites.size()) {
+            throw new IllegalArgumentException("Une quantité par point de collecte est attendue");
+        }
+        Metrics.Span span = Metrics.begin(Operation.MULTI_CAMIONS);
+        try {
+            CompactGraph cg = g.compact();
+            Map<Integer, Integer> lignes = new HashMap<>();
+            List<Integer> sommets = new ArrayList<>();
+            List<Double> demandes = new ArrayList<>();
+            lignes.put(indice(cg, depot), 0);
+            sommets.add(indice(cg, depot));
+            demandes.add(0.0);
+            for (int i = 0; i < points.size(); i++) {
+                int v = indice(cg, points.get(i));
+                Integer j = lignes.putIfAbsent(v, sommets.size());
+                if (j == null) {
+                    sommets.add(v);
+                    demandes.add(quantites.get(i));
+                } else if (j > 0) {
+                    demandes.set(j, demandes.get(j) + quantites.get(i)); // point cité deux fois
+                }
+            }
+            int[] idx = sommets.stream().mapToInt(Integer::intValue).toArray();
+            double[] q = demandes.stream().mapToDouble(Double::doubleValue).toArray();
+            DistanceMatrix m = DistanceMatrix.compute(cg, idx);
+            VehicleRouting.Result r = VehicleRouting.solve(m, 0, q, capacite, BUDGET_AMELIORATION_MS);
+            List<List<Vertex>> tournees = new ArrayList<>();
+            for (int[] rows : r.routes) {
+                List<Vertex> tour = new ArrayList<>();
+                for (int row : rows) {
+                    tour.add(cg.vertex(m.point(row)));
+                }
+                tournees.add(tour);
+            }
+            return tournees;
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /**
+     * Plusieurs dépôts : chaque point est confié au dépôt le plus proche (partage du réseau par
+     * un seul Dijkstra multi-sources, voir {@link DepotPartition}), puis les tournées des dépôts
+     * sont calculées en parallèle, chacune comme {@link #tourEncombrantsMulti}.
+     *
+     * @return la tournée de chaque dépôt, dans l'ordre de la liste (dépôt seul s'il n'a aucun point)
+     */
+    public static Map<Vertex, List<Vertex>> tourneesParDepot(Graph g, List<Vertex> depots, List<Vertex> points) {
+        Metrics.Span span = Metrics.begin(Operation.TOURNEES_PAR_DEPOT);
+        try {
+            CompactGraph cg = g.compact();
+            DepotPartition p = DepotPartition.compute(cg, indices(cg, depots));
+            List<List<Vertex>> parDepot = new ArrayList<>();
+            for (int r = 0; r < depots.size(); r++) {
+                parDepot.add(new ArrayList<>());
+            }
+            for (Vertex v : points) {
+                int r = p.owner(indice(cg, v));
+                if (r < 0) {
+                    throw new IllegalArgumentException("Point inaccessible depuis les dépôts : " + v);
+                }
+                parDepot.get(r).add(v);
+            }
+            List<List<Vertex>> tours = IntStream.range(0, depots.size()).parallel()
+                    .mapToObj(r -> parDepot.get(r).isEmpty()
+                            ? List.of(depots.get(r))
+                            : tourEncombrantsMulti(g, depots.get(r), parDepot.get(r)))
+                    .collect(Collectors.toList());
+            return parDepot(depots, tours);
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /**
+     * Toutes les rues, plusieurs dépôts : le réseau est partagé entre les dépôts, puis chaque
+     * dépôt parcourt toutes les rues de sa part (postier chinois, en parallèle). Les rues entre
+     * deux parts ne sont pas couvertes. Non orienté : tournée dans le sous-réseau de la part.
+     * Orienté : une part n'est en général pas fortement connexe (on y entre depuis le dépôt sans
+     * toujours pouvoir en ressortir par ses rues) ; ses rues sont parcourues par le postier orienté
+     * dont les trajets à vide empruntent tout le réseau.
+     *
+     * @return le circuit de chaque dépôt, commençant et finissant au dépôt
+     * @throws IllegalArgumentException si, en orienté, une rue d'une part n'a pas de chemin de retour
+     */
+    public static Map<Vertex, List<Vertex>> tourneesToutesRuesParDepot(Graph g, List<Vertex> depots) {
+        Metrics.Span span = Metrics.begin(Operation.TOUTES_RUES);
+        try {
+            CompactGraph cg = g.compact();
+            DepotPartition p = DepotPartition.compute(cg, indices(cg, depots));
+            CompactGraph[] parts = cg.isDirected() ? null : p.subgraphs();
+            List<List<Vertex>> tours = IntStream.range(0, depots.size()).parallel().mapToObj(r -> {
+                if (parts == null) {
+                    int[] arcs = arcsDeLaPart(cg, p, r);
+                    if (arcs.length == 0) {
+                        return List.of(depots.get(r)); // dépôt cité deux fois, ou sans rue
+                    }
+                    int[] circuit = depuis(ChinesePostman.solveDirected(cg, arcs).circuit, p.depot(r));
+                    List<Vertex> tour = new ArrayList<>(circuit.length);
+                    for (int v : circuit) {
+                        tour.add(cg.vertex(v));
+                    }
+                    return tour;
+                }
+                CompactGraph sub = parts[r];
+                int d = sub.dictionary().indexOf(depots.get(r).getId());
+                if (d < 0 || sub.edgeCount() == 0) {
+                    return List.of(depots.get(r)); // dépôt cité deux fois, ou sans rue
+                }
+                int[] circuit = depuis(ChinesePostman.solve(sub).circuit, d);
+                List<Vertex> tour = new ArrayList<>(circuit.length);
+                for (int v : circuit) {
+                    tour.add(g.getVertex(sub.dictionary().id(v)));
+                }
+                return tour;
+            }).collect(Collectors.toList());
+            return parDepot(depots, tours);
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /** Arcs dont les deux extrémités sont dans la part du dépôt de rang r. */
+    private static int[] arcsDeLaPart(CompactGraph cg, DepotPartition p, int r) {
+        return Arrays.stream(p.cell(r))
+                .flatMap(u -> IntStream.range(cg.firstArc(u), cg.endArc(u)))
+                .filter(a -> p.owner(cg.target(a)) == r)
+                .toArray();
+    }
+
+    /** Circuit fermé (premier = dernier) tourné pour commencer et finir en d, qui y figure. */
+    private static int[] depuis(int[] circuit, int d) {
+        int start = 0;
+        while (circuit[start] != d) start++;
+        int[] res = new int[circuit.length];
+        for (int i = 0; i < circuit.length; i++) {
+            res[i] = circuit[(start + i) % (circuit.length - 1)];
+        }
+        return res;
     }
 
     public static List<Vertex> cycleEulerienOuNull(Graph g) {
@@ -41,19 +403,77 @@ public class CollectionPlanner {
         }
     }
 
+    /**
+     * Tournée "toutes les rues" : cycle eulérien si le territoire l'est, sinon postier chinois
+     * (les rues nécessaires sont parcourues deux fois, pour un surplus minimal).
+     */
+    public static ChinesePostman.Result tourneeToutesRues(Graph g) {
+        Metrics.Span span = Metrics.begin(Operation.TOUTES_RUES);
+        try {
+            return ChinesePostman.solve(g.compact());
+        } finally {
+            Metrics.end(span);
+        }
+    }
+
+    /**
+     * Longueur d'une tournée : une seule matrice de distances entre ses sommets distincts
+     * (lignes lues dans le cache quand l'arbre y est, recherches bornées en parallèle sinon)
+     * au lieu d'un Dijkstra par étape.
+     */
     public static double longueurTour(Graph g, List<Vertex> tour) {
+        if (tour == null || tour.size() < 2) return 0.0;
+        DistanceMatrix m = DistanceMatrix.of(g, new ArrayList<>(new LinkedHashSet<>(tour)), CACHE);
+        return longueurTour(m, tour);
+    }
+
+    /** Longueur d'une tournée dont tous les sommets figurent dans la matrice. */
+    public static double longueurTour(DistanceMatrix m, List<Vertex> tour) {
         if (tour == null || tour.size() < 2) return 0.0;
         double total = 0.0;
-        for (int i = 0; i < tour.size() - 1; i++) {
-            Vertex a = tour.get(i);
-            Vertex b = tour.get(i + 1);
-            GraphAlgorithms.PathResult pr = GraphAlgorithms.dijkstra(g, a);
-            Double d = pr.dist.get(b);
-            if (d == null || d == Double.POSITIVE_INFINITY) {
+        int prev = ligne(m, tour.get(0));
+        for (int i = 1; i < tour.size(); i++) {
+            int next = ligne(m, tour.get(i));
+            double d = m.get(prev, next);
+            if (d == Double.POSITIVE_INFINITY) {
                 return Double.POSITIVE_INFINITY;
             }
             total += d;
+            prev = next;
         }
         return total;
     }
+
+    /** Résultat par dépôt, dans l'ordre de la liste (un dépôt cité deux fois garde le premier). */
+    private static Map<Vertex, List<Vertex>> parDepot(List<Vertex> depots, List<List<Vertex>> tours) {
+        Map<Vertex, List<Vertex>> res = new LinkedHashMap<>();
+        for (int r = 0; r < depots.size(); r++) {
+            res.putIfAbsent(depots.get(r), tours.get(r));
+        }
+        return res;
+    }
+
+    private static int[] indices(CompactGraph cg, List<Vertex> vs) {
+        int[] res = new int[vs.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = indice(cg, vs.get(i));
+        }
+        return res;
+    }
+
+    private static int indice(CompactGraph cg, Vertex v) {
+        int i = cg.indexOf(v);
+        if (i < 0) {
+            throw new IllegalArgumentException("Sommet absent du territoire : " + v);
+        }
+        return i;
+    }
+
+    private static int ligne(DistanceMatrix m, Vertex v) {
+        int row = m.rowOf(m.graph().indexOf(v));
+        if (row < 0) {
+            throw new IllegalArgumentException("Sommet absent de la matrice : " + v);
+        }
+        return row;
+    }
 }
@@ -1,30 +1,101 @@
 package service;
 
-import algo.GraphAlgorithms;
+import algo.BreadthFirstSearch;
+import algo.ColoringEngine;
+import algo.DayScheduler;
+import model.CompactGraph;
 import model.Graph;
 import model.Vertex;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class SectorPlanner {
 
     public static Map<Vertex, Integer> planificationJoursParColoration(Graph g) {
-        return GraphAlgorithms.greedyColoring(g);
+        return planificationJoursParColoration(g, ColoringEngine.Strategy.DSATUR);
+    }
+
+    /**
+     * Jours de collecte par coloration : deux secteurs voisins n'ont jamais le même jour.
+     * DSATUR donne en général le moins de jours ; GREEDY reproduit l'ancien comportement.
+     */
+    public static Map<Vertex, Integer> planificationJoursParColoration(Graph g, ColoringEngine.Strategy strategie) {
+        return ColoringEngine.color(g, strategie);
+    }
+
+    /**
+     * Jours de collecte respectant à la fois le voisinage des secteurs et la capacité par jour,
+     * avec les quantités lues dans le fichier du territoire (section QUANTITES).
+     */
+    public static DayScheduler.Result planificationJoursAvecCapacite(Graph g, int nbJours, double capaciteParJour) {
+        CompactGraph cg = g.compact();
+        double[] q = new double[cg.vertexCount()];
+        for (int v = 0; v < q.length; v++) {
+            q[v] = cg.vertex(v).getQuantity();
+        }
+        return DayScheduler.schedule(cg, q, nbJours, capaciteParJour);
+    }
+
+    public static DayScheduler.Result planificationJoursAvecCapacite(Graph g, Map<Vertex, Double> secteursQuantites,
+                                                                    int nbJours, double capaciteParJour) {
+        CompactGraph cg = g.compact();
+        double[] q = new double[cg.vertexCount()];
+        for (int v = 0; v < q.length; v++) {
+            q[v] = secteursQuantites.getOrDefault(cg.vertex(v), 0.0);
+        }
+        return DayScheduler.schedule(cg, q, nbJours, capaciteParJour);
+    }
+
+    /**
+     * Secteurs à au plus maxSauts secteurs d'un dépôt, chacun associé au dépôt le plus proche
+     * en nombre de sauts (le premier de la liste en cas d'égalité) : un seul parcours en largeur
+     * depuis tous les dépôts à la fois. Ordre des sommets du territoire.
+     */
+    public static Map<Vertex, Vertex> secteursProchesDesDepots(Graph g, List<Vertex> depots, int maxSauts) {
+        CompactGraph cg = g.compact();
+        int[] sources = new int[depots.size()];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = cg.indexOf(depots.get(i));
+            if (sources[i] < 0) {
+                throw new IllegalArgumentException("Dépôt absent du territoire : " + depots.get(i));
+            }
+        }
+        BreadthFirstSearch.Result r = BreadthFirstSearch.fromSources(cg, sources);
+        Map<Vertex, Vertex> res = new LinkedHashMap<>();
+        for (int v = 0; v < r.level.length; v++) {
+            if (r.level[v] >= 0 && r.level[v] <= maxSauts) {
+                res.put(cg.vertex(v), depots.get(r.origin == null ? 0 : r.origin[v]));
+            }
+        }
+        return res;
+    }
+
+    /** Jour de chaque secteur, dans l'ordre des sommets du territoire. */
+    public static Map<Vertex, Integer> joursParSecteur(Graph g, DayScheduler.Result r) {
+        CompactGraph cg = g.compact();
+        Map<Vertex, Integer> jours = new LinkedHashMap<>();
+        for (int v = 0; v < r.day.length; v++) {
+            jours.put(cg.vertex(v), r.day[v]);
+        }
+        return jours;
     }
 
     public static boolean verifieCapaciteParJour(Map<Vertex, Integer> jours,
                                                  Map<Vertex, Double> secteursQuantites,
                                                  double capaciteParJour) {
-        Map<Integer, Double> quantiteParJour = new HashMap<>();
+        double[] quantiteParJour = new double[8];
         for (Map.Entry<Vertex, Integer> e : jours.entrySet()) {
-            Vertex s = e.getKey();
             int jour = e.getValue();
-            double q = secteursQuantites.getOrDefault(s, 0.0);
-            quantiteParJour.put(jour, quantiteParJour.getOrDefault(jour, 0.0) + q);
+            if (jour >= quantiteParJour.length) {
+                quantiteParJour = Arrays.copyOf(quantiteParJour, Math.max(jour + 1, quantiteParJour.length * 2));
+            }
+            quantiteParJour[jour] += secteursQuantites.getOrDefault(e.getKey(), 0.0);
         }
-        for (Map.Entry<Integer, Double> e : quantiteParJour.entrySet()) {
-            if (e.getValue() > capaciteParJour) {
+        for (double q : quantiteParJour) {
+            if (q > capaciteParJour) {
                 return false;
             }
         }